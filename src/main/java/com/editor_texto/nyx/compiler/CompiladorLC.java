@@ -1,11 +1,13 @@
 package com.editor_texto.nyx.compiler;
 
-import com.editor_texto.nyx.compiler.geracao.Otimizador;
+import com.editor_texto.nyx.compiler.otimizacao.NivelOtimizacao;
+import com.editor_texto.nyx.compiler.otimizacao.Otimizacao;
+import com.editor_texto.nyx.compiler.otimizacao.RelatorioOtimizacao;
 import com.editor_texto.nyx.domain.pipeline.*;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Fachada (Facade) que encapsula todo o processo de compilação da linguagem LC.
@@ -14,6 +16,42 @@ import java.nio.file.Path;
  */
 public class CompiladorLC {
 
+    // Configuração de otimização; null = padrão do ContextoCompilacao.
+    private NivelOtimizacao nivelOtimizacao;
+    private final Map<Otimizacao, Boolean> ajustesOtimizacao = new EnumMap<>(Otimizacao.class);
+    private RelatorioOtimizacao ultimoRelatorio;
+
+    public void setNivelOtimizacao(NivelOtimizacao nivelOtimizacao) {
+        this.nivelOtimizacao = nivelOtimizacao;
+    }
+
+    // Liga ou desliga um passo individual, independente do nível.
+    public void setOtimizacaoAtiva(Otimizacao otimizacao, boolean ativa) {
+        this.ajustesOtimizacao.put(otimizacao, ativa);
+    }
+
+    /**
+     * Aplica argumentos no estilo de linha de comando: "-O0", "-O1", "-O2",
+     * "-Os", "-f&lt;passo&gt;" e "-fno-&lt;passo&gt;" (ex: -fno-unroll). Argumentos
+     * que não são de otimização são ignorados.
+     */
+    public void configurarOtimizacao(String... argumentos) {
+        for (String argumento : argumentos) {
+            if (argumento.startsWith("-O")) {
+                setNivelOtimizacao(NivelOtimizacao.converter(argumento));
+            } else if (argumento.startsWith("-fno-")) {
+                setOtimizacaoAtiva(Otimizacao.converter(argumento.substring(5)), false);
+            } else if (argumento.startsWith("-f")) {
+                setOtimizacaoAtiva(Otimizacao.converter(argumento.substring(2)), true);
+            }
+        }
+    }
+
+    // Relatório de otimização da última compilação bem-sucedida.
+    public RelatorioOtimizacao getUltimoRelatorio() {
+        return ultimoRelatorio;
+    }
+
     /**
      * Compila o código fonte fornecido e gera o código Assembly.
      *
@@ -35,6 +73,12 @@ public class CompiladorLC {
 
         // Contexto do Pipeline
         ContextoCompilacao contexto = new ContextoCompilacao(codigoFonte, dirSaida.toPath());
+        if (this.nivelOtimizacao != null) {
+            contexto.setNivelOtimizacao(this.nivelOtimizacao);
+        }
+        this.ajustesOtimizacao.forEach(contexto::setOtimizacaoAtiva);
+        // getUltimoRelatorio() expõe o relatório, então ele é sempre montado aqui.
+        contexto.setRelatorioOtimizacaoAtivo(true);
 
         try {
             // 1. Pipeline de Compilação
@@ -54,19 +98,7 @@ public class CompiladorLC {
                 }
             }
 
-            // 2. Otimização (Pós-processamento)
-            Path assemblyGerado = contexto.getArquivoAssemblyGerado();
-            if (assemblyGerado != null) {
-                try {
-                    String caminhoAssembly = assemblyGerado.toAbsolutePath().toString();
-                    Otimizador.otimizarArquivo(caminhoAssembly);
-                    // Otimizador gera um *_otimizado.asm
-                    // Podemos atualizar o path se desejado, mas o original ainda é válido.
-                } catch (IOException e) {
-                    contexto.adicionarAviso("Falha na otimização: " + e.getMessage());
-                }
-            }
-
+            this.ultimoRelatorio = contexto.getRelatorioOtimizacao();
             return construirResultado(contexto, true);
 
         } catch (Exception e) {
@@ -82,6 +114,7 @@ public class CompiladorLC {
                 sucesso && contexto.getErros().isEmpty(),
                 contexto.getErros(),
                 contexto.getAvisos(),
-                contexto.getArquivoAssemblyGerado());
+                contexto.getArquivoAssemblyGerado(),
+                contexto.getRelatorioCusto());
     }
 }
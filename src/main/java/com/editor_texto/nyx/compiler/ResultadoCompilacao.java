@@ -1,5 +1,7 @@
 package com.editor_texto.nyx.compiler;
 
+import com.editor_texto.nyx.compiler.peephole.RelatorioCusto;
+
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -10,13 +12,20 @@ public class ResultadoCompilacao {
     private final List<ErroCompilacao> erros;
     private final List<String> avisos;
     private final Path arquivoAssemblyGerado;
+    private final RelatorioCusto relatorioCusto;
 
     public ResultadoCompilacao(boolean sucesso, List<ErroCompilacao> erros, List<String> avisos,
             Path arquivoAssemblyGerado) {
+        this(sucesso, erros, avisos, arquivoAssemblyGerado, null);
+    }
+
+    public ResultadoCompilacao(boolean sucesso, List<ErroCompilacao> erros, List<String> avisos,
+            Path arquivoAssemblyGerado, RelatorioCusto relatorioCusto) {
         this.sucesso = sucesso;
         this.erros = erros != null ? new ArrayList<>(erros) : Collections.emptyList();
         this.avisos = avisos != null ? new ArrayList<>(avisos) : Collections.emptyList();
         this.arquivoAssemblyGerado = arquivoAssemblyGerado;
+        this.relatorioCusto = relatorioCusto;
     }
 
     public boolean isSucesso() {
@@ -34,4 +43,9 @@ public class ResultadoCompilacao {
     public Path getArquivoAssemblyGerado() {
         return arquivoAssemblyGerado;
     }
+
+    // Custo estimado por linha LC; null quando o alvo não é o MASM.
+    public RelatorioCusto getRelatorioCusto() {
+        return relatorioCusto;
+    }
 }
@@ -0,0 +1,356 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import com.editor_texto.nyx.compiler.erros.ExcecaoCompilador;
+import com.editor_texto.nyx.compiler.erros.GerenciadorErros;
+import com.editor_texto.nyx.compiler.modelo.Token;
+import com.editor_texto.nyx.compiler.semantico.TabelaSimbolos;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Constrói a árvore sintática (NoPrograma) a partir da tabela de símbolos já
+ * validada pelas análises sintática e semântica.
+ * Segue a mesma abordagem descendente recursiva do AnalisadorSintatico, mas
+ * respeitando a precedência dos operadores:
+ * or < and < not < relacionais < (+, -) < (*, /).
+ * Constantes 'final' são propagadas como literais nos pontos de uso.
+ */
+public class ConstrutorArvore {
+
+    private final TabelaSimbolos tabelaSimbolos;
+    private Token tokenAtual;
+    private int indiceTokenAtual = 0;
+
+    // Valores das constantes 'final', substituídos diretamente nas expressões.
+    private final Map<String, NoLiteral> constantes = new HashMap<>();
+
+    public ConstrutorArvore(TabelaSimbolos tabelaSimbolos) {
+        this.tabelaSimbolos = tabelaSimbolos;
+        this.tokenAtual = tabelaSimbolos.getTamanho() > 0 ? tabelaSimbolos.tokenAtual(0) : null;
+    }
+
+    // Avança para o próximo token (null ao final da tabela).
+    private void proximoToken() {
+        this.indiceTokenAtual++;
+        if (this.indiceTokenAtual < this.tabelaSimbolos.getTamanho()) {
+            this.tokenAtual = this.tabelaSimbolos.tokenAtual(this.indiceTokenAtual);
+        } else {
+            this.tokenAtual = null;
+        }
+    }
+
+    private boolean isNome(String nome) {
+        return this.tokenAtual != null && this.tokenAtual.getNome().equalsIgnoreCase(nome);
+    }
+
+    private void consumir(String esperado) throws ExcecaoCompilador {
+        if (this.tokenAtual == null) {
+            throw new ExcecaoCompilador("Fim inesperado do programa, esperado '" + esperado + "'");
+        }
+        if (!isNome(esperado)) {
+            GerenciadorErros.erroSintatico(esperado, this.tokenAtual);
+        }
+        proximoToken();
+    }
+
+    private int linhaAtual() {
+        return this.tokenAtual != null ? this.tokenAtual.getLinha() : 0;
+    }
+
+    /**
+     * Ponto de entrada: Programa -> Declarações 'begin' Comandos 'end'.
+     */
+    public NoPrograma construir() throws ExcecaoCompilador {
+        NoPrograma programa = new NoPrograma();
+        while (this.tokenAtual != null && (this.tokenAtual.isTipoPrimitivo() || isNome("final"))) {
+            construirDeclaracao(programa);
+        }
+        consumir("begin");
+        construirComandos(programa.getComandos());
+        if (this.tokenAtual != null) {
+            consumir("end");
+        }
+        return programa;
+    }
+
+    // Declaração -> tipo ID ['=' valor] {',' ID ['=' valor]} ';' | 'final' ID '=' valor ';'
+    private void construirDeclaracao(NoPrograma programa) throws ExcecaoCompilador {
+        if (isNome("final")) {
+            int linha = linhaAtual();
+            proximoToken(); // Consome 'final'.
+            String nome = this.tokenAtual.getNome();
+            proximoToken(); // Consome o nome.
+            consumir("=");
+            NoLiteral valor = construirValorDeclaracao();
+            proximoToken(); // Consome o valor.
+            consumir(";");
+            if (valor != null) {
+                this.constantes.put(nome, valor);
+                programa.getDeclaracoes().add(new NoDeclaracao(nome, valor.getTipo(), true, valor, linha));
+            }
+            return;
+        }
+
+        String tipo = this.tokenAtual.getNome().toLowerCase();
+        proximoToken(); // Consome o tipo.
+        while (this.tokenAtual != null && !isNome(";")) {
+            Token tokenNome = this.tokenAtual;
+            proximoToken(); // Consome o nome da variável.
+            NoLiteral valorInicial = null;
+            if (isNome("=")) {
+                proximoToken(); // Consome '='.
+                valorInicial = construirValorDeclaracao();
+                if (valorInicial == null) {
+                    // Inicialização a partir de outra variável: vira uma atribuição no início do
+                    // bloco principal, já que o .data só aceita valores constantes.
+                    NoExpressao origem = new NoVariavel(this.tokenAtual.getNome(), this.tokenAtual.getTipo(),
+                            this.tokenAtual.getLinha());
+                    programa.getComandos()
+                            .add(new NoAtribuicao(tokenNome.getNome(), tipo, origem, tokenNome.getLinha()));
+                }
+                proximoToken(); // Consome o valor.
+            }
+            programa.getDeclaracoes()
+                    .add(new NoDeclaracao(tokenNome.getNome(), tipo, false, valorInicial, tokenNome.getLinha()));
+            if (isNome(",")) {
+                proximoToken();
+            }
+        }
+        consumir(";");
+    }
+
+    // Valor constante de uma declaração; null quando o valor é outra variável.
+    private NoLiteral construirValorDeclaracao() {
+        if (this.tokenAtual.getClassificacao().equalsIgnoreCase("ID")) {
+            NoLiteral constante = this.constantes.get(this.tokenAtual.getNome());
+            return constante != null ? copiarLiteral(constante, this.tokenAtual.getLinha()) : null;
+        }
+        return criarLiteral(this.tokenAtual);
+    }
+
+    private NoLiteral criarLiteral(Token token) {
+        String valor = token.getNome();
+        String tipo = token.getTipo();
+        if (valor.equalsIgnoreCase("true") || valor.equalsIgnoreCase("false")) {
+            tipo = "boolean";
+        } else if (valor.startsWith("\"")) {
+            tipo = "string";
+            valor = valor.length() >= 2 && valor.endsWith("\"") ? valor.substring(1, valor.length() - 1) : "";
+        } else if (tipo == null) {
+            tipo = valor.toLowerCase().startsWith("0h") ? "byte" : "int";
+        }
+        return new NoLiteral(valor, tipo, token.getLinha());
+    }
+
+    private NoLiteral copiarLiteral(NoLiteral literal, int linha) {
+        return new NoLiteral(literal.getValor(), literal.getTipo(), linha);
+    }
+
+    // Comandos -> Comando Comandos | ε (até o 'end' do bloco).
+    private void construirComandos(List<NoComando> destino) throws ExcecaoCompilador {
+        while (this.tokenAtual != null && !isNome("end")) {
+            construirComando(destino);
+        }
+    }
+
+    // Bloco -> 'begin' Comandos 'end'
+    private List<NoComando> construirBloco() throws ExcecaoCompilador {
+        List<NoComando> comandos = new ArrayList<>();
+        consumir("begin");
+        construirComandos(comandos);
+        consumir("end");
+        return comandos;
+    }
+
+    private void construirComando(List<NoComando> destino) throws ExcecaoCompilador {
+        switch (this.tokenAtual.getNome().toLowerCase()) {
+            case "write":
+            case "writeln":
+                destino.add(construirEscrita());
+                break;
+            case "readln":
+                destino.add(construirLeitura());
+                break;
+            case "while":
+                destino.add(construirEnquanto());
+                break;
+            case "if":
+                destino.add(construirSe());
+                break;
+            case "begin":
+                // Blocos aninhados não criam escopo: os comandos são achatados.
+                destino.addAll(construirBloco());
+                break;
+            case "else":
+                // 'else' solto (sem 'if' imediatamente antes) é aceito pelo parser; seu bloco
+                // é executado incondicionalmente.
+                proximoToken();
+                destino.addAll(construirBloco());
+                break;
+            case ";":
+                proximoToken(); // Comando nulo.
+                break;
+            default:
+                if (this.tokenAtual.getClassificacao().equalsIgnoreCase("ID")) {
+                    destino.add(construirAtribuicao());
+                } else {
+                    GerenciadorErros.erroSintatico("um comando válido", this.tokenAtual);
+                }
+        }
+    }
+
+    private NoEscrita construirEscrita() throws ExcecaoCompilador {
+        int linha = linhaAtual();
+        boolean quebraLinha = isNome("writeln");
+        proximoToken(); // Consome 'write' ou 'writeln'.
+        List<NoExpressao> itens = new ArrayList<>();
+        while (isNome(",")) {
+            proximoToken(); // Consome ','.
+            itens.add(construirFator());
+        }
+        consumir(";");
+        return new NoEscrita(quebraLinha, itens, linha);
+    }
+
+    private NoLeitura construirLeitura() throws ExcecaoCompilador {
+        int linha = linhaAtual();
+        proximoToken(); // Consome 'readln'.
+        consumir(",");
+        String nome = this.tokenAtual.getNome();
+        String tipo = this.tokenAtual.getTipo();
+        proximoToken(); // Consome a variável.
+        consumir(";");
+        return new NoLeitura(nome, tipo, linha);
+    }
+
+    private NoAtribuicao construirAtribuicao() throws ExcecaoCompilador {
+        Token alvo = this.tokenAtual;
+        proximoToken(); // Consome o nome da variável.
+        consumir("=");
+        NoExpressao valor = construirExpressao();
+        consumir(";");
+        String tipo = alvo.getTipo() != null ? alvo.getTipo() : "int";
+        return new NoAtribuicao(alvo.getNome(), tipo, valor, alvo.getLinha());
+    }
+
+    private NoSe construirSe() throws ExcecaoCompilador {
+        int linha = linhaAtual();
+        proximoToken(); // Consome 'if'.
+        NoExpressao condicao = construirExpressao();
+        List<NoComando> entao = construirBloco();
+        List<NoComando> senao = new ArrayList<>();
+        if (isNome("else")) {
+            proximoToken(); // Consome 'else'.
+            senao = construirBloco();
+        }
+        return new NoSe(condicao, entao, senao, linha);
+    }
+
+    private NoEnquanto construirEnquanto() throws ExcecaoCompilador {
+        int linha = linhaAtual();
+        proximoToken(); // Consome 'while'.
+        NoExpressao condicao = construirExpressao();
+        List<NoComando> corpo = construirBloco();
+        return new NoEnquanto(condicao, corpo, linha);
+    }
+
+    // Expressão -> E { 'or' E }
+    private NoExpressao construirExpressao() throws ExcecaoCompilador {
+        NoExpressao esquerda = construirE();
+        while (isNome("or")) {
+            int linha = linhaAtual();
+            proximoToken();
+            esquerda = new NoBinario("or", esquerda, construirE(), linha);
+        }
+        return esquerda;
+    }
+
+    // E -> Nao { 'and' Nao }
+    private NoExpressao construirE() throws ExcecaoCompilador {
+        NoExpressao esquerda = construirNao();
+        while (isNome("and")) {
+            int linha = linhaAtual();
+            proximoToken();
+            esquerda = new NoBinario("and", esquerda, construirNao(), linha);
+        }
+        return esquerda;
+    }
+
+    // Nao -> 'not' Nao | Relacional
+    private NoExpressao construirNao() throws ExcecaoCompilador {
+        if (isNome("not")) {
+            int linha = linhaAtual();
+            proximoToken();
+            return new NoUnario("not", construirNao(), linha);
+        }
+        return construirRelacional();
+    }
+
+    // Relacional -> Aritmetica [ Op_Relacional Aritmetica ]
+    private NoExpressao construirRelacional() throws ExcecaoCompilador {
+        NoExpressao esquerda = construirAritmetica();
+        if (this.tokenAtual != null && NoBinario.isOperadorRelacional(this.tokenAtual.getNome())) {
+            String operador = this.tokenAtual.getNome();
+            int linha = linhaAtual();
+            proximoToken();
+            return new NoBinario(operador, esquerda, construirAritmetica(), linha);
+        }
+        return esquerda;
+    }
+
+    // Aritmetica -> Termo { ('+' | '-') Termo }
+    private NoExpressao construirAritmetica() throws ExcecaoCompilador {
+        NoExpressao esquerda = construirTermo();
+        while (isNome("+") || isNome("-")) {
+            String operador = this.tokenAtual.getNome();
+            int linha = linhaAtual();
+            proximoToken();
+            esquerda = new NoBinario(operador, esquerda, construirTermo(), linha);
+        }
+        return esquerda;
+    }
+
+    // Termo -> Fator { ('*' | '/') Fator }
+    private NoExpressao construirTermo() throws ExcecaoCompilador {
+        NoExpressao esquerda = construirFator();
+        while (isNome("*") || isNome("/")) {
+            String operador = this.tokenAtual.getNome();
+            int linha = linhaAtual();
+            proximoToken();
+            esquerda = new NoBinario(operador, esquerda, construirFator(), linha);
+        }
+        return esquerda;
+    }
+
+    // Fator -> ID | CONSTANTE | '(' Expressão ')'
+    private NoExpressao construirFator() throws ExcecaoCompilador {
+        if (this.tokenAtual == null) {
+            throw new ExcecaoCompilador("Fim inesperado do programa dentro de uma expressão");
+        }
+        Token token = this.tokenAtual;
+        if (isNome("(")) {
+            proximoToken();
+            NoExpressao interna = construirExpressao();
+            consumir(")");
+            return interna;
+        }
+        proximoToken();
+        if (token.getClassificacao().equalsIgnoreCase("ID")) {
+            NoLiteral constante = this.constantes.get(token.getNome());
+            if (constante != null) {
+                return copiarLiteral(constante, token.getLinha());
+            }
+            String tipo = token.getTipo() != null ? token.getTipo() : "int";
+            return new NoVariavel(token.getNome(), tipo, token.getLinha());
+        }
+        if (token.getClassificacao().equalsIgnoreCase("CONST") || token.getNome().equalsIgnoreCase("true")
+                || token.getNome().equalsIgnoreCase("false")) {
+            return criarLiteral(token);
+        }
+        GerenciadorErros.erroSintatico("CONST, ID ou EXPRESSÃO entre parênteses", token);
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+/**
+ * Nó base da árvore sintática do programa LC.
+ * Guarda a linha do código fonte que originou o nó, usada para mensagens e
+ * para mapear o código gerado de volta ao editor.
+ */
+public abstract class No {
+
+    private final int linha;
+
+    protected No(int linha) {
+        this.linha = linha;
+    }
+
+    public int getLinha() {
+        return linha;
+    }
+}
@@ -0,0 +1,46 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.Set;
+
+/**
+ * Comando de atribuição: variavel = expressao;
+ */
+public class NoAtribuicao extends NoComando {
+
+    private final String variavel;
+    private final String tipo;
+    private NoExpressao valor;
+
+    public NoAtribuicao(String variavel, String tipo, NoExpressao valor, int linha) {
+        super(linha);
+        this.variavel = variavel;
+        this.tipo = tipo;
+        this.valor = valor;
+    }
+
+    public String getVariavel() {
+        return variavel;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public NoExpressao getValor() {
+        return valor;
+    }
+
+    public void setValor(NoExpressao valor) {
+        this.valor = valor;
+    }
+
+    @Override
+    public void coletarVariaveisEscritas(Set<String> variaveis) {
+        variaveis.add(variavel);
+    }
+
+    @Override
+    public NoAtribuicao copiar() {
+        return new NoAtribuicao(variavel, tipo, valor, getLinha());
+    }
+}
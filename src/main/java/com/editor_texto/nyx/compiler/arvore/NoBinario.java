@@ -0,0 +1,70 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.Set;
+
+/**
+ * Operação com dois operandos: aritmética (+, -, *, /), relacional (==, <>, <,
+ * >, <=, >=) ou lógica (and, or).
+ */
+public class NoBinario extends NoExpressao {
+
+    private final String operador;
+    private final NoExpressao esquerda;
+    private final NoExpressao direita;
+
+    public NoBinario(String operador, NoExpressao esquerda, NoExpressao direita, int linha) {
+        super(tipoResultado(operador), linha);
+        this.operador = operador;
+        this.esquerda = esquerda;
+        this.direita = direita;
+    }
+
+    public String getOperador() {
+        return operador;
+    }
+
+    public NoExpressao getEsquerda() {
+        return esquerda;
+    }
+
+    public NoExpressao getDireita() {
+        return direita;
+    }
+
+    public boolean isAritmetico() {
+        return isOperadorAritmetico(operador);
+    }
+
+    public boolean isRelacional() {
+        return isOperadorRelacional(operador);
+    }
+
+    public boolean isLogico() {
+        return operador.equalsIgnoreCase("and") || operador.equalsIgnoreCase("or");
+    }
+
+    public static boolean isOperadorAritmetico(String op) {
+        return op.equals("+") || op.equals("-") || op.equals("*") || op.equals("/");
+    }
+
+    public static boolean isOperadorRelacional(String op) {
+        return op.equals("==") || op.equals("<>") || op.equals("<") || op.equals(">") || op.equals("<=")
+                || op.equals(">=");
+    }
+
+    // Operações aritméticas resultam em 'int'; relacionais e lógicas em 'boolean'.
+    private static String tipoResultado(String operador) {
+        return isOperadorAritmetico(operador) ? "int" : "boolean";
+    }
+
+    @Override
+    public void coletarVariaveis(Set<String> variaveis) {
+        esquerda.coletarVariaveis(variaveis);
+        direita.coletarVariaveis(variaveis);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + esquerda + " " + operador + " " + direita + ")";
+    }
+}
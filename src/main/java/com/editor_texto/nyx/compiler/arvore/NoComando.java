@@ -0,0 +1,32 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Base para os comandos executáveis do bloco principal (atribuição, escrita,
+ * leitura, if e while).
+ */
+public abstract class NoComando extends No {
+
+    protected NoComando(int linha) {
+        super(linha);
+    }
+
+    // Cópia profunda do comando. As expressões são imutáveis e podem ser
+    // compartilhadas entre as cópias.
+    public abstract NoComando copiar();
+
+    // Adiciona ao conjunto o nome de toda variável alterada por este comando
+    // (atribuições e leituras, inclusive em blocos aninhados).
+    public abstract void coletarVariaveisEscritas(Set<String> variaveis);
+
+    public static List<NoComando> copiarComandos(List<NoComando> comandos) {
+        List<NoComando> copia = new ArrayList<>(comandos.size());
+        for (NoComando comando : comandos) {
+            copia.add(comando.copiar());
+        }
+        return copia;
+    }
+}
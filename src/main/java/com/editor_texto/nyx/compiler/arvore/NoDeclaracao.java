@@ -0,0 +1,37 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+/**
+ * Declaração de uma variável ou constante ('final'), com valor inicial
+ * opcional.
+ */
+public class NoDeclaracao extends No {
+
+    private final String nome;
+    private final String tipo;
+    private final boolean constante;
+    private final NoLiteral valorInicial;
+
+    public NoDeclaracao(String nome, String tipo, boolean constante, NoLiteral valorInicial, int linha) {
+        super(linha);
+        this.nome = nome;
+        this.tipo = tipo;
+        this.constante = constante;
+        this.valorInicial = valorInicial;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public boolean isConstante() {
+        return constante;
+    }
+
+    public NoLiteral getValorInicial() {
+        return valorInicial;
+    }
+}
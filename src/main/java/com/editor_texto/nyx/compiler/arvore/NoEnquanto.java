@@ -0,0 +1,55 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Laço de repetição 'while'.
+ * Um laço pós-testado (criado pela rotação de laços) executa o corpo antes de
+ * testar a condição, como um 'do ... while'.
+ */
+public class NoEnquanto extends NoComando {
+
+    private NoExpressao condicao;
+    private final List<NoComando> corpo;
+    private final boolean posTestado;
+
+    public NoEnquanto(NoExpressao condicao, List<NoComando> corpo, int linha) {
+        this(condicao, corpo, false, linha);
+    }
+
+    public NoEnquanto(NoExpressao condicao, List<NoComando> corpo, boolean posTestado, int linha) {
+        super(linha);
+        this.condicao = condicao;
+        this.corpo = corpo;
+        this.posTestado = posTestado;
+    }
+
+    public NoExpressao getCondicao() {
+        return condicao;
+    }
+
+    public void setCondicao(NoExpressao condicao) {
+        this.condicao = condicao;
+    }
+
+    public List<NoComando> getCorpo() {
+        return corpo;
+    }
+
+    public boolean isPosTestado() {
+        return posTestado;
+    }
+
+    @Override
+    public void coletarVariaveisEscritas(Set<String> variaveis) {
+        for (NoComando comando : corpo) {
+            comando.coletarVariaveisEscritas(variaveis);
+        }
+    }
+
+    @Override
+    public NoEnquanto copiar() {
+        return new NoEnquanto(condicao, copiarComandos(corpo), posTestado, getLinha());
+    }
+}
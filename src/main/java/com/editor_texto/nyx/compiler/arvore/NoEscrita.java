@@ -0,0 +1,38 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Comandos 'write' e 'writeln'. Cada item é um literal ou uma variável.
+ */
+public class NoEscrita extends NoComando {
+
+    private final boolean quebraLinha;
+    private final List<NoExpressao> itens;
+
+    public NoEscrita(boolean quebraLinha, List<NoExpressao> itens, int linha) {
+        super(linha);
+        this.quebraLinha = quebraLinha;
+        this.itens = itens;
+    }
+
+    public boolean isQuebraLinha() {
+        return quebraLinha;
+    }
+
+    public List<NoExpressao> getItens() {
+        return itens;
+    }
+
+    @Override
+    public void coletarVariaveisEscritas(Set<String> variaveis) {
+        // A escrita apenas lê variáveis.
+    }
+
+    @Override
+    public NoEscrita copiar() {
+        return new NoEscrita(quebraLinha, new ArrayList<>(itens), getLinha());
+    }
+}
@@ -0,0 +1,24 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.Set;
+
+/**
+ * Base para as expressões da linguagem. Toda expressão conhece o tipo do seu
+ * resultado (int, byte, boolean ou string).
+ */
+public abstract class NoExpressao extends No {
+
+    private final String tipo;
+
+    protected NoExpressao(String tipo, int linha) {
+        super(linha);
+        this.tipo = tipo;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    // Adiciona ao conjunto o nome de toda variável lida por esta expressão.
+    public abstract void coletarVariaveis(Set<String> variaveis);
+}
@@ -0,0 +1,36 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.Set;
+
+/**
+ * Comando 'readln', que lê um valor da entrada padrão para uma variável.
+ */
+public class NoLeitura extends NoComando {
+
+    private final String variavel;
+    private final String tipo;
+
+    public NoLeitura(String variavel, String tipo, int linha) {
+        super(linha);
+        this.variavel = variavel;
+        this.tipo = tipo;
+    }
+
+    public String getVariavel() {
+        return variavel;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    @Override
+    public void coletarVariaveisEscritas(Set<String> variaveis) {
+        variaveis.add(variavel);
+    }
+
+    @Override
+    public NoLeitura copiar() {
+        return new NoLeitura(variavel, tipo, getLinha());
+    }
+}
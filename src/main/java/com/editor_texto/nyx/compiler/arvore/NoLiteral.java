@@ -0,0 +1,31 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.Set;
+
+/**
+ * Valor constante escrito diretamente no código (número, byte hexadecimal,
+ * booleano ou string). Strings são guardadas sem as aspas.
+ */
+public class NoLiteral extends NoExpressao {
+
+    private final String valor;
+
+    public NoLiteral(String valor, String tipo, int linha) {
+        super(tipo, linha);
+        this.valor = valor;
+    }
+
+    public String getValor() {
+        return valor;
+    }
+
+    @Override
+    public void coletarVariaveis(Set<String> variaveis) {
+        // Literais não leem variáveis.
+    }
+
+    @Override
+    public String toString() {
+        return "string".equalsIgnoreCase(getTipo()) ? "\"" + valor + "\"" : valor;
+    }
+}
@@ -0,0 +1,48 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Raiz da árvore: as declarações seguidas dos comandos do bloco principal.
+ * As listas são mutáveis para que os passos de otimização possam reescrever o
+ * programa no lugar.
+ */
+public class NoPrograma extends No {
+
+    private final List<NoDeclaracao> declaracoes = new ArrayList<>();
+    private final List<NoComando> comandos = new ArrayList<>();
+    private int contadorTemporarias = 1;
+
+    public NoPrograma() {
+        super(1);
+    }
+
+    public List<NoDeclaracao> getDeclaracoes() {
+        return declaracoes;
+    }
+
+    public List<NoComando> getComandos() {
+        return comandos;
+    }
+
+    public NoDeclaracao buscarDeclaracao(String nome) {
+        for (NoDeclaracao declaracao : declaracoes) {
+            if (declaracao.getNome().equals(nome)) {
+                return declaracao;
+            }
+        }
+        return null;
+    }
+
+    // Declara uma variável auxiliar com nome único (ex: tmp_inv1), usada pelos
+    // passos de otimização para guardar valores intermediários.
+    public String criarTemporaria(String prefixo, String tipo) {
+        String nome;
+        do {
+            nome = prefixo + this.contadorTemporarias++;
+        } while (buscarDeclaracao(nome) != null);
+        declaracoes.add(new NoDeclaracao(nome, tipo, false, null, 0));
+        return nome;
+    }
+}
@@ -0,0 +1,53 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Comando condicional 'if', com bloco 'else' opcional (lista vazia quando
+ * ausente).
+ */
+public class NoSe extends NoComando {
+
+    private NoExpressao condicao;
+    private final List<NoComando> entao;
+    private final List<NoComando> senao;
+
+    public NoSe(NoExpressao condicao, List<NoComando> entao, List<NoComando> senao, int linha) {
+        super(linha);
+        this.condicao = condicao;
+        this.entao = entao;
+        this.senao = senao;
+    }
+
+    public NoExpressao getCondicao() {
+        return condicao;
+    }
+
+    public void setCondicao(NoExpressao condicao) {
+        this.condicao = condicao;
+    }
+
+    public List<NoComando> getEntao() {
+        return entao;
+    }
+
+    public List<NoComando> getSenao() {
+        return senao;
+    }
+
+    @Override
+    public void coletarVariaveisEscritas(Set<String> variaveis) {
+        for (NoComando comando : entao) {
+            comando.coletarVariaveisEscritas(variaveis);
+        }
+        for (NoComando comando : senao) {
+            comando.coletarVariaveisEscritas(variaveis);
+        }
+    }
+
+    @Override
+    public NoSe copiar() {
+        return new NoSe(condicao, copiarComandos(entao), copiarComandos(senao), getLinha());
+    }
+}
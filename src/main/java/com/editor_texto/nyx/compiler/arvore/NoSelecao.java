@@ -0,0 +1,46 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.Set;
+
+/**
+ * Escolha entre dois valores conforme uma condição (condicao ? verdadeiro :
+ * falso). Não existe na linguagem fonte: é criada pela conversão de 'if' e
+ * gerada sem saltos (cmovcc). Os dois valores são sempre avaliados.
+ */
+public class NoSelecao extends NoExpressao {
+
+    private final NoExpressao condicao;
+    private final NoExpressao verdadeiro;
+    private final NoExpressao falso;
+
+    public NoSelecao(NoExpressao condicao, NoExpressao verdadeiro, NoExpressao falso, int linha) {
+        super(verdadeiro.getTipo(), linha);
+        this.condicao = condicao;
+        this.verdadeiro = verdadeiro;
+        this.falso = falso;
+    }
+
+    public NoExpressao getCondicao() {
+        return condicao;
+    }
+
+    public NoExpressao getVerdadeiro() {
+        return verdadeiro;
+    }
+
+    public NoExpressao getFalso() {
+        return falso;
+    }
+
+    @Override
+    public void coletarVariaveis(Set<String> variaveis) {
+        condicao.coletarVariaveis(variaveis);
+        verdadeiro.coletarVariaveis(variaveis);
+        falso.coletarVariaveis(variaveis);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + condicao + " ? " + verdadeiro + " : " + falso + ")";
+    }
+}
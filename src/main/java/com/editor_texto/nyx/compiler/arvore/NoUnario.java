@@ -0,0 +1,36 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.Set;
+
+/**
+ * Operação com um único operando. Atualmente apenas a negação lógica 'not'.
+ */
+public class NoUnario extends NoExpressao {
+
+    private final String operador;
+    private final NoExpressao operando;
+
+    public NoUnario(String operador, NoExpressao operando, int linha) {
+        super("boolean", linha);
+        this.operador = operador;
+        this.operando = operando;
+    }
+
+    public String getOperador() {
+        return operador;
+    }
+
+    public NoExpressao getOperando() {
+        return operando;
+    }
+
+    @Override
+    public void coletarVariaveis(Set<String> variaveis) {
+        operando.coletarVariaveis(variaveis);
+    }
+
+    @Override
+    public String toString() {
+        return operador + " " + operando;
+    }
+}
@@ -0,0 +1,30 @@
+package com.editor_texto.nyx.compiler.arvore;
+
+import java.util.Set;
+
+/**
+ * Leitura do valor de uma variável declarada.
+ */
+public class NoVariavel extends NoExpressao {
+
+    private final String nome;
+
+    public NoVariavel(String nome, String tipo, int linha) {
+        super(tipo, linha);
+        this.nome = nome;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public void coletarVariaveis(Set<String> variaveis) {
+        variaveis.add(nome);
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
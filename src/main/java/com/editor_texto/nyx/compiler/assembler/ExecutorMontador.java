@@ -1,6 +1,9 @@
 package com.editor_texto.nyx.compiler.assembler;
 
 import java.nio.file.Path;
+import java.util.List;
+
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
 
 /**
  * Interface para execução de assemblers.
@@ -16,4 +19,16 @@ public interface ExecutorMontador {
      * @return Resultado da operação contendo sucesso/falha e logs
      */
     ResultadoMontador montar(Path arquivoAsm, Path pastaSaida);
+
+    /**
+     * Monta a partir das instruções ainda em memória, quando o montador sabe
+     * usá-las. Os montadores externos só leem o arquivo.
+     *
+     * @param codigo     Instruções do arquivo .asm (pode ser null)
+     * @param arquivoAsm Caminho do arquivo .asm já gravado com o mesmo código
+     * @param pastaSaida Diretório para os artefatos de saída
+     */
+    default ResultadoMontador montar(List<Instrucao> codigo, Path arquivoAsm, Path pastaSaida) {
+        return montar(arquivoAsm, pastaSaida);
+    }
 }
@@ -1,5 +1,7 @@
 package com.editor_texto.nyx.compiler.assembler;
 
+import com.editor_texto.nyx.compiler.assembler.interno.MontadorInterno;
+
 /**
  * Fábrica para instanciar a estratégia de assembler correta.
  * Oculta a lógica de escolha da implementação (por OS, config, etc) do
@@ -7,12 +9,44 @@ package com.editor_texto.nyx.compiler.assembler;
  */
 public class FabricaMontador {
 
+    // Montador da plataforma atual (Plataforma.atual()).
     public static ExecutorMontador criarMontador() {
-        // Por enquanto, apenas Windows/JWASM suportado
-        return new MontadorWindowsJWASM();
+        return criarMontador(Plataforma.atual());
+    }
+
+    /**
+     * Por padrão usa a ferramenta externa (JWASM/as). Com
+     * -Dnyx.montador=interno, monta no próprio processo (MontadorInterno),
+     * com a ferramenta externa como reserva para o que ele não conhece: ele
+     * evita criar um processo, mas a primeira montagem de cada execução
+     * ainda paga o carregamento das suas classes. O alvo C não tem o que
+     * montar no processo e vai sempre para o cc.
+     */
+    public static ExecutorMontador criarMontador(Plataforma plataforma) {
+        ExecutorMontador externo = criarMontadorExterno(plataforma);
+        if (plataforma == Plataforma.LINUX_C || !"interno".equalsIgnoreCase(System.getProperty("nyx.montador"))) {
+            return externo;
+        }
+        return new MontadorInterno(plataforma, externo);
+    }
+
+    public static ExecutorMontador criarMontadorExterno(Plataforma plataforma) {
+        return switch (plataforma) {
+            case WINDOWS -> new MontadorWindowsJWASM();
+            case LINUX -> new MontadorLinuxGAS();
+            case LINUX_C -> new MontadorLinuxCC();
+        };
     }
 
     public static ExecutorLinker criarLinker() {
-        return new LinkerWindows();
+        return criarLinker(Plataforma.atual());
+    }
+
+    public static ExecutorLinker criarLinker(Plataforma plataforma) {
+        return switch (plataforma) {
+            case WINDOWS -> new LinkerWindows();
+            case LINUX -> new LinkerLinuxLd();
+            case LINUX_C -> new LinkerLinuxCC();
+        };
     }
 }
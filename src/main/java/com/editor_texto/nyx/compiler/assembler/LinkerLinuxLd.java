@@ -0,0 +1,77 @@
+package com.editor_texto.nyx.compiler.assembler;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import com.editor_texto.nyx.sistema.ServicoLog;
+
+/**
+ * Implementação de Linker para Linux com o 'ld' do sistema.
+ * O programa não usa libc (o runtime faz as chamadas de sistema direto), então
+ * a ligação é estática e o ponto de entrada é o _start do código gerado.
+ */
+public class LinkerLinuxLd implements ExecutorLinker {
+
+    private final String executavel;
+
+    public LinkerLinuxLd() {
+        this("ld");
+    }
+
+    // Caminho ou nome (procurado no PATH) do executável.
+    public LinkerLinuxLd(String executavel) {
+        this.executavel = executavel;
+    }
+
+    @Override
+    public ResultadoLinker ligar(Path arquivoObj, Path pastaSaida) {
+        List<String> stdout = new ArrayList<>();
+        List<String> stderr = new ArrayList<>();
+        int exitCode = -1;
+
+        try {
+            String nomeExecutavel = arquivoObj.getFileName().toString();
+            if (nomeExecutavel.endsWith(Plataforma.LINUX.getExtensaoObjeto())) {
+                nomeExecutavel = nomeExecutavel.substring(0,
+                        nomeExecutavel.length() - Plataforma.LINUX.getExtensaoObjeto().length());
+            }
+            Path saida = pastaSaida.resolve(nomeExecutavel + Plataforma.LINUX.getExtensaoExecutavel());
+
+            List<String> cmd = new ArrayList<>();
+            cmd.add(executavel);
+            cmd.add("-static");
+            cmd.add("-e");
+            cmd.add("_start");
+            cmd.add("-o");
+            cmd.add(saida.toString());
+            cmd.add(arquivoObj.toString());
+
+            ServicoLog.info("Executando Linker: " + String.join(" ", cmd));
+
+            ProcessBuilder pb = new ProcessBuilder(cmd);
+            pb.directory(pastaSaida.toFile());
+
+            Process processo = pb.start();
+
+            BufferedReader readerOut = new BufferedReader(new InputStreamReader(processo.getInputStream()));
+            BufferedReader readerErr = new BufferedReader(new InputStreamReader(processo.getErrorStream()));
+
+            String line;
+            while ((line = readerOut.readLine()) != null)
+                stdout.add(line);
+            while ((line = readerErr.readLine()) != null)
+                stderr.add(line);
+
+            exitCode = processo.waitFor();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            stderr.add("Exceção ao executar linker: " + e.getMessage());
+            ServicoLog.erro("Exceção Linker: " + e.getMessage());
+        }
+
+        return new ResultadoLinker(exitCode == 0, stdout, stderr, exitCode);
+    }
+}
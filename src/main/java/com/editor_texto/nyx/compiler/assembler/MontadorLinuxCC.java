@@ -0,0 +1,95 @@
+package com.editor_texto.nyx.compiler.assembler;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * "Montador" do alvo C: compila o .c gerado pelo GeradorC com o compilador C
+ * do sistema ('cc', normalmente gcc ou clang) em -O2, deixando um .o para o
+ * LinkerLinuxCC. O -fwrapv dá à aritmética de int o overflow circular das
+ * instruções x86, que o C padrão deixa indefinido.
+ */
+public class MontadorLinuxCC implements ExecutorMontador {
+
+    private final String executavel;
+
+    public MontadorLinuxCC() {
+        this("cc");
+    }
+
+    // Caminho ou nome (procurado no PATH) do executável.
+    public MontadorLinuxCC(String executavel) {
+        this.executavel = executavel;
+    }
+
+    @Override
+    public ResultadoMontador montar(Path arquivoAsm, Path pastaSaida) {
+        // Validação de SO
+        if (!isLinux()) {
+            return new ResultadoMontador(false, Collections.emptyList(),
+                    List.of("ERRO: O alvo C só pode ser compilado em um sistema Linux."), -1);
+        }
+
+        List<String> stdout = new ArrayList<>();
+        List<String> stderr = new ArrayList<>();
+        int exitCode = -1;
+
+        try {
+            List<String> comando = montarComando(arquivoAsm, pastaSaida);
+
+            ProcessBuilder pb = new ProcessBuilder(comando);
+            pb.directory(pastaSaida.toFile());
+
+            Process processo = pb.start();
+
+            // Captura streams
+            BufferedReader readerOut = new BufferedReader(new InputStreamReader(processo.getInputStream()));
+            BufferedReader readerErr = new BufferedReader(new InputStreamReader(processo.getErrorStream()));
+
+            String line;
+            while ((line = readerOut.readLine()) != null) {
+                stdout.add(line);
+            }
+            while ((line = readerErr.readLine()) != null) {
+                stderr.add(line);
+            }
+
+            exitCode = processo.waitFor();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            stderr.add("Erro ao executar cc: " + e.getMessage());
+        }
+
+        return new ResultadoMontador(exitCode == 0, stdout, stderr, exitCode);
+    }
+
+    private boolean isLinux() {
+        String os = System.getProperty("os.name").toLowerCase();
+        return os.contains("linux");
+    }
+
+    private List<String> montarComando(Path arquivoC, Path pastaSaida) {
+        String nomeBase = arquivoC.getFileName().toString();
+        if (nomeBase.contains(".")) {
+            nomeBase = nomeBase.substring(0, nomeBase.lastIndexOf('.'));
+        }
+
+        Path arquivoObj = pastaSaida.resolve(nomeBase + Plataforma.LINUX_C.getExtensaoObjeto());
+
+        List<String> cmd = new ArrayList<>();
+        cmd.add(executavel);
+        cmd.add("-O2");
+        cmd.add("-fwrapv");
+        cmd.add("-c");
+        cmd.add("-o");
+        cmd.add(arquivoObj.toString());
+        cmd.add(arquivoC.toString());
+
+        return cmd;
+    }
+}
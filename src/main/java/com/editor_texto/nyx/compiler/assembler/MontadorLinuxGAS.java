@@ -0,0 +1,91 @@
+package com.editor_texto.nyx.compiler.assembler;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Implementação do assembler GNU (as) para Linux x86-64.
+ * Usa o 'as' instalado no sistema (binutils), o mesmo pacote que fornece o ld.
+ */
+public class MontadorLinuxGAS implements ExecutorMontador {
+
+    private final String executavel;
+
+    public MontadorLinuxGAS() {
+        this("as");
+    }
+
+    // Caminho ou nome (procurado no PATH) do executável.
+    public MontadorLinuxGAS(String executavel) {
+        this.executavel = executavel;
+    }
+
+    @Override
+    public ResultadoMontador montar(Path arquivoAsm, Path pastaSaida) {
+        // Validação de SO
+        if (!isLinux()) {
+            return new ResultadoMontador(false, Collections.emptyList(),
+                    List.of("ERRO: O alvo Linux só pode ser montado em um sistema Linux."), -1);
+        }
+
+        List<String> stdout = new ArrayList<>();
+        List<String> stderr = new ArrayList<>();
+        int exitCode = -1;
+
+        try {
+            List<String> comando = montarComando(arquivoAsm, pastaSaida);
+
+            ProcessBuilder pb = new ProcessBuilder(comando);
+            pb.directory(pastaSaida.toFile());
+
+            Process processo = pb.start();
+
+            // Captura streams
+            BufferedReader readerOut = new BufferedReader(new InputStreamReader(processo.getInputStream()));
+            BufferedReader readerErr = new BufferedReader(new InputStreamReader(processo.getErrorStream()));
+
+            String line;
+            while ((line = readerOut.readLine()) != null) {
+                stdout.add(line);
+            }
+            while ((line = readerErr.readLine()) != null) {
+                stderr.add(line);
+            }
+
+            exitCode = processo.waitFor();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            stderr.add("Erro ao executar as: " + e.getMessage());
+        }
+
+        return new ResultadoMontador(exitCode == 0, stdout, stderr, exitCode);
+    }
+
+    private boolean isLinux() {
+        String os = System.getProperty("os.name").toLowerCase();
+        return os.contains("linux");
+    }
+
+    private List<String> montarComando(Path arquivoAsm, Path pastaSaida) {
+        String nomeBase = arquivoAsm.getFileName().toString();
+        if (nomeBase.contains(".")) {
+            nomeBase = nomeBase.substring(0, nomeBase.lastIndexOf('.'));
+        }
+
+        Path arquivoObj = pastaSaida.resolve(nomeBase + Plataforma.LINUX.getExtensaoObjeto());
+
+        List<String> cmd = new ArrayList<>();
+        cmd.add(executavel);
+        cmd.add("--64");
+        cmd.add("-o");
+        cmd.add(arquivoObj.toString());
+        cmd.add(arquivoAsm.toString());
+
+        return cmd;
+    }
+}
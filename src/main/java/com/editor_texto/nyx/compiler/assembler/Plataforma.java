@@ -0,0 +1,68 @@
+package com.editor_texto.nyx.compiler.assembler;
+
+/**
+ * Plataforma alvo da compilação: decide o gerador de código, o montador, o
+ * linker e as extensões dos artefatos. O padrão é o sistema em que o editor
+ * roda; a propriedade nyx.plataforma (windows, linux ou linux-c) muda o
+ * padrão.
+ */
+public enum Plataforma {
+
+    // MASM de 32 bits, montado com JWASM e ligado com link.exe.
+    WINDOWS("windows", ".asm", ".obj", ".exe"),
+    // x86-64 System V em sintaxe GAS, montado com as e ligado com ld.
+    LINUX("linux", ".s", ".o", ""),
+    // C portável (GeradorC), compilado e ligado com o cc do sistema em -O2.
+    LINUX_C("linux-c", ".c", ".o", "");
+
+    private final String rotulo;
+    private final String extensaoAssembly;
+    private final String extensaoObjeto;
+    private final String extensaoExecutavel;
+
+    Plataforma(String rotulo, String extensaoAssembly, String extensaoObjeto, String extensaoExecutavel) {
+        this.rotulo = rotulo;
+        this.extensaoAssembly = extensaoAssembly;
+        this.extensaoObjeto = extensaoObjeto;
+        this.extensaoExecutavel = extensaoExecutavel;
+    }
+
+    public String getRotulo() {
+        return rotulo;
+    }
+
+    public String getExtensaoAssembly() {
+        return extensaoAssembly;
+    }
+
+    public String getExtensaoObjeto() {
+        return extensaoObjeto;
+    }
+
+    public String getExtensaoExecutavel() {
+        return extensaoExecutavel;
+    }
+
+    public static Plataforma atual() {
+        String configurada = System.getProperty("nyx.plataforma");
+        if (configurada != null && !configurada.isBlank()) {
+            return converter(configurada);
+        }
+        String os = System.getProperty("os.name", "").toLowerCase();
+        return os.contains("win") ? WINDOWS : LINUX;
+    }
+
+    public static Plataforma converter(String texto) {
+        for (Plataforma plataforma : values()) {
+            if (plataforma.rotulo.equalsIgnoreCase(texto.trim())) {
+                return plataforma;
+            }
+        }
+        throw new IllegalArgumentException("Plataforma desconhecida: " + texto);
+    }
+
+    @Override
+    public String toString() {
+        return rotulo;
+    }
+}
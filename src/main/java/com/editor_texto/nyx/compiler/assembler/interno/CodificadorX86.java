@@ -0,0 +1,514 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificação x86 (32 bits) e x86-64 do subconjunto de instruções emitido
+ * pelos geradores, pelas otimizações e pelos runtimes: movimentação,
+ * aritmética, deslocamentos, comparação, setcc/cmovcc, pilha, call/ret e
+ * syscall. Saltos para rótulos ficam com o MontadorObjeto, que escolhe entre
+ * a forma curta e a longa depois de posicionar o código.
+ *
+ * Endereços de símbolos viram Referencias, resolvidas pelo MontadorObjeto ou
+ * deixadas como relocações no arquivo objeto.
+ */
+final class CodificadorX86 {
+
+    // Índice /n das instruções aritméticas de dois operandos.
+    private static final Map<String, Integer> ARITMETICAS = Map.of("add", 0, "or", 1, "adc", 2, "sbb", 3,
+            "and", 4, "sub", 5, "xor", 6, "cmp", 7);
+    private static final Map<String, Integer> DESLOCAMENTOS = Map.of("rol", 0, "ror", 1, "shl", 4, "sal", 4,
+            "shr", 5, "sar", 7);
+    private static final Map<String, Integer> UNARIAS = Map.of("not", 2, "neg", 3, "mul", 4, "imul", 5, "div", 6,
+            "idiv", 7);
+    private static final Map<String, Integer> CONDICOES = Map.ofEntries(Map.entry("o", 0), Map.entry("no", 1),
+            Map.entry("b", 2), Map.entry("c", 2), Map.entry("nae", 2), Map.entry("ae", 3), Map.entry("nb", 3),
+            Map.entry("nc", 3), Map.entry("e", 4), Map.entry("z", 4), Map.entry("ne", 5), Map.entry("nz", 5),
+            Map.entry("be", 6), Map.entry("na", 6), Map.entry("a", 7), Map.entry("nbe", 7), Map.entry("s", 8),
+            Map.entry("ns", 9), Map.entry("p", 10), Map.entry("pe", 10), Map.entry("np", 11),
+            Map.entry("po", 11), Map.entry("l", 12), Map.entry("nge", 12), Map.entry("ge", 13),
+            Map.entry("nl", 13), Map.entry("le", 14), Map.entry("ng", 14), Map.entry("g", 15),
+            Map.entry("nle", 15));
+
+    private final boolean modo64;
+
+    CodificadorX86(boolean modo64) {
+        this.modo64 = modo64;
+    }
+
+    boolean isModo64() {
+        return modo64;
+    }
+
+    // Código de condição de jcc/setcc/cmovcc (sufixo sem a letra inicial), ou -1.
+    static int condicao(String sufixo) {
+        Integer codigo = CONDICOES.get(sufixo);
+        return codigo != null ? codigo : -1;
+    }
+
+    /**
+     * Endereço de um símbolo dentro dos bytes de uma instrução: o campo de 32
+     * bits em 'posicao' recebe simbolo + adendo, ou, se relativo, a distância
+     * até ele a partir do fim da instrução ('fim' bytes depois do campo).
+     */
+    record Referencia(int posicao, String simbolo, long adendo, boolean relativa, int fim) {
+        Referencia deslocada(int base) {
+            return new Referencia(base + posicao, simbolo, adendo, relativa, fim);
+        }
+    }
+
+    record Codificacao(byte[] bytes, List<Referencia> referencias) {
+    }
+
+    Codificacao codificar(String mnemonico, List<OperandoX86> operandos) {
+        Saida s = new Saida();
+        int n = operandos.size();
+        OperandoX86 a = n > 0 ? operandos.get(0) : null;
+        OperandoX86 b = n > 1 ? operandos.get(1) : null;
+
+        if (ARITMETICAS.containsKey(mnemonico) && n == 2) {
+            aritmetica(s, ARITMETICAS.get(mnemonico), a, b);
+        } else if (DESLOCAMENTOS.containsKey(mnemonico) && n == 2) {
+            deslocamento(s, DESLOCAMENTOS.get(mnemonico), a, b);
+        } else if (mnemonico.equals("imul") && n >= 2) {
+            multiplicacao(s, a, b, n == 3 ? operandos.get(2) : null);
+        } else if (UNARIAS.containsKey(mnemonico) && n == 1) {
+            int tamanho = tamanho(a, null);
+            modrm(s, tamanho, tamanho == 8 ? op(0xF6) : op(0xF7), UNARIAS.get(mnemonico), a, 0);
+        } else {
+            switch (mnemonico) {
+                case "mov" -> mov(s, a, b);
+                case "movzx", "movsx" -> extensao(s, mnemonico.equals("movzx"), a, b);
+                case "lea" -> {
+                    exigir(a.isRegistrador() && b.isMemoria(), mnemonico, operandos);
+                    modrm(s, a.tamanho, op(0x8D), a.registrador, b, 0);
+                }
+                case "test" -> teste(s, a, b);
+                case "inc", "dec" -> incremento(s, mnemonico.equals("inc") ? 0 : 1, a);
+                case "push" -> push(s, a);
+                case "pop" -> pop(s, a);
+                case "call" -> chamada(s, a);
+                case "jmp" -> {
+                    // Só indireto; saltos para rótulos são do MontadorObjeto.
+                    exigir(a != null && !a.direto && !a.isImediato(), mnemonico, operandos);
+                    modrm(s, 32, op(0xFF), 4, a, 0);
+                }
+                case "ret" -> {
+                    if (a == null) {
+                        s.b(0xC3);
+                    } else {
+                        s.b(0xC2);
+                        s.i16(a.valor);
+                    }
+                }
+                case "cdq" -> s.b(0x99);
+                case "cqo" -> {
+                    s.b(0x48);
+                    s.b(0x99);
+                }
+                case "nop" -> s.b(0x90);
+                case "leave" -> s.b(0xC9);
+                case "syscall" -> {
+                    s.b(0x0F);
+                    s.b(0x05);
+                }
+                case "rdtsc" -> {
+                    s.b(0x0F);
+                    s.b(0x31);
+                }
+                default -> condicional(s, mnemonico, operandos);
+            }
+        }
+        return new Codificacao(Arrays.copyOf(s.bytes, s.tamanho), s.referencias);
+    }
+
+    private void condicional(Saida s, String mnemonico, List<OperandoX86> operandos) {
+        if (mnemonico.startsWith("set") && operandos.size() == 1) {
+            int cc = condicao(mnemonico.substring(3));
+            exigir(cc >= 0 && tamanho(operandos.get(0), null) == 8, mnemonico, operandos);
+            modrm(s, 8, op(0x0F, 0x90 + cc), 0, operandos.get(0), 0);
+            return;
+        }
+        if (mnemonico.startsWith("cmov") && operandos.size() == 2) {
+            int cc = condicao(mnemonico.substring(4));
+            OperandoX86 destino = operandos.get(0);
+            exigir(cc >= 0 && destino.isRegistrador() && !operandos.get(1).isImediato(), mnemonico, operandos);
+            modrm(s, destino.tamanho, op(0x0F, 0x40 + cc), destino.registrador, operandos.get(1), 0);
+            return;
+        }
+        throw new IllegalArgumentException("Instrução não suportada: " + mnemonico);
+    }
+
+    private void aritmetica(Saida s, int n, OperandoX86 destino, OperandoX86 origem) {
+        int tamanho = tamanho(destino, origem);
+        if (origem.isImediato()) {
+            if (tamanho == 8) {
+                if (destino.isRegistrador() && destino.registrador == 0) {
+                    s.b(n * 8 + 4);
+                    s.i8(origem.valor);
+                } else {
+                    modrm(s, 8, op(0x80), n, destino, 1);
+                    s.i8(origem.valor);
+                }
+            } else if (origem.isCurto()) {
+                modrm(s, tamanho, op(0x83), n, destino, 1);
+                s.i8(origem.valor);
+            } else if (destino.isRegistrador() && destino.registrador == 0) {
+                prefixos(s, tamanho, 0, null);
+                s.b(n * 8 + 5);
+                imediato32(s, origem);
+            } else {
+                modrm(s, tamanho, op(0x81), n, destino, 4);
+                imediato32(s, origem);
+            }
+        } else if (origem.isRegistrador()) {
+            modrm(s, tamanho, op(n * 8 + (tamanho == 8 ? 0 : 1)), origem.registrador, destino, 0);
+        } else {
+            exigir(destino.isRegistrador(), "aritmética", List.of(destino, origem));
+            modrm(s, tamanho, op(n * 8 + (tamanho == 8 ? 2 : 3)), destino.registrador, origem, 0);
+        }
+    }
+
+    private void mov(Saida s, OperandoX86 destino, OperandoX86 origem) {
+        int tamanho = tamanho(destino, origem);
+        if (origem.isImediato()) {
+            if (destino.isRegistrador() && tamanho != 64) {
+                prefixos(s, tamanho, 0, destino);
+                s.b((tamanho == 8 ? 0xB0 : 0xB8) + (destino.registrador & 7));
+                if (tamanho == 8) {
+                    s.i8(origem.valor);
+                } else if (tamanho == 16) {
+                    s.i16(origem.valor);
+                } else {
+                    imediato32(s, origem);
+                }
+            } else {
+                int largura = tamanho == 8 ? 1 : tamanho == 16 ? 2 : 4;
+                modrm(s, tamanho, op(tamanho == 8 ? 0xC6 : 0xC7), 0, destino, largura);
+                if (largura == 1) {
+                    s.i8(origem.valor);
+                } else if (largura == 2) {
+                    s.i16(origem.valor);
+                } else {
+                    imediato32(s, origem);
+                }
+            }
+        } else if (origem.isRegistrador()) {
+            modrm(s, tamanho, op(tamanho == 8 ? 0x88 : 0x89), origem.registrador, destino, 0);
+        } else {
+            exigir(destino.isRegistrador(), "mov", List.of(destino, origem));
+            modrm(s, tamanho, op(tamanho == 8 ? 0x8A : 0x8B), destino.registrador, origem, 0);
+        }
+    }
+
+    private void extensao(Saida s, boolean zeros, OperandoX86 destino, OperandoX86 origem) {
+        exigir(destino.isRegistrador() && !origem.isImediato(), zeros ? "movzx" : "movsx",
+                List.of(destino, origem));
+        int tamanhoOrigem = origem.tamanho;
+        if (tamanhoOrigem != 8 && tamanhoOrigem != 16) {
+            throw new IllegalArgumentException("Tamanho da origem indefinido em movzx/movsx");
+        }
+        int codigo = (zeros ? 0xB6 : 0xBE) + (tamanhoOrigem == 16 ? 1 : 0);
+        modrm(s, destino.tamanho, op(0x0F, codigo), destino.registrador, origem, 0);
+    }
+
+    private void teste(Saida s, OperandoX86 a, OperandoX86 b) {
+        if (a.isRegistrador() && b.isMemoria()) {
+            OperandoX86 troca = a;
+            a = b;
+            b = troca;
+        }
+        int tamanho = tamanho(a, b);
+        if (b.isImediato()) {
+            if (a.isRegistrador() && a.registrador == 0) {
+                prefixos(s, tamanho, 0, null);
+                s.b(tamanho == 8 ? 0xA8 : 0xA9);
+            } else {
+                modrm(s, tamanho, op(tamanho == 8 ? 0xF6 : 0xF7), 0, a, tamanho == 8 ? 1 : 4);
+            }
+            if (tamanho == 8) {
+                s.i8(b.valor);
+            } else {
+                imediato32(s, b);
+            }
+        } else {
+            exigir(b.isRegistrador(), "test", List.of(a, b));
+            modrm(s, tamanho, op(tamanho == 8 ? 0x84 : 0x85), b.registrador, a, 0);
+        }
+    }
+
+    private void multiplicacao(Saida s, OperandoX86 destino, OperandoX86 origem, OperandoX86 fator) {
+        exigir(destino.isRegistrador(), "imul", List.of(destino, origem));
+        if (fator == null && origem.isImediato()) {
+            fator = origem;
+            origem = destino;
+        }
+        if (fator == null) {
+            modrm(s, destino.tamanho, op(0x0F, 0xAF), destino.registrador, origem, 0);
+        } else if (fator.isCurto()) {
+            modrm(s, destino.tamanho, op(0x6B), destino.registrador, origem, 1);
+            s.i8(fator.valor);
+        } else {
+            modrm(s, destino.tamanho, op(0x69), destino.registrador, origem, 4);
+            imediato32(s, fator);
+        }
+    }
+
+    private void deslocamento(Saida s, int n, OperandoX86 destino, OperandoX86 contador) {
+        int tamanho = tamanho(destino, null);
+        boolean oito = tamanho == 8;
+        if (contador.isRegistrador()) {
+            exigir(contador.registrador == 1 && contador.tamanho == 8, "deslocamento", List.of(destino, contador));
+            modrm(s, tamanho, op(oito ? 0xD2 : 0xD3), n, destino, 0);
+        } else if (contador.valor == 1) {
+            modrm(s, tamanho, op(oito ? 0xD0 : 0xD1), n, destino, 0);
+        } else {
+            modrm(s, tamanho, op(oito ? 0xC0 : 0xC1), n, destino, 1);
+            s.i8(contador.valor);
+        }
+    }
+
+    private void incremento(Saida s, int n, OperandoX86 operando) {
+        int tamanho = tamanho(operando, null);
+        if (!modo64 && operando.isRegistrador() && tamanho == 32) {
+            s.b((n == 0 ? 0x40 : 0x48) + operando.registrador);
+        } else {
+            modrm(s, tamanho, op(tamanho == 8 ? 0xFE : 0xFF), n, operando, 0);
+        }
+    }
+
+    private void push(Saida s, OperandoX86 operando) {
+        if (operando.isRegistrador()) {
+            registradorPilha(s, 0x50, operando);
+        } else if (operando.isImediato()) {
+            if (operando.isCurto()) {
+                s.b(0x6A);
+                s.i8(operando.valor);
+            } else {
+                s.b(0x68);
+                imediato32(s, operando);
+            }
+        } else {
+            modrm(s, 32, op(0xFF), 6, operando, 0);
+        }
+    }
+
+    private void pop(Saida s, OperandoX86 operando) {
+        if (operando.isRegistrador()) {
+            registradorPilha(s, 0x58, operando);
+        } else {
+            exigir(operando.isMemoria(), "pop", List.of(operando));
+            modrm(s, 32, op(0x8F), 0, operando, 0);
+        }
+    }
+
+    private void registradorPilha(Saida s, int codigo, OperandoX86 registrador) {
+        if (registrador.tamanho != larguraPilha()) {
+            throw new IllegalArgumentException("Registrador de pilha com tamanho inválido");
+        }
+        if (registrador.isEstendido()) {
+            s.b(0x41);
+        }
+        s.b(codigo + (registrador.registrador & 7));
+    }
+
+    private void chamada(Saida s, OperandoX86 alvo) {
+        if (alvo.direto) {
+            s.b(0xE8);
+            s.referencia(alvo.simbolo, alvo.valor, true, 4);
+            s.i32(0);
+        } else {
+            exigir(!alvo.isImediato(), "call", List.of(alvo));
+            modrm(s, 32, op(0xFF), 2, alvo, 0);
+        }
+    }
+
+    // Largura dos registradores de push/pop. As formas indiretas (push, pop,
+    // call e jmp com memória) já usam essa largura sem REX.W, por isso são
+    // codificadas com tamanho 32.
+    private int larguraPilha() {
+        return modo64 ? 64 : 32;
+    }
+
+    private void imediato32(Saida s, OperandoX86 imediato) {
+        if (imediato.simbolo != null) {
+            if (modo64) {
+                throw new IllegalArgumentException("Endereço absoluto em x86-64: " + imediato.simbolo);
+            }
+            s.referencia(imediato.simbolo, imediato.valor, false, 4);
+            s.i32(0);
+        } else {
+            s.i32(imediato.valor);
+        }
+    }
+
+    private static int[] op(int... bytes) {
+        return bytes;
+    }
+
+    // Tamanho da operação: o do registrador, senão o da memória.
+    private int tamanho(OperandoX86 a, OperandoX86 b) {
+        if (a != null && a.isRegistrador()) {
+            return a.tamanho;
+        }
+        if (b != null && b.isRegistrador()) {
+            return b.tamanho;
+        }
+        if (a != null && a.tamanho != 0) {
+            return a.tamanho;
+        }
+        throw new IllegalArgumentException("Tamanho do operando indefinido (use byte/dword ptr)");
+    }
+
+    // Prefixo 66h e REX (W para 64 bits, B para r8-r11 em 'registrador').
+    private void prefixos(Saida s, int tamanho, int rex, OperandoX86 registrador) {
+        if (tamanho == 16) {
+            s.b(0x66);
+        }
+        if (tamanho == 64) {
+            rex |= 0x48;
+        }
+        if (registrador != null && registrador.isEstendido()) {
+            rex |= 0x41;
+        }
+        if (rex != 0) {
+            s.b(rex | 0x40);
+        }
+    }
+
+    /**
+     * Emite prefixos, opcode, ModRM, SIB e deslocamento para 'rm' com o campo
+     * reg 'r'. 'imediato' é o número de bytes que ainda virão depois, para o
+     * cálculo dos endereços relativos a rip.
+     */
+    private void modrm(Saida s, int tamanho, int[] opcode, int r, OperandoX86 rm, int imediato) {
+        int rex = 0;
+        if (r >= 8) {
+            rex |= 0x44;
+        }
+        if (rm.isRegistrador() && rm.registrador >= 8) {
+            rex |= 0x41;
+        }
+        if (rm.isMemoria() && rm.base >= 8) {
+            rex |= 0x41;
+        }
+        if (rm.isMemoria() && rm.indice >= 8) {
+            rex |= 0x42;
+        }
+        if (rex != 0 && !modo64) {
+            throw new IllegalArgumentException("Registrador de 64 bits em código de 32 bits");
+        }
+        prefixos(s, tamanho, rex, null);
+        for (int codigo : opcode) {
+            s.b(codigo);
+        }
+        int reg = (r & 7) << 3;
+
+        if (rm.isRegistrador()) {
+            s.b(0xC0 | reg | (rm.registrador & 7));
+            return;
+        }
+        if (rm.isImediato()) {
+            throw new IllegalArgumentException("Imediato onde se espera registrador ou memória");
+        }
+        if (rm.rip) {
+            exigir(modo64 && rm.base < 0 && rm.indice < 0, "endereço rip", List.of(rm));
+            s.b(reg | 5);
+            deslocamento32(s, rm, true, 4 + imediato);
+            return;
+        }
+        if (rm.base < 0 && rm.indice < 0) {
+            if (modo64) {
+                s.b(reg | 4);
+                s.b(0x25); // SIB sem base nem índice: disp32 absoluto.
+            } else {
+                s.b(reg | 5);
+            }
+            deslocamento32(s, rm, false, 4);
+            return;
+        }
+        if (rm.indice == 4) {
+            throw new IllegalArgumentException("esp não pode ser índice");
+        }
+        boolean temSimbolo = rm.simbolo != null;
+        boolean usaSib = rm.indice >= 0 || (rm.base & 7) == 4;
+        int modo;
+        if (rm.base < 0) {
+            modo = 0; // Só índice: disp32 obrigatório.
+        } else if (!temSimbolo && rm.valor == 0 && (rm.base & 7) != 5) {
+            modo = 0;
+        } else if (!temSimbolo && rm.valor >= -128 && rm.valor <= 127) {
+            modo = 1;
+        } else {
+            modo = 2;
+        }
+        s.b((modo << 6) | reg | (usaSib ? 4 : rm.base & 7));
+        if (usaSib) {
+            int escala = Integer.numberOfTrailingZeros(rm.escala) << 6;
+            int indice = rm.indice >= 0 ? (rm.indice & 7) << 3 : 4 << 3;
+            int base = rm.base >= 0 ? rm.base & 7 : 5;
+            s.b(escala | indice | base);
+        }
+        if (modo == 1) {
+            s.i8(rm.valor);
+        } else if (modo == 2 || rm.base < 0) {
+            deslocamento32(s, rm, false, 4);
+        }
+    }
+
+    private void deslocamento32(Saida s, OperandoX86 rm, boolean relativo, int fim) {
+        if (rm.simbolo != null) {
+            if (modo64 && !relativo) {
+                throw new IllegalArgumentException("Endereço absoluto em x86-64: " + rm.simbolo);
+            }
+            s.referencia(rm.simbolo, rm.valor, relativo, fim);
+            s.i32(0);
+        } else {
+            s.i32(rm.valor);
+        }
+    }
+
+    private void exigir(boolean condicao, String mnemonico, List<OperandoX86> operandos) {
+        if (!condicao) {
+            throw new IllegalArgumentException("Combinação de operandos não suportada em " + mnemonico + " ("
+                    + operandos.size() + " operandos)");
+        }
+    }
+
+    // Bytes de uma instrução em construção.
+    private static final class Saida {
+        private byte[] bytes = new byte[16];
+        private int tamanho;
+        private final List<Referencia> referencias = new ArrayList<>(1);
+
+        void b(int valor) {
+            if (tamanho == bytes.length) {
+                bytes = Arrays.copyOf(bytes, tamanho * 2);
+            }
+            bytes[tamanho++] = (byte) valor;
+        }
+
+        void i8(long valor) {
+            b((int) valor);
+        }
+
+        void i16(long valor) {
+            b((int) valor);
+            b((int) (valor >> 8));
+        }
+
+        void i32(long valor) {
+            for (int i = 0; i < 4; i++) {
+                b((int) (valor >> (8 * i)));
+            }
+        }
+
+        // Referência para o campo de 32 bits que começa agora.
+        void referencia(String simbolo, long adendo, boolean relativa, int fim) {
+            referencias.add(new Referencia(tamanho, simbolo, adendo, relativa, fim));
+        }
+    }
+}
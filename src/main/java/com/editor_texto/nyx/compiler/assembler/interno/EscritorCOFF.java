@@ -0,0 +1,135 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.Relocacao;
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.Rotulo;
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.Secao;
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.TipoSecao;
+
+/**
+ * Grava um ObjetoX86 de 32 bits como objeto COFF i386, o mesmo formato que o
+ * JWASM produz com -coff e que o link.exe consome. As bibliotecas de
+ * 'includelib' vão na seção .drectve.
+ */
+final class EscritorCOFF {
+
+    private static final int MAQUINA_I386 = 0x14C;
+    private static final int RELOC_DIR32 = 0x06;
+    private static final int RELOC_REL32 = 0x14;
+    private static final int CLASSE_EXTERNA = 2;
+    private static final int CLASSE_ESTATICA = 3;
+
+    private record Simbolo(String nome, long valor, int secao, int classe, Secao aux) {
+    }
+
+    byte[] escrever(ObjetoX86 objeto) {
+        List<Secao> secoes = new ArrayList<>(objeto.secoes);
+        if (!objeto.diretivasLigador.isEmpty()) {
+            byte[] diretivas = String.join(" ", objeto.diretivasLigador).getBytes(StandardCharsets.US_ASCII);
+            secoes.add(new Secao(".drectve", null, diretivas, diretivas.length, 1));
+        }
+
+        // Tabela de símbolos: @feat.00, seções (com registro auxiliar), rótulos
+        // e, por último, os nomes externos.
+        List<Simbolo> simbolos = new ArrayList<>();
+        Map<String, Integer> indices = new HashMap<>();
+        Map<String, Integer> indicesSecao = new HashMap<>();
+        int proximo = 0;
+        simbolos.add(new Simbolo("@feat.00", 1, -1, CLASSE_ESTATICA, null));
+        proximo++;
+        for (int i = 0; i < secoes.size(); i++) {
+            simbolos.add(new Simbolo(secoes.get(i).nome, 0, i + 1, CLASSE_ESTATICA, secoes.get(i)));
+            indicesSecao.put(secoes.get(i).nome, proximo);
+            proximo += 2;
+        }
+        for (Map.Entry<String, Rotulo> rotulo : objeto.rotulos.entrySet()) {
+            int classe = objeto.globais.contains(rotulo.getKey()) ? CLASSE_EXTERNA : CLASSE_ESTATICA;
+            simbolos.add(new Simbolo(rotulo.getKey(), rotulo.getValue().deslocamento(),
+                    objeto.indiceSecao(rotulo.getValue().secao()) + 1, classe, null));
+            indices.put(rotulo.getKey(), proximo++);
+        }
+        for (String externo : objeto.externos) {
+            simbolos.add(new Simbolo(externo, 0, 0, CLASSE_EXTERNA, null));
+            indices.put(externo, proximo++);
+        }
+
+        int deslocamento = 20 + 40 * secoes.size();
+        int[] dados = new int[secoes.size()];
+        int[] relocacoes = new int[secoes.size()];
+        for (int i = 0; i < secoes.size(); i++) {
+            Secao secao = secoes.get(i);
+            if (secao.tipo != TipoSecao.ZERADOS && secao.tamanho > 0) {
+                dados[i] = deslocamento;
+                deslocamento += secao.tamanho;
+            }
+            if (!secao.relocacoes.isEmpty()) {
+                relocacoes[i] = deslocamento;
+                deslocamento += 10 * secao.relocacoes.size();
+            }
+        }
+
+        SaidaBinaria saida = new SaidaBinaria();
+        saida.u16(MAQUINA_I386).u16(secoes.size()).u32(0).u32(deslocamento).u32(proximo).u16(0).u16(0);
+        ByteArrayOutputStream tabelaNomes = new ByteArrayOutputStream();
+        for (int i = 0; i < secoes.size(); i++) {
+            Secao secao = secoes.get(i);
+            saida.nome(secao.nome, 8).u32(0).u32(0).u32(secao.tamanho).u32(dados[i]).u32(relocacoes[i]).u32(0)
+                    .u16(secao.relocacoes.size()).u16(0).u32(caracteristicas(secao));
+        }
+        for (Secao secao : secoes) {
+            // O ligador soma o endereço do símbolo ao valor gravado no campo.
+            for (Relocacao relocacao : secao.relocacoes) {
+                MontadorObjeto.escrever32(secao.bytes, relocacao.posicao(), relocacao.relativa()
+                        ? relocacao.adendo() - relocacao.fim() + 4
+                        : relocacao.adendo());
+            }
+            if (secao.tipo != TipoSecao.ZERADOS) {
+                saida.bytes(secao.bytes);
+            }
+            for (Relocacao relocacao : secao.relocacoes) {
+                saida.u32(relocacao.posicao());
+                saida.u32(relocacao.secao() ? indicesSecao.get(relocacao.simbolo())
+                        : indices.get(relocacao.simbolo()));
+                saida.u16(relocacao.relativa() ? RELOC_REL32 : RELOC_DIR32);
+            }
+        }
+
+        for (Simbolo simbolo : simbolos) {
+            byte[] nome = simbolo.nome().getBytes(StandardCharsets.US_ASCII);
+            if (nome.length <= 8) {
+                saida.nome(simbolo.nome(), 8);
+            } else {
+                saida.u32(0).u32(4 + tabelaNomes.size());
+                tabelaNomes.writeBytes(nome);
+                tabelaNomes.write(0);
+            }
+            saida.u32(simbolo.valor()).u16(simbolo.secao()).u16(0).u8(simbolo.classe())
+                    .u8(simbolo.aux() != null ? 1 : 0);
+            if (simbolo.aux() != null) {
+                saida.u32(simbolo.aux().tamanho).u16(simbolo.aux().relocacoes.size()).u16(0).u32(0).u16(0).u8(0)
+                        .u8(0).u16(0);
+            }
+        }
+        saida.u32(4 + tabelaNomes.size()).bytes(tabelaNomes.toByteArray());
+        return saida.toByteArray();
+    }
+
+    private static long caracteristicas(Secao secao) {
+        long alinhamento = (long) (Integer.numberOfTrailingZeros(Math.max(secao.alinhamento, 1)) + 1) << 20;
+        if (secao.tipo == null) {
+            return 0x00000A00L | alinhamento; // LNK_INFO | LNK_REMOVE
+        }
+        return alinhamento | switch (secao.tipo) {
+            case CODIGO -> 0x60000020L; // CODE | EXECUTE | READ
+            case DADOS -> 0xC0000040L; // INITIALIZED_DATA | READ | WRITE
+            case ZERADOS -> 0xC0000080L; // UNINITIALIZED_DATA | READ | WRITE
+            case SOMENTE_LEITURA -> 0x40000040L; // INITIALIZED_DATA | READ
+        };
+    }
+}
@@ -0,0 +1,204 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.Relocacao;
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.Rotulo;
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.Secao;
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.TipoSecao;
+
+/**
+ * Grava um ObjetoX86 de 64 bits como objeto ELF relocável x86-64, equivalente
+ * ao do 'as --64', pronto para o 'ld'. As relocações usam adendo explícito
+ * (.rela), então os campos das seções ficam zerados.
+ */
+final class EscritorELF {
+
+    private static final int SHT_PROGBITS = 1;
+    private static final int SHT_SYMTAB = 2;
+    private static final int SHT_STRTAB = 3;
+    private static final int SHT_RELA = 4;
+    private static final int SHT_NOBITS = 8;
+    private static final int SHF_WRITE = 1;
+    private static final int SHF_ALLOC = 2;
+    private static final int SHF_EXECINSTR = 4;
+    private static final int SHF_INFO_LINK = 0x40;
+    private static final int R_X86_64_PC32 = 2;
+    private static final int R_X86_64_32S = 11;
+    private static final String PILHA_NAO_EXECUTAVEL = ".note.GNU-stack";
+
+    // Cabeçalho de seção antes de saber as posições no arquivo.
+    private static final class Cabecalho {
+        String nome;
+        int tipo;
+        long flags;
+        byte[] conteudo;
+        long tamanho;
+        int link;
+        int info;
+        long alinhamento = 1;
+        long tamanhoEntrada;
+    }
+
+    byte[] escrever(ObjetoX86 objeto) {
+        List<Cabecalho> cabecalhos = new ArrayList<>();
+        cabecalhos.add(new Cabecalho()); // Seção nula.
+        Map<String, Integer> indicesSecao = new HashMap<>();
+        for (Secao secao : objeto.secoes) {
+            Cabecalho cabecalho = new Cabecalho();
+            cabecalho.nome = secao.nome;
+            cabecalho.tipo = secao.tipo == TipoSecao.ZERADOS ? SHT_NOBITS : SHT_PROGBITS;
+            cabecalho.flags = secao.nome.equals(PILHA_NAO_EXECUTAVEL) ? 0 : switch (secao.tipo) {
+                case CODIGO -> SHF_ALLOC | SHF_EXECINSTR;
+                case DADOS, ZERADOS -> SHF_ALLOC | SHF_WRITE;
+                case SOMENTE_LEITURA -> SHF_ALLOC;
+            };
+            cabecalho.conteudo = secao.bytes;
+            cabecalho.tamanho = secao.tamanho;
+            cabecalho.alinhamento = secao.alinhamento;
+            indicesSecao.put(secao.nome, cabecalhos.size());
+            cabecalhos.add(cabecalho);
+        }
+        if (objeto.secao(PILHA_NAO_EXECUTAVEL) == null) {
+            Cabecalho pilha = new Cabecalho();
+            pilha.nome = PILHA_NAO_EXECUTAVEL;
+            pilha.tipo = SHT_PROGBITS;
+            pilha.conteudo = new byte[0];
+            cabecalhos.add(pilha);
+        }
+
+        // Símbolos locais (seções e rótulos) vêm antes dos globais.
+        ByteArrayOutputStream nomes = new ByteArrayOutputStream();
+        nomes.write(0);
+        SaidaBinaria simbolos = new SaidaBinaria();
+        simbolos.u32(0).u8(0).u8(0).u16(0).u64(0).u64(0);
+        Map<String, Integer> indices = new HashMap<>();
+        Map<String, Integer> indicesSimboloSecao = new HashMap<>();
+        int quantidade = 1;
+        for (Secao secao : objeto.secoes) {
+            simbolos.u32(0).u8(3).u8(0).u16(indicesSecao.get(secao.nome)).u64(0).u64(0); // STT_SECTION
+            indicesSimboloSecao.put(secao.nome, quantidade++);
+        }
+        List<String> globais = new ArrayList<>();
+        for (Map.Entry<String, Rotulo> rotulo : objeto.rotulos.entrySet()) {
+            if (objeto.globais.contains(rotulo.getKey())) {
+                globais.add(rotulo.getKey());
+                continue;
+            }
+            simbolo(simbolos, nomes, rotulo.getKey(), 0, indicesSecao.get(rotulo.getValue().secao()),
+                    rotulo.getValue().deslocamento());
+            indices.put(rotulo.getKey(), quantidade++);
+        }
+        int primeiroGlobal = quantidade;
+        for (String global : globais) {
+            Rotulo rotulo = objeto.rotulos.get(global);
+            simbolo(simbolos, nomes, global, 0x10, indicesSecao.get(rotulo.secao()), rotulo.deslocamento());
+            indices.put(global, quantidade++);
+        }
+        for (String externo : objeto.externos) {
+            simbolo(simbolos, nomes, externo, 0x10, 0, 0);
+            indices.put(externo, quantidade++);
+        }
+
+        int indiceTabela = cabecalhos.size() + (int) objeto.secoes.stream()
+                .filter(s -> !s.relocacoes.isEmpty()).count();
+        for (Secao secao : objeto.secoes) {
+            if (secao.relocacoes.isEmpty()) {
+                continue;
+            }
+            SaidaBinaria relocacoes = new SaidaBinaria();
+            for (Relocacao relocacao : secao.relocacoes) {
+                int simbolo = relocacao.secao() ? indicesSimboloSecao.get(relocacao.simbolo())
+                        : indices.get(relocacao.simbolo());
+                int tipo = relocacao.relativa() ? R_X86_64_PC32 : R_X86_64_32S;
+                relocacoes.u64(relocacao.posicao()).u64(((long) simbolo << 32) | tipo)
+                        .u64(relocacao.relativa() ? relocacao.adendo() - relocacao.fim() : relocacao.adendo());
+            }
+            Cabecalho rela = new Cabecalho();
+            rela.nome = ".rela" + secao.nome;
+            rela.tipo = SHT_RELA;
+            rela.flags = SHF_INFO_LINK;
+            rela.conteudo = relocacoes.toByteArray();
+            rela.tamanho = rela.conteudo.length;
+            rela.link = indiceTabela;
+            rela.info = indicesSecao.get(secao.nome);
+            rela.alinhamento = 8;
+            rela.tamanhoEntrada = 24;
+            cabecalhos.add(rela);
+        }
+
+        Cabecalho tabela = new Cabecalho();
+        tabela.nome = ".symtab";
+        tabela.tipo = SHT_SYMTAB;
+        tabela.conteudo = simbolos.toByteArray();
+        tabela.tamanho = tabela.conteudo.length;
+        tabela.link = indiceTabela + 1;
+        tabela.info = primeiroGlobal;
+        tabela.alinhamento = 8;
+        tabela.tamanhoEntrada = 24;
+        cabecalhos.add(tabela);
+
+        Cabecalho textos = new Cabecalho();
+        textos.nome = ".strtab";
+        textos.tipo = SHT_STRTAB;
+        textos.conteudo = nomes.toByteArray();
+        textos.tamanho = textos.conteudo.length;
+        cabecalhos.add(textos);
+
+        Cabecalho nomesSecoes = new Cabecalho();
+        nomesSecoes.nome = ".shstrtab";
+        nomesSecoes.tipo = SHT_STRTAB;
+        cabecalhos.add(nomesSecoes);
+        ByteArrayOutputStream tabelaNomesSecoes = new ByteArrayOutputStream();
+        tabelaNomesSecoes.write(0);
+        int[] posicoesNomes = new int[cabecalhos.size()];
+        for (int i = 1; i < cabecalhos.size(); i++) {
+            posicoesNomes[i] = tabelaNomesSecoes.size();
+            tabelaNomesSecoes.writeBytes(cabecalhos.get(i).nome.getBytes(StandardCharsets.US_ASCII));
+            tabelaNomesSecoes.write(0);
+        }
+        nomesSecoes.conteudo = tabelaNomesSecoes.toByteArray();
+        nomesSecoes.tamanho = nomesSecoes.conteudo.length;
+
+        SaidaBinaria saida = new SaidaBinaria();
+        saida.u8(0x7F).nome("ELF", 3).u8(2).u8(1).u8(1).u8(0).u64(0); // ELFCLASS64, little-endian
+        saida.u16(1).u16(62).u32(1).u64(0).u64(0); // ET_REL, EM_X86_64
+        int posicaoCabecalhos = saida.posicao();
+        saida.u64(0).u32(0).u16(64).u16(0).u16(0).u16(64).u16(cabecalhos.size()).u16(cabecalhos.size() - 1);
+
+        long[] posicoes = new long[cabecalhos.size()];
+        for (int i = 1; i < cabecalhos.size(); i++) {
+            Cabecalho cabecalho = cabecalhos.get(i);
+            saida.alinhar((int) Math.max(cabecalho.alinhamento, 1));
+            posicoes[i] = saida.posicao();
+            if (cabecalho.tipo != SHT_NOBITS) {
+                saida.bytes(cabecalho.conteudo);
+            }
+        }
+        saida.alinhar(8);
+        saida.u64Em(posicaoCabecalhos, saida.posicao());
+        for (int i = 0; i < cabecalhos.size(); i++) {
+            Cabecalho cabecalho = cabecalhos.get(i);
+            if (i == 0) {
+                saida.u32(0).u32(0).u64(0).u64(0).u64(0).u64(0).u32(0).u32(0).u64(0).u64(0);
+                continue;
+            }
+            saida.u32(posicoesNomes[i]).u32(cabecalho.tipo).u64(cabecalho.flags).u64(0).u64(posicoes[i])
+                    .u64(cabecalho.tamanho).u32(cabecalho.link).u32(cabecalho.info).u64(cabecalho.alinhamento)
+                    .u64(cabecalho.tamanhoEntrada);
+        }
+        return saida.toByteArray();
+    }
+
+    private static void simbolo(SaidaBinaria simbolos, ByteArrayOutputStream nomes, String nome, int info,
+            int secao, long valor) {
+        simbolos.u32(nomes.size()).u8(info).u8(0).u16(secao).u64(valor).u64(0);
+        nomes.writeBytes(nome.getBytes(StandardCharsets.US_ASCII));
+        nomes.write(0);
+    }
+}
@@ -0,0 +1,221 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.TipoSecao;
+
+/**
+ * Lê o código GAS (sintaxe Intel sem prefixos) do GeradorAssemblyLinux e do
+ * runtime Linux e o entrega ao MontadorObjeto para gerar um objeto ELF de 64
+ * bits. Aceita as diretivas que esses dois emitem; o resto lança
+ * IllegalArgumentException.
+ */
+final class LeitorGAS {
+
+    private final Map<String, Long> constantes = new HashMap<>();
+    private final OperandoX86.Simbolos simbolos = new OperandoX86.Simbolos() {
+        @Override
+        public Long constante(String nome) {
+            return constantes.get(nome);
+        }
+
+        @Override
+        public int tamanho(String nome) {
+            return 0; // GAS exige DWORD/BYTE PTR quando o registrador não diz.
+        }
+    };
+
+    private MontadorObjeto montador;
+
+    ObjetoX86 ler(List<String> linhas) {
+        this.montador = new MontadorObjeto(true);
+        List<String> textos = new ArrayList<>(linhas.size());
+        for (String linha : linhas) {
+            String texto = semComentario(linha);
+            textos.add(texto);
+            if (texto.startsWith(".set ") || texto.startsWith(".equ ")) {
+                String[] partes = texto.substring(5).split(",", 2);
+                constantes.put(partes[0].trim(), valorNumerico(partes[1]));
+            }
+        }
+        for (String texto : textos) {
+            int doisPontos = texto.indexOf(':');
+            if (doisPontos > 0 && OperandoX86.isNome(texto.substring(0, doisPontos))) {
+                montador.rotulo(texto.substring(0, doisPontos));
+                texto = texto.substring(doisPontos + 1).trim();
+            }
+            if (texto.isEmpty()) {
+                continue;
+            }
+            if (texto.startsWith(".")) {
+                lerDiretiva(texto);
+            } else {
+                lerInstrucao(texto);
+            }
+        }
+        return montador.concluir();
+    }
+
+    int getInstrucoes() {
+        return montador.getInstrucoes();
+    }
+
+    private void lerDiretiva(String texto) {
+        int espaco = texto.indexOf(' ');
+        String nome = (espaco < 0 ? texto : texto.substring(0, espaco)).toLowerCase(Locale.ROOT);
+        String argumentos = espaco < 0 ? "" : texto.substring(espaco + 1).trim();
+        switch (nome) {
+            case ".intel_syntax", ".set", ".equ", ".type", ".size", ".file" -> {
+            }
+            case ".globl", ".global" -> montador.global(argumentos);
+            case ".text" -> montador.secao(".text", TipoSecao.CODIGO);
+            case ".data" -> montador.secao(".data", TipoSecao.DADOS);
+            case ".bss" -> montador.secao(".bss", TipoSecao.ZERADOS);
+            case ".section" -> secao(argumentos.split(",")[0].trim());
+            case ".balign", ".align", ".p2align" -> {
+                int valor = valorNumerico(argumentos.split(",")[0]).intValue();
+                montador.alinhar(nome.equals(".p2align") ? 1 << valor : valor);
+            }
+            case ".zero", ".skip", ".space" -> montador.zeros(valorNumerico(argumentos).intValue());
+            case ".byte" -> inteiros(argumentos, 1);
+            case ".short", ".word", ".value" -> inteiros(argumentos, 2);
+            case ".long", ".int" -> inteiros(argumentos, 4);
+            case ".quad" -> inteiros(argumentos, 8);
+            case ".ascii" -> montador.dados(texto(argumentos, false));
+            case ".asciz", ".string" -> montador.dados(texto(argumentos, true));
+            default -> throw new IllegalArgumentException("Diretiva não suportada: " + texto);
+        }
+    }
+
+    private void secao(String nome) {
+        switch (nome) {
+            case ".text" -> montador.secao(".text", TipoSecao.CODIGO);
+            case ".data" -> montador.secao(".data", TipoSecao.DADOS);
+            case ".bss" -> montador.secao(".bss", TipoSecao.ZERADOS);
+            case ".rodata" -> montador.secao(".rodata", TipoSecao.SOMENTE_LEITURA);
+            case ".note.GNU-stack" -> montador.secao(".note.GNU-stack", TipoSecao.SOMENTE_LEITURA);
+            default -> throw new IllegalArgumentException("Seção não suportada: " + nome);
+        }
+    }
+
+    private void inteiros(String argumentos, int largura) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (String parte : argumentos.split(",")) {
+            long valor = valorNumerico(parte);
+            for (int i = 0; i < largura; i++) {
+                bytes.write((int) (valor >> (8 * i)));
+            }
+        }
+        montador.dados(bytes.toByteArray());
+    }
+
+    // Conteúdo de "..." com as sequências de escape do GAS.
+    private static byte[] texto(String argumentos, boolean terminador) {
+        String t = argumentos.trim();
+        if (t.length() < 2 || t.charAt(0) != '"' || t.charAt(t.length() - 1) != '"') {
+            throw new IllegalArgumentException("String malformada: " + argumentos);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 1; i < t.length() - 1; i++) {
+            char c = t.charAt(i);
+            if (c != '\\') {
+                bytes.writeBytes(String.valueOf(c).getBytes(StandardCharsets.UTF_8));
+                continue;
+            }
+            char escape = t.charAt(++i);
+            switch (escape) {
+                case 'n' -> bytes.write('\n');
+                case 't' -> bytes.write('\t');
+                case 'r' -> bytes.write('\r');
+                case '\\', '"' -> bytes.write(escape);
+                default -> {
+                    if (escape < '0' || escape > '7') {
+                        throw new IllegalArgumentException("Escape não suportado: \\" + escape);
+                    }
+                    int valor = 0;
+                    int digitos = 0;
+                    while (digitos < 3 && t.charAt(i) >= '0' && t.charAt(i) <= '7') {
+                        valor = valor * 8 + (t.charAt(i++) - '0');
+                        digitos++;
+                    }
+                    i--;
+                    bytes.write(valor);
+                }
+            }
+        }
+        if (terminador) {
+            bytes.write(0);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Long valorNumerico(String texto) {
+        String t = texto.trim();
+        Long valor = OperandoX86.numero(t);
+        if (valor == null) {
+            valor = constantes.get(t);
+        }
+        if (valor == null) {
+            throw new IllegalArgumentException("Valor não numérico: " + texto);
+        }
+        return valor;
+    }
+
+    private void lerInstrucao(String texto) {
+        int espaco = texto.indexOf(' ');
+        String mnemonico = (espaco < 0 ? texto : texto.substring(0, espaco)).toLowerCase(Locale.ROOT);
+        List<OperandoX86> operandos = new ArrayList<>();
+        if (espaco >= 0) {
+            for (String operando : separarOperandos(texto.substring(espaco + 1))) {
+                operandos.add(OperandoX86.ler(operando, simbolos));
+            }
+        }
+        montador.instrucao(mnemonico, operandos);
+    }
+
+    // Separa por vírgulas fora de colchetes e apóstrofos.
+    private static List<String> separarOperandos(String texto) {
+        List<String> partes = new ArrayList<>();
+        int profundidade = 0;
+        int inicio = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '\'' && i + 2 < texto.length() && texto.charAt(i + 2) == '\'') {
+                i += 2;
+            } else if (c == '[') {
+                profundidade++;
+            } else if (c == ']') {
+                profundidade--;
+            } else if (c == ',' && profundidade == 0) {
+                partes.add(texto.substring(inicio, i).trim());
+                inicio = i + 1;
+            }
+        }
+        partes.add(texto.substring(inicio).trim());
+        return partes;
+    }
+
+    // Remove comentários '#' fora de strings e caracteres.
+    private static String semComentario(String linha) {
+        boolean aspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (c == '\\' && aspas) {
+                i++;
+            } else if (c == '"') {
+                aspas = !aspas;
+            } else if (c == '\'' && !aspas && i + 2 < linha.length() && linha.charAt(i + 2) == '\'') {
+                i += 2;
+            } else if (c == '#' && !aspas) {
+                return linha.substring(0, i).trim();
+            }
+        }
+        return linha.trim();
+    }
+}
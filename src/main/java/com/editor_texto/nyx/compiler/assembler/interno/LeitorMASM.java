@@ -0,0 +1,308 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.TipoSecao;
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
+import com.editor_texto.nyx.compiler.peephole.Operando;
+
+/**
+ * Lê o código MASM do GeradorAssembly já decomposto em objetos Instrucao (a
+ * mesma lista que as otimizações alteram) e o entrega ao MontadorObjeto para
+ * gerar um objeto COFF de 32 bits.
+ *
+ * Só conhece o que o gerador e o RuntimeLC emitem: .data com db/dw/dd, equ,
+ * align, as chamadas 'invoke' das APIs usadas e 'end start'. Qualquer outra
+ * coisa lança IllegalArgumentException, e o montador externo assume.
+ */
+final class LeitorMASM {
+
+    // Constantes de windows.inc usadas pelo runtime e pelo perfil.
+    private static final Map<String, Long> CONSTANTES_WINDOWS = Map.of("STD_INPUT_HANDLE", -10L,
+            "STD_OUTPUT_HANDLE", -11L, "STD_ERROR_HANDLE", -12L, "NULL", 0L, "FALSE", 0L, "TRUE", 1L,
+            "GENERIC_WRITE", 0x40000000L, "CREATE_ALWAYS", 2L, "FILE_ATTRIBUTE_NORMAL", 0x80L,
+            "INVALID_HANDLE_VALUE", -1L);
+
+    // APIs stdcall chamadas por 'invoke' e o total de bytes dos parâmetros.
+    private static final Map<String, Integer> APIS = Map.of("ExitProcess", 4, "GetStdHandle", 4, "WriteFile", 20,
+            "ReadFile", 20, "CreateFileA", 28, "CloseHandle", 4);
+
+    private final Map<String, Long> constantes = new HashMap<>(CONSTANTES_WINDOWS);
+    private final Map<String, String> apelidos = new HashMap<>(); // 'nome equ addr rotulo'.
+    private final Map<String, Integer> tamanhos = new HashMap<>();
+    private final OperandoX86.Simbolos simbolos = new OperandoX86.Simbolos() {
+        @Override
+        public Long constante(String nome) {
+            return constantes.get(nome);
+        }
+
+        @Override
+        public int tamanho(String nome) {
+            return tamanhos.getOrDefault(nome, 0);
+        }
+    };
+
+    private MontadorObjeto montador;
+    private String entrada;
+
+    ObjetoX86 ler(List<Instrucao> codigo) {
+        this.montador = new MontadorObjeto(false);
+        registrarDeclaracoes(codigo);
+        for (Instrucao instrucao : codigo) {
+            switch (instrucao.getTipo()) {
+                case DIRETIVA -> lerDiretiva(semComentario(instrucao.toString()));
+                case ROTULO -> montador.rotulo(nomeRotulo(instrucao.getMnemonico()));
+                case INSTRUCAO -> lerInstrucao(instrucao);
+                case VAZIA -> {
+                }
+            }
+        }
+        if (entrada != null) {
+            montador.global(nomeRotulo(entrada));
+        }
+        return montador.concluir();
+    }
+
+    int getInstrucoes() {
+        return montador.getInstrucoes();
+    }
+
+    // Constantes, apelidos e tamanhos das variáveis, antes do código que os usa.
+    private void registrarDeclaracoes(List<Instrucao> codigo) {
+        for (Instrucao instrucao : codigo) {
+            if (instrucao.getTipo() != Instrucao.Tipo.DIRETIVA) {
+                continue;
+            }
+            String texto = semComentario(instrucao.toString());
+            String[] partes = texto.split("\\s+", 3);
+            if (partes.length == 2 && partes[0].equalsIgnoreCase("end")) {
+                entrada = partes[1];
+            }
+            if (partes.length < 3) {
+                continue;
+            }
+            switch (partes[1].toLowerCase(Locale.ROOT)) {
+                case "equ" -> {
+                    String valor = partes[2].trim();
+                    if (valor.toLowerCase(Locale.ROOT).startsWith("addr ")) {
+                        apelidos.put(partes[0], valor.substring(5).trim());
+                    } else {
+                        constantes.put(partes[0], valorNumerico(valor));
+                    }
+                }
+                case "db" -> tamanhos.put(partes[0], 8);
+                case "dw" -> tamanhos.put(partes[0], 16);
+                case "dd" -> tamanhos.put(partes[0], 32);
+                default -> {
+                }
+            }
+        }
+    }
+
+    // O ponto de entrada é público e recebe o '_' da convenção stdcall/cdecl.
+    private String nomeRotulo(String nome) {
+        return nome.equals(entrada) ? "_" + nome : nome;
+    }
+
+    private void lerDiretiva(String texto) {
+        if (texto.isEmpty()) {
+            return;
+        }
+        String[] partes = texto.split("\\s+", 3);
+        String primeira = partes[0].toLowerCase(Locale.ROOT);
+        switch (primeira) {
+            case ".686", ".586", ".486", ".386", ".model", "option", "include" -> {
+                return;
+            }
+            case ".data" -> {
+                montador.secao(".data", TipoSecao.DADOS);
+                return;
+            }
+            case ".code" -> {
+                montador.secao(".text", TipoSecao.CODIGO);
+                return;
+            }
+            case "includelib" -> {
+                String biblioteca = texto.substring(partes[0].length()).trim();
+                montador.diretivaLigador("-defaultlib:" + (biblioteca.contains(" ") ? '"' + biblioteca + '"'
+                        : biblioteca));
+                return;
+            }
+            case "align" -> {
+                montador.alinhar(valorNumerico(partes[1]).intValue());
+                return;
+            }
+            case "end" -> {
+                return;
+            }
+            case "db", "dw", "dd" -> {
+                // Continuação sem nome de uma declaração anterior.
+                dados(primeira, texto.substring(partes[0].length()).trim());
+                return;
+            }
+            default -> {
+            }
+        }
+        if (partes.length == 3) {
+            String diretiva = partes[1].toLowerCase(Locale.ROOT);
+            if (diretiva.equals("equ")) {
+                return;
+            }
+            if (diretiva.equals("db") || diretiva.equals("dw") || diretiva.equals("dd")) {
+                montador.rotulo(partes[0]);
+                dados(diretiva, partes[2]);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Diretiva não suportada: " + texto);
+    }
+
+    // Valores de db/dw/dd: números, constantes, strings e 'N dup(V)'.
+    private void dados(String diretiva, String valores) {
+        int largura = diretiva.equals("db") ? 1 : diretiva.equals("dw") ? 2 : 4;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (String valor : separar(valores)) {
+            String minusculo = valor.toLowerCase(Locale.ROOT);
+            int dup = minusculo.indexOf(" dup(");
+            if (valor.startsWith("\"") && valor.endsWith("\"") && valor.length() >= 2) {
+                if (largura != 1) {
+                    throw new IllegalArgumentException("String fora de 'db': " + valor);
+                }
+                bytes.writeBytes(valor.substring(1, valor.length() - 1).getBytes(StandardCharsets.UTF_8));
+            } else if (dup > 0 && valor.endsWith(")")) {
+                int quantidade = valorNumerico(valor.substring(0, dup)).intValue();
+                String repetido = valor.substring(dup + 5, valor.length() - 1).trim();
+                long elemento = repetido.equals("?") ? 0 : valorNumerico(repetido);
+                if (elemento == 0) {
+                    descarregar(bytes);
+                    montador.zeros(quantidade * largura);
+                } else {
+                    for (int i = 0; i < quantidade; i++) {
+                        inteiro(bytes, elemento, largura);
+                    }
+                }
+            } else {
+                inteiro(bytes, valor.equals("?") ? 0 : valorNumerico(valor), largura);
+            }
+        }
+        descarregar(bytes);
+    }
+
+    private void descarregar(ByteArrayOutputStream bytes) {
+        if (bytes.size() > 0) {
+            montador.dados(bytes.toByteArray());
+            bytes.reset();
+        }
+    }
+
+    private static void inteiro(ByteArrayOutputStream bytes, long valor, int largura) {
+        for (int i = 0; i < largura; i++) {
+            bytes.write((int) (valor >> (8 * i)));
+        }
+    }
+
+    private Long valorNumerico(String texto) {
+        String t = texto.trim();
+        Long valor = OperandoX86.numero(t);
+        if (valor == null) {
+            valor = constantes.get(t);
+        }
+        if (valor == null) {
+            throw new IllegalArgumentException("Valor não numérico: " + texto);
+        }
+        return valor;
+    }
+
+    private void lerInstrucao(Instrucao instrucao) {
+        String mnemonico = instrucao.getMnemonico();
+        if (mnemonico.equals("align")) {
+            montador.alinhar(valorNumerico(instrucao.getOperando(0).getTexto()).intValue());
+            return;
+        }
+        if (mnemonico.equals("invoke")) {
+            invocar(instrucao.getOperandos());
+            return;
+        }
+        List<OperandoX86> operandos = new ArrayList<>(instrucao.getOperandos().size());
+        for (Operando operando : instrucao.getOperandos()) {
+            operandos.add(operando(operando.getTexto()));
+        }
+        montador.instrucao(mnemonico, operandos);
+    }
+
+    private OperandoX86 operando(String texto) {
+        String alvo = apelidos.get(texto.trim());
+        if (alvo != null) {
+            texto = "offset " + alvo;
+        } else if (texto.toLowerCase(Locale.ROOT).startsWith("addr ")) {
+            texto = "offset " + texto.substring(5).trim();
+        }
+        return OperandoX86.ler(texto, simbolos);
+    }
+
+    /**
+     * Expande 'invoke': empilha os argumentos do último para o primeiro e chama
+     * a API (stdcall, nome decorado '_Nome@N') ou a função da msvcrt
+     * ('crt_nome', cdecl pelo ponteiro de importação, e a pilha é liberada
+     * aqui).
+     */
+    private void invocar(List<Operando> argumentos) {
+        String funcao = argumentos.get(0).getTexto();
+        int quantidade = argumentos.size() - 1;
+        Integer bytesParametros = APIS.get(funcao);
+        boolean crt = funcao.startsWith("crt_");
+        if ((bytesParametros == null || bytesParametros != quantidade * 4) && !crt) {
+            throw new IllegalArgumentException("invoke não suportado: " + funcao);
+        }
+        for (int i = quantidade; i >= 1; i--) {
+            montador.instrucao("push", List.of(operando(argumentos.get(i).getTexto())));
+        }
+        if (crt) {
+            String importacao = "__imp__" + funcao.substring(4);
+            montador.instrucao("call", List.of(OperandoX86.ler("dword ptr [" + importacao + "]", simbolos)));
+            if (quantidade > 0) {
+                montador.instrucao("add", List.of(OperandoX86.registrador(4, 32),
+                        OperandoX86.imediato(quantidade * 4L, null)));
+            }
+        } else {
+            montador.instrucao("call", List.of(OperandoX86.ler("_" + funcao + "@" + bytesParametros, simbolos)));
+        }
+    }
+
+    // Separa por vírgulas fora das aspas.
+    private static List<String> separar(String texto) {
+        List<String> partes = new ArrayList<>();
+        boolean aspas = false;
+        int inicio = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"') {
+                aspas = !aspas;
+            } else if (c == ',' && !aspas) {
+                partes.add(texto.substring(inicio, i).trim());
+                inicio = i + 1;
+            }
+        }
+        partes.add(texto.substring(inicio).trim());
+        return partes;
+    }
+
+    private static String semComentario(String linha) {
+        boolean aspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (c == '"') {
+                aspas = !aspas;
+            } else if (c == ';' && !aspas) {
+                return linha.substring(0, i).trim();
+            }
+        }
+        return linha.trim();
+    }
+}
@@ -0,0 +1,86 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.editor_texto.nyx.compiler.assembler.ExecutorMontador;
+import com.editor_texto.nyx.compiler.assembler.Plataforma;
+import com.editor_texto.nyx.compiler.assembler.ResultadoMontador;
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
+import com.editor_texto.nyx.compiler.peephole.LeitorAssembly;
+import com.editor_texto.nyx.sistema.ServicoLog;
+
+/**
+ * Montador dentro do próprio processo: codifica as instruções x86 e grava o
+ * objeto (COFF no Windows, ELF no Linux) sem chamar JWASM ou 'as'.
+ *
+ * No Windows usa direto a lista de instruções que saiu das otimizações, sem
+ * reler o .asm. Se o código tiver algo que o codificador não conhece, usa o
+ * montador externo recebido no construtor (quando houver).
+ */
+public class MontadorInterno implements ExecutorMontador {
+
+    private final Plataforma plataforma;
+    private final ExecutorMontador externo;
+
+    public MontadorInterno(Plataforma plataforma) {
+        this(plataforma, null);
+    }
+
+    public MontadorInterno(Plataforma plataforma, ExecutorMontador externo) {
+        this.plataforma = plataforma;
+        this.externo = externo;
+    }
+
+    @Override
+    public ResultadoMontador montar(Path arquivoAsm, Path pastaSaida) {
+        return montar(null, arquivoAsm, pastaSaida);
+    }
+
+    @Override
+    public ResultadoMontador montar(List<Instrucao> codigo, Path arquivoAsm, Path pastaSaida) {
+        List<String> stdout = new ArrayList<>();
+        try {
+            long inicio = System.nanoTime();
+            byte[] objeto;
+            int instrucoes;
+            if (plataforma == Plataforma.WINDOWS) {
+                if (codigo == null) {
+                    codigo = new LeitorAssembly().ler(Files.readAllLines(arquivoAsm));
+                }
+                LeitorMASM leitor = new LeitorMASM();
+                objeto = new EscritorCOFF().escrever(leitor.ler(codigo));
+                instrucoes = leitor.getInstrucoes();
+            } else {
+                LeitorGAS leitor = new LeitorGAS();
+                objeto = new EscritorELF().escrever(leitor.ler(Files.readAllLines(arquivoAsm)));
+                instrucoes = leitor.getInstrucoes();
+            }
+            Path arquivoObj = pastaSaida.resolve(nomeBase(arquivoAsm) + plataforma.getExtensaoObjeto());
+            Files.write(arquivoObj, objeto);
+            double milissegundos = (System.nanoTime() - inicio) / 1_000_000.0;
+            stdout.add(String.format(Locale.ROOT, "Montador interno: %d instruções, %d bytes em %.2f ms",
+                    instrucoes, objeto.length, milissegundos));
+            ServicoLog.info(stdout.get(0) + " -> " + arquivoObj.getFileName());
+            return new ResultadoMontador(true, stdout, new ArrayList<>(), 0);
+        } catch (IllegalArgumentException e) {
+            if (externo != null) {
+                ServicoLog.aviso("Montador interno não suporta o código (" + e.getMessage()
+                        + "); usando o montador externo.");
+                return externo.montar(arquivoAsm, pastaSaida);
+            }
+            return new ResultadoMontador(false, stdout, List.of("Montador interno: " + e.getMessage()), 1);
+        } catch (Exception e) {
+            ServicoLog.erro("Exceção no montador interno: " + e.getMessage());
+            return new ResultadoMontador(false, stdout, List.of("Erro no montador interno: " + e.getMessage()), -1);
+        }
+    }
+
+    private static String nomeBase(Path arquivoAsm) {
+        String nome = arquivoAsm.getFileName().toString();
+        return nome.contains(".") ? nome.substring(0, nome.lastIndexOf('.')) : nome;
+    }
+}
@@ -0,0 +1,288 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.editor_texto.nyx.compiler.assembler.interno.CodificadorX86.Codificacao;
+import com.editor_texto.nyx.compiler.assembler.interno.CodificadorX86.Referencia;
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.Relocacao;
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.Rotulo;
+import com.editor_texto.nyx.compiler.assembler.interno.ObjetoX86.TipoSecao;
+
+/**
+ * Monta as seções de um arquivo objeto a partir das chamadas dos leitores
+ * (LeitorMASM, LeitorGAS): rótulos, dados, alinhamentos e instruções.
+ *
+ * Os saltos para rótulos começam na forma curta (rel8) e só crescem para a
+ * longa (rel32) quando o destino fica fora do alcance; como nenhum salto
+ * volta a encolher, o ajuste sempre termina. No fim, as referências a
+ * rótulos da mesma seção são resolvidas aqui e as demais viram relocações.
+ */
+final class MontadorObjeto {
+
+    // NOPs de 1 a 9 bytes recomendados pela Intel para preencher alinhamentos.
+    private static final int[][] NOPS = {
+            {},
+            { 0x90 },
+            { 0x66, 0x90 },
+            { 0x0F, 0x1F, 0x00 },
+            { 0x0F, 0x1F, 0x40, 0x00 },
+            { 0x0F, 0x1F, 0x44, 0x00, 0x00 },
+            { 0x66, 0x0F, 0x1F, 0x44, 0x00, 0x00 },
+            { 0x0F, 0x1F, 0x80, 0x00, 0x00, 0x00, 0x00 },
+            { 0x0F, 0x1F, 0x84, 0x00, 0x00, 0x00, 0x00, 0x00 },
+            { 0x66, 0x0F, 0x1F, 0x84, 0x00, 0x00, 0x00, 0x00, 0x00 } };
+
+    // Pedaço do conteúdo de uma seção: bytes, zeros, alinhamento ou salto.
+    private static final class Fragmento {
+        byte[] bytes;
+        List<Referencia> referencias = List.of();
+        int zeros;
+        int alinhamento;
+        String alvo; // Salto para rótulo.
+        int condicao = -1; // -1 para jmp.
+        boolean longo;
+        int posicao;
+
+        int tamanho() {
+            if (alvo != null) {
+                return longo ? (condicao < 0 ? 5 : 6) : 2;
+            }
+            if (alinhamento > 0) {
+                return (alinhamento - posicao % alinhamento) % alinhamento;
+            }
+            return bytes != null ? bytes.length : zeros;
+        }
+    }
+
+    private static final class SecaoEmMontagem {
+        final String nome;
+        final TipoSecao tipo;
+        final List<Fragmento> fragmentos = new ArrayList<>();
+        int alinhamento = 1;
+        int tamanho;
+
+        SecaoEmMontagem(String nome, TipoSecao tipo) {
+            this.nome = nome;
+            this.tipo = tipo;
+        }
+    }
+
+    // Rótulo antes de ser posicionado: seção e fragmento seguinte.
+    private record Marca(SecaoEmMontagem secao, int fragmento) {
+    }
+
+    private final CodificadorX86 codificador;
+    private final Map<String, SecaoEmMontagem> secoes = new LinkedHashMap<>();
+    private final Map<String, Marca> rotulos = new LinkedHashMap<>();
+    private final ObjetoX86 objeto = new ObjetoX86();
+    private SecaoEmMontagem atual;
+    private int instrucoes;
+
+    MontadorObjeto(boolean modo64) {
+        this.codificador = new CodificadorX86(modo64);
+    }
+
+    void secao(String nome, TipoSecao tipo) {
+        atual = secoes.computeIfAbsent(nome, n -> new SecaoEmMontagem(n, tipo));
+    }
+
+    void rotulo(String nome) {
+        if (rotulos.putIfAbsent(nome, new Marca(secaoAtual(), atual.fragmentos.size())) != null) {
+            throw new IllegalArgumentException("Rótulo duplicado: " + nome);
+        }
+    }
+
+    void global(String nome) {
+        objeto.globais.add(nome);
+    }
+
+    void diretivaLigador(String texto) {
+        objeto.diretivasLigador.add(texto);
+    }
+
+    void dados(byte[] bytes) {
+        if (secaoAtual().tipo == TipoSecao.ZERADOS) {
+            throw new IllegalArgumentException("Dados com valor na seção " + atual.nome);
+        }
+        Fragmento fragmento = new Fragmento();
+        fragmento.bytes = bytes;
+        atual.fragmentos.add(fragmento);
+    }
+
+    void zeros(int quantidade) {
+        Fragmento fragmento = new Fragmento();
+        fragmento.zeros = quantidade;
+        secaoAtual().fragmentos.add(fragmento);
+    }
+
+    void alinhar(int alinhamento) {
+        if (Integer.bitCount(alinhamento) != 1) {
+            throw new IllegalArgumentException("Alinhamento inválido: " + alinhamento);
+        }
+        Fragmento fragmento = new Fragmento();
+        fragmento.alinhamento = alinhamento;
+        secaoAtual().fragmentos.add(fragmento);
+        atual.alinhamento = Math.max(atual.alinhamento, alinhamento);
+    }
+
+    void instrucao(String mnemonico, List<OperandoX86> operandos) {
+        SecaoEmMontagem secao = secaoAtual();
+        instrucoes++;
+        Fragmento fragmento = new Fragmento();
+        int condicao = mnemonico.equals("jmp") ? -1
+                : mnemonico.startsWith("j") ? CodificadorX86.condicao(mnemonico.substring(1)) : -2;
+        if (condicao >= -1 && operandos.size() == 1 && operandos.get(0).direto && operandos.get(0).valor == 0) {
+            fragmento.alvo = operandos.get(0).simbolo;
+            fragmento.condicao = condicao;
+        } else {
+            Codificacao codificacao = codificador.codificar(mnemonico, operandos);
+            fragmento.bytes = codificacao.bytes();
+            fragmento.referencias = codificacao.referencias();
+        }
+        secao.fragmentos.add(fragmento);
+    }
+
+    int getInstrucoes() {
+        return instrucoes;
+    }
+
+    private SecaoEmMontagem secaoAtual() {
+        if (atual == null) {
+            throw new IllegalArgumentException("Conteúdo fora de uma seção");
+        }
+        return atual;
+    }
+
+    ObjetoX86 concluir() {
+        // Saltos para fora da seção (ou para nomes externos) são sempre longos.
+        for (SecaoEmMontagem secao : secoes.values()) {
+            for (Fragmento fragmento : secao.fragmentos) {
+                if (fragmento.alvo != null) {
+                    Marca marca = rotulos.get(fragmento.alvo);
+                    fragmento.longo = marca == null || marca.secao() != secao;
+                }
+            }
+        }
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            for (SecaoEmMontagem secao : secoes.values()) {
+                posicionar(secao);
+                for (Fragmento fragmento : secao.fragmentos) {
+                    if (fragmento.alvo != null && !fragmento.longo) {
+                        long distancia = posicao(fragmento.alvo) - (fragmento.posicao + 2);
+                        if (distancia < -128 || distancia > 127) {
+                            fragmento.longo = true;
+                            mudou = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<String, Marca> entrada : rotulos.entrySet()) {
+            objeto.rotulos.put(entrada.getKey(), new Rotulo(entrada.getValue().secao().nome,
+                    posicao(entrada.getKey())));
+        }
+        for (SecaoEmMontagem secao : secoes.values()) {
+            objeto.secoes.add(emitir(secao));
+        }
+        for (String global : objeto.globais) {
+            if (!objeto.rotulos.containsKey(global)) {
+                throw new IllegalArgumentException("Símbolo global não definido: " + global);
+            }
+        }
+        return objeto;
+    }
+
+    private void posicionar(SecaoEmMontagem secao) {
+        int posicao = 0;
+        for (Fragmento fragmento : secao.fragmentos) {
+            fragmento.posicao = posicao;
+            posicao += fragmento.tamanho();
+        }
+        secao.tamanho = posicao;
+    }
+
+    private int posicao(String rotulo) {
+        Marca marca = rotulos.get(rotulo);
+        List<Fragmento> fragmentos = marca.secao().fragmentos;
+        return marca.fragmento() < fragmentos.size() ? fragmentos.get(marca.fragmento()).posicao
+                : marca.secao().tamanho;
+    }
+
+    private ObjetoX86.Secao emitir(SecaoEmMontagem montagem) {
+        boolean zerados = montagem.tipo == TipoSecao.ZERADOS;
+        byte[] bytes = new byte[zerados ? 0 : montagem.tamanho];
+        ObjetoX86.Secao secao = new ObjetoX86.Secao(montagem.nome, montagem.tipo, bytes, montagem.tamanho,
+                montagem.alinhamento);
+        for (Fragmento fragmento : montagem.fragmentos) {
+            int posicao = fragmento.posicao;
+            if (zerados) {
+                continue;
+            }
+            if (fragmento.alvo != null) {
+                emitirSalto(montagem, secao, fragmento);
+            } else if (fragmento.alinhamento > 0 && montagem.tipo == TipoSecao.CODIGO) {
+                int restante = fragmento.tamanho();
+                while (restante > 0) {
+                    int[] nop = NOPS[Math.min(restante, NOPS.length - 1)];
+                    for (int b : nop) {
+                        bytes[posicao++] = (byte) b;
+                    }
+                    restante -= nop.length;
+                }
+            } else if (fragmento.bytes != null) {
+                System.arraycopy(fragmento.bytes, 0, bytes, posicao, fragmento.bytes.length);
+                for (Referencia referencia : fragmento.referencias) {
+                    resolver(montagem, secao, referencia.deslocada(posicao));
+                }
+            }
+        }
+        return secao;
+    }
+
+    private void emitirSalto(SecaoEmMontagem montagem, ObjetoX86.Secao secao, Fragmento fragmento) {
+        byte[] bytes = secao.bytes;
+        int posicao = fragmento.posicao;
+        if (!fragmento.longo) {
+            bytes[posicao] = (byte) (fragmento.condicao < 0 ? 0xEB : 0x70 + fragmento.condicao);
+            bytes[posicao + 1] = (byte) (posicao(fragmento.alvo) - (posicao + 2));
+            return;
+        }
+        if (fragmento.condicao < 0) {
+            bytes[posicao++] = (byte) 0xE9;
+        } else {
+            bytes[posicao++] = 0x0F;
+            bytes[posicao++] = (byte) (0x80 + fragmento.condicao);
+        }
+        resolver(montagem, secao, new Referencia(posicao, fragmento.alvo, 0, true, 4));
+    }
+
+    // Completa o campo se o destino for da mesma seção; senão, relocação.
+    private void resolver(SecaoEmMontagem montagem, ObjetoX86.Secao secao, Referencia referencia) {
+        Marca marca = rotulos.get(referencia.simbolo());
+        if (marca == null) {
+            objeto.externos.add(referencia.simbolo());
+            secao.relocacoes.add(new Relocacao(referencia.posicao(), referencia.simbolo(), false,
+                    referencia.adendo(), referencia.relativa(), referencia.fim()));
+            return;
+        }
+        long endereco = posicao(referencia.simbolo()) + referencia.adendo();
+        if (referencia.relativa() && marca.secao() == montagem) {
+            escrever32(secao.bytes, referencia.posicao(), endereco - (referencia.posicao() + referencia.fim()));
+            return;
+        }
+        secao.relocacoes.add(new Relocacao(referencia.posicao(), marca.secao().nome, true, endereco,
+                referencia.relativa(), referencia.fim()));
+    }
+
+    static void escrever32(byte[] bytes, int posicao, long valor) {
+        for (int i = 0; i < 4; i++) {
+            bytes[posicao + i] = (byte) (valor >> (8 * i));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resultado do MontadorObjeto, independente do formato do arquivo: seções
+ * com os bytes já posicionados, rótulos, relocações pendentes e símbolos
+ * externos. O EscritorCOFF e o EscritorELF só traduzem esta estrutura.
+ */
+final class ObjetoX86 {
+
+    enum TipoSecao {
+        CODIGO, DADOS, SOMENTE_LEITURA, ZERADOS
+    }
+
+    static final class Secao {
+        final String nome;
+        final TipoSecao tipo;
+        final byte[] bytes; // Vazio em ZERADOS.
+        final int tamanho;
+        final int alinhamento;
+        final List<Relocacao> relocacoes = new ArrayList<>();
+
+        Secao(String nome, TipoSecao tipo, byte[] bytes, int tamanho, int alinhamento) {
+            this.nome = nome;
+            this.tipo = tipo;
+            this.bytes = bytes;
+            this.tamanho = tamanho;
+            this.alinhamento = alinhamento;
+        }
+    }
+
+    /**
+     * Campo de 32 bits que o ligador completa. 'secao' diz se o símbolo é uma
+     * seção deste objeto (rótulo local já convertido em seção + deslocamento)
+     * ou um nome externo. 'adendo' e 'fim' têm o sentido da Referencia do
+     * CodificadorX86.
+     */
+    record Relocacao(int posicao, String simbolo, boolean secao, long adendo, boolean relativa, int fim) {
+    }
+
+    record Rotulo(String secao, int deslocamento) {
+    }
+
+    final List<Secao> secoes = new ArrayList<>();
+    final Map<String, Rotulo> rotulos = new LinkedHashMap<>();
+    final Set<String> globais = new LinkedHashSet<>();
+    final Set<String> externos = new LinkedHashSet<>();
+    final List<String> diretivasLigador = new ArrayList<>();
+
+    Secao secao(String nome) {
+        for (Secao secao : secoes) {
+            if (secao.nome.equals(nome)) {
+                return secao;
+            }
+        }
+        return null;
+    }
+
+    int indiceSecao(String nome) {
+        for (int i = 0; i < secoes.size(); i++) {
+            if (secoes.get(i).nome.equals(nome)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    int tamanhoTotal() {
+        int total = 0;
+        for (Secao secao : secoes) {
+            total += secao.tamanho;
+        }
+        return total;
+    }
+}
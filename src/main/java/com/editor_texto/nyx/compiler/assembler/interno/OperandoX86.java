@@ -0,0 +1,298 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Operando já decodificado para o CodificadorX86: registrador, imediato
+ * (número ou endereço de um símbolo) ou memória. O texto é o mesmo nas duas
+ * sintaxes usadas pelos geradores (MASM e GAS Intel): "byte ptr [edi]",
+ * "[esp+8]", "DWORD PTR [rip + v_x]", "offset str1", "'0'", "0FFh", "0x10".
+ */
+final class OperandoX86 {
+
+    enum Tipo {
+        REGISTRADOR, IMEDIATO, MEMORIA
+    }
+
+    // Código e tamanho (em bits) de cada registrador aceito.
+    private static final Map<String, int[]> REGISTRADORES = Map.ofEntries(
+            Map.entry("al", new int[] { 0, 8 }), Map.entry("cl", new int[] { 1, 8 }),
+            Map.entry("dl", new int[] { 2, 8 }), Map.entry("bl", new int[] { 3, 8 }),
+            Map.entry("ah", new int[] { 4, 8 }), Map.entry("ch", new int[] { 5, 8 }),
+            Map.entry("dh", new int[] { 6, 8 }), Map.entry("bh", new int[] { 7, 8 }),
+            Map.entry("ax", new int[] { 0, 16 }), Map.entry("cx", new int[] { 1, 16 }),
+            Map.entry("dx", new int[] { 2, 16 }), Map.entry("bx", new int[] { 3, 16 }),
+            Map.entry("sp", new int[] { 4, 16 }), Map.entry("bp", new int[] { 5, 16 }),
+            Map.entry("si", new int[] { 6, 16 }), Map.entry("di", new int[] { 7, 16 }),
+            Map.entry("eax", new int[] { 0, 32 }), Map.entry("ecx", new int[] { 1, 32 }),
+            Map.entry("edx", new int[] { 2, 32 }), Map.entry("ebx", new int[] { 3, 32 }),
+            Map.entry("esp", new int[] { 4, 32 }), Map.entry("ebp", new int[] { 5, 32 }),
+            Map.entry("esi", new int[] { 6, 32 }), Map.entry("edi", new int[] { 7, 32 }),
+            Map.entry("r8d", new int[] { 8, 32 }), Map.entry("r9d", new int[] { 9, 32 }),
+            Map.entry("r10d", new int[] { 10, 32 }), Map.entry("r11d", new int[] { 11, 32 }),
+            Map.entry("rax", new int[] { 0, 64 }), Map.entry("rcx", new int[] { 1, 64 }),
+            Map.entry("rdx", new int[] { 2, 64 }), Map.entry("rbx", new int[] { 3, 64 }),
+            Map.entry("rsp", new int[] { 4, 64 }), Map.entry("rbp", new int[] { 5, 64 }),
+            Map.entry("rsi", new int[] { 6, 64 }), Map.entry("rdi", new int[] { 7, 64 }),
+            Map.entry("r8", new int[] { 8, 64 }), Map.entry("r9", new int[] { 9, 64 }),
+            Map.entry("r10", new int[] { 10, 64 }), Map.entry("r11", new int[] { 11, 64 }));
+
+    /**
+     * O que o leitor de cada sintaxe sabe sobre os nomes do programa.
+     */
+    interface Simbolos {
+        // Valor de uma constante (equ, .set), ou null.
+        Long constante(String nome);
+
+        // Tamanho em bits da variável declarada, ou 0 se não for uma (MASM).
+        int tamanho(String nome);
+    }
+
+    final Tipo tipo;
+    final int tamanho; // Em bits; 0 quando a memória não diz.
+    final int registrador; // REGISTRADOR: código 0-11.
+    final long valor; // IMEDIATO: valor; MEMORIA: deslocamento.
+    final String simbolo; // Endereço somado ao valor, ou null.
+    final int base; // MEMORIA: -1 sem base.
+    final int indice; // MEMORIA: -1 sem índice.
+    final int escala;
+    final boolean rip; // Relativo à próxima instrução (x86-64).
+    final boolean direto; // Nome sozinho: alvo de salto/call ou variável.
+
+    private OperandoX86(Tipo tipo, int tamanho, int registrador, long valor, String simbolo, int base,
+            int indice, int escala, boolean rip, boolean direto) {
+        this.tipo = tipo;
+        this.tamanho = tamanho;
+        this.registrador = registrador;
+        this.valor = valor;
+        this.simbolo = simbolo;
+        this.base = base;
+        this.indice = indice;
+        this.escala = escala;
+        this.rip = rip;
+        this.direto = direto;
+    }
+
+    static OperandoX86 registrador(int codigo, int tamanho) {
+        return new OperandoX86(Tipo.REGISTRADOR, tamanho, codigo, 0, null, -1, -1, 1, false, false);
+    }
+
+    static OperandoX86 imediato(long valor, String simbolo) {
+        return new OperandoX86(Tipo.IMEDIATO, 0, -1, valor, simbolo, -1, -1, 1, false, false);
+    }
+
+    boolean isRegistrador() {
+        return tipo == Tipo.REGISTRADOR;
+    }
+
+    boolean isImediato() {
+        return tipo == Tipo.IMEDIATO;
+    }
+
+    boolean isMemoria() {
+        return tipo == Tipo.MEMORIA;
+    }
+
+    // Cabe em um imediato de 8 bits com sinal (sem relocação).
+    boolean isCurto() {
+        return simbolo == null && valor >= -128 && valor <= 127;
+    }
+
+    // O registrador exige o prefixo REX (r8-r11).
+    boolean isEstendido() {
+        return isRegistrador() && registrador >= 8;
+    }
+
+    /**
+     * Decodifica o texto de um operando. Lança IllegalArgumentException para o
+     * que o montador interno não conhece.
+     */
+    static OperandoX86 ler(String texto, Simbolos simbolos) {
+        String resto = texto.trim();
+        String minusculo = resto.toLowerCase(Locale.ROOT);
+        int tamanho = 0;
+        for (String[] prefixo : new String[][] { { "byte", "8" }, { "word", "16" }, { "dword", "32" },
+                { "qword", "64" } }) {
+            if (minusculo.startsWith(prefixo[0] + " ptr")) {
+                tamanho = Integer.parseInt(prefixo[1]);
+                resto = resto.substring(prefixo[0].length() + 4).trim();
+                minusculo = resto.toLowerCase(Locale.ROOT);
+                break;
+            }
+        }
+        int[] registrador = REGISTRADORES.get(minusculo);
+        if (registrador != null && tamanho == 0) {
+            return registrador(registrador[0], registrador[1]);
+        }
+        if (minusculo.startsWith("offset ") || minusculo.startsWith("addr ")) {
+            Expressao expressao = Expressao.ler(resto.substring(resto.indexOf(' ') + 1), simbolos, false);
+            return imediato(expressao.deslocamento, expressao.simbolo);
+        }
+
+        int abre = resto.indexOf('[');
+        if (abre >= 0) {
+            int fecha = resto.lastIndexOf(']');
+            if (fecha < abre) {
+                throw new IllegalArgumentException("Operando malformado: " + texto);
+            }
+            // MASM aceita 'nome[ecx]' como '[nome+ecx]'.
+            String conteudo = resto.substring(abre + 1, fecha);
+            if (abre > 0) {
+                conteudo = resto.substring(0, abre) + "+" + conteudo;
+            }
+            Expressao expressao = Expressao.ler(conteudo, simbolos, true);
+            if (tamanho == 0 && expressao.simbolo != null) {
+                tamanho = simbolos.tamanho(expressao.simbolo);
+            }
+            return new OperandoX86(Tipo.MEMORIA, tamanho, -1, expressao.deslocamento, expressao.simbolo,
+                    expressao.base, expressao.indice, expressao.escala, expressao.rip, false);
+        }
+
+        Expressao expressao = Expressao.ler(resto, simbolos, false);
+        if (expressao.simbolo == null) {
+            return imediato(expressao.deslocamento, null);
+        }
+        // Nome sozinho: no MASM, uma variável é lida da memória; um rótulo é
+        // alvo de salto (o CodificadorX86 decide pelo contexto).
+        if (tamanho == 0) {
+            tamanho = simbolos.tamanho(expressao.simbolo);
+        }
+        return new OperandoX86(Tipo.MEMORIA, tamanho, -1, expressao.deslocamento, expressao.simbolo, -1, -1, 1,
+                false, true);
+    }
+
+    /**
+     * Valor de um número ou caractere: decimal, hexadecimal MASM (0FFh) ou GAS
+     * (0xFF) e caractere entre apóstrofos. Retorna null se não for um.
+     */
+    static Long numero(String texto) {
+        String t = texto.trim();
+        if (t.length() == 3 && t.charAt(0) == '\'' && t.charAt(2) == '\'') {
+            return (long) t.charAt(1);
+        }
+        boolean negativo = t.startsWith("-");
+        if (negativo) {
+            t = t.substring(1).trim();
+        }
+        if (t.isEmpty() || !Character.isDigit(t.charAt(0))) {
+            return null;
+        }
+        try {
+            long valor;
+            String minusculo = t.toLowerCase(Locale.ROOT);
+            if (minusculo.startsWith("0x")) {
+                valor = Long.parseLong(t.substring(2), 16);
+            } else if (minusculo.endsWith("h")) {
+                valor = Long.parseLong(t.substring(0, t.length() - 1), 16);
+            } else {
+                valor = Long.parseLong(t);
+            }
+            return negativo ? -valor : valor;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Nome de símbolo: letras, dígitos e _.@$?, sem começar por dígito.
+    static boolean isNome(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            boolean letra = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || "_.@$?".indexOf(c) >= 0;
+            if (!letra && (i == 0 || c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        return !texto.isEmpty();
+    }
+
+    // Soma de termos: registradores (com escala), números, constantes e no
+    // máximo um símbolo.
+    private static final class Expressao {
+        long deslocamento;
+        String simbolo;
+        int base = -1;
+        int indice = -1;
+        int escala = 1;
+        boolean rip;
+
+        static Expressao ler(String texto, Simbolos simbolos, boolean memoria) {
+            Expressao expressao = new Expressao();
+            int inicio = 0;
+            int sinal = 1;
+            String t = texto.trim();
+            for (int i = 0; i <= t.length(); i++) {
+                boolean fim = i == t.length();
+                char c = fim ? 0 : t.charAt(i);
+                if (c == '\'' && i + 2 < t.length() && t.charAt(i + 2) == '\'') {
+                    i += 2; // Caractere entre apóstrofos, que pode ser '+' ou '-'.
+                    continue;
+                }
+                if (fim || ((c == '+' || c == '-') && i > inicio)) {
+                    expressao.termo(t.substring(inicio, i).trim(), sinal, simbolos, memoria, texto);
+                    sinal = c == '-' ? -1 : 1;
+                    inicio = i + 1;
+                } else if ((c == '+' || c == '-') && i == inicio) {
+                    sinal = c == '-' ? -sinal : sinal;
+                    inicio = i + 1;
+                }
+            }
+            return expressao;
+        }
+
+        private void termo(String termo, int sinal, Simbolos simbolos, boolean memoria, String texto) {
+            if (termo.isEmpty()) {
+                throw new IllegalArgumentException("Expressão malformada: " + texto);
+            }
+            String minusculo = termo.toLowerCase(Locale.ROOT);
+            int vezes = minusculo.indexOf('*');
+            if (vezes >= 0) {
+                String esquerda = minusculo.substring(0, vezes).trim();
+                String direita = minusculo.substring(vezes + 1).trim();
+                int[] registrador = REGISTRADORES.get(esquerda);
+                Long fator = numero(direita);
+                if (registrador == null) {
+                    registrador = REGISTRADORES.get(direita);
+                    fator = numero(esquerda);
+                }
+                if (!memoria || registrador == null || fator == null || indice >= 0 || sinal < 0
+                        || (fator != 1 && fator != 2 && fator != 4 && fator != 8)) {
+                    throw new IllegalArgumentException("Índice inválido: " + texto);
+                }
+                indice = registrador[0];
+                escala = fator.intValue();
+                return;
+            }
+            if (memoria && minusculo.equals("rip") && sinal > 0) {
+                rip = true;
+                return;
+            }
+            int[] registrador = REGISTRADORES.get(minusculo);
+            if (registrador != null) {
+                if (!memoria || sinal < 0 || registrador[1] < 32) {
+                    throw new IllegalArgumentException("Registrador inválido no endereço: " + texto);
+                }
+                if (base < 0) {
+                    base = registrador[0];
+                } else if (indice < 0) {
+                    indice = registrador[0];
+                } else {
+                    throw new IllegalArgumentException("Endereço com registradores demais: " + texto);
+                }
+                return;
+            }
+            Long valor = numero(termo);
+            if (valor == null) {
+                valor = simbolos.constante(termo);
+            }
+            if (valor != null) {
+                deslocamento += sinal * valor;
+                return;
+            }
+            if (simbolo != null || sinal < 0 || !isNome(termo)) {
+                throw new IllegalArgumentException("Expressão não suportada: " + texto);
+            }
+            simbolo = termo;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Buffer de bytes little-endian usado pelos escritores de arquivos objeto.
+ */
+final class SaidaBinaria {
+
+    private byte[] bytes = new byte[4096];
+    private int tamanho;
+
+    int posicao() {
+        return tamanho;
+    }
+
+    SaidaBinaria u8(int valor) {
+        if (tamanho == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        bytes[tamanho++] = (byte) valor;
+        return this;
+    }
+
+    SaidaBinaria u16(int valor) {
+        return u8(valor).u8(valor >> 8);
+    }
+
+    SaidaBinaria u32(long valor) {
+        return u16((int) valor).u16((int) (valor >> 16));
+    }
+
+    SaidaBinaria u64(long valor) {
+        return u32(valor).u32(valor >> 32);
+    }
+
+    SaidaBinaria bytes(byte[] dados) {
+        for (byte b : dados) {
+            u8(b);
+        }
+        return this;
+    }
+
+    // Nome ASCII em um campo de tamanho fixo, completado com zeros.
+    SaidaBinaria nome(String nome, int largura) {
+        byte[] ascii = nome.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < largura; i++) {
+            u8(i < ascii.length ? ascii[i] : 0);
+        }
+        return this;
+    }
+
+    SaidaBinaria alinhar(int alinhamento) {
+        while (tamanho % alinhamento != 0) {
+            u8(0);
+        }
+        return this;
+    }
+
+    // Reescreve um campo de 32 ou 64 bits já emitido.
+    void u32Em(int posicao, long valor) {
+        for (int i = 0; i < 4; i++) {
+            bytes[posicao + i] = (byte) (valor >> (8 * i));
+        }
+    }
+
+    void u64Em(int posicao, long valor) {
+        u32Em(posicao, valor);
+        u32Em(posicao + 4, valor >> 32);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, tamanho);
+    }
+}
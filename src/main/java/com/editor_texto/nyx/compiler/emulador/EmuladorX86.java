@@ -0,0 +1,1144 @@
+package com.editor_texto.nyx.compiler.emulador;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
+import com.editor_texto.nyx.compiler.peephole.LeitorAssembly;
+import com.editor_texto.nyx.compiler.peephole.Operando;
+
+/**
+ * Executa em Java o código MASM de 32 bits do GeradorAssembly (com o
+ * RuntimeLC anexado), sem montar nem precisar do Windows. Serve para validar
+ * o .asm otimizado em qualquer sistema e medir, de forma determinística,
+ * quantas instruções e acessos à memória cada configuração do Otimizador
+ * executa.
+ *
+ * Lê a mesma lista de Instrucao que as otimizações alteram (ou o texto do
+ * arquivo): a seção .data vira uma imagem de memória e cada instrução é
+ * decodificada uma vez antes da execução. As APIs chamadas por 'invoke'
+ * (ExitProcess, GetStdHandle, WriteFile, ReadFile e, para o arquivo de
+ * perfil, CreateFileA e CloseHandle) e as funções crt_printf, crt_scanf,
+ * crt_gets e crt_strcpy da msvcrt são implementadas aqui, sobre a entrada e
+ * a saída recebidas; os arquivos criados ficam em memória, no resultado, e
+ * o rdtsc conta instruções em vez de ciclos. Depois de uma chamada externa ecx e edx ficam
+ * com lixo, como a convenção permite, para que o código que dependa deles
+ * falhe também no emulador.
+ *
+ * Instruções, diretivas e operandos desconhecidos lançam
+ * IllegalArgumentException na construção; acesso fora da memória e retorno
+ * para endereço inválido lançam IllegalStateException; divisão por zero,
+ * ArithmeticException.
+ */
+public class EmuladorX86 {
+
+    // A .data começa em BASE_DADOS e a pilha vem logo depois. O código não
+    // fica na memória: os endereços de retorno são BASE_CODIGO + índice.
+    private static final int BASE_DADOS = 0x00403000;
+    private static final int TAMANHO_PILHA = 256 * 1024;
+    private static final int BASE_CODIGO = 0x00401000;
+    private static final int LIXO = 0xCCCCCCCC;
+
+    private static final int EAX = 0;
+    private static final int ECX = 1;
+    private static final int EDX = 2;
+    private static final int ESP = 4;
+
+    private static final long MASCARA_32 = 0xFFFFFFFFL;
+
+    private static final int MOV = 0;
+    private static final int MOVZX = 1;
+    private static final int MOVSX = 2;
+    private static final int LEA = 3;
+    private static final int XCHG = 4;
+    private static final int PUSH = 5;
+    private static final int POP = 6;
+    private static final int ADD = 7;
+    private static final int SUB = 8;
+    private static final int CMP = 9;
+    private static final int AND = 10;
+    private static final int OR = 11;
+    private static final int XOR = 12;
+    private static final int TEST = 13;
+    private static final int INC = 14;
+    private static final int DEC = 15;
+    private static final int NEG = 16;
+    private static final int NOT = 17;
+    private static final int IMUL = 18;
+    private static final int MUL = 19;
+    private static final int IDIV = 20;
+    private static final int DIV = 21;
+    private static final int CDQ = 22;
+    private static final int SHL = 23;
+    private static final int SHR = 24;
+    private static final int SAR = 25;
+    private static final int JMP = 26;
+    private static final int JCC = 27;
+    private static final int SETCC = 28;
+    private static final int CMOVCC = 29;
+    private static final int CALL = 30;
+    private static final int RET = 31;
+    private static final int INVOKE = 32;
+    private static final int NOP = 33;
+    private static final int ADC = 34;
+    private static final int SBB = 35;
+    private static final int RDTSC = 36;
+
+    private static final Map<String, Integer> OPERACOES = Map.ofEntries(Map.entry("mov", MOV),
+            Map.entry("movzx", MOVZX), Map.entry("movsx", MOVSX), Map.entry("lea", LEA), Map.entry("xchg", XCHG),
+            Map.entry("push", PUSH), Map.entry("pop", POP), Map.entry("add", ADD), Map.entry("sub", SUB),
+            Map.entry("cmp", CMP), Map.entry("and", AND), Map.entry("or", OR), Map.entry("xor", XOR),
+            Map.entry("test", TEST), Map.entry("inc", INC), Map.entry("dec", DEC), Map.entry("neg", NEG),
+            Map.entry("not", NOT), Map.entry("imul", IMUL), Map.entry("mul", MUL), Map.entry("idiv", IDIV),
+            Map.entry("div", DIV), Map.entry("cdq", CDQ), Map.entry("shl", SHL), Map.entry("sal", SHL),
+            Map.entry("shr", SHR), Map.entry("sar", SAR), Map.entry("jmp", JMP), Map.entry("call", CALL),
+            Map.entry("ret", RET), Map.entry("invoke", INVOKE), Map.entry("nop", NOP), Map.entry("adc", ADC),
+            Map.entry("sbb", SBB), Map.entry("rdtsc", RDTSC));
+
+    // Constantes de windows.inc usadas pelo runtime e pelo perfil.
+    private static final Map<String, Integer> CONSTANTES_WINDOWS = Map.of("STD_INPUT_HANDLE", -10,
+            "STD_OUTPUT_HANDLE", -11, "STD_ERROR_HANDLE", -12, "NULL", 0, "FALSE", 0, "TRUE", 1,
+            "GENERIC_WRITE", 0x40000000, "CREATE_ALWAYS", 2, "FILE_ATTRIBUTE_NORMAL", 0x80,
+            "INVALID_HANDLE_VALUE", -1);
+
+    // APIs stdcall e o total de bytes dos parâmetros.
+    private static final Map<String, Integer> APIS = Map.of("ExitProcess", 4, "GetStdHandle", 4, "WriteFile", 20,
+            "ReadFile", 20, "CreateFileA", 28, "CloseHandle", 4);
+
+    // Handles dos arquivos criados por CreateFileA.
+    private static final int PRIMEIRO_HANDLE = 0x100;
+
+    // Funções cdecl da msvcrt (a pilha é liberada por quem chama).
+    private static final Set<String> FUNCOES_CRT = Set.of("crt_printf", "crt_scanf", "crt_gets", "crt_strcpy");
+
+    // Instrução decodificada; 'tamanho' é o da operação, em bits.
+    private static final class Decodificada {
+        int operacao;
+        int condicao;
+        int tamanho = 32;
+        OperandoEmulado[] operandos;
+        String funcao;
+        int posicao;
+        String texto;
+    }
+
+    private final Map<String, Integer> constantes = new HashMap<>(CONSTANTES_WINDOWS);
+    private final Map<String, Integer> enderecos = new HashMap<>();
+    private final Map<String, String> apelidos = new HashMap<>(); // 'nome equ addr rotulo'.
+    private final Map<String, Integer> tamanhos = new HashMap<>();
+    private final Map<String, Integer> destinos = new HashMap<>();
+    private final OperandoEmulado.Simbolos simbolos = new OperandoEmulado.Simbolos() {
+        @Override
+        public Integer constante(String nome) {
+            return constantes.get(nome);
+        }
+
+        @Override
+        public Integer endereco(String nome) {
+            String alvo = apelidos.get(nome);
+            return enderecos.get(alvo != null ? alvo : nome);
+        }
+
+        @Override
+        public int tamanho(String nome) {
+            return tamanhos.getOrDefault(nome, 0);
+        }
+
+        @Override
+        public Integer destino(String nome) {
+            return destinos.get(nome);
+        }
+    };
+
+    private final ByteArrayOutputStream dados = new ByteArrayOutputStream();
+    private final byte[] imagem;
+    private final Decodificada[] codigo;
+    private final int tamanhoLista;
+    private final int entrada;
+    private long limiteInstrucoes;
+
+    // Estado de uma execução.
+    private final int[] r = new int[8];
+    private boolean zf;
+    private boolean sf;
+    private boolean cf;
+    private boolean of;
+    private byte[] memoria;
+    private long instrucoes;
+    private long leituras;
+    private long escritas;
+    private long[] execucoes;
+    private Map<String, Long> chamadas;
+    private Map<String, ByteArrayOutputStream> arquivos;
+    private Map<Integer, ByteArrayOutputStream> abertos;
+    private PushbackInputStream in;
+    private OutputStream out;
+    private int codigoSaida;
+
+    public EmuladorX86(List<Instrucao> lista) {
+        this.tamanhoLista = lista.size();
+        int inicioCodigo = 0;
+        while (inicioCodigo < lista.size()) {
+            Instrucao instrucao = lista.get(inicioCodigo++);
+            String texto = semComentario(instrucao.toString());
+            if (texto.equalsIgnoreCase(".code")) {
+                break;
+            }
+            if (instrucao.getTipo() == Instrucao.Tipo.DIRETIVA) {
+                lerDiretiva(texto);
+            }
+        }
+        this.imagem = dados.toByteArray();
+
+        // Rótulos primeiro: os saltos podem ir para a frente.
+        String nomeEntrada = null;
+        int quantidade = 0;
+        for (int i = inicioCodigo; i < lista.size(); i++) {
+            Instrucao instrucao = lista.get(i);
+            if (instrucao.isRotulo()) {
+                destinos.put(instrucao.getMnemonico(), quantidade);
+            } else if (instrucao.isInstrucao() && !instrucao.is("align")) {
+                quantidade++;
+            } else if (instrucao.getTipo() == Instrucao.Tipo.DIRETIVA) {
+                String[] partes = semComentario(instrucao.toString()).split("\\s+");
+                if (partes.length == 2 && partes[0].equalsIgnoreCase("end")) {
+                    nomeEntrada = partes[1];
+                }
+            }
+        }
+        this.codigo = new Decodificada[quantidade];
+        int proxima = 0;
+        for (int i = inicioCodigo; i < lista.size(); i++) {
+            Instrucao instrucao = lista.get(i);
+            if (instrucao.isInstrucao() && !instrucao.is("align")) {
+                codigo[proxima] = decodificar(instrucao);
+                codigo[proxima++].posicao = i;
+            }
+        }
+        Integer destinoEntrada = nomeEntrada != null ? destinos.get(nomeEntrada) : null;
+        this.entrada = destinoEntrada != null ? destinoEntrada : 0;
+    }
+
+    // Código completo em um único texto, como o do arquivo .asm.
+    public static EmuladorX86 ler(String codigoAssembly) {
+        return new EmuladorX86(new LeitorAssembly().ler(codigoAssembly));
+    }
+
+    public static EmuladorX86 ler(Path arquivoAsm) throws IOException {
+        return new EmuladorX86(new LeitorAssembly().ler(Files.readAllLines(arquivoAsm, StandardCharsets.UTF_8)));
+    }
+
+    // Zero (o padrão) executa sem limite.
+    public void setLimiteInstrucoes(long limiteInstrucoes) {
+        this.limiteInstrucoes = limiteInstrucoes;
+    }
+
+    // Instruções do programa, sem contar rótulos, diretivas e 'align'.
+    public int getTamanho() {
+        return codigo.length;
+    }
+
+    /**
+     * Executa do ponto de entrada ('end start') até ExitProcess, até o 'ret'
+     * final ou até o limite de instruções. Cada chamada começa com a memória
+     * no estado inicial.
+     */
+    public ResultadoEmulacao executar(InputStream entradaPadrao, OutputStream saidaPadrao) {
+        Arrays.fill(r, 0);
+        zf = sf = cf = of = false;
+        memoria = Arrays.copyOf(imagem, imagem.length + TAMANHO_PILHA);
+        instrucoes = leituras = escritas = 0;
+        execucoes = new long[tamanhoLista];
+        chamadas = new LinkedHashMap<>();
+        arquivos = new LinkedHashMap<>();
+        abertos = new HashMap<>();
+        in = new PushbackInputStream(entradaPadrao, 1);
+        out = saidaPadrao;
+        codigoSaida = 0;
+
+        // O 'ret' para o fim do código encerra o programa, como a volta do
+        // ponto de entrada para o sistema.
+        r[ESP] = BASE_DADOS + memoria.length - 4;
+        escreverMemoria(r[ESP], 32, BASE_CODIGO + codigo.length);
+
+        boolean limiteAtingido = false;
+        try {
+            int pc = entrada;
+            while (pc >= 0) {
+                if (pc == codigo.length) {
+                    codigoSaida = r[EAX];
+                    break;
+                }
+                if (limiteInstrucoes > 0 && instrucoes >= limiteInstrucoes) {
+                    limiteAtingido = true;
+                    break;
+                }
+                Decodificada instrucao = codigo[pc];
+                execucoes[instrucao.posicao]++;
+                instrucoes++;
+                pc = executar(instrucao, pc);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<String, byte[]> gravados = new LinkedHashMap<>();
+        arquivos.forEach((nome, conteudo) -> gravados.put(nome, conteudo.toByteArray()));
+        return new ResultadoEmulacao(codigoSaida, instrucoes, leituras, escritas, limiteAtingido, execucoes,
+                chamadas, gravados);
+    }
+
+    // Executa uma instrução e retorna o índice da próxima (-1 no fim).
+    private int executar(Decodificada d, int pc) throws IOException {
+        OperandoEmulado[] o = d.operandos;
+        int t = d.tamanho;
+        switch (d.operacao) {
+            case MOV -> escrever(o[0], ler(o[1], t), t);
+            case MOVZX -> escrever(o[0], ler(o[1], o[1].tamanho), t);
+            case MOVSX -> escrever(o[0], comSinal(ler(o[1], o[1].tamanho), o[1].tamanho) & mascara(t), t);
+            case LEA -> escrever(o[0], endereco(o[1]) & MASCARA_32, 32);
+            case XCHG -> {
+                long a = ler(o[0], t);
+                long b = ler(o[1], t);
+                escrever(o[0], b, t);
+                escrever(o[1], a, t);
+            }
+            case PUSH -> empilhar((int) ler(o[0], 32));
+            case POP -> escrever(o[0], desempilhar() & MASCARA_32, 32);
+            case ADD -> escrever(o[0], somar(ler(o[0], t), ler(o[1], t), t), t);
+            case SUB -> escrever(o[0], subtrair(ler(o[0], t), ler(o[1], t), t), t);
+            case ADC -> {
+                long transporte = cf ? 1 : 0;
+                long a = ler(o[0], t);
+                long b = ler(o[1], t);
+                long resultado = somar(a, b + transporte, t);
+                cf = a + b + transporte > mascara(t);
+                escrever(o[0], resultado, t);
+            }
+            case SBB -> {
+                long emprestimo = cf ? 1 : 0;
+                long a = ler(o[0], t);
+                long b = ler(o[1], t);
+                long resultado = subtrair(a, b + emprestimo, t);
+                cf = a < b + emprestimo;
+                escrever(o[0], resultado, t);
+            }
+            case RDTSC -> {
+                // O "relógio" é o número de instruções executadas, que não
+                // muda de uma execução para outra.
+                r[EAX] = (int) instrucoes;
+                r[EDX] = (int) (instrucoes >>> 32);
+            }
+            case CMP -> subtrair(ler(o[0], t), ler(o[1], t), t);
+            case AND -> escrever(o[0], logica(ler(o[0], t) & ler(o[1], t), t), t);
+            case OR -> escrever(o[0], logica(ler(o[0], t) | ler(o[1], t), t), t);
+            case XOR -> escrever(o[0], logica(ler(o[0], t) ^ ler(o[1], t), t), t);
+            case TEST -> logica(ler(o[0], t) & ler(o[1], t), t);
+            case INC -> {
+                long resultado = (ler(o[0], t) + 1) & mascara(t);
+                of = resultado == bitSinal(t);
+                resultadoFlags(resultado, t);
+                escrever(o[0], resultado, t);
+            }
+            case DEC -> {
+                long valor = ler(o[0], t);
+                long resultado = (valor - 1) & mascara(t);
+                of = valor == bitSinal(t);
+                resultadoFlags(resultado, t);
+                escrever(o[0], resultado, t);
+            }
+            case NEG -> {
+                long valor = ler(o[0], t);
+                long resultado = -valor & mascara(t);
+                cf = valor != 0;
+                of = valor == bitSinal(t);
+                resultadoFlags(resultado, t);
+                escrever(o[0], resultado, t);
+            }
+            case NOT -> escrever(o[0], ~ler(o[0], t) & mascara(t), t);
+            case IMUL -> multiplicarComSinal(o);
+            case MUL -> {
+                long produto = (r[EAX] & MASCARA_32) * ler(o[0], 32);
+                r[EAX] = (int) produto;
+                r[EDX] = (int) (produto >>> 32);
+                cf = of = r[EDX] != 0;
+            }
+            case IDIV -> dividirComSinal(d);
+            case DIV -> {
+                long divisor = ler(o[0], 32);
+                if (divisor == 0) {
+                    throw new ArithmeticException("Divisão por zero em '" + d.texto + "'");
+                }
+                long dividendo = ((long) r[EDX] << 32) | (r[EAX] & MASCARA_32);
+                long quociente = Long.divideUnsigned(dividendo, divisor);
+                if (Long.compareUnsigned(quociente, MASCARA_32) > 0) {
+                    throw new ArithmeticException("Estouro na divisão em '" + d.texto + "'");
+                }
+                r[EAX] = (int) quociente;
+                r[EDX] = (int) Long.remainderUnsigned(dividendo, divisor);
+            }
+            case CDQ -> r[EDX] = r[EAX] >> 31;
+            case SHL, SHR, SAR -> deslocar(d.operacao, o[0], (int) ler(o[1], 8) & 31, t);
+            case JMP -> {
+                return o[0].valor;
+            }
+            case JCC -> {
+                return testar(d.condicao) ? o[0].valor : pc + 1;
+            }
+            case SETCC -> escrever(o[0], testar(d.condicao) ? 1 : 0, 8);
+            case CMOVCC -> {
+                long valor = ler(o[1], 32); // A leitura acontece mesmo sem a cópia.
+                if (testar(d.condicao)) {
+                    escrever(o[0], valor, 32);
+                }
+            }
+            case CALL -> {
+                empilhar(BASE_CODIGO + pc + 1);
+                return o[0].valor;
+            }
+            case RET -> {
+                int retorno = desempilhar() - BASE_CODIGO;
+                if (o.length > 0) {
+                    r[ESP] += o[0].valor;
+                }
+                if (retorno == codigo.length) {
+                    codigoSaida = r[EAX];
+                    return -1;
+                }
+                if (retorno < 0 || retorno > codigo.length) {
+                    throw new IllegalStateException(String.format("Retorno para endereço inválido (0x%08X) em '%s'",
+                            retorno + BASE_CODIGO, d.texto));
+                }
+                return retorno;
+            }
+            case INVOKE -> {
+                return invocar(d) ? pc + 1 : -1;
+            }
+            case NOP -> {
+            }
+            default -> throw new IllegalStateException("Operação inválida: " + d.texto);
+        }
+        return pc + 1;
+    }
+
+    private void multiplicarComSinal(OperandoEmulado[] o) {
+        if (o.length == 1) {
+            long produto = (long) r[EAX] * (int) ler(o[0], 32);
+            r[EAX] = (int) produto;
+            r[EDX] = (int) (produto >> 32);
+            cf = of = produto != (int) produto;
+            return;
+        }
+        long esquerda = o.length == 2 ? (int) ler(o[0], 32) : (int) ler(o[1], 32);
+        long produto = esquerda * (int) ler(o[o.length - 1], 32);
+        cf = of = produto != (int) produto;
+        resultadoFlags(produto & MASCARA_32, 32);
+        escrever(o[0], produto & MASCARA_32, 32);
+    }
+
+    private void dividirComSinal(Decodificada d) {
+        int divisor = (int) ler(d.operandos[0], 32);
+        if (divisor == 0) {
+            throw new ArithmeticException("Divisão por zero em '" + d.texto + "'");
+        }
+        long dividendo = ((long) r[EDX] << 32) | (r[EAX] & MASCARA_32);
+        long quociente = dividendo / divisor;
+        if (quociente != (int) quociente) {
+            throw new ArithmeticException("Estouro na divisão em '" + d.texto + "'");
+        }
+        r[EAX] = (int) quociente;
+        r[EDX] = (int) (dividendo % divisor);
+    }
+
+    // Com contagem zero nada muda, nem as flags.
+    private void deslocar(int operacao, OperandoEmulado destino, int contagem, int t) {
+        if (contagem == 0) {
+            return;
+        }
+        long valor = ler(destino, t);
+        long resultado;
+        if (operacao == SHL) {
+            resultado = (valor << contagem) & mascara(t);
+            cf = contagem <= t && ((valor >>> (t - contagem)) & 1) != 0;
+            of = ((resultado & bitSinal(t)) != 0) != cf;
+        } else if (operacao == SHR) {
+            resultado = valor >>> contagem;
+            cf = ((valor >>> (contagem - 1)) & 1) != 0;
+            of = (valor & bitSinal(t)) != 0;
+        } else {
+            long comSinal = comSinal(valor, t);
+            resultado = (comSinal >> contagem) & mascara(t);
+            cf = ((comSinal >> (contagem - 1)) & 1) != 0;
+            of = false;
+        }
+        resultadoFlags(resultado, t);
+        escrever(destino, resultado, t);
+    }
+
+    private long somar(long a, long b, int t) {
+        long soma = a + b;
+        long resultado = soma & mascara(t);
+        cf = soma != resultado;
+        of = ((a ^ resultado) & (b ^ resultado) & bitSinal(t)) != 0;
+        resultadoFlags(resultado, t);
+        return resultado;
+    }
+
+    private long subtrair(long a, long b, int t) {
+        long resultado = (a - b) & mascara(t);
+        cf = a < b;
+        of = ((a ^ b) & (a ^ resultado) & bitSinal(t)) != 0;
+        resultadoFlags(resultado, t);
+        return resultado;
+    }
+
+    private long logica(long resultado, int t) {
+        cf = of = false;
+        resultadoFlags(resultado, t);
+        return resultado;
+    }
+
+    private void resultadoFlags(long resultado, int t) {
+        zf = resultado == 0;
+        sf = (resultado & bitSinal(t)) != 0;
+    }
+
+    // Códigos de condição na numeração do x86 (o sufixo dos jcc).
+    private boolean testar(int condicao) {
+        return switch (condicao) {
+            case 0 -> of;
+            case 1 -> !of;
+            case 2 -> cf;
+            case 3 -> !cf;
+            case 4 -> zf;
+            case 5 -> !zf;
+            case 6 -> cf || zf;
+            case 7 -> !cf && !zf;
+            case 8 -> sf;
+            case 9 -> !sf;
+            case 12 -> sf != of;
+            case 13 -> sf == of;
+            case 14 -> zf || sf != of;
+            case 15 -> !zf && sf == of;
+            default -> throw new IllegalStateException("Condição inválida: " + condicao);
+        };
+    }
+
+    private static long mascara(int t) {
+        return t == 32 ? MASCARA_32 : (1L << t) - 1;
+    }
+
+    private static long bitSinal(int t) {
+        return 1L << (t - 1);
+    }
+
+    private static long comSinal(long valor, int t) {
+        return switch (t) {
+            case 8 -> (byte) valor;
+            case 16 -> (short) valor;
+            default -> (int) valor;
+        };
+    }
+
+    // Valor sem sinal do operando, com 't' bits.
+    private long ler(OperandoEmulado operando, int t) {
+        switch (operando.tipo) {
+            case REGISTRADOR -> {
+                int valor = r[operando.registrador];
+                return switch (operando.tamanho) {
+                    case 8 -> operando.alto ? (valor >>> 8) & 0xFF : valor & 0xFF;
+                    case 16 -> valor & 0xFFFF;
+                    default -> valor & MASCARA_32;
+                };
+            }
+            case IMEDIATO -> {
+                return operando.valor & mascara(t);
+            }
+            case MEMORIA -> {
+                leituras++;
+                return lerMemoria(endereco(operando), t);
+            }
+            default -> throw new IllegalStateException("Operando não pode ser lido: " + operando);
+        }
+    }
+
+    private void escrever(OperandoEmulado operando, long valor, int t) {
+        int v = (int) valor;
+        switch (operando.tipo) {
+            case REGISTRADOR -> {
+                int atual = r[operando.registrador];
+                r[operando.registrador] = switch (operando.tamanho) {
+                    case 8 -> operando.alto ? (atual & ~0xFF00) | ((v & 0xFF) << 8) : (atual & ~0xFF) | (v & 0xFF);
+                    case 16 -> (atual & ~0xFFFF) | (v & 0xFFFF);
+                    default -> v;
+                };
+            }
+            case MEMORIA -> {
+                escritas++;
+                escreverMemoria(endereco(operando), t, v);
+            }
+            default -> throw new IllegalStateException("Operando não pode ser escrito: " + operando);
+        }
+    }
+
+    private int endereco(OperandoEmulado operando) {
+        int endereco = operando.valor;
+        if (operando.base >= 0) {
+            endereco += r[operando.base];
+        }
+        if (operando.indice >= 0) {
+            endereco += r[operando.indice] * operando.escala;
+        }
+        return endereco;
+    }
+
+    private int indiceMemoria(int endereco, int bytes) {
+        long indice = (endereco & MASCARA_32) - BASE_DADOS;
+        if (indice < 0 || indice + bytes > memoria.length) {
+            throw new IllegalStateException(String.format("Acesso inválido à memória em 0x%08X", endereco));
+        }
+        return (int) indice;
+    }
+
+    private long lerMemoria(int endereco, int t) {
+        int bytes = t / 8;
+        int indice = indiceMemoria(endereco, bytes);
+        long valor = 0;
+        for (int i = 0; i < bytes; i++) {
+            valor |= (memoria[indice + i] & 0xFFL) << (8 * i);
+        }
+        return valor;
+    }
+
+    private void escreverMemoria(int endereco, int t, int valor) {
+        int bytes = t / 8;
+        int indice = indiceMemoria(endereco, bytes);
+        for (int i = 0; i < bytes; i++) {
+            memoria[indice + i] = (byte) (valor >> (8 * i));
+        }
+    }
+
+    private void empilhar(int valor) {
+        r[ESP] -= 4;
+        escritas++;
+        escreverMemoria(r[ESP], 32, valor);
+    }
+
+    private int desempilhar() {
+        leituras++;
+        int valor = (int) lerMemoria(r[ESP], 32);
+        r[ESP] += 4;
+        return valor;
+    }
+
+    /**
+     * 'invoke' como o MASM o expande: push dos argumentos do último para o
+     * primeiro, call e, nas funções da msvcrt, add esp. Retorna false se o
+     * programa terminou (ExitProcess).
+     */
+    private boolean invocar(Decodificada d) throws IOException {
+        OperandoEmulado[] argumentos = d.operandos;
+        for (int i = argumentos.length - 1; i >= 0; i--) {
+            instrucoes++;
+            empilhar((int) ler(argumentos[i], 32));
+        }
+        // O call (já contado) grava o retorno e o 'ret' da função o lê.
+        escritas++;
+        leituras++;
+        chamadas.merge(d.funcao, 1L, Long::sum);
+        int[] valores = new int[argumentos.length];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = (int) lerMemoria(r[ESP] + 4 * i, 32);
+        }
+        r[ESP] += 4 * argumentos.length;
+        if (FUNCOES_CRT.contains(d.funcao) && argumentos.length > 0) {
+            instrucoes++;
+        }
+
+        int resultado;
+        switch (d.funcao) {
+            case "ExitProcess" -> {
+                codigoSaida = valores[0];
+                return false;
+            }
+            case "GetStdHandle" -> resultado = valores[0];
+            case "CreateFileA" -> {
+                // Só criação para escrita (o arquivo de perfil); o conteúdo fica
+                // no resultado, nada vai para o disco.
+                ByteArrayOutputStream arquivo = new ByteArrayOutputStream();
+                arquivos.put(new String(lerTexto(valores[0]), StandardCharsets.ISO_8859_1), arquivo);
+                resultado = PRIMEIRO_HANDLE;
+                while (abertos.containsKey(resultado)) {
+                    resultado += 4;
+                }
+                abertos.put(resultado, arquivo);
+            }
+            case "CloseHandle" -> resultado = abertos.remove(valores[0]) != null ? 1 : 0;
+            case "WriteFile" -> {
+                OutputStream destino = abertos.containsKey(valores[0]) ? abertos.get(valores[0]) : out;
+                destino.write(memoria, indiceMemoria(valores[1], valores[2]), valores[2]);
+                if (valores[3] != 0) {
+                    escreverMemoria(valores[3], 32, valores[2]);
+                }
+                resultado = 1;
+            }
+            case "ReadFile" -> {
+                int lidos = valores[2] == 0 ? 0 : in.read(memoria, indiceMemoria(valores[1], valores[2]), valores[2]);
+                if (valores[3] != 0) {
+                    escreverMemoria(valores[3], 32, Math.max(lidos, 0));
+                }
+                resultado = 1;
+            }
+            case "crt_strcpy" -> {
+                byte[] texto = lerTexto(valores[1]);
+                int destino = indiceMemoria(valores[0], texto.length + 1);
+                System.arraycopy(texto, 0, memoria, destino, texto.length);
+                memoria[destino + texto.length] = 0;
+                resultado = valores[0];
+            }
+            case "crt_gets" -> resultado = lerLinha(valores[0]);
+            case "crt_printf" -> resultado = imprimir(valores);
+            case "crt_scanf" -> resultado = lerFormatado(valores);
+            default -> throw new IllegalStateException("Função externa inválida: " + d.funcao);
+        }
+        r[EAX] = resultado;
+        r[ECX] = LIXO;
+        r[EDX] = LIXO;
+        return true;
+    }
+
+    private byte[] lerTexto(int endereco) {
+        int inicio = indiceMemoria(endereco, 1);
+        int fim = inicio;
+        while (fim < memoria.length && memoria[fim] != 0) {
+            fim++;
+        }
+        return Arrays.copyOfRange(memoria, inicio, fim);
+    }
+
+    // gets: a linha sem a quebra (e sem o \r do modo texto); 0 no fim da entrada.
+    private int lerLinha(int endereco) throws IOException {
+        ByteArrayOutputStream linha = new ByteArrayOutputStream();
+        int c = in.read();
+        if (c < 0) {
+            return 0;
+        }
+        while (c >= 0 && c != '\n') {
+            if (c != '\r') {
+                linha.write(c);
+            }
+            c = in.read();
+        }
+        int destino = indiceMemoria(endereco, linha.size() + 1);
+        System.arraycopy(linha.toByteArray(), 0, memoria, destino, linha.size());
+        memoria[destino + linha.size()] = 0;
+        return endereco;
+    }
+
+    // printf com %d, %i, %u, %x, %X, %c, %s e %%, com largura e as flags '-' e '0'.
+    private int imprimir(int[] valores) throws IOException {
+        byte[] formato = lerTexto(valores[0]);
+        ByteArrayOutputStream texto = new ByteArrayOutputStream();
+        int argumento = 1;
+        for (int i = 0; i < formato.length; i++) {
+            if (formato[i] != '%' || i + 1 == formato.length) {
+                texto.write(formato[i]);
+                continue;
+            }
+            i++;
+            boolean esquerda = false;
+            boolean zeros = false;
+            while (formato[i] == '-' || formato[i] == '0') {
+                esquerda |= formato[i] == '-';
+                zeros |= formato[i] == '0';
+                i++;
+            }
+            int largura = 0;
+            while (formato[i] >= '0' && formato[i] <= '9') {
+                largura = largura * 10 + formato[i++] - '0';
+            }
+            char conversao = (char) formato[i];
+            if (conversao == '%') {
+                texto.write('%');
+                continue;
+            }
+            int valor = argumento < valores.length ? valores[argumento++] : 0;
+            byte[] campo = switch (conversao) {
+                case 'd', 'i' -> Integer.toString(valor).getBytes(StandardCharsets.US_ASCII);
+                case 'u' -> Integer.toUnsignedString(valor).getBytes(StandardCharsets.US_ASCII);
+                case 'x' -> Integer.toHexString(valor).getBytes(StandardCharsets.US_ASCII);
+                case 'X' -> Integer.toHexString(valor).toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+                case 'c' -> new byte[] { (byte) valor };
+                case 's' -> lerTexto(valor);
+                default -> throw new IllegalStateException("Formato de printf não suportado: %" + conversao);
+            };
+            for (int p = campo.length; !esquerda && p < largura; p++) {
+                texto.write(zeros && conversao != 's' && conversao != 'c' ? '0' : ' ');
+            }
+            texto.write(campo, 0, campo.length);
+            for (int p = campo.length; esquerda && p < largura; p++) {
+                texto.write(' ');
+            }
+        }
+        texto.writeTo(out);
+        return texto.size();
+    }
+
+    // scanf com %d, %s e %c; retorna os campos lidos, ou -1 se a entrada
+    // acabou antes do primeiro.
+    private int lerFormatado(int[] valores) throws IOException {
+        byte[] formato = lerTexto(valores[0]);
+        int argumento = 1;
+        int lidos = 0;
+        for (int i = 0; i < formato.length; i++) {
+            int f = formato[i];
+            if (f == ' ' || f == '\t' || f == '\n') {
+                pularEspacos();
+                continue;
+            }
+            if (f != '%' || i + 1 == formato.length) {
+                int c = in.read();
+                if (c != f) {
+                    devolver(c);
+                    break;
+                }
+                continue;
+            }
+            char conversao = (char) formato[++i];
+            if (conversao == 'c') {
+                int c = in.read();
+                if (c < 0) {
+                    return lidos == 0 ? -1 : lidos;
+                }
+                escreverMemoria(valores[argumento++], 8, c);
+                lidos++;
+                continue;
+            }
+            int c = pularEspacos();
+            if (c < 0) {
+                return lidos == 0 ? -1 : lidos;
+            }
+            c = in.read();
+            if (conversao == 'd') {
+                boolean negativo = c == '-';
+                if (c == '-' || c == '+') {
+                    c = in.read();
+                }
+                if (c < '0' || c > '9') {
+                    devolver(c);
+                    break;
+                }
+                int numero = 0;
+                while (c >= '0' && c <= '9') {
+                    numero = numero * 10 + c - '0';
+                    c = in.read();
+                }
+                devolver(c);
+                escreverMemoria(valores[argumento++], 32, negativo ? -numero : numero);
+            } else if (conversao == 's') {
+                ByteArrayOutputStream palavra = new ByteArrayOutputStream();
+                while (c > ' ') {
+                    palavra.write(c);
+                    c = in.read();
+                }
+                devolver(c);
+                int destino = indiceMemoria(valores[argumento++], palavra.size() + 1);
+                System.arraycopy(palavra.toByteArray(), 0, memoria, destino, palavra.size());
+                memoria[destino + palavra.size()] = 0;
+            } else {
+                throw new IllegalStateException("Formato de scanf não suportado: %" + conversao);
+            }
+            lidos++;
+        }
+        return lidos;
+    }
+
+    // Consome os espaços e retorna o primeiro caractere seguinte, que fica na entrada.
+    private int pularEspacos() throws IOException {
+        int c = in.read();
+        while (c >= 0 && c <= ' ') {
+            c = in.read();
+        }
+        devolver(c);
+        return c;
+    }
+
+    private void devolver(int c) throws IOException {
+        if (c >= 0) {
+            in.unread(c);
+        }
+    }
+
+    private Decodificada decodificar(Instrucao instrucao) {
+        Decodificada d = new Decodificada();
+        d.texto = instrucao.toString().trim();
+        String mnemonico = instrucao.getMnemonico();
+        List<Operando> operandos = instrucao.getOperandos();
+
+        if (mnemonico.equals("invoke")) {
+            d.operacao = INVOKE;
+            d.funcao = operandos.get(0).getTexto();
+            Integer bytes = APIS.get(d.funcao);
+            int quantidade = operandos.size() - 1;
+            if ((bytes == null || bytes != quantidade * 4) && !FUNCOES_CRT.contains(d.funcao)) {
+                throw new IllegalArgumentException("invoke não suportado pelo emulador: " + d.texto);
+            }
+            d.operandos = new OperandoEmulado[quantidade];
+            for (int i = 0; i < quantidade; i++) {
+                d.operandos[i] = OperandoEmulado.ler(operandos.get(i + 1).getTexto(), simbolos).comTamanho(32);
+            }
+            return d;
+        }
+
+        d.operandos = new OperandoEmulado[operandos.size()];
+        for (int i = 0; i < operandos.size(); i++) {
+            d.operandos[i] = OperandoEmulado.ler(operandos.get(i).getTexto(), simbolos);
+        }
+        Integer operacao = OPERACOES.get(mnemonico);
+        if (operacao == null) {
+            operacao = condicional(mnemonico, d);
+        }
+        d.operacao = operacao;
+        validar(d);
+        return d;
+    }
+
+    // jcc, setcc e cmovcc; guarda o código da condição.
+    private int condicional(String mnemonico, Decodificada d) {
+        String prefixo = mnemonico.startsWith("j") ? "j"
+                : mnemonico.startsWith("set") ? "set" : mnemonico.startsWith("cmov") ? "cmov" : null;
+        int condicao = prefixo == null ? -1 : switch (mnemonico.substring(prefixo.length())) {
+            case "o" -> 0;
+            case "no" -> 1;
+            case "b", "c", "nae" -> 2;
+            case "ae", "nb", "nc" -> 3;
+            case "e", "z" -> 4;
+            case "ne", "nz" -> 5;
+            case "be", "na" -> 6;
+            case "a", "nbe" -> 7;
+            case "s" -> 8;
+            case "ns" -> 9;
+            case "l", "nge" -> 12;
+            case "ge", "nl" -> 13;
+            case "le", "ng" -> 14;
+            case "g", "nle" -> 15;
+            default -> -1;
+        };
+        if (condicao < 0) {
+            throw new IllegalArgumentException("Instrução não suportada pelo emulador: " + d.texto);
+        }
+        d.condicao = condicao;
+        return switch (prefixo) {
+            case "j" -> JCC;
+            case "set" -> SETCC;
+            default -> CMOVCC;
+        };
+    }
+
+    // Confere os operandos e fixa o tamanho da operação e o das memórias.
+    private void validar(Decodificada d) {
+        OperandoEmulado[] o = d.operandos;
+        int quantidade = switch (d.operacao) {
+            case CDQ, NOP, RDTSC -> 0;
+            case PUSH, POP, INC, DEC, NEG, NOT, MUL, IDIV, DIV, JMP, JCC, SETCC, CALL -> 1;
+            case RET -> o.length <= 1 ? o.length : -1;
+            case IMUL -> o.length >= 1 && o.length <= 3 ? o.length : -1;
+            default -> 2;
+        };
+        if (quantidade != o.length) {
+            throw new IllegalArgumentException("Operandos inválidos para o emulador: " + d.texto);
+        }
+        switch (d.operacao) {
+            case JMP, JCC, CALL -> exigir(o[0].tipo == OperandoEmulado.Tipo.ROTULO, d);
+            case RET -> exigir(o.length == 0 || o[0].tipo == OperandoEmulado.Tipo.IMEDIATO, d);
+            case LEA -> exigir(o[0].isRegistrador() && o[0].tamanho == 32 && o[1].isMemoria(), d);
+            case MOVZX, MOVSX -> {
+                exigir(o[0].isRegistrador(), d);
+                o[1] = o[1].comTamanho(8);
+                exigir(o[1].tamanho < o[0].tamanho, d);
+                d.tamanho = o[0].tamanho;
+            }
+            case SETCC -> {
+                o[0] = o[0].comTamanho(8);
+                exigir(o[0].tamanho == 8, d);
+                d.tamanho = 8;
+            }
+            case CMOVCC -> {
+                exigir(o[0].isRegistrador() && o[0].tamanho == 32, d);
+                o[1] = o[1].comTamanho(32);
+            }
+            case PUSH, POP, MUL, IDIV, DIV, IMUL -> {
+                for (int i = 0; i < o.length; i++) {
+                    o[i] = o[i].comTamanho(32);
+                    exigir(o[i].tamanho == 32 || o[i].tipo == OperandoEmulado.Tipo.IMEDIATO, d);
+                }
+            }
+            case INC, DEC, NEG, NOT -> {
+                o[0] = o[0].comTamanho(32);
+                d.tamanho = o[0].tamanho;
+            }
+            case SHL, SHR, SAR -> {
+                o[0] = o[0].comTamanho(32);
+                d.tamanho = o[0].tamanho;
+                exigir(o[1].tipo == OperandoEmulado.Tipo.IMEDIATO
+                        || (o[1].isRegistrador() && o[1].registrador == ECX && o[1].tamanho == 8), d);
+            }
+            case CDQ, NOP, RDTSC -> {
+            }
+            default -> {
+                // Operações com dois operandos: o registrador dá o tamanho.
+                int tamanho = o[0].isRegistrador() ? o[0].tamanho
+                        : o[1].isRegistrador() ? o[1].tamanho : Math.max(o[0].tamanho, o[1].tamanho);
+                d.tamanho = tamanho == 0 ? 32 : tamanho;
+                o[0] = o[0].comTamanho(d.tamanho);
+                o[1] = o[1].comTamanho(d.tamanho);
+                exigir(o[0].isRegistrador() || o[0].isMemoria(), d);
+            }
+        }
+        for (OperandoEmulado operando : o) {
+            exigir(operando.tipo != OperandoEmulado.Tipo.ROTULO || d.operacao == JMP || d.operacao == JCC
+                    || d.operacao == CALL, d);
+        }
+    }
+
+    private static void exigir(boolean condicao, Decodificada d) {
+        if (!condicao) {
+            throw new IllegalArgumentException("Operandos inválidos para o emulador: " + d.texto);
+        }
+    }
+
+    // Declarações da seção .data, na ordem: a posição de cada uma é o endereço.
+    private void lerDiretiva(String texto) {
+        if (texto.isEmpty()) {
+            return;
+        }
+        String[] partes = texto.split("\\s+", 3);
+        String primeira = partes[0].toLowerCase(Locale.ROOT);
+        switch (primeira) {
+            case ".686", ".586", ".486", ".386", ".model", "option", "include", "includelib", ".data" -> {
+                return;
+            }
+            case "align" -> {
+                int alinhamento = valorNumerico(partes[1]);
+                while (dados.size() % alinhamento != 0) {
+                    dados.write(0);
+                }
+                return;
+            }
+            case "db", "dw", "dd" -> {
+                // Continuação sem nome de uma declaração anterior.
+                declarar(primeira, texto.substring(partes[0].length()).trim());
+                return;
+            }
+            default -> {
+            }
+        }
+        if (partes.length == 3) {
+            String diretiva = partes[1].toLowerCase(Locale.ROOT);
+            if (diretiva.equals("equ")) {
+                String valor = partes[2].trim();
+                if (valor.toLowerCase(Locale.ROOT).startsWith("addr ")) {
+                    apelidos.put(partes[0], valor.substring(5).trim());
+                } else {
+                    constantes.put(partes[0], valorNumerico(valor));
+                }
+                return;
+            }
+            if (diretiva.equals("db") || diretiva.equals("dw") || diretiva.equals("dd")) {
+                enderecos.put(partes[0], BASE_DADOS + dados.size());
+                tamanhos.put(partes[0], diretiva.equals("db") ? 8 : diretiva.equals("dw") ? 16 : 32);
+                declarar(diretiva, partes[2]);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Diretiva não suportada pelo emulador: " + texto);
+    }
+
+    // Valores de db/dw/dd: números, constantes, strings e 'N dup(V)'.
+    private void declarar(String diretiva, String valores) {
+        int largura = diretiva.equals("db") ? 1 : diretiva.equals("dw") ? 2 : 4;
+        for (String valor : separar(valores)) {
+            int dup = valor.toLowerCase(Locale.ROOT).indexOf(" dup(");
+            if (valor.startsWith("\"") && valor.endsWith("\"") && valor.length() >= 2) {
+                if (largura != 1) {
+                    throw new IllegalArgumentException("String fora de 'db': " + valor);
+                }
+                dados.writeBytes(valor.substring(1, valor.length() - 1).getBytes(StandardCharsets.UTF_8));
+            } else if (dup > 0 && valor.endsWith(")")) {
+                int quantidade = valorNumerico(valor.substring(0, dup));
+                String repetido = valor.substring(dup + 5, valor.length() - 1).trim();
+                int elemento = repetido.equals("?") ? 0 : valorNumerico(repetido);
+                for (int i = 0; i < quantidade; i++) {
+                    inteiro(elemento, largura);
+                }
+            } else {
+                inteiro(valor.equals("?") ? 0 : valorNumerico(valor), largura);
+            }
+        }
+    }
+
+    private void inteiro(int valor, int largura) {
+        for (int i = 0; i < largura; i++) {
+            dados.write(valor >> (8 * i));
+        }
+    }
+
+    private int valorNumerico(String texto) {
+        String t = texto.trim();
+        Long valor = OperandoEmulado.numero(t);
+        if (valor != null) {
+            return valor.intValue();
+        }
+        Integer constante = constantes.get(t);
+        if (constante == null) {
+            throw new IllegalArgumentException("Valor não numérico: " + texto);
+        }
+        return constante;
+    }
+
+    // Separa por vírgulas fora das aspas.
+    private static List<String> separar(String texto) {
+        List<String> partes = new ArrayList<>();
+        boolean aspas = false;
+        int inicio = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"') {
+                aspas = !aspas;
+            } else if (c == ',' && !aspas) {
+                partes.add(texto.substring(inicio, i).trim());
+                inicio = i + 1;
+            }
+        }
+        partes.add(texto.substring(inicio).trim());
+        return partes;
+    }
+
+    private static String semComentario(String linha) {
+        boolean aspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (c == '"') {
+                aspas = !aspas;
+            } else if (c == ';' && !aspas) {
+                return linha.substring(0, i).trim();
+            }
+        }
+        return linha.trim();
+    }
+}
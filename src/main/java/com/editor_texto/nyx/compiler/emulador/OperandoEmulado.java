@@ -0,0 +1,279 @@
+package com.editor_texto.nyx.compiler.emulador;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Operando de uma instrução MASM já decodificado para o EmuladorX86:
+ * registrador, imediato (número, constante ou endereço), memória ou rótulo
+ * do código. Aceita o que o GeradorAssembly e o runtime emitem: "eax", "al",
+ * "5", "0FFh", "'0'", "offset str1", "addr x", "x", "[esp+8]",
+ * "byte ptr [edi]", "[_nyx_saida+ecx]", "[edx+edx*4]" e "_loop1".
+ */
+final class OperandoEmulado {
+
+    enum Tipo {
+        REGISTRADOR, IMEDIATO, MEMORIA, ROTULO
+    }
+
+    // Código (eax=0 ... edi=7) e tamanho em bits; ah, ch, dh e bh usam o
+    // código do registrador de 32 bits e são marcados como 'alto'.
+    private static final Map<String, int[]> REGISTRADORES = Map.ofEntries(
+            Map.entry("eax", new int[] { 0, 32 }), Map.entry("ecx", new int[] { 1, 32 }),
+            Map.entry("edx", new int[] { 2, 32 }), Map.entry("ebx", new int[] { 3, 32 }),
+            Map.entry("esp", new int[] { 4, 32 }), Map.entry("ebp", new int[] { 5, 32 }),
+            Map.entry("esi", new int[] { 6, 32 }), Map.entry("edi", new int[] { 7, 32 }),
+            Map.entry("ax", new int[] { 0, 16 }), Map.entry("cx", new int[] { 1, 16 }),
+            Map.entry("dx", new int[] { 2, 16 }), Map.entry("bx", new int[] { 3, 16 }),
+            Map.entry("sp", new int[] { 4, 16 }), Map.entry("bp", new int[] { 5, 16 }),
+            Map.entry("si", new int[] { 6, 16 }), Map.entry("di", new int[] { 7, 16 }),
+            Map.entry("al", new int[] { 0, 8 }), Map.entry("cl", new int[] { 1, 8 }),
+            Map.entry("dl", new int[] { 2, 8 }), Map.entry("bl", new int[] { 3, 8 }),
+            Map.entry("ah", new int[] { 0, -8 }), Map.entry("ch", new int[] { 1, -8 }),
+            Map.entry("dh", new int[] { 2, -8 }), Map.entry("bh", new int[] { 3, -8 }));
+
+    /**
+     * Nomes conhecidos do programa: constantes 'equ', variáveis da seção
+     * .data e rótulos do código.
+     */
+    interface Simbolos {
+        // Valor de uma constante ou null.
+        Integer constante(String nome);
+
+        // Endereço de uma variável (ou do alvo de um 'equ addr') ou null.
+        Integer endereco(String nome);
+
+        // Tamanho em bits da variável; 0 se não for uma.
+        int tamanho(String nome);
+
+        // Índice da instrução do rótulo ou null.
+        Integer destino(String nome);
+    }
+
+    final Tipo tipo;
+    final int tamanho; // Em bits; 0 quando a memória não diz.
+    final int registrador; // REGISTRADOR: 0-7.
+    final boolean alto; // ah, ch, dh, bh.
+    final int valor; // IMEDIATO: valor; MEMORIA: deslocamento; ROTULO: índice.
+    final int base; // MEMORIA: -1 sem base.
+    final int indice; // MEMORIA: -1 sem índice.
+    final int escala;
+    final String texto;
+
+    private OperandoEmulado(Tipo tipo, int tamanho, int registrador, boolean alto, int valor, int base,
+            int indice, int escala, String texto) {
+        this.tipo = tipo;
+        this.tamanho = tamanho;
+        this.registrador = registrador;
+        this.alto = alto;
+        this.valor = valor;
+        this.base = base;
+        this.indice = indice;
+        this.escala = escala;
+        this.texto = texto;
+    }
+
+    static OperandoEmulado imediato(int valor) {
+        return new OperandoEmulado(Tipo.IMEDIATO, 0, -1, false, valor, -1, -1, 1, Integer.toString(valor));
+    }
+
+    boolean isRegistrador() {
+        return tipo == Tipo.REGISTRADOR;
+    }
+
+    boolean isMemoria() {
+        return tipo == Tipo.MEMORIA;
+    }
+
+    // A mesma memória com o tamanho definido (quando o texto não o dá).
+    OperandoEmulado comTamanho(int bits) {
+        if (tipo != Tipo.MEMORIA || tamanho != 0) {
+            return this;
+        }
+        return new OperandoEmulado(tipo, bits, registrador, alto, valor, base, indice, escala, texto);
+    }
+
+    /**
+     * Decodifica o texto de um operando. Lança IllegalArgumentException para o
+     * que o emulador não conhece.
+     */
+    static OperandoEmulado ler(String texto, Simbolos simbolos) {
+        String resto = texto.trim();
+        String minusculo = resto.toLowerCase(Locale.ROOT);
+        int tamanho = 0;
+        for (String[] prefixo : new String[][] { { "byte", "8" }, { "word", "16" }, { "dword", "32" } }) {
+            if (minusculo.startsWith(prefixo[0] + " ptr")) {
+                tamanho = Integer.parseInt(prefixo[1]);
+                resto = resto.substring(prefixo[0].length() + 4).trim();
+                minusculo = resto.toLowerCase(Locale.ROOT);
+                break;
+            }
+        }
+        int[] registrador = REGISTRADORES.get(minusculo);
+        if (registrador != null && tamanho == 0) {
+            return new OperandoEmulado(Tipo.REGISTRADOR, Math.abs(registrador[1]), registrador[0],
+                    registrador[1] < 0, 0, -1, -1, 1, texto);
+        }
+        if (minusculo.startsWith("offset ") || minusculo.startsWith("addr ")) {
+            Expressao expressao = Expressao.ler(resto.substring(resto.indexOf(' ') + 1), simbolos, false, texto);
+            return new OperandoEmulado(Tipo.IMEDIATO, 0, -1, false, expressao.deslocamento, -1, -1, 1, texto);
+        }
+
+        int abre = resto.indexOf('[');
+        if (abre >= 0) {
+            int fecha = resto.lastIndexOf(']');
+            if (fecha < abre) {
+                throw new IllegalArgumentException("Operando malformado: " + texto);
+            }
+            // MASM aceita 'nome[ecx]' como '[nome+ecx]'.
+            String conteudo = resto.substring(abre + 1, fecha);
+            if (abre > 0) {
+                conteudo = resto.substring(0, abre) + "+" + conteudo;
+            }
+            Expressao expressao = Expressao.ler(conteudo, simbolos, true, texto);
+            if (tamanho == 0) {
+                tamanho = expressao.tamanho;
+            }
+            return new OperandoEmulado(Tipo.MEMORIA, tamanho, -1, false, expressao.deslocamento, expressao.base,
+                    expressao.indice, expressao.escala, texto);
+        }
+
+        // Nome sozinho: rótulo do código ou, no MASM, o conteúdo da variável.
+        Integer destino = simbolos.destino(resto);
+        if (destino != null && tamanho == 0) {
+            return new OperandoEmulado(Tipo.ROTULO, 0, -1, false, destino, -1, -1, 1, texto);
+        }
+        Expressao expressao = Expressao.ler(resto, simbolos, false, texto);
+        if (!expressao.variavel) {
+            return new OperandoEmulado(Tipo.IMEDIATO, 0, -1, false, expressao.deslocamento, -1, -1, 1, texto);
+        }
+        return new OperandoEmulado(Tipo.MEMORIA, tamanho != 0 ? tamanho : expressao.tamanho, -1, false,
+                expressao.deslocamento, -1, -1, 1, texto);
+    }
+
+    /**
+     * Valor de um número ou caractere: decimal, hexadecimal MASM (0FFh) ou C
+     * (0xFF) e caractere entre apóstrofos. Retorna null se não for um.
+     */
+    static Long numero(String texto) {
+        String t = texto.trim();
+        if (t.length() == 3 && t.charAt(0) == '\'' && t.charAt(2) == '\'') {
+            return (long) t.charAt(1);
+        }
+        boolean negativo = t.startsWith("-");
+        if (negativo) {
+            t = t.substring(1).trim();
+        }
+        if (t.isEmpty() || !Character.isDigit(t.charAt(0))) {
+            return null;
+        }
+        try {
+            long valor;
+            String minusculo = t.toLowerCase(Locale.ROOT);
+            if (minusculo.startsWith("0x")) {
+                valor = Long.parseLong(t.substring(2), 16);
+            } else if (minusculo.endsWith("h")) {
+                valor = Long.parseLong(t.substring(0, t.length() - 1), 16);
+            } else {
+                valor = Long.parseLong(t);
+            }
+            return negativo ? -valor : valor;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return texto;
+    }
+
+    // Soma de termos: registradores (com escala), números, constantes e
+    // endereços de variáveis.
+    private static final class Expressao {
+        int deslocamento;
+        int base = -1;
+        int indice = -1;
+        int escala = 1;
+        int tamanho;
+        boolean variavel; // Algum termo é uma variável (o que vale fora de [] no MASM).
+
+        static Expressao ler(String texto, Simbolos simbolos, boolean memoria, String original) {
+            Expressao expressao = new Expressao();
+            int inicio = 0;
+            int sinal = 1;
+            String t = texto.trim();
+            for (int i = 0; i <= t.length(); i++) {
+                boolean fim = i == t.length();
+                char c = fim ? 0 : t.charAt(i);
+                if (c == '\'' && i + 2 < t.length() && t.charAt(i + 2) == '\'') {
+                    i += 2; // Caractere entre apóstrofos, que pode ser '+' ou '-'.
+                    continue;
+                }
+                if (fim || ((c == '+' || c == '-') && i > inicio)) {
+                    expressao.termo(t.substring(inicio, i).trim(), sinal, simbolos, memoria, original);
+                    sinal = c == '-' ? -1 : 1;
+                    inicio = i + 1;
+                } else if ((c == '+' || c == '-') && i == inicio) {
+                    sinal = c == '-' ? -sinal : sinal;
+                    inicio = i + 1;
+                }
+            }
+            return expressao;
+        }
+
+        private void termo(String termo, int sinal, Simbolos simbolos, boolean memoria, String original) {
+            if (termo.isEmpty()) {
+                throw new IllegalArgumentException("Expressão malformada: " + original);
+            }
+            String minusculo = termo.toLowerCase(Locale.ROOT);
+            int vezes = minusculo.indexOf('*');
+            if (vezes >= 0) {
+                String esquerda = minusculo.substring(0, vezes).trim();
+                String direita = minusculo.substring(vezes + 1).trim();
+                int[] registrador = REGISTRADORES.get(esquerda);
+                Long fator = numero(direita);
+                if (registrador == null) {
+                    registrador = REGISTRADORES.get(direita);
+                    fator = numero(esquerda);
+                }
+                if (!memoria || registrador == null || registrador[1] != 32 || fator == null || indice >= 0
+                        || sinal < 0 || (fator != 1 && fator != 2 && fator != 4 && fator != 8)) {
+                    throw new IllegalArgumentException("Índice inválido: " + original);
+                }
+                indice = registrador[0];
+                escala = fator.intValue();
+                return;
+            }
+            int[] registrador = REGISTRADORES.get(minusculo);
+            if (registrador != null) {
+                if (!memoria || sinal < 0 || registrador[1] != 32) {
+                    throw new IllegalArgumentException("Registrador inválido no endereço: " + original);
+                }
+                if (base < 0) {
+                    base = registrador[0];
+                } else if (indice < 0) {
+                    indice = registrador[0];
+                } else {
+                    throw new IllegalArgumentException("Endereço com registradores demais: " + original);
+                }
+                return;
+            }
+            Long numero = numero(termo);
+            Integer valor = numero != null ? Integer.valueOf(numero.intValue()) : simbolos.constante(termo);
+            if (valor != null) {
+                deslocamento += sinal * valor;
+                return;
+            }
+            Integer endereco = simbolos.endereco(termo);
+            if (endereco == null || sinal < 0) {
+                throw new IllegalArgumentException("Símbolo desconhecido: " + termo + " em " + original);
+            }
+            deslocamento += endereco;
+            if (tamanho == 0) {
+                tamanho = simbolos.tamanho(termo);
+            }
+            variavel |= simbolos.tamanho(termo) > 0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.editor_texto.nyx.compiler.emulador;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Contadores de uma execução do EmuladorX86. As instruções contam como no
+ * código de máquina: um 'invoke' vale os seus push, o call e, nas funções da
+ * msvcrt, o add que libera a pilha. Os acessos à memória são os do programa
+ * (operandos, pilha, call e ret); o trabalho interno das funções externas não
+ * entra na conta.
+ */
+public class ResultadoEmulacao {
+
+    private final int codigoSaida;
+    private final long instrucoes;
+    private final long leituras;
+    private final long escritas;
+    private final boolean limiteAtingido;
+    private final long[] execucoes;
+    private final Map<String, Long> chamadasExternas;
+    private final Map<String, byte[]> arquivos;
+
+    ResultadoEmulacao(int codigoSaida, long instrucoes, long leituras, long escritas, boolean limiteAtingido,
+            long[] execucoes, Map<String, Long> chamadasExternas, Map<String, byte[]> arquivos) {
+        this.codigoSaida = codigoSaida;
+        this.instrucoes = instrucoes;
+        this.leituras = leituras;
+        this.escritas = escritas;
+        this.limiteAtingido = limiteAtingido;
+        this.execucoes = execucoes;
+        this.chamadasExternas = Collections.unmodifiableMap(chamadasExternas);
+        this.arquivos = Collections.unmodifiableMap(arquivos);
+    }
+
+    // Valor passado a ExitProcess (ou eax, se o programa voltou do início).
+    public int getCodigoSaida() {
+        return codigoSaida;
+    }
+
+    public long getInstrucoes() {
+        return instrucoes;
+    }
+
+    public long getLeituras() {
+        return leituras;
+    }
+
+    public long getEscritas() {
+        return escritas;
+    }
+
+    public long getAcessosMemoria() {
+        return leituras + escritas;
+    }
+
+    // A execução parou no limite de instruções, antes do fim do programa.
+    public boolean isLimiteAtingido() {
+        return limiteAtingido;
+    }
+
+    /**
+     * Vezes que cada instrução foi executada, indexado pela posição na lista
+     * de Instrucao recebida pelo emulador (zero para rótulos e diretivas).
+     */
+    public long[] getExecucoes() {
+        return execucoes;
+    }
+
+    // Chamadas a cada API do Windows ou função da msvcrt.
+    public Map<String, Long> getChamadasExternas() {
+        return chamadasExternas;
+    }
+
+    // Conteúdo de cada arquivo criado pelo programa (ex: o de perfil), pelo nome.
+    public Map<String, byte[]> getArquivos() {
+        return arquivos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d instruções, %d leituras e %d escritas na memória, código de saída %d%s",
+                instrucoes, leituras, escritas, codigoSaida, limiteAtingido ? " (limite atingido)" : "");
+    }
+}
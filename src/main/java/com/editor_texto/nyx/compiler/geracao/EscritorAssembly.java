@@ -0,0 +1,43 @@
+package com.editor_texto.nyx.compiler.geracao;
+
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Grava em disco o código Assembly mantido em memória durante a compilação.
+ * Cada arquivo é escrito de uma vez, por um único canal bufferizado.
+ */
+public class EscritorAssembly {
+
+    private EscritorAssembly() {
+    }
+
+    public static Path escrever(List<Instrucao> codigo, Path arquivo) throws IOException {
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        if (diretorio != null) {
+            Files.createDirectories(diretorio);
+        }
+        try (BufferedWriter escritor = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            for (Instrucao instrucao : codigo) {
+                escritor.write(instrucao.toString());
+                escritor.newLine();
+            }
+        }
+        return arquivo;
+    }
+
+    // Código já montado como texto (ex: o do GeradorAssemblyLinux).
+    public static Path escrever(String codigo, Path arquivo) throws IOException {
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        if (diretorio != null) {
+            Files.createDirectories(diretorio);
+        }
+        return Files.writeString(arquivo, codigo, StandardCharsets.UTF_8);
+    }
+}
@@ -1,116 +1,186 @@
 package com.editor_texto.nyx.compiler.geracao;
 
-import com.editor_texto.nyx.compiler.modelo.Token;
-import com.editor_texto.nyx.compiler.semantico.TabelaSimbolos;
+import com.editor_texto.nyx.compiler.arvore.NoAtribuicao;
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoDeclaracao;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoEscrita;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLeitura;
+import com.editor_texto.nyx.compiler.arvore.NoLiteral;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.arvore.NoSelecao;
+import com.editor_texto.nyx.compiler.arvore.NoUnario;
+import com.editor_texto.nyx.compiler.arvore.NoVariavel;
+import com.editor_texto.nyx.compiler.otimizacao.AvaliadorConstante;
+import com.editor_texto.nyx.compiler.otimizacao.GuiadaPorPerfil;
+import com.editor_texto.nyx.compiler.perfil.MapaPerfil;
+import com.editor_texto.nyx.compiler.perfil.ModoPerfil;
+import com.editor_texto.nyx.compiler.perfil.PerfilExecucao;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Stack;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * Responsável por gerar o código Assembly (MASM) a partir da tabela de
- * símbolos.
+ * Responsável por gerar o código Assembly (MASM) a partir da árvore do
+ * programa.
  * Esta é a fase final do compilador, traduzindo as estruturas da linguagem
  * fonte
  * para instruções de máquina de baixo nível.
  */
 public class GeradorAssembly {
 
-    private final TabelaSimbolos tabelaSimbolos;
-    private Token tokenAtual;
-    private int indiceTokenAtual = 0;
-
-    // Caminho e nome do arquivo de saída.
-    private final String diretorioSaida;
-    private String nomeArquivo = "";
+    private final NoPrograma programa;
 
     // StringBuilders para montar as diferentes seções do arquivo Assembly.
     private final StringBuilder secaoCabecalho = new StringBuilder(); // Cabeçalho e includes.
     private final StringBuilder secaoDados = new StringBuilder(); // Seção .data para variáveis e constantes.
+    private final StringBuilder secaoLiterais = new StringBuilder(); // Strings criadas durante a geração do código.
     private final StringBuilder secaoCodigo = new StringBuilder(); // Seção .code para o código executável.
 
     // Contadores para gerar rótulos (labels) únicos.
     private int contadorString = 1;
     private int contadorLoop = 1;
     private int contadorIf = 1;
+    private int contadorCondicao = 1;
 
-    // Flag para controlar a declaração de formatos de `scanf` e evitar duplicação.
-    private boolean formatoDSDeclarado = false;
-
-    // Construtor que inicializa o gerador com a tabela de símbolos e o nome do
-    // arquivo de saída.
-    public GeradorAssembly(TabelaSimbolos tabelaSimbolos, String nomeArquivo, String diretorioSaida) {
-        this.tabelaSimbolos = tabelaSimbolos;
-        this.nomeArquivo = nomeArquivo + ".asm";
-        this.diretorioSaida = diretorioSaida;
-        if (this.tabelaSimbolos.getTamanho() > 0) {
-            this.tokenAtual = this.tabelaSimbolos.tokenAtual(this.indiceTokenAtual);
-        } else {
-            this.tokenAtual = null;
-        }
+    // O programa faz E/S e precisa dos dados e das rotinas do RuntimeLC.
+    private boolean usaRuntime = false;
+
+    // Caracteres por linha 'db' de uma string.
+    private static final int TAMANHO_TRECHO = 64;
+
+    // Strings já declaradas na seção .data, pelo conteúdo.
+    private final Map<String, String> stringsDeclaradas = new HashMap<>();
+
+    // Constantes string, cujo endereço é o do rótulo const_str_<nome>.
+    private final Set<String> constantesString = new HashSet<>();
+
+    // Usa ReducaoForca em multiplicações e divisões por constante.
+    private boolean reducaoForca = true;
+    // Divisão por número mágico (maior que idiv); desligada em -Os.
+    private boolean divisaoMagica = true;
+
+    // Mapa de fonte: posição em secaoCodigo a partir da qual o código é da
+    // linha LC indicada (0 fora dos comandos).
+    private final List<int[]> marcasLinha = new ArrayList<>();
+    private int linhaAtual = 0;
+    private int[] linhasFonte = new int[0];
+
+    // Instrumentação de perfil: contadores inseridos no código (null = desligada).
+    private MapaPerfil mapaPerfil;
+    // Perfil de uma execução anterior, que ordena os blocos do if (null = sem perfil).
+    private PerfilExecucao perfilGuia;
+
+    // Construtor que inicializa o gerador com a árvore do programa.
+    public GeradorAssembly(NoPrograma programa) {
+        this.programa = programa;
     }
 
-    // Avança para o próximo token na tabela de símbolos.
-    private void proximoToken() {
-        this.indiceTokenAtual++;
-        if (this.indiceTokenAtual < this.tabelaSimbolos.getTamanho()) {
-            this.tokenAtual = this.tabelaSimbolos.tokenAtual(this.indiceTokenAtual);
-        } else {
-            this.tokenAtual = null; // Fim da tabela de símbolos.
-        }
+    public void setReducaoForca(boolean reducaoForca) {
+        this.reducaoForca = reducaoForca;
     }
 
-    // Método auxiliar para verificar se uma string é um operador relacional.
-    private boolean isOperadorRelacional(String op) {
-        if (op == null)
-            return false;
-        return op.equals("==") || op.equals("<>") || op.equals("<") || op.equals(">") || op.equals("<=")
-                || op.equals(">=");
+    public void setDivisaoMagica(boolean divisaoMagica) {
+        this.divisaoMagica = divisaoMagica;
     }
 
-    // Cria o diretório de saída para os arquivos .asm, se ele não existir.
-    private void criarDiretorioSaida() {
-        File outDir = new File(this.diretorioSaida);
-        if (!outDir.exists()) {
-            outDir.mkdirs();
-        }
+    /**
+     * Liga a instrumentação de perfil: o programa conta as execuções de cada
+     * trecho (e, no modo TEMPO, os ciclos de cada laço) e grava os contadores
+     * em 'arquivoDados', no diretório em que roda, antes do ExitProcess.
+     */
+    public void setPerfil(ModoPerfil modo, String arquivoDados) {
+        this.mapaPerfil = modo.isAtivo() ? new MapaPerfil(modo, arquivoDados) : null;
     }
 
-    // Escreve o conteúdo final do código Assembly em um arquivo .asm.
-    private void escreverCodigoAssembly(String codigoAssembly) {
-        File arqAsm = new File(this.diretorioSaida, this.nomeArquivo);
-        try (FileWriter escritor = new FileWriter(arqAsm)) {
-            escritor.write(codigoAssembly);
-            // Removendo print de sucesso para manter output limpo conforme solicitado
-        } catch (IOException e) {
-            System.err.println("Erro ao escrever no arquivo '" + this.nomeArquivo + "': " + e.getMessage());
-        }
+    /**
+     * Compilação guiada por perfil: num if com else, o bloco que mais rodou
+     * na execução medida vem logo depois da condição, sem salto.
+     */
+    public void setPerfilGuia(PerfilExecucao perfilGuia) {
+        this.perfilGuia = perfilGuia;
     }
 
-    // Ponto de entrada público para iniciar o processo de conversão para Assembly.
-    public void gerar() {
-        this.criarDiretorioSaida();
-        this.gerarCodigoAssembly();
+    // Onde ficou cada contador, depois de gerar(); null sem instrumentação.
+    public MapaPerfil getMapaPerfil() {
+        return this.mapaPerfil;
     }
 
-    // Orquestra a geração das seções do código Assembly e escreve o resultado no
-    // arquivo.
-    private void gerarCodigoAssembly() {
+    /**
+     * Ponto de entrada público: gera o código Assembly completo e o retorna em
+     * memória. Gravar o arquivo .asm fica a cargo de quem chama, depois das
+     * otimizações.
+     */
+    public String gerar() {
         StringBuilder codigoAssembly = new StringBuilder();
 
-        // Gera cada seção separadamente.
+        // Gera cada seção separadamente. O código é gerado antes dos dados para que
+        // apenas as strings efetivamente usadas sejam declaradas.
         this.gerarCabecalho();
-        this.gerarSecaoDados();
         this.gerarSecaoCodigo();
+        this.gerarSecaoDados();
 
         // Concatena todas as seções para formar o arquivo final.
         codigoAssembly.append(this.secaoCabecalho);
         codigoAssembly.append(this.secaoDados);
         codigoAssembly.append(this.secaoCodigo);
+        this.linhasFonte = calcularLinhasFonte();
+
+        return codigoAssembly.toString();
+    }
+
+    /**
+     * Linha do programa LC que originou cada linha do texto retornado por
+     * gerar() (índice 0 = primeira linha); 0 no cabeçalho, nos dados e no
+     * código fora dos comandos.
+     */
+    public int[] getLinhasFonte() {
+        return this.linhasFonte.clone();
+    }
+
+    private int[] calcularLinhasFonte() {
+        int antes = contarLinhas(this.secaoCabecalho) + contarLinhas(this.secaoDados);
+        int[] linhas = new int[antes + contarLinhas(this.secaoCodigo)];
+        int marca = 0;
+        int linha = 0;
+        int indice = antes;
+        int inicioLinha = 0;
+        for (int i = 0; i < this.secaoCodigo.length(); i++) {
+            if (i == inicioLinha) {
+                while (marca < this.marcasLinha.size() && this.marcasLinha.get(marca)[0] <= i) {
+                    linha = this.marcasLinha.get(marca++)[1];
+                }
+                linhas[indice] = linha;
+            }
+            if (this.secaoCodigo.charAt(i) == '\n') {
+                indice++;
+                inicioLinha = i + 1;
+            }
+        }
+        return linhas;
+    }
 
-        this.escreverCodigoAssembly(codigoAssembly.toString());
+    private static int contarLinhas(StringBuilder texto) {
+        int total = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) == '\n') {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    // O código emitido a partir daqui pertence à linha LC 'linha'.
+    private void marcarLinha(int linha) {
+        this.linhaAtual = linha;
+        this.marcasLinha.add(new int[] { this.secaoCodigo.length(), linha });
     }
 
     /**
@@ -132,349 +202,528 @@ public class GeradorAssembly {
     }
 
     /**
-     * Gera a seção .data, percorrendo a tabela de símbolos para encontrar
-     * declarações de variáveis e constantes e alocando espaço para elas.
+     * Gera a seção .data a partir das declarações do programa, seguida das
+     * strings de formato e literais criadas durante a geração do código.
      */
     private void gerarSecaoDados() {
         this.secaoDados.append(".data\n");
-        int indiceOriginal = this.indiceTokenAtual; // Salva a posição atual.
-        this.indiceTokenAtual = 0; // Reseta para o início da tabela.
-        if (this.tabelaSimbolos.getTamanho() > 0) {
-            this.tokenAtual = this.tabelaSimbolos.tokenAtual(this.indiceTokenAtual);
-            // Itera apenas sobre a parte de declarações do código.
-            while (this.tokenAtual != null && isEscopoDeclaracao()) {
-                identificarDeclaracao();
-            }
+        for (NoDeclaracao declaracao : this.programa.getDeclaracoes()) {
+            identificarDeclaracao(declaracao);
         }
-        // Restaura a posição original para a geração da seção de código.
-        this.indiceTokenAtual = indiceOriginal;
-        if (this.indiceTokenAtual < this.tabelaSimbolos.getTamanho()) {
-            this.tokenAtual = this.tabelaSimbolos.tokenAtual(this.indiceTokenAtual);
-        } else {
-            this.tokenAtual = null;
+        this.secaoDados.append(this.secaoLiterais);
+        if (this.usaRuntime) {
+            RuntimeLC.gerarDados(this.secaoDados);
+        }
+        if (this.mapaPerfil != null) {
+            gerarDadosPerfil();
         }
     }
 
-    // Itera sobre as declarações de variáveis e constantes e as traduz para
-    // diretivas MASM.
-    private void identificarDeclaracao() {
-        // Trata declarações de constantes (final).
-        if (this.tokenAtual.getNome().equalsIgnoreCase("final")) {
-            proximoToken(); // Consome 'final'.
-            String nomeConst = this.tokenAtual.getNome();
-            proximoToken(); // Consome o nome da constante.
-            proximoToken(); // Consome '='.
-            String valorConst = this.tokenAtual.getNome();
+    private void gerarDadosPerfil() {
+        this.secaoDados.append(String.format("    %-15s db \"%s\", 0\n", "_nyx_perfil_arq",
+                this.mapaPerfil.getArquivoDados()));
+        this.secaoDados.append(String.format("    %-15s dd 0\n", "_nyx_perfil_grv"));
+        this.secaoDados.append(String.format("    %-15s dd %d dup(0)\n", MapaPerfil.ROTULO_CONTADORES,
+                Math.max(1, this.mapaPerfil.getQuantidadeContadores())));
+        if (this.mapaPerfil.getQuantidadeTempos() > 0) {
+            this.secaoDados.append(String.format("    %-15s dd %d dup(0)\n", MapaPerfil.ROTULO_TEMPO,
+                    2 * this.mapaPerfil.getQuantidadeTempos()));
+        }
+    }
 
+    // Traduz uma declaração de variável ou constante para diretivas MASM.
+    private void identificarDeclaracao(NoDeclaracao declaracao) {
+        String nome = declaracao.getNome();
+        String tipo = declaracao.getTipo();
+        NoLiteral valor = declaracao.getValorInicial();
+
+        // Trata declarações de constantes (final).
+        if (declaracao.isConstante()) {
             // Constantes string são declaradas como 'db' e seu endereço é atribuído com
             // 'equ'.
-            if (valorConst.startsWith("\"")) {
-                String stringReal = valorConst.substring(1, valorConst.length() - 1);
-                String labelStr = "const_str_" + nomeConst;
-                this.secaoDados.append(String.format("    %-15s db \"%s\", 0\n", labelStr, stringReal));
-                this.secaoDados.append(String.format("    %-15s equ addr %s\n", nomeConst, labelStr));
+            if (tipo.equalsIgnoreCase("string")) {
+                String labelStr = "const_str_" + nome;
+                this.secaoDados.append(String.format("    %-15s db \"%s\", 0\n", labelStr, valor.getValor()));
+                this.secaoDados.append(String.format("    %-15s equ addr %s\n", nome, labelStr));
             } else { // Constantes numéricas são diretamente traduzidas com 'equ'.
                 this.secaoDados
-                        .append(String.format("    %-15s equ %s\n", nomeConst, formatarValor(valorConst, "int")));
+                        .append(String.format("    %-15s equ %s\n", nome, formatarValor(valor.getValor(), tipo)));
             }
-            proximoToken(); // Consome o valor.
-            proximoToken(); // Consome ';'.
-        } else {
-            String tipo = this.tokenAtual.getNome();
-            String tipoDadosMASM = tipoPrimitivoMASM(tipo);
-            proximoToken(); // Consome o tipo.
-
-            // Loop para tratar múltiplas declarações na mesma linha (ex: int a, b;).
-            while (this.tokenAtual != null && !this.tokenAtual.getNome().equals(";")) {
-                String nomeDado = this.tokenAtual.getNome();
-                proximoToken(); // Consome o nome da variável.
-                String valorDado = "0"; // Valor padrão para variáveis não inicializadas.
-
-                // Strings são alocadas com um buffer de 256 bytes.
-                if (tipo.equalsIgnoreCase("string")) {
-                    this.secaoDados.append(String.format("    %-15s db 256 dup(0)\n", nomeDado));
-                } else {
-                    // Verifica se há uma inicialização de valor.
-                    if (this.tokenAtual.getNome().equals("=")) {
-                        proximoToken(); // Consome '='.
-                        valorDado = formatarValor(this.tokenAtual.getNome(), tipo);
-                        proximoToken(); // Consome o valor.
-                    }
-                    this.secaoDados.append(String.format("    %-15s %-5s %s\n", nomeDado, tipoDadosMASM, valorDado));
-                }
+            return;
+        }
 
-                if (this.tokenAtual != null && this.tokenAtual.getNome().equals(",")) {
-                    proximoToken(); // Consome ','.
-                }
-            }
-            if (this.tokenAtual != null && this.tokenAtual.getNome().equals(";")) {
-                proximoToken(); // Consome ';'.
-            }
+        // Strings são alocadas com um buffer de 256 bytes.
+        if (tipo.equalsIgnoreCase("string")) {
+            this.secaoDados.append(String.format("    %-15s db 256 dup(0)\n", nome));
+        } else {
+            String valorDado = valor != null ? formatarValor(valor.getValor(), tipo) : "0";
+            this.secaoDados.append(String.format("    %-15s %-5s %s\n", nome, tipoPrimitivoMASM(tipo), valorDado));
         }
     }
 
     // Gera a seção .code, onde a lógica do programa é traduzida em instruções.
     private void gerarSecaoCodigo() {
         this.secaoCodigo.append(".code\n").append("start:\n");
-        this.iniciarGeracao();
-        // Finaliza o programa chamando a função ExitProcess.
-        this.secaoCodigo.append("\n    invoke ExitProcess, 0\n").append("end start\n");
-    }
-
-    // Inicia a geração de código a partir do bloco principal 'begin'.
-    private void iniciarGeracao() {
-        // Avança todos os tokens da fase de declaração até encontrar 'begin'.
-        while (this.tokenAtual != null && !this.tokenAtual.getNome().equalsIgnoreCase("begin")) {
-            proximoToken();
-        }
-        if (this.tokenAtual != null && this.tokenAtual.getNome().equalsIgnoreCase("begin")) {
-            proximoToken(); // Consome 'begin'.
+        for (NoDeclaracao declaracao : this.programa.getDeclaracoes()) {
+            if (declaracao.isConstante() && declaracao.getTipo().equalsIgnoreCase("string")) {
+                this.constantesString.add(declaracao.getNome());
+            }
         }
-
-        // Processa todos os comandos dentro do bloco principal.
-        while (this.tokenAtual != null && !this.tokenAtual.getNome().equalsIgnoreCase("end")) {
-            identificarComandos();
+        this.gerarComandos(this.programa.getComandos());
+        // Finaliza o programa chamando a função ExitProcess, depois de gravar o
+        // que ainda está no buffer de saída.
+        this.secaoCodigo.append("\n");
+        if (this.usaRuntime) {
+            this.secaoCodigo.append("    call ").append(RuntimeLC.DESCARREGAR).append("\n");
         }
-        if (this.tokenAtual != null && this.tokenAtual.getNome().equalsIgnoreCase("end")) {
-            proximoToken(); // Consome 'end'.
+        if (this.mapaPerfil != null) {
+            gravarPerfil();
         }
+        this.secaoCodigo.append("    invoke ExitProcess, 0\n").append("end start\n");
     }
 
     /**
-     * Identifica o comando atual e delega para o método de geração apropriado.
-     * Atua como um dispatcher para os diferentes comandos da linguagem.
+     * Grava os contadores e os ciclos no arquivo de perfil. Se o arquivo não
+     * puder ser criado o programa termina normalmente, sem perfil.
      */
-    private void identificarComandos() {
-        if (this.tokenAtual == null)
-            return;
+    private void gravarPerfil() {
+        int contadores = 4 * this.mapaPerfil.getQuantidadeContadores();
+        int tempos = 8 * this.mapaPerfil.getQuantidadeTempos();
+        this.secaoCodigo.append("    invoke CreateFileA, offset _nyx_perfil_arq, GENERIC_WRITE, 0, NULL, ")
+                .append("CREATE_ALWAYS, FILE_ATTRIBUTE_NORMAL, NULL\n")
+                .append("    cmp eax, INVALID_HANDLE_VALUE\n")
+                .append("    je _nyx_perfil_fim\n")
+                .append("    mov ebx, eax\n");
+        if (contadores > 0) {
+            this.secaoCodigo.append("    invoke WriteFile, ebx, offset ").append(MapaPerfil.ROTULO_CONTADORES)
+                    .append(", ").append(contadores).append(", offset _nyx_perfil_grv, 0\n");
+        }
+        if (tempos > 0) {
+            this.secaoCodigo.append("    invoke WriteFile, ebx, offset ").append(MapaPerfil.ROTULO_TEMPO)
+                    .append(", ").append(tempos).append(", offset _nyx_perfil_grv, 0\n");
+        }
+        this.secaoCodigo.append("    invoke CloseHandle, ebx\n").append("_nyx_perfil_fim:\n");
+    }
+
+    // Soma 1 ao contador de perfil 'indice'; não muda registradores.
+    private void contar(int indice) {
+        this.secaoCodigo.append("    inc ").append(enderecoPerfil(MapaPerfil.ROTULO_CONTADORES, 4 * indice))
+                .append("\n");
+    }
 
-        switch (this.tokenAtual.getNome().toLowerCase()) {
-            case "write":
-            case "writeln":
-                identificarWrite();
-                break;
-            case "readln":
-                identificarRead();
-                break;
-            case "while":
-                identificarWhile();
-                break;
-            case "if":
-                identificarIf();
-                break;
-            case ";":
-                proximoToken(); // Ignora comandos nulos (ponto e vírgula extra).
-                break;
-            default:
-                // Se não for uma palavra-chave, assume que é uma atribuição (que começa com um
-                // ID).
-                if (this.tokenAtual.getClassificacao().equalsIgnoreCase("ID")) {
-                    identificarAtribuicao();
+    /**
+     * Ciclos do laço (rdtsc em edx:eax): subtraídos na entrada e somados na
+     * saída, sobram os gastos dentro dele. Fica entre comandos, onde eax, edx
+     * e as flags não levam valor.
+     */
+    private void medirTempo(MapaPerfil.Laco laco, boolean saida) {
+        int deslocamento = 8 * laco.getTempo();
+        this.secaoCodigo.append("    rdtsc\n")
+                .append("    ").append(saida ? "add " : "sub ")
+                .append(enderecoPerfil(MapaPerfil.ROTULO_TEMPO, deslocamento)).append(", eax\n")
+                .append("    ").append(saida ? "adc " : "sbb ")
+                .append(enderecoPerfil(MapaPerfil.ROTULO_TEMPO, deslocamento + 4)).append(", edx\n");
+    }
+
+    private static String enderecoPerfil(String rotulo, int deslocamento) {
+        return "dword ptr [" + rotulo + (deslocamento > 0 ? "+" + deslocamento : "") + "]";
+    }
+
+    private void gerarComandos(List<NoComando> comandos) {
+        // Perfil: um contador por sequência de comandos simples; if e while
+        // têm os seus.
+        int trecho = -1;
+        for (NoComando comando : comandos) {
+            int contador = -1;
+            if (this.mapaPerfil != null) {
+                if (comando instanceof NoEnquanto || comando instanceof NoSe) {
+                    trecho = -1;
+                } else if (trecho >= 0) {
+                    this.mapaPerfil.adicionarLinha(trecho, comando.getLinha());
                 } else {
-                    // Ignora tokens inesperados que não sejam 'end'.
-                    if (!this.tokenAtual.getNome().equalsIgnoreCase("end")) {
-                        proximoToken();
-                    }
+                    trecho = contador = this.mapaPerfil.novoContador(comando.getLinha());
                 }
+            }
+            identificarComando(comando, contador);
         }
     }
 
-    // Gera código Assembly para os comandos 'write' e 'writeln' usando crt_printf.
-    private void identificarWrite() {
-        boolean quebraLinha = this.tokenAtual.getNome().equalsIgnoreCase("writeln");
-        proximoToken(); // Consome 'write' ou 'writeln'.
-        proximoToken(); // Consome ','.
-
-        StringBuilder stringFormato = new StringBuilder(); // String de formato para printf (ex: "%d %s").
-        ArrayList<String> args = new ArrayList<>(); // Argumentos para printf.
-
-        // Constrói a string de formato e a lista de argumentos.
-        while (this.tokenAtual != null && !this.tokenAtual.getNome().equals(";")) {
-            if (this.tokenAtual.getClassificacao().equalsIgnoreCase("ID")) {
-                String nomeVar = this.tokenAtual.getNome();
-                String tipoVar = this.tabelaSimbolos.getTipoSimbolo(nomeVar);
-                if (tipoVar == null)
-                    tipoVar = "int"; // Fallback para tipo desconhecido.
+    /**
+     * Identifica o comando atual e delega para o método de geração apropriado.
+     * Atua como um dispatcher para os diferentes comandos da linguagem.
+     */
+    private void identificarComando(NoComando comando, int contadorPerfil) {
+        // O que vem depois de um comando aninhado (ex: o 'jmp' de volta de
+        // um while) é do comando que o contém.
+        int linhaExterna = this.linhaAtual;
+        marcarLinha(comando.getLinha());
+        if (contadorPerfil >= 0) {
+            contar(contadorPerfil);
+        }
+        if (comando instanceof NoEscrita escrita) {
+            identificarWrite(escrita);
+        } else if (comando instanceof NoLeitura leitura) {
+            identificarRead(leitura);
+        } else if (comando instanceof NoEnquanto enquanto) {
+            identificarWhile(enquanto);
+        } else if (comando instanceof NoSe se) {
+            identificarIf(se);
+        } else if (comando instanceof NoAtribuicao atribuicao) {
+            identificarAtribuicao(atribuicao);
+        }
+        marcarLinha(linhaExterna);
+    }
 
-                if (tipoVar.equalsIgnoreCase("string")) {
-                    stringFormato.append("%s");
-                    args.add("addr " + nomeVar); // Para strings, passamos o endereço.
-                } else { // Trata literais de string no meio do write.
-                    stringFormato.append("%d");
-                    args.add(nomeVar); // Para outros tipos, passamos o valor.
-                }
-            } else {
-                String literal = this.tokenAtual.getNome().replace("\"", "").replace("'", "");
-                stringFormato.append(literal);
+    /**
+     * Gera código Assembly para os comandos 'write' e 'writeln' com as rotinas
+     * do RuntimeLC: cada item é escrito direto no buffer de saída, sem string
+     * de formato. Literais seguidos (e a quebra de linha do writeln) formam uma
+     * única string, escrita com uma só chamada.
+     */
+    private void identificarWrite(NoEscrita escrita) {
+        StringBuilder texto = new StringBuilder(); // Literais ainda não escritos.
+        for (NoExpressao item : escrita.getItens()) {
+            if (item instanceof NoLiteral literal) {
+                texto.append(literal.getValor().replace("'", ""));
+                continue;
             }
-            proximoToken();
-            if (this.tokenAtual != null && this.tokenAtual.getNome().equals(",")) {
-                proximoToken(); // Consome a vírgula entre os argumentos.
+            escreverTexto(texto);
+            NoVariavel variavel = (NoVariavel) item;
+            if (variavel.getTipo().equalsIgnoreCase("string")) {
+                // Para strings, passamos o endereço.
+                String endereco = this.constantesString.contains(variavel.getNome())
+                        ? "const_str_" + variavel.getNome()
+                        : variavel.getNome();
+                chamarRuntime(RuntimeLC.ESCREVER_STR, "offset " + endereco);
+            } else if (isByte(variavel)) {
+                this.secaoCodigo.append("    movzx eax, ").append(variavel.getNome()).append("\n");
+                chamarRuntime(RuntimeLC.ESCREVER_INT, "eax");
+            } else {
+                chamarRuntime(RuntimeLC.ESCREVER_INT, variavel.getNome());
             }
         }
-
-        if (this.tokenAtual != null && this.tokenAtual.getNome().equals(";")) {
-            proximoToken(); // Consome o ';' final.
+        if (escrita.isQuebraLinha()) {
+            texto.append('\n');
         }
+        escreverTexto(texto);
+    }
 
-        // Declara a string de formato na seção .data.
-        String labelDados = "str" + this.contadorString++;
-        String finalLinha = quebraLinha ? ", 13, 10, 0" : ", 0"; // Adiciona quebra de linha para writeln.
-        this.secaoDados
-                .append(String.format("    %-15s db \"%s\"%s\n", labelDados, stringFormato.toString(), finalLinha));
+    private void escreverTexto(StringBuilder texto) {
+        if (texto.length() > 0) {
+            chamarRuntime(RuntimeLC.ESCREVER_STR, "offset " + declararString(texto.toString(), "str"));
+            texto.setLength(0);
+        }
+    }
 
-        // Gera a chamada para a função printf.
-        this.secaoCodigo.append("    invoke crt_printf, addr ").append(labelDados);
-        for (String arg : args) {
-            this.secaoCodigo.append(", ").append(arg);
+    /**
+     * Declara a string na seção .data e retorna seu rótulo. Strings iguais
+     * compartilham uma única declaração; '\n' vira o par 13, 10.
+     */
+    private String declararString(String texto, String prefixo) {
+        if (texto.equals("\n")) {
+            this.usaRuntime = true;
+            return RuntimeLC.QUEBRA_LINHA;
+        }
+        String existente = this.stringsDeclaradas.get(texto);
+        if (existente != null) {
+            return existente;
+        }
+        // Trechos de até 64 caracteres, várias linhas 'db' se preciso: o
+        // montador limita o tamanho de cada linha.
+        List<String> trechos = new ArrayList<>();
+        String[] partes = texto.split("\n", -1);
+        for (int i = 0; i < partes.length; i++) {
+            for (int inicio = 0; inicio < partes[i].length(); inicio += TAMANHO_TRECHO) {
+                int fim = Math.min(partes[i].length(), inicio + TAMANHO_TRECHO);
+                trechos.add('"' + partes[i].substring(inicio, fim) + '"');
+            }
+            if (i < partes.length - 1) {
+                trechos.add("13, 10");
+            }
         }
-        this.secaoCodigo.append("\n");
+        trechos.add("0");
+        String label = prefixo + this.contadorString++;
+        StringBuilder linha = new StringBuilder();
+        String nome = label;
+        for (String trecho : trechos) {
+            if (linha.length() > 0 && linha.length() + trecho.length() > TAMANHO_TRECHO) {
+                this.secaoLiterais.append(String.format("    %-15s db %s\n", nome, linha));
+                linha.setLength(0);
+                nome = "";
+            }
+            linha.append(linha.length() > 0 ? ", " : "").append(trecho);
+        }
+        this.secaoLiterais.append(String.format("    %-15s db %s\n", nome, linha));
+        this.stringsDeclaradas.put(texto, label);
+        return label;
     }
 
-    // Gera código Assembly para o comando 'readln' usando crt_scanf ou crt_gets.
-    private void identificarRead() {
-        proximoToken(); // Consome 'readln'.
-        proximoToken(); // Consome ','.
-        String nomeVariavel = this.tokenAtual.getNome();
-        String tipoVar = this.tabelaSimbolos.getTipoSimbolo(nomeVariavel);
+    // Gera código Assembly para o comando 'readln' com as rotinas do RuntimeLC.
+    private void identificarRead(NoLeitura leitura) {
+        String nomeVariavel = leitura.getVariavel();
+        String tipoVar = leitura.getTipo();
 
-        // Usa crt_scanf para tipos numéricos e booleanos.
+        // Números e booleanos são lidos como inteiro, que vem em eax.
         if (tipoVar != null && (tipoVar.equalsIgnoreCase("int") || tipoVar.equalsIgnoreCase("byte")
                 || tipoVar.equalsIgnoreCase("boolean"))) {
-            // Declara a string de formato "%d" uma única vez.
-            if (!this.formatoDSDeclarado) {
-                this.secaoDados.append(String.format("    %-15s db \"%%d\", 0\n", "format_d"));
-                this.formatoDSDeclarado = true;
-            }
-            this.secaoCodigo.append("    invoke crt_scanf, addr format_d, addr ").append(nomeVariavel).append("\n");
-        } else { // Usa crt_gets para ler strings.
-            this.secaoCodigo.append("    invoke crt_gets, addr ").append(nomeVariavel).append("\n");
+            chamarRuntime(RuntimeLC.LER_INT, null);
+            String registrador = tipoVar.equalsIgnoreCase("int") ? "eax" : "al";
+            this.secaoCodigo.append("    mov ").append(nomeVariavel).append(", ").append(registrador).append("\n");
+        } else { // Strings são lidas até o fim da linha.
+            chamarRuntime(RuntimeLC.LER_LINHA, "offset " + nomeVariavel);
         }
+    }
 
-        proximoToken(); // Consome o nome da variável.
-        if (this.tokenAtual != null && this.tokenAtual.getNome().equals(";")) {
-            proximoToken(); // Consome ';'.
+    // Chama uma rotina do runtime; o argumento (se houver) vai pela pilha.
+    private void chamarRuntime(String rotina, String argumento) {
+        this.usaRuntime = true;
+        if (argumento != null) {
+            this.secaoCodigo.append("    push ").append(argumento).append("\n");
         }
+        this.secaoCodigo.append("    call ").append(rotina).append("\n");
     }
 
     // Gera a estrutura de um loop 'while' em Assembly, com labels e saltos.
-    private void identificarWhile() {
+    private void identificarWhile(NoEnquanto enquanto) {
         int contadorLoopLocal = this.contadorLoop++;
         String labelLoop = "_loop" + contadorLoopLocal;
         String labelFimLoop = "_fimLoop" + contadorLoopLocal;
 
+        MapaPerfil.Laco laco = null;
+        if (this.mapaPerfil != null) {
+            int entradas = this.mapaPerfil.novoContador();
+            laco = this.mapaPerfil.novoLaco(enquanto.getLinha(), enquanto.isPosTestado(), entradas,
+                    this.mapaPerfil.novoContador(enquanto.getLinha()));
+            contar(entradas);
+            if (laco.getTempo() >= 0) {
+                medirTempo(laco, false);
+            }
+        }
+
         this.secaoCodigo.append("\n").append(labelLoop).append(":\n"); // Label de início do loop.
-        proximoToken(); // Consome 'while'.
+        if (laco != null) {
+            contar(laco.getCabecalho());
+        }
+
+        if (enquanto.isPosTestado()) {
+            // Laço rotacionado: o corpo vem primeiro e a condição, no final, salta de
+            // volta para o início enquanto for verdadeira.
+            gerarComandos(enquanto.getCorpo());
+            gerarExpressaoCondicional(enquanto.getCondicao(), labelLoop, false);
+            this.secaoCodigo.append(labelFimLoop).append(":\n");
+            fimLaco(laco);
+            return;
+        }
 
         // Gera o código para a condição. O salto para o fim do loop ocorrerá se a
         // condição for falsa.
-        gerarExpressaoCondicional(labelFimLoop, true);
-
-        if (this.tokenAtual != null && this.tokenAtual.getNome().equalsIgnoreCase("begin")) {
-            proximoToken(); // Consome 'begin'.
-        }
+        gerarExpressaoCondicional(enquanto.getCondicao(), labelFimLoop, true);
 
         // Gera o código para o corpo do loop.
-        while (this.tokenAtual != null && !this.tokenAtual.getNome().equalsIgnoreCase("end")) {
-            identificarComandos();
-        }
-
-        if (this.tokenAtual != null && this.tokenAtual.getNome().equalsIgnoreCase("end")) {
-            proximoToken(); // Consome 'end'.
-        }
+        gerarComandos(enquanto.getCorpo());
 
         this.secaoCodigo.append("\n    jmp ").append(labelLoop).append("\n"); // Salta de volta para o início do loop.
         this.secaoCodigo.append(labelFimLoop).append(":\n"); // Label de saída do loop.
+        fimLaco(laco);
+    }
+
+    private void fimLaco(MapaPerfil.Laco laco) {
+        if (laco != null && laco.getTempo() >= 0) {
+            medirTempo(laco, true);
+        }
     }
 
     // Gera a estrutura de um condicional 'if-else' em Assembly.
-    private void identificarIf() {
+    private void identificarIf(NoSe se) {
         int contadorIfLocal = this.contadorIf++;
         String labelElse = "_else" + contadorIfLocal;
         String labelFimIf = "_fimIf" + contadorIfLocal;
+        if (this.mapaPerfil != null) {
+            contar(this.mapaPerfil.novoContador(se.getLinha()));
+        }
+        if (isSenaoMaisExecutado(se)) {
+            identificarIfInvertido(se, "_entao" + contadorIfLocal, labelFimIf);
+            return;
+        }
 
-        proximoToken(); // Consome 'if'.
         // Gera a condição. Se for falsa, salta para o bloco 'else' (ou para o fim do
         // 'if').
-        gerarExpressaoCondicional(labelElse, true);
-
-        if (this.tokenAtual != null && this.tokenAtual.getNome().equalsIgnoreCase("begin")) {
-            proximoToken();
-        }
+        gerarExpressaoCondicional(se.getCondicao(), labelElse, true);
 
         // Processa o corpo do IF
-        while (this.tokenAtual != null && !this.tokenAtual.getNome().equalsIgnoreCase("end")
-                && !this.tokenAtual.getNome().equalsIgnoreCase("else")) {
-            identificarComandos();
-        }
+        gerarComandos(se.getEntao());
 
         // Verifica se temos um bloco else
-        if (this.tokenAtual != null && this.tokenAtual.getNome().equalsIgnoreCase("else")) {
+        if (!se.getSenao().isEmpty()) {
             // Se o bloco IF foi executado, salta sobre o bloco ELSE.
             this.secaoCodigo.append("    jmp ").append(labelFimIf).append("\n");
             this.secaoCodigo.append(labelElse).append(":\n");
-            proximoToken(); // Consome 'else'.
-            if (this.tokenAtual != null && this.tokenAtual.getNome().equalsIgnoreCase("begin")) {
-                proximoToken(); // Consome 'begin' do else.
-            }
             // Processa o corpo do ELSE.
-            while (this.tokenAtual != null && !this.tokenAtual.getNome().equalsIgnoreCase("end")) {
-                identificarComandos();
-            }
-            if (this.tokenAtual != null && this.tokenAtual.getNome().equalsIgnoreCase("end")) {
-                proximoToken(); // Consome o 'end' do ELSE
-            }
+            gerarComandos(se.getSenao());
             this.secaoCodigo.append(labelFimIf).append(":\n");
         } else {
             // Sem bloco else, o labelElse é o fim do IF
             this.secaoCodigo.append(labelElse).append(":\n");
         }
+    }
 
-        // Consome o 'end' que fecha a estrutura IF (ou IF-ELSE aninhado).
-        if (this.tokenAtual != null && this.tokenAtual.getNome().equalsIgnoreCase("end")) {
-            proximoToken();
+    // Pelo perfil, o else rodou mais vezes que o bloco do if.
+    private boolean isSenaoMaisExecutado(NoSe se) {
+        if (this.perfilGuia == null || se.getEntao().isEmpty() || se.getSenao().isEmpty()) {
+            return false;
         }
+        return GuiadaPorPerfil.execucoes(this.perfilGuia, se.getSenao()) > GuiadaPorPerfil
+                .execucoes(this.perfilGuia, se.getEntao());
     }
 
-    // Gera código para uma expressão condicional, resultando em um salto.
-    private void gerarExpressaoCondicional(String labelAlvo, boolean saltarSeFalso) {
-        String primeiroOperando = this.tokenAtual.getNome();
-        String tipo = tabelaSimbolos.getTipoSimbolo(primeiroOperando);
-        proximoToken(); // Consome o primeiro operando.
+    // If com o else primeiro: a condição verdadeira salta para o bloco do if.
+    private void identificarIfInvertido(NoSe se, String labelEntao, String labelFimIf) {
+        gerarExpressaoCondicional(se.getCondicao(), labelEntao, false);
+        gerarComandos(se.getSenao());
+        this.secaoCodigo.append("    jmp ").append(labelFimIf).append("\n");
+        this.secaoCodigo.append(labelEntao).append(":\n");
+        gerarComandos(se.getEntao());
+        this.secaoCodigo.append(labelFimIf).append(":\n");
+    }
 
-        // Verifica se é uma comparação explícita (ex: n >= 10).
-        if (isOperadorRelacional(this.tokenAtual.getNome())) {
-            String operador = this.tokenAtual.getNome();
-            proximoToken();
-            String segundoOperando = this.tokenAtual.getNome();
-            proximoToken();
+    /**
+     * Gera código para uma expressão condicional, resultando em um salto para
+     * labelAlvo quando a condição for falsa (saltarSeFalso) ou verdadeira.
+     * A condição é avaliada direto nas flags: 'and'/'or' viram saltos em curto
+     * circuito, 'not' apenas inverte o sentido do salto e nenhum valor booleano
+     * intermediário é calculado.
+     */
+    private void gerarExpressaoCondicional(NoExpressao condicao, String labelAlvo, boolean saltarSeFalso) {
+        Boolean constante = AvaliadorConstante.avaliarCondicao(condicao);
+        if (constante != null) {
+            // Condição conhecida: salto incondicional ou nenhum código.
+            if (constante != saltarSeFalso) {
+                this.secaoCodigo.append("    jmp ").append(labelAlvo).append("\n");
+            }
+        } else if (condicao instanceof NoUnario unario) {
+            gerarExpressaoCondicional(unario.getOperando(), labelAlvo, !saltarSeFalso);
+        } else if (condicao instanceof NoBinario binario && binario.isLogico()) {
+            boolean isE = binario.getOperador().equalsIgnoreCase("and");
+            if (isE == saltarSeFalso) {
+                // 'and' falso ou 'or' verdadeiro: qualquer um dos lados decide o salto.
+                gerarExpressaoCondicional(binario.getEsquerda(), labelAlvo, saltarSeFalso);
+                gerarExpressaoCondicional(binario.getDireita(), labelAlvo, saltarSeFalso);
+            } else {
+                // O lado esquerdo pode decidir o resultado sem saltar para o alvo: nesse
+                // caso o lado direito é pulado.
+                String labelCurto = "_condCurto" + this.contadorCondicao++;
+                gerarExpressaoCondicional(binario.getEsquerda(), labelCurto, !saltarSeFalso);
+                gerarExpressaoCondicional(binario.getDireita(), labelAlvo, saltarSeFalso);
+                this.secaoCodigo.append(labelCurto).append(":\n");
+            }
+        } else {
+            String sufixo = gerarFlags(condicao, saltarSeFalso);
+            this.secaoCodigo.append("    j").append(sufixo).append(" ").append(labelAlvo).append("\n");
+        }
+    }
 
-            // Usa 'eax' (32 bits) para inteiros, 'al' (8 bits) para bytes/booleanos.
-            String reg = "eax";
-            if (tipo != null && (tipo.equalsIgnoreCase("boolean") || tipo.equalsIgnoreCase("byte"))) {
-                reg = "al";
+    /**
+     * Avalia uma condição sem 'and'/'or' no topo deixando o resultado nas flags.
+     * Retorna o sufixo de condição (ex: "l", "ge", "ne") que é satisfeito quando
+     * a condição é verdadeira, ou falsa se 'negar' for true. O mesmo sufixo serve
+     * para jcc, setcc e cmovcc.
+     */
+    private String gerarFlags(NoExpressao condicao, boolean negar) {
+        while (condicao instanceof NoUnario unario) {
+            negar = !negar;
+            condicao = unario.getOperando();
+        }
+        if (condicao instanceof NoBinario binario && binario.isRelacional()) {
+            gerarComparacao(binario);
+            String operador = binario.getOperador();
+            if (isComparacaoInvertida(binario)) {
+                // Os operandos foram comparados na ordem inversa.
+                operador = espelharOperador(operador);
             }
+            return obterInstrucaoSalto(operador, negar).substring(1);
+        }
+        if (condicao instanceof NoVariavel variavel) {
+            // Booleano implícito (ex: while naoTerminou): compara o byte na memória.
+            this.secaoCodigo.append("    cmp ").append(variavel.getNome()).append(", 0\n");
+        } else {
+            gerarValorLogico(condicao);
+            this.secaoCodigo.append("    test eax, eax\n");
+        }
+        return negar ? "e" : "ne";
+    }
 
-            // Carrega os operandos, compara e salta.
-            this.secaoCodigo.append("    mov ").append(reg).append(", ").append(formatarValor(primeiroOperando, tipo))
-                    .append("\n");
-            this.secaoCodigo.append("    cmp ").append(reg).append(", ").append(formatarValor(segundoOperando, tipo))
-                    .append("\n");
+    /**
+     * Compara os dois lados de uma expressão relacional, deixando o resultado
+     * nas flags. O lado simples (literal ou variável) fica à direita do 'cmp'
+     * sempre que possível, para ser usado direto como operando; o chamador
+     * espelha o operador quando os lados são trocados.
+     */
+    private void gerarComparacao(NoBinario binario) {
+        NoExpressao esquerda = binario.getEsquerda();
+        NoExpressao direita = binario.getDireita();
+        if (isComparacaoInvertida(binario)) {
+            esquerda = binario.getDireita();
+            direita = binario.getEsquerda();
+        }
+
+        if (!isOperandoSimples(direita)) {
+            // Dois lados aritméticos: calcula ambos na pilha.
+            avaliarExpressao(esquerda);
+            avaliarExpressao(direita);
+            this.secaoCodigo.append("    pop ebx\n");
+            this.secaoCodigo.append("    pop eax\n");
+            this.secaoCodigo.append("    cmp eax, ebx\n");
+            return;
+        }
 
-            String instrucaoSalto = obterInstrucaoSalto(operador, saltarSeFalso);
-            this.secaoCodigo.append("    ").append(instrucaoSalto).append(" ").append(labelAlvo).append("\n");
+        carregarEmEax(esquerda);
+        if (direita instanceof NoLiteral && operandoSimples(direita).equals("0")) {
+            this.secaoCodigo.append("    test eax, eax\n");
+        } else if (isByte(direita) && direita instanceof NoVariavel variavel) {
+            this.secaoCodigo.append("    movzx ebx, ").append(variavel.getNome()).append("\n");
+            this.secaoCodigo.append("    cmp eax, ebx\n");
+        } else {
+            this.secaoCodigo.append("    cmp eax, ").append(operandoSimples(direita)).append("\n");
+        }
+    }
 
-        } else { // Trata comparações booleanas implícitas (ex: while naoTerminou).
-            String reg = "al"; // Booleans são sempre bytes.
+    private boolean isComparacaoInvertida(NoBinario binario) {
+        return binario.getEsquerda() instanceof NoLiteral
+                || (!isOperandoSimples(binario.getDireita()) && isOperandoSimples(binario.getEsquerda()));
+    }
 
-            this.secaoCodigo.append("    mov ").append(reg).append(", ").append(primeiroOperando).append("\n");
-            this.secaoCodigo.append("    cmp ").append(reg).append(", 1\n"); // Compara com 'true' (1).
+    // Carrega o valor de uma expressão em eax (bytes são estendidos para 32 bits).
+    private void carregarEmEax(NoExpressao expressao) {
+        if (isOperandoSimples(expressao)) {
+            carregarSimples(expressao, "eax");
+        } else {
+            avaliarExpressao(expressao);
+            this.secaoCodigo.append("    pop eax\n");
+        }
+    }
 
-            String instrucaoSalto = saltarSeFalso ? "jne" : "je"; // jne: salta se não for verdadeiro.
-            this.secaoCodigo.append("    ").append(instrucaoSalto).append(" ").append(labelAlvo).append("\n");
+    // Carrega um literal ou variável em um registrador de 32 bits.
+    private void carregarSimples(NoExpressao expressao, String registrador) {
+        if (isByte(expressao) && expressao instanceof NoVariavel variavel) {
+            this.secaoCodigo.append("    movzx ").append(registrador).append(", ").append(variavel.getNome())
+                    .append("\n");
+        } else {
+            this.secaoCodigo.append("    mov ").append(registrador).append(", ").append(operandoSimples(expressao))
+                    .append("\n");
         }
     }
 
+    // Operador equivalente com os operandos trocados (ex: 10 > i  =>  i < 10).
+    private String espelharOperador(String operador) {
+        return switch (operador) {
+            case "<" -> ">";
+            case ">" -> "<";
+            case "<=" -> ">=";
+            case ">=" -> "<=";
+            default -> operador;
+        };
+    }
+
     // Mapeia um operador relacional para a instrução de salto condicional
     // correspondente em Assembly.
     private String obterInstrucaoSalto(String operador, boolean saltarSeFalso) {
@@ -490,43 +739,33 @@ public class GeradorAssembly {
     }
 
     // Gera código para um comando de atribuição.
-    private void identificarAtribuicao() {
-        String nomeVariavel = this.tokenAtual.getNome();
-        String tipoVar = this.tabelaSimbolos.getTipoSimbolo(nomeVariavel);
-        if (tipoVar == null)
-            tipoVar = "int"; // Fallback.
-
-        proximoToken(); // Consome o nome da variável.
-        proximoToken(); // Consome '='.
+    private void identificarAtribuicao(NoAtribuicao atribuicao) {
+        String nomeVariavel = atribuicao.getVariavel();
+        String tipoVar = atribuicao.getTipo();
 
         // Atribuição de string usa a função crt_strcpy.
         if (tipoVar.equalsIgnoreCase("string")) {
-            String literalString = this.tokenAtual.getNome();
-            String valorStringReal;
-
-            // Validação para remover aspas de forma segura.
-            if (literalString.length() >= 2 && literalString.startsWith("\"") && literalString.endsWith("\"")) {
-                valorStringReal = literalString.substring(1, literalString.length() - 1);
+            if (atribuicao.getValor() instanceof NoVariavel origem) {
+                // Cópia entre duas variáveis string.
+                this.secaoCodigo.append("    invoke crt_strcpy, addr ").append(nomeVariavel).append(", addr ")
+                        .append(origem.getNome()).append("\n");
+                return;
+            }
+            String valorStringReal = "";
+            if (atribuicao.getValor() instanceof NoLiteral literal) {
+                valorStringReal = literal.getValor();
             } else {
                 // Emite um aviso se o valor não for uma string entre aspas.
                 System.err.println("[Aviso de Geração de Código] Atribuição para string '" + nomeVariavel
-                        + "' com valor malformado: " + literalString);
-                valorStringReal = ""; // Usa uma string vazia para evitar crash.
+                        + "' com valor malformado: " + atribuicao.getValor());
             }
 
             // Declara a string na seção .data e invoca a cópia.
-            String labelStringDados = "str_assign_" + this.contadorString++;
-            this.secaoDados.append(String.format("    %-15s db \"%s\", 0\n", labelStringDados, valorStringReal));
+            String labelStringDados = declararString(valorStringReal, "str_assign_");
             this.secaoCodigo.append("    invoke crt_strcpy, addr ").append(nomeVariavel).append(", addr ")
                     .append(labelStringDados).append("\n");
-            proximoToken();
         } else { // Para tipos numéricos/booleanos, avalia a expressão.
-            ArrayList<Token> tokensExpressao = new ArrayList<>();
-            while (this.tokenAtual != null && !this.tokenAtual.getNome().equals(";")) {
-                tokensExpressao.add(this.tokenAtual);
-                proximoToken();
-            }
-            avaliarExpressao(tokensExpressao);
+            avaliarExpressao(atribuicao.getValor());
 
             // O resultado da expressão está no topo da pilha do processador.
             this.secaoCodigo.append("    pop eax\n");
@@ -538,49 +777,135 @@ public class GeradorAssembly {
                 this.secaoCodigo.append("    mov ").append(nomeVariavel).append(", eax\n");
             }
         }
+    }
 
-        if (this.tokenAtual != null && this.tokenAtual.getNome().equals(";")) {
-            proximoToken(); // Consome ';' final.
+    /**
+     * Avalia uma expressão percorrendo a árvore em pós-ordem e gera código
+     * Assembly que usa a pilha do processador: cada operando é empilhado e cada
+     * operador consome os dois valores do topo, empilhando o resultado.
+     */
+    private void avaliarExpressao(NoExpressao expressao) {
+        if (expressao instanceof NoLiteral || expressao instanceof NoVariavel) {
+            if (isByte(expressao) && expressao instanceof NoVariavel variavel) {
+                // 'push' não aceita operandos de 8 bits: estende para 32 bits antes.
+                this.secaoCodigo.append("    movzx eax, ").append(variavel.getNome()).append("\n");
+                this.secaoCodigo.append("    push eax\n");
+            } else {
+                this.secaoCodigo.append("    push ").append(operandoSimples(expressao)).append("\n");
+            }
+        } else if (expressao instanceof NoBinario binario && binario.isAritmetico()) {
+            Integer constante = AvaliadorConstante.avaliar(binario);
+            if (constante != null) {
+                this.secaoCodigo.append("    push ").append(constante).append("\n");
+            } else if (!this.reducaoForca || !gerarOpConstante(binario)) {
+                avaliarExpressao(binario.getEsquerda());
+                avaliarExpressao(binario.getDireita());
+                gerarOp(binario.getOperador());
+            }
+        } else if (expressao instanceof NoSelecao selecao) {
+            gerarSelecao(selecao);
+            this.secaoCodigo.append("    push eax\n");
+        } else if (expressao instanceof NoBinario || expressao instanceof NoUnario) {
+            // Expressões lógicas/relacionais em contexto de valor viram 0 ou 1.
+            gerarValorLogico(expressao);
+            this.secaoCodigo.append("    push eax\n");
         }
     }
 
     /**
-     * Avalia uma expressão aritmética infixa usando o algoritmo Shunting-yard
-     * para gerar código Assembly em ordem pós-fixa (usando a pilha do processador).
+     * Calcula em eax o valor (0 ou 1) de uma expressão lógica sem saltos: cada
+     * comparação vira setcc e 'and'/'or' combinam os dois lados bit a bit. Os
+     * dois lados são sempre avaliados, o que é seguro pois expressões não têm
+     * efeitos colaterais.
      */
-    private void avaliarExpressao(ArrayList<Token> tokens) {
-        Stack<String> ops = new Stack<>(); // Pilha para operadores.
-
-        for (Token token : tokens) {
-            String nome = token.getNome();
-
-            // Se o token for um operando (ID ou constante), empurra seu valor na pilha do
-            // processador.
-            if (token.getClassificacao().equalsIgnoreCase("ID") || token.getClassificacao().equalsIgnoreCase("CONST")
-                    || nome.equalsIgnoreCase("true") || nome.equalsIgnoreCase("false")) {
-                String valorParaEmpilhar = formatarValor(nome, token.getTipo());
-                this.secaoCodigo.append("    push ").append(valorParaEmpilhar).append("\n");
-            } else if (nome.equals("(")) { // Empilha parênteses de abertura.
-                ops.push(nome);
-            } else if (nome.equals(")")) { // Ao encontrar ')', desempilha operadores até encontrar '('.
-                while (!ops.empty() && !ops.peek().equals("(")) {
-                    gerarOp(ops.pop());
-                }
-                if (!ops.empty())
-                    ops.pop(); // Descarta o '('.
-            } else if (isOperador(nome)) { // Se for um operador aritmético...
-                // Desempilha operadores com maior ou igual precedência antes de empilhar o
-                // atual.
-                while (!ops.empty() && terPrecedencia(ops.peek(), nome)) {
-                    gerarOp(ops.pop());
-                }
-                ops.push(nome);
+    private void gerarValorLogico(NoExpressao expressao) {
+        if (expressao instanceof NoSelecao selecao) {
+            gerarSelecao(selecao);
+        } else if (expressao instanceof NoBinario binario && binario.isLogico()) {
+            gerarValorLogico(binario.getEsquerda());
+            this.secaoCodigo.append("    push eax\n");
+            gerarValorLogico(binario.getDireita());
+            this.secaoCodigo.append("    pop ebx\n");
+            this.secaoCodigo.append("    ").append(binario.getOperador().toLowerCase()).append(" eax, ebx\n");
+        } else if (expressao instanceof NoUnario
+                || (expressao instanceof NoBinario binario && binario.isRelacional())) {
+            String sufixo = gerarFlags(expressao, false);
+            this.secaoCodigo.append("    set").append(sufixo).append(" al\n");
+            this.secaoCodigo.append("    movzx eax, al\n");
+        } else {
+            carregarEmEax(expressao);
+        }
+    }
+
+    /**
+     * Gera uma seleção (condicao ? verdadeiro : falso) com cmovcc, deixando o
+     * resultado em eax. Valores compostos são calculados na pilha antes da
+     * comparação; depois dela só são usados mov/movzx/pop, que não alteram as
+     * flags.
+     */
+    private void gerarSelecao(NoSelecao selecao) {
+        NoExpressao verdadeiro = selecao.getVerdadeiro();
+        NoExpressao falso = selecao.getFalso();
+        if (!isOperandoSimples(verdadeiro)) {
+            avaliarExpressao(verdadeiro);
+        }
+        if (!isOperandoSimples(falso)) {
+            avaliarExpressao(falso);
+        }
+
+        String sufixo = gerarFlags(selecao.getCondicao(), false);
+
+        if (isOperandoSimples(falso)) {
+            carregarSimples(falso, "eax");
+        } else {
+            this.secaoCodigo.append("    pop eax\n");
+        }
+        if (verdadeiro instanceof NoVariavel variavel && !isByte(variavel)) {
+            this.secaoCodigo.append("    cmov").append(sufixo).append(" eax, ").append(variavel.getNome())
+                    .append("\n");
+            return;
+        }
+        if (isOperandoSimples(verdadeiro)) {
+            carregarSimples(verdadeiro, "ecx"); // cmov não aceita imediato.
+        } else {
+            this.secaoCodigo.append("    pop ecx\n");
+        }
+        this.secaoCodigo.append("    cmov").append(sufixo).append(" eax, ecx\n");
+    }
+
+    /**
+     * Multiplicação e divisão em que um dos lados é constante: calcula só o
+     * outro lado e aplica a sequência de ReducaoForca (shl/lea/add ou número
+     * mágico) no lugar de imul/idiv. Retorna false se não se aplicar.
+     */
+    private boolean gerarOpConstante(NoBinario binario) {
+        String operador = binario.getOperador();
+        Integer direita = AvaliadorConstante.avaliar(binario.getDireita());
+        NoExpressao operando = binario.getEsquerda();
+        List<String> instrucoes = null;
+        if (operador.equals("*")) {
+            Integer esquerda = AvaliadorConstante.avaliar(binario.getEsquerda());
+            if (direita == null && esquerda != null) {
+                // Multiplicação é comutativa: a constante pode estar à esquerda.
+                direita = esquerda;
+                operando = binario.getDireita();
+            }
+            if (direita != null) {
+                instrucoes = ReducaoForca.multiplicar(direita);
             }
+        } else if (operador.equals("/") && direita != null) {
+            instrucoes = ReducaoForca.dividir(direita, this.divisaoMagica);
         }
-        // Desempilha e aplica os operadores restantes.
-        while (!ops.empty()) {
-            gerarOp(ops.pop());
+        if (instrucoes == null) {
+            return false;
+        }
+
+        carregarEmEax(operando);
+        for (String instrucao : instrucoes) {
+            this.secaoCodigo.append("    ").append(instrucao).append("\n");
         }
+        this.secaoCodigo.append("    push eax\n");
+        return true;
     }
 
     // Gera a instrução Assembly para um operador aritmético (+, -, *, /).
@@ -601,10 +926,22 @@ public class GeradorAssembly {
         this.secaoCodigo.append("    push eax\n"); // Empurra o resultado de volta para a pilha.
     }
 
-    // Verifica se o token atual está no escopo de declaração.
-    private boolean isEscopoDeclaracao() {
-        return this.tokenAtual != null
-                && (isTipoPrimitivo() || this.tokenAtual.getNome().equalsIgnoreCase("final"));
+    // Literais e variáveis podem ser usados diretamente como operandos.
+    private boolean isOperandoSimples(NoExpressao expressao) {
+        return expressao instanceof NoLiteral || expressao instanceof NoVariavel;
+    }
+
+    private String operandoSimples(NoExpressao expressao) {
+        if (expressao instanceof NoVariavel variavel) {
+            return variavel.getNome();
+        }
+        NoLiteral literal = (NoLiteral) expressao;
+        return formatarValor(literal.getValor(), literal.getTipo());
+    }
+
+    private boolean isByte(NoExpressao expressao) {
+        String tipo = expressao.getTipo();
+        return tipo != null && (tipo.equalsIgnoreCase("boolean") || tipo.equalsIgnoreCase("byte"));
     }
 
     // Formata um valor da linguagem fonte para o formato correto em Assembly.
@@ -618,9 +955,10 @@ public class GeradorAssembly {
             if (valor.equalsIgnoreCase("false") || valor.equalsIgnoreCase("0") || valor.equalsIgnoreCase("0h"))
                 return "0";
         }
-        // Converte o formato 0hXX para XXh para bytes.
+        // Converte o formato 0hXX para 0XXh para bytes (o 0 inicial evita que 'FFh'
+        // seja lido como identificador pelo montador).
         if (valor.toLowerCase().startsWith("0h") && tipo != null && tipo.equalsIgnoreCase("byte")) {
-            return valor.substring(2) + "h";
+            return "0" + valor.substring(2) + "h";
         }
         return valor;
     }
@@ -634,28 +972,4 @@ public class GeradorAssembly {
             default -> "";
         };
     }
-
-    // Verifica se o token atual é um tipo primitivo da linguagem.
-    private boolean isTipoPrimitivo() {
-        if (this.tokenAtual == null)
-            return false;
-        String nome = this.tokenAtual.getNome().toLowerCase();
-        return nome.equals("int") || nome.equals("string") || nome.equals("boolean") || nome.equals("byte");
-    }
-
-    // Verifica se uma string é um operador aritmético.
-    private boolean isOperador(String op) {
-        return op.matches("[+\\-*/]");
-    }
-
-    // Verifica a precedência entre dois operadores aritméticos.
-    private boolean terPrecedencia(String op1, String op2) {
-        if (op1.equals("(") || op1.equals(")"))
-            return false;
-        if ((op1.equals("*") || op1.equals("/")) && (op2.equals("+") || op2.equals("-")))
-            return true;
-        if ((op1.equals("*") || op1.equals("/")) && (op2.equals("*") || op2.equals("/")))
-            return true;
-        return (op1.equals("+") || op1.equals("-")) && (op2.equals("+") || op2.equals("-"));
-    }
 }
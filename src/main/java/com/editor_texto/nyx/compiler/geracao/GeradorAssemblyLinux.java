@@ -0,0 +1,619 @@
+package com.editor_texto.nyx.compiler.geracao;
+
+import com.editor_texto.nyx.compiler.arvore.NoAtribuicao;
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoDeclaracao;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoEscrita;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLeitura;
+import com.editor_texto.nyx.compiler.arvore.NoLiteral;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.arvore.NoSelecao;
+import com.editor_texto.nyx.compiler.arvore.NoUnario;
+import com.editor_texto.nyx.compiler.arvore.NoVariavel;
+import com.editor_texto.nyx.compiler.otimizacao.AvaliadorConstante;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gera código Assembly x86-64 para Linux (System V, sintaxe GAS/Intel) a
+ * partir da árvore do programa, no lugar do MASM de 32 bits do
+ * GeradorAssembly. O executável não depende da libc: a E/S usa o runtime de
+ * runtime/nyx_runtime_linux.s e o programa termina com a chamada de sistema
+ * exit.
+ *
+ * Os valores continuam com 32 bits (eax); a pilha do processador só guarda o
+ * lado esquerdo de uma operação quando o direito não é um operando simples.
+ * Variáveis recebem o prefixo 'v_' para não colidirem com registradores e
+ * diretivas; constantes numéricas são substituídas pelo valor.
+ */
+public class GeradorAssemblyLinux {
+
+    private static final int SYS_EXIT = 60;
+
+    private final NoPrograma programa;
+
+    private final StringBuilder secaoDados = new StringBuilder(); // Variáveis inicializadas (.data).
+    private final StringBuilder secaoBss = new StringBuilder(); // Buffers das strings (.bss).
+    private final StringBuilder secaoLiterais = new StringBuilder(); // Strings constantes (.rodata).
+    private final StringBuilder secaoCodigo = new StringBuilder(); // Código (.text).
+
+    // Contadores para gerar rótulos únicos.
+    private int contadorString = 1;
+    private int contadorLoop = 1;
+    private int contadorIf = 1;
+    private int contadorCondicao = 1;
+
+    private boolean usaRuntime = false;
+
+    // Caracteres por linha '.ascii' de uma string.
+    private static final int TAMANHO_TRECHO = 64;
+
+    private final Map<String, String> stringsDeclaradas = new HashMap<>();
+    private final Set<String> constantesString = new HashSet<>();
+    // Constantes numéricas, já formatadas como imediato.
+    private final Map<String, String> constantes = new HashMap<>();
+
+    private boolean reducaoForca = true;
+    private boolean divisaoMagica = true;
+
+    public GeradorAssemblyLinux(NoPrograma programa) {
+        this.programa = programa;
+    }
+
+    public void setReducaoForca(boolean reducaoForca) {
+        this.reducaoForca = reducaoForca;
+    }
+
+    public void setDivisaoMagica(boolean divisaoMagica) {
+        this.divisaoMagica = divisaoMagica;
+    }
+
+    /**
+     * Gera o arquivo .s completo, com o runtime anexado se o programa faz E/S.
+     */
+    public String gerar() {
+        for (NoDeclaracao declaracao : this.programa.getDeclaracoes()) {
+            identificarDeclaracao(declaracao);
+        }
+        this.gerarSecaoCodigo();
+
+        StringBuilder codigoAssembly = new StringBuilder();
+        codigoAssembly.append("    .intel_syntax noprefix\n")
+                .append("    .globl _start\n\n");
+        codigoAssembly.append("    .data\n").append(this.secaoDados);
+        codigoAssembly.append("\n    .bss\n").append(this.secaoBss);
+        codigoAssembly.append("\n    .section .rodata\n").append(this.secaoLiterais);
+        codigoAssembly.append("\n    .text\n").append(this.secaoCodigo);
+        if (this.usaRuntime) {
+            for (String linha : RuntimeLC.getRotinasLinux()) {
+                codigoAssembly.append(linha).append("\n");
+            }
+        }
+        return codigoAssembly.toString();
+    }
+
+    private void identificarDeclaracao(NoDeclaracao declaracao) {
+        String nome = declaracao.getNome();
+        String tipo = declaracao.getTipo();
+        NoLiteral valor = declaracao.getValorInicial();
+
+        if (declaracao.isConstante()) {
+            if (tipo.equalsIgnoreCase("string")) {
+                this.constantesString.add(nome);
+                declararTexto(rotuloConstante(nome), valor.getValor());
+            } else {
+                this.constantes.put(nome, formatarValor(valor.getValor(), tipo));
+            }
+            return;
+        }
+
+        if (tipo.equalsIgnoreCase("string")) {
+            this.secaoBss.append(rotuloVariavel(nome)).append(":\n").append("    .zero 256\n");
+        } else {
+            String valorDado = valor != null ? formatarValor(valor.getValor(), tipo) : "0";
+            if (tipo.equalsIgnoreCase("int")) {
+                this.secaoDados.append("    .balign 4\n");
+            }
+            this.secaoDados.append(rotuloVariavel(nome)).append(":\n")
+                    .append(tipo.equalsIgnoreCase("int") ? "    .long " : "    .byte ").append(valorDado)
+                    .append("\n");
+        }
+    }
+
+    private void gerarSecaoCodigo() {
+        this.secaoCodigo.append("_start:\n");
+        this.gerarComandos(this.programa.getComandos());
+        this.secaoCodigo.append("\n");
+        if (this.usaRuntime) {
+            this.secaoCodigo.append("    call ").append(RuntimeLC.DESCARREGAR).append("\n");
+        }
+        this.secaoCodigo.append("    xor edi, edi\n")
+                .append("    mov eax, ").append(SYS_EXIT).append("\n")
+                .append("    syscall\n");
+    }
+
+    private void gerarComandos(List<NoComando> comandos) {
+        for (NoComando comando : comandos) {
+            identificarComando(comando);
+        }
+    }
+
+    private void identificarComando(NoComando comando) {
+        if (comando instanceof NoEscrita escrita) {
+            identificarWrite(escrita);
+        } else if (comando instanceof NoLeitura leitura) {
+            identificarRead(leitura);
+        } else if (comando instanceof NoEnquanto enquanto) {
+            identificarWhile(enquanto);
+        } else if (comando instanceof NoSe se) {
+            identificarIf(se);
+        } else if (comando instanceof NoAtribuicao atribuicao) {
+            identificarAtribuicao(atribuicao);
+        }
+    }
+
+    // Literais seguidos (e a quebra do writeln) viram uma só string, como no
+    // GeradorAssembly.
+    private void identificarWrite(NoEscrita escrita) {
+        StringBuilder texto = new StringBuilder();
+        for (NoExpressao item : escrita.getItens()) {
+            if (item instanceof NoLiteral literal) {
+                texto.append(literal.getValor().replace("'", ""));
+                continue;
+            }
+            escreverTexto(texto);
+            NoVariavel variavel = (NoVariavel) item;
+            if (variavel.getTipo().equalsIgnoreCase("string")) {
+                this.secaoCodigo.append("    lea rdi, ").append(endereco(variavel.getNome())).append("\n");
+                chamarRuntime(RuntimeLC.ESCREVER_STR);
+            } else {
+                carregarSimples(variavel, "edi");
+                chamarRuntime(RuntimeLC.ESCREVER_INT);
+            }
+        }
+        if (escrita.isQuebraLinha()) {
+            texto.append('\n');
+        }
+        escreverTexto(texto);
+    }
+
+    private void escreverTexto(StringBuilder texto) {
+        if (texto.length() > 0) {
+            this.secaoCodigo.append("    lea rdi, [rip + ").append(declararString(texto.toString(), "str"))
+                    .append("]\n");
+            chamarRuntime(RuntimeLC.ESCREVER_STR);
+            texto.setLength(0);
+        }
+    }
+
+    // Declara a string em .rodata (uma vez por conteúdo) e retorna o rótulo.
+    private String declararString(String texto, String prefixo) {
+        if (texto.equals("\n")) {
+            this.usaRuntime = true;
+            return RuntimeLC.QUEBRA_LINHA;
+        }
+        String existente = this.stringsDeclaradas.get(texto);
+        if (existente != null) {
+            return existente;
+        }
+        String label = prefixo + this.contadorString++;
+        declararTexto(label, texto);
+        this.stringsDeclaradas.put(texto, label);
+        return label;
+    }
+
+    // Emite a string terminada em 0, em trechos de até 64 caracteres.
+    private void declararTexto(String label, String texto) {
+        this.secaoLiterais.append(label).append(":\n");
+        String[] partes = texto.split("\n", -1);
+        for (int i = 0; i < partes.length; i++) {
+            for (int inicio = 0; inicio < partes[i].length(); inicio += TAMANHO_TRECHO) {
+                int fim = Math.min(partes[i].length(), inicio + TAMANHO_TRECHO);
+                String trecho = partes[i].substring(inicio, fim).replace("\\", "\\\\").replace("\"", "\\\"");
+                this.secaoLiterais.append("    .ascii \"").append(trecho).append("\"\n");
+            }
+            if (i < partes.length - 1) {
+                this.secaoLiterais.append("    .byte 10\n");
+            }
+        }
+        this.secaoLiterais.append("    .byte 0\n");
+    }
+
+    private void identificarRead(NoLeitura leitura) {
+        String nomeVariavel = leitura.getVariavel();
+        String tipoVar = leitura.getTipo();
+
+        if (tipoVar != null && (tipoVar.equalsIgnoreCase("int") || tipoVar.equalsIgnoreCase("byte")
+                || tipoVar.equalsIgnoreCase("boolean"))) {
+            chamarRuntime(RuntimeLC.LER_INT);
+            boolean isInt = tipoVar.equalsIgnoreCase("int");
+            this.secaoCodigo.append("    mov ").append(memoria(nomeVariavel, !isInt)).append(", ")
+                    .append(isInt ? "eax" : "al").append("\n");
+        } else {
+            this.secaoCodigo.append("    lea rdi, ").append(endereco(nomeVariavel)).append("\n");
+            chamarRuntime(RuntimeLC.LER_LINHA);
+        }
+    }
+
+    // Os argumentos já estão em rdi/rsi (System V).
+    private void chamarRuntime(String rotina) {
+        this.usaRuntime = true;
+        this.secaoCodigo.append("    call ").append(rotina).append("\n");
+    }
+
+    private void identificarWhile(NoEnquanto enquanto) {
+        int contadorLoopLocal = this.contadorLoop++;
+        String labelLoop = "_loop" + contadorLoopLocal;
+        String labelFimLoop = "_fimLoop" + contadorLoopLocal;
+
+        this.secaoCodigo.append("\n").append(labelLoop).append(":\n");
+
+        if (enquanto.isPosTestado()) {
+            gerarComandos(enquanto.getCorpo());
+            gerarExpressaoCondicional(enquanto.getCondicao(), labelLoop, false);
+            this.secaoCodigo.append(labelFimLoop).append(":\n");
+            return;
+        }
+
+        gerarExpressaoCondicional(enquanto.getCondicao(), labelFimLoop, true);
+        gerarComandos(enquanto.getCorpo());
+        this.secaoCodigo.append("\n    jmp ").append(labelLoop).append("\n");
+        this.secaoCodigo.append(labelFimLoop).append(":\n");
+    }
+
+    private void identificarIf(NoSe se) {
+        int contadorIfLocal = this.contadorIf++;
+        String labelElse = "_else" + contadorIfLocal;
+        String labelFimIf = "_fimIf" + contadorIfLocal;
+
+        gerarExpressaoCondicional(se.getCondicao(), labelElse, true);
+        gerarComandos(se.getEntao());
+
+        if (!se.getSenao().isEmpty()) {
+            this.secaoCodigo.append("    jmp ").append(labelFimIf).append("\n");
+            this.secaoCodigo.append(labelElse).append(":\n");
+            gerarComandos(se.getSenao());
+            this.secaoCodigo.append(labelFimIf).append(":\n");
+        } else {
+            this.secaoCodigo.append(labelElse).append(":\n");
+        }
+    }
+
+    // Salta para labelAlvo quando a condição for falsa (saltarSeFalso) ou
+    // verdadeira, com 'and'/'or' em curto circuito.
+    private void gerarExpressaoCondicional(NoExpressao condicao, String labelAlvo, boolean saltarSeFalso) {
+        Boolean constante = AvaliadorConstante.avaliarCondicao(condicao);
+        if (constante != null) {
+            if (constante != saltarSeFalso) {
+                this.secaoCodigo.append("    jmp ").append(labelAlvo).append("\n");
+            }
+        } else if (condicao instanceof NoUnario unario) {
+            gerarExpressaoCondicional(unario.getOperando(), labelAlvo, !saltarSeFalso);
+        } else if (condicao instanceof NoBinario binario && binario.isLogico()) {
+            boolean isE = binario.getOperador().equalsIgnoreCase("and");
+            if (isE == saltarSeFalso) {
+                gerarExpressaoCondicional(binario.getEsquerda(), labelAlvo, saltarSeFalso);
+                gerarExpressaoCondicional(binario.getDireita(), labelAlvo, saltarSeFalso);
+            } else {
+                String labelCurto = "_condCurto" + this.contadorCondicao++;
+                gerarExpressaoCondicional(binario.getEsquerda(), labelCurto, !saltarSeFalso);
+                gerarExpressaoCondicional(binario.getDireita(), labelAlvo, saltarSeFalso);
+                this.secaoCodigo.append(labelCurto).append(":\n");
+            }
+        } else {
+            String sufixo = gerarFlags(condicao, saltarSeFalso);
+            this.secaoCodigo.append("    j").append(sufixo).append(" ").append(labelAlvo).append("\n");
+        }
+    }
+
+    // Deixa a condição nas flags e retorna o sufixo de jcc/setcc/cmovcc.
+    private String gerarFlags(NoExpressao condicao, boolean negar) {
+        while (condicao instanceof NoUnario unario) {
+            negar = !negar;
+            condicao = unario.getOperando();
+        }
+        if (condicao instanceof NoBinario binario && binario.isRelacional()) {
+            String operador = binario.getOperador();
+            NoExpressao esquerda = binario.getEsquerda();
+            NoExpressao direita = binario.getDireita();
+            if (esquerda instanceof NoLiteral || (!isOperandoSimples(direita) && isOperandoSimples(esquerda))) {
+                // O lado simples fica à direita do 'cmp'.
+                esquerda = binario.getDireita();
+                direita = binario.getEsquerda();
+                operador = espelharOperador(operador);
+            }
+            gerarComparacao(esquerda, direita);
+            return sufixoCondicao(operador, negar);
+        }
+        if (condicao instanceof NoVariavel variavel && !this.constantes.containsKey(variavel.getNome())) {
+            this.secaoCodigo.append("    cmp ").append(memoria(variavel.getNome(), isByte(variavel)))
+                    .append(", 0\n");
+        } else {
+            gerarValorLogico(condicao);
+            this.secaoCodigo.append("    test eax, eax\n");
+        }
+        return negar ? "e" : "ne";
+    }
+
+    private void gerarComparacao(NoExpressao esquerda, NoExpressao direita) {
+        calcular(esquerda);
+        if (direita instanceof NoLiteral && operandoImediato(direita).equals("0")) {
+            this.secaoCodigo.append("    test eax, eax\n");
+        } else {
+            // O operando é preparado antes: ele pode emitir instruções (ex: lado direito composto).
+            String operando = operandoDireitoCalculado(direita);
+            this.secaoCodigo.append("    cmp eax, ").append(operando).append("\n");
+        }
+    }
+
+    private String espelharOperador(String operador) {
+        return switch (operador) {
+            case "<" -> ">";
+            case ">" -> "<";
+            case "<=" -> ">=";
+            case ">=" -> "<=";
+            default -> operador;
+        };
+    }
+
+    // Sufixo satisfeito quando a comparação é verdadeira (ou falsa, se negar).
+    private String sufixoCondicao(String operador, boolean negar) {
+        return switch (operador) {
+            case "==" -> negar ? "ne" : "e";
+            case "<>" -> negar ? "e" : "ne";
+            case "<" -> negar ? "ge" : "l";
+            case ">" -> negar ? "le" : "g";
+            case "<=" -> negar ? "g" : "le";
+            case ">=" -> negar ? "l" : "ge";
+            default -> "";
+        };
+    }
+
+    private void identificarAtribuicao(NoAtribuicao atribuicao) {
+        String nomeVariavel = atribuicao.getVariavel();
+        String tipoVar = atribuicao.getTipo();
+
+        if (tipoVar.equalsIgnoreCase("string")) {
+            String origem;
+            if (atribuicao.getValor() instanceof NoVariavel variavel) {
+                origem = endereco(variavel.getNome());
+            } else {
+                String texto = atribuicao.getValor() instanceof NoLiteral literal ? literal.getValor() : "";
+                origem = "[rip + " + declararString(texto, "str_assign_") + "]";
+            }
+            this.secaoCodigo.append("    lea rdi, ").append(endereco(nomeVariavel)).append("\n");
+            this.secaoCodigo.append("    lea rsi, ").append(origem).append("\n");
+            chamarRuntime(RuntimeLC.COPIAR_STR);
+            return;
+        }
+
+        calcular(atribuicao.getValor());
+        boolean isByte = tipoVar.equalsIgnoreCase("boolean") || tipoVar.equalsIgnoreCase("byte");
+        this.secaoCodigo.append("    mov ").append(memoria(nomeVariavel, isByte)).append(", ")
+                .append(isByte ? "al" : "eax").append("\n");
+    }
+
+    /**
+     * Calcula o valor da expressão em eax. Quando o lado direito de uma
+     * operação não é simples, o esquerdo espera na pilha (push/pop de 64 bits).
+     */
+    private void calcular(NoExpressao expressao) {
+        if (isOperandoSimples(expressao)) {
+            carregarSimples(expressao, "eax");
+        } else if (expressao instanceof NoBinario binario && binario.isAritmetico()) {
+            Integer constante = AvaliadorConstante.avaliar(binario);
+            if (constante != null) {
+                this.secaoCodigo.append("    mov eax, ").append(constante).append("\n");
+            } else if (!this.reducaoForca || !gerarOpConstante(binario)) {
+                gerarOp(binario);
+            }
+        } else if (expressao instanceof NoSelecao selecao) {
+            gerarSelecao(selecao);
+        } else {
+            gerarValorLogico(expressao);
+        }
+    }
+
+    private void gerarOp(NoBinario binario) {
+        calcular(binario.getEsquerda());
+        String operando;
+        if (binario.getOperador().equals("/") && isOperandoSimples(binario.getDireita())) {
+            carregarSimples(binario.getDireita(), "ecx"); // idiv não aceita imediato.
+            operando = "ecx";
+        } else {
+            operando = operandoDireitoCalculado(binario.getDireita());
+        }
+        switch (binario.getOperador()) {
+            case "+" -> this.secaoCodigo.append("    add eax, ").append(operando).append("\n");
+            case "-" -> this.secaoCodigo.append("    sub eax, ").append(operando).append("\n");
+            case "*" -> this.secaoCodigo.append("    imul eax, ").append(operando).append("\n");
+            case "/" -> {
+                this.secaoCodigo.append("    cdq\n");
+                this.secaoCodigo.append("    idiv ").append(operando).append("\n");
+            }
+        }
+    }
+
+    // Multiplicação e divisão por constante com as sequências de ReducaoForca.
+    private boolean gerarOpConstante(NoBinario binario) {
+        String operador = binario.getOperador();
+        Integer direita = AvaliadorConstante.avaliar(binario.getDireita());
+        NoExpressao operando = binario.getEsquerda();
+        List<String> instrucoes = null;
+        if (operador.equals("*")) {
+            Integer esquerda = AvaliadorConstante.avaliar(binario.getEsquerda());
+            if (direita == null && esquerda != null) {
+                direita = esquerda;
+                operando = binario.getDireita();
+            }
+            if (direita != null) {
+                instrucoes = ReducaoForca.multiplicar(direita);
+            }
+        } else if (operador.equals("/") && direita != null) {
+            instrucoes = ReducaoForca.dividir(direita, this.divisaoMagica);
+        }
+        if (instrucoes == null) {
+            return false;
+        }
+
+        calcular(operando);
+        for (String instrucao : instrucoes) {
+            // Endereços de 64 bits: evita o prefixo de tamanho de endereço.
+            this.secaoCodigo.append("    ").append(instrucao.replace("[eax+eax", "[rax+rax")).append("\n");
+        }
+        return true;
+    }
+
+    // Valor (0 ou 1) de uma expressão lógica em eax, com setcc e sem saltos.
+    private void gerarValorLogico(NoExpressao expressao) {
+        if (expressao instanceof NoSelecao selecao) {
+            gerarSelecao(selecao);
+        } else if (expressao instanceof NoBinario binario && binario.isLogico()) {
+            gerarValorLogico(binario.getEsquerda());
+            this.secaoCodigo.append("    push rax\n");
+            gerarValorLogico(binario.getDireita());
+            this.secaoCodigo.append("    pop rcx\n");
+            this.secaoCodigo.append("    ").append(binario.getOperador().toLowerCase()).append(" eax, ecx\n");
+        } else if (expressao instanceof NoUnario
+                || (expressao instanceof NoBinario binario && binario.isRelacional())) {
+            String sufixo = gerarFlags(expressao, false);
+            this.secaoCodigo.append("    set").append(sufixo).append(" al\n");
+            this.secaoCodigo.append("    movzx eax, al\n");
+        } else {
+            calcular(expressao);
+        }
+    }
+
+    // Seleção com cmovcc; depois da comparação só mov/movzx/pop, que não
+    // alteram as flags.
+    private void gerarSelecao(NoSelecao selecao) {
+        NoExpressao verdadeiro = selecao.getVerdadeiro();
+        NoExpressao falso = selecao.getFalso();
+        if (!isOperandoSimples(verdadeiro)) {
+            calcular(verdadeiro);
+            this.secaoCodigo.append("    push rax\n");
+        }
+        if (!isOperandoSimples(falso)) {
+            calcular(falso);
+            this.secaoCodigo.append("    push rax\n");
+        }
+
+        String sufixo = gerarFlags(selecao.getCondicao(), false);
+
+        if (isOperandoSimples(falso)) {
+            carregarSimples(falso, "eax");
+        } else {
+            this.secaoCodigo.append("    pop rax\n");
+        }
+        if (isOperandoSimples(verdadeiro)) {
+            carregarSimples(verdadeiro, "ecx");
+        } else {
+            this.secaoCodigo.append("    pop rcx\n");
+        }
+        this.secaoCodigo.append("    cmov").append(sufixo).append(" eax, ecx\n");
+    }
+
+    // Carrega um literal, constante ou variável em um registrador de 32 bits.
+    private void carregarSimples(NoExpressao expressao, String registrador) {
+        if (expressao instanceof NoVariavel variavel && !this.constantes.containsKey(variavel.getNome())) {
+            String instrucao = isByte(variavel) ? "movzx " : "mov ";
+            this.secaoCodigo.append("    ").append(instrucao).append(registrador).append(", ")
+                    .append(memoria(variavel.getNome(), isByte(variavel))).append("\n");
+        } else {
+            this.secaoCodigo.append("    mov ").append(registrador).append(", ").append(operandoImediato(expressao))
+                    .append("\n");
+        }
+    }
+
+    /**
+     * Com o lado esquerdo já em eax, prepara o direito e retorna o operando a
+     * usar. Um lado direito composto é calculado com o esquerdo guardado na
+     * pilha e fica em ecx.
+     */
+    private String operandoDireitoCalculado(NoExpressao direita) {
+        if (isOperandoSimples(direita)) {
+            return operandoDireito(direita);
+        }
+        this.secaoCodigo.append("    push rax\n");
+        calcular(direita);
+        this.secaoCodigo.append("    mov ecx, eax\n");
+        this.secaoCodigo.append("    pop rax\n");
+        return "ecx";
+    }
+
+    /**
+     * Operando direito de add/sub/imul/cmp com eax: imediato, dword na memória
+     * ou, para bytes (que precisam de extensão), ecx.
+     */
+    private String operandoDireito(NoExpressao expressao) {
+        if (expressao instanceof NoVariavel variavel && !this.constantes.containsKey(variavel.getNome())) {
+            if (isByte(variavel)) {
+                carregarSimples(variavel, "ecx");
+                return "ecx";
+            }
+            return memoria(variavel.getNome(), false);
+        }
+        return operandoImediato(expressao);
+    }
+
+    private String operandoImediato(NoExpressao expressao) {
+        if (expressao instanceof NoVariavel variavel) {
+            return this.constantes.get(variavel.getNome());
+        }
+        NoLiteral literal = (NoLiteral) expressao;
+        return formatarValor(literal.getValor(), literal.getTipo());
+    }
+
+    private boolean isOperandoSimples(NoExpressao expressao) {
+        return expressao instanceof NoLiteral || expressao instanceof NoVariavel;
+    }
+
+    private boolean isByte(NoExpressao expressao) {
+        String tipo = expressao.getTipo();
+        return tipo != null && (tipo.equalsIgnoreCase("boolean") || tipo.equalsIgnoreCase("byte"));
+    }
+
+    // Acesso relativo a rip, como exige o código independente de posição.
+    private String memoria(String nome, boolean isByte) {
+        return (isByte ? "BYTE PTR" : "DWORD PTR") + " [rip + " + rotuloVariavel(nome) + "]";
+    }
+
+    // Endereço de uma string (variável ou constante), para 'lea'.
+    private String endereco(String nome) {
+        return "[rip + " + (this.constantesString.contains(nome) ? rotuloConstante(nome) : rotuloVariavel(nome))
+                + "]";
+    }
+
+    private String rotuloVariavel(String nome) {
+        return "v_" + nome;
+    }
+
+    private String rotuloConstante(String nome) {
+        return "c_" + nome;
+    }
+
+    // Formata um valor da linguagem fonte como imediato do GAS.
+    private String formatarValor(String valor, String tipo) {
+        if (valor == null)
+            return "0";
+        if (tipo != null && tipo.equalsIgnoreCase("boolean")) {
+            if (valor.equalsIgnoreCase("true") || valor.equalsIgnoreCase("1") || valor.equalsIgnoreCase("Fh"))
+                return "1";
+            if (valor.equalsIgnoreCase("false") || valor.equalsIgnoreCase("0") || valor.equalsIgnoreCase("0h"))
+                return "0";
+        }
+        // Hexadecimal: 0hXX vira 0xXX.
+        if (valor.toLowerCase().startsWith("0h")) {
+            return "0x" + valor.substring(2);
+        }
+        return valor;
+    }
+}
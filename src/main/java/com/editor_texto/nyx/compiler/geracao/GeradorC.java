@@ -0,0 +1,360 @@
+package com.editor_texto.nyx.compiler.geracao;
+
+import com.editor_texto.nyx.compiler.arvore.NoAtribuicao;
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoDeclaracao;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoEscrita;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLeitura;
+import com.editor_texto.nyx.compiler.arvore.NoLiteral;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.arvore.NoSelecao;
+import com.editor_texto.nyx.compiler.arvore.NoUnario;
+import com.editor_texto.nyx.compiler.arvore.NoVariavel;
+import com.editor_texto.nyx.compiler.otimizacao.AvaliadorConstante;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Traduz a árvore do programa para C portável, compilado depois com o 'cc'
+ * do sistema (MontadorLinuxCC). A alocação de registradores, o escalonamento
+ * e a vetorização ficam com o otimizador do compilador C.
+ *
+ * O comportamento é o do GeradorAssemblyLinux: valores de 32 bits com
+ * overflow circular (o código é compilado com -fwrapv), byte e boolean como
+ * unsigned char, strings em buffers de 256 bytes que começam vazios, divisão
+ * por zero encerrando com SIGFPE e a E/S de runtime/nyx_runtime.c. As
+ * variáveis são locais do main, para que o compilador possa mantê-las em
+ * registradores; constantes numéricas são substituídas pelo valor.
+ */
+public class GeradorC {
+
+    private static final String RECUO = "    ";
+
+    private final NoPrograma programa;
+
+    private final StringBuilder declaracoes = new StringBuilder(); // Variáveis locais do main.
+    private final StringBuilder literais = new StringBuilder(); // Strings constantes.
+    private final StringBuilder corpo = new StringBuilder();
+
+    private int contadorString = 1;
+    private int nivel = 1;
+
+    private final Map<String, String> stringsDeclaradas = new HashMap<>();
+    private final Set<String> constantesString = new HashSet<>();
+    // Constantes numéricas, já formatadas como literal de C.
+    private final Map<String, String> constantes = new HashMap<>();
+
+    public GeradorC(NoPrograma programa) {
+        this.programa = programa;
+    }
+
+    /**
+     * Gera o arquivo .c completo: runtime, strings constantes e main.
+     */
+    public String gerar() {
+        for (NoDeclaracao declaracao : this.programa.getDeclaracoes()) {
+            identificarDeclaracao(declaracao);
+        }
+        gerarComandos(this.programa.getComandos());
+
+        StringBuilder codigo = new StringBuilder();
+        for (String linha : RuntimeLC.getRotinasC()) {
+            codigo.append(linha).append("\n");
+        }
+        codigo.append("\n").append(this.literais);
+        codigo.append("\nint main(void) {\n").append(this.declaracoes);
+        codigo.append(this.corpo);
+        codigo.append(RECUO).append("nyx_descarregar();\n")
+                .append(RECUO).append("return 0;\n")
+                .append("}\n");
+        return codigo.toString();
+    }
+
+    private void identificarDeclaracao(NoDeclaracao declaracao) {
+        String nome = declaracao.getNome();
+        String tipo = declaracao.getTipo();
+        NoLiteral valor = declaracao.getValorInicial();
+
+        if (declaracao.isConstante()) {
+            if (tipo.equalsIgnoreCase("string")) {
+                this.constantesString.add(nome);
+                declararTexto(rotuloConstante(nome), valor.getValor());
+            } else {
+                this.constantes.put(nome, formatarValor(valor.getValor(), tipo));
+            }
+            return;
+        }
+
+        this.declaracoes.append(RECUO);
+        if (tipo.equalsIgnoreCase("string")) {
+            this.declaracoes.append("char ").append(rotuloVariavel(nome)).append("[256] = \"\";\n");
+        } else {
+            String valorDado = valor != null ? formatarValor(valor.getValor(), tipo) : "0";
+            this.declaracoes.append(tipo.equalsIgnoreCase("int") ? "int " : "unsigned char ")
+                    .append(rotuloVariavel(nome)).append(" = ").append(valorDado).append(";\n");
+        }
+    }
+
+    private void gerarComandos(List<NoComando> comandos) {
+        for (NoComando comando : comandos) {
+            identificarComando(comando);
+        }
+    }
+
+    private void identificarComando(NoComando comando) {
+        if (comando instanceof NoEscrita escrita) {
+            identificarWrite(escrita);
+        } else if (comando instanceof NoLeitura leitura) {
+            identificarRead(leitura);
+        } else if (comando instanceof NoEnquanto enquanto) {
+            identificarWhile(enquanto);
+        } else if (comando instanceof NoSe se) {
+            identificarIf(se);
+        } else if (comando instanceof NoAtribuicao atribuicao) {
+            identificarAtribuicao(atribuicao);
+        }
+    }
+
+    // Literais seguidos (e a quebra do writeln) viram uma só string, como no
+    // GeradorAssemblyLinux.
+    private void identificarWrite(NoEscrita escrita) {
+        StringBuilder texto = new StringBuilder();
+        for (NoExpressao item : escrita.getItens()) {
+            if (item instanceof NoLiteral literal) {
+                texto.append(literal.getValor().replace("'", ""));
+                continue;
+            }
+            escreverTexto(texto);
+            NoVariavel variavel = (NoVariavel) item;
+            if (variavel.getTipo().equalsIgnoreCase("string")) {
+                instrucao("nyx_escrever_str(" + endereco(variavel.getNome()) + ");");
+            } else {
+                instrucao("nyx_escrever_int(" + calcular(variavel) + ");");
+            }
+        }
+        if (escrita.isQuebraLinha()) {
+            texto.append('\n');
+        }
+        escreverTexto(texto);
+    }
+
+    private void escreverTexto(StringBuilder texto) {
+        if (texto.length() > 0) {
+            instrucao("nyx_escrever_str(" + declararString(texto.toString()) + ");");
+            texto.setLength(0);
+        }
+    }
+
+    // Declara a string uma vez por conteúdo e retorna o nome.
+    private String declararString(String texto) {
+        String existente = this.stringsDeclaradas.get(texto);
+        if (existente != null) {
+            return existente;
+        }
+        String nome = "str" + this.contadorString++;
+        declararTexto(nome, texto);
+        this.stringsDeclaradas.put(texto, nome);
+        return nome;
+    }
+
+    private void declararTexto(String nome, String texto) {
+        this.literais.append("static const char ").append(nome).append("[] = \"").append(escapar(texto))
+                .append("\";\n");
+    }
+
+    private void identificarRead(NoLeitura leitura) {
+        String nomeVariavel = leitura.getVariavel();
+        String tipoVar = leitura.getTipo();
+
+        if (tipoVar != null && (tipoVar.equalsIgnoreCase("int") || tipoVar.equalsIgnoreCase("byte")
+                || tipoVar.equalsIgnoreCase("boolean"))) {
+            instrucao(rotuloVariavel(nomeVariavel) + " = nyx_ler_int();");
+        } else {
+            instrucao("nyx_ler_linha(" + rotuloVariavel(nomeVariavel) + ");");
+        }
+    }
+
+    private void identificarWhile(NoEnquanto enquanto) {
+        if (enquanto.isPosTestado()) {
+            instrucao("do {");
+            gerarBloco(enquanto.getCorpo());
+            instrucao("} while (" + condicao(enquanto.getCondicao()) + ");");
+            return;
+        }
+        instrucao("while (" + condicao(enquanto.getCondicao()) + ") {");
+        gerarBloco(enquanto.getCorpo());
+        instrucao("}");
+    }
+
+    private void identificarIf(NoSe se) {
+        instrucao("if (" + condicao(se.getCondicao()) + ") {");
+        gerarBloco(se.getEntao());
+        if (!se.getSenao().isEmpty()) {
+            instrucao("} else {");
+            gerarBloco(se.getSenao());
+        }
+        instrucao("}");
+    }
+
+    private void gerarBloco(List<NoComando> comandos) {
+        this.nivel++;
+        gerarComandos(comandos);
+        this.nivel--;
+    }
+
+    private void identificarAtribuicao(NoAtribuicao atribuicao) {
+        String nomeVariavel = atribuicao.getVariavel();
+        String tipoVar = atribuicao.getTipo();
+
+        if (tipoVar.equalsIgnoreCase("string")) {
+            String origem;
+            if (atribuicao.getValor() instanceof NoVariavel variavel) {
+                origem = endereco(variavel.getNome());
+            } else {
+                String texto = atribuicao.getValor() instanceof NoLiteral literal ? literal.getValor() : "";
+                origem = declararString(texto);
+            }
+            instrucao("nyx_copiar_str(" + rotuloVariavel(nomeVariavel) + ", " + origem + ");");
+            return;
+        }
+
+        // A conversão para unsigned char guarda só o byte baixo, como 'mov al'.
+        instrucao(rotuloVariavel(nomeVariavel) + " = " + calcular(atribuicao.getValor()) + ";");
+    }
+
+    /**
+     * Condição de 'if' e 'while': 'and'/'or' em curto circuito sobre as
+     * condições dos lados; o resto vale pelo valor diferente de zero, como
+     * no gerarExpressaoCondicional do GeradorAssemblyLinux.
+     */
+    private String condicao(NoExpressao expressao) {
+        Boolean constante = AvaliadorConstante.avaliarCondicao(expressao);
+        if (constante != null) {
+            return constante ? "1" : "0";
+        }
+        if (expressao instanceof NoUnario unario) {
+            return "!(" + condicao(unario.getOperando()) + ")";
+        }
+        if (expressao instanceof NoBinario binario && binario.isLogico()) {
+            String operador = binario.getOperador().equalsIgnoreCase("and") ? " && " : " || ";
+            return "(" + condicao(binario.getEsquerda()) + operador + condicao(binario.getDireita()) + ")";
+        }
+        return calcular(expressao);
+    }
+
+    /**
+     * Valor da expressão como int. Fora das condições, 'and'/'or' operam bit
+     * a bit sobre os valores dos lados, como o gerarValorLogico do
+     * GeradorAssemblyLinux.
+     */
+    private String calcular(NoExpressao expressao) {
+        Integer constante = AvaliadorConstante.avaliar(expressao);
+        if (constante != null && !(expressao instanceof NoLiteral)) {
+            return literalInteiro(constante);
+        }
+        if (expressao instanceof NoLiteral literal) {
+            return formatarValor(literal.getValor(), literal.getTipo());
+        }
+        if (expressao instanceof NoVariavel variavel) {
+            String valor = this.constantes.get(variavel.getNome());
+            return valor != null ? valor : rotuloVariavel(variavel.getNome());
+        }
+        if (expressao instanceof NoUnario unario) {
+            return "!(" + calcular(unario.getOperando()) + ")";
+        }
+        if (expressao instanceof NoSelecao selecao) {
+            return "(" + calcular(selecao.getCondicao()) + " ? " + calcular(selecao.getVerdadeiro()) + " : "
+                    + calcular(selecao.getFalso()) + ")";
+        }
+        NoBinario binario = (NoBinario) expressao;
+        String esquerda = calcular(binario.getEsquerda());
+        String direita = calcular(binario.getDireita());
+        String operador = binario.getOperador();
+        if (operador.equals("/")) {
+            Integer divisor = AvaliadorConstante.avaliar(binario.getDireita());
+            if (divisor == null || divisor == 0 || divisor == -1) {
+                return "nyx_dividir(" + esquerda + ", " + direita + ")";
+            }
+        }
+        return "(" + esquerda + " " + operadorC(operador) + " " + direita + ")";
+    }
+
+    private String operadorC(String operador) {
+        return switch (operador.toLowerCase()) {
+            case "<>" -> "!=";
+            case "and" -> "&";
+            case "or" -> "|";
+            default -> operador;
+        };
+    }
+
+    // INT_MIN não pode ser escrito diretamente: 2147483648 não cabe em int.
+    private String literalInteiro(int valor) {
+        return valor == Integer.MIN_VALUE ? "(-2147483647 - 1)" : Integer.toString(valor);
+    }
+
+    // Nome da string (variável ou constante) para as rotinas do runtime.
+    private String endereco(String nome) {
+        return this.constantesString.contains(nome) ? rotuloConstante(nome) : rotuloVariavel(nome);
+    }
+
+    private void instrucao(String texto) {
+        this.corpo.append(RECUO.repeat(this.nivel)).append(texto).append("\n");
+    }
+
+    private String rotuloVariavel(String nome) {
+        return "v_" + nome;
+    }
+
+    private String rotuloConstante(String nome) {
+        return "c_" + nome;
+    }
+
+    /**
+     * Literal de string de C com os bytes UTF-8 do texto; o que não é ASCII
+     * imprimível vira escape octal, então o arquivo não depende da
+     * codificação do compilador.
+     */
+    private String escapar(String texto) {
+        StringBuilder resultado = new StringBuilder();
+        for (byte b : texto.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if (c == '\n') {
+                resultado.append("\\n");
+            } else if (c == '"' || c == '\\' || c == '?') {
+                resultado.append('\\').append((char) c);
+            } else if (c >= 0x20 && c < 0x7F) {
+                resultado.append((char) c);
+            } else {
+                resultado.append(String.format("\\%03o", c));
+            }
+        }
+        return resultado.toString();
+    }
+
+    // Formata um valor da linguagem fonte como literal de C.
+    private String formatarValor(String valor, String tipo) {
+        if (valor == null)
+            return "0";
+        if (tipo != null && tipo.equalsIgnoreCase("boolean")) {
+            if (valor.equalsIgnoreCase("true") || valor.equalsIgnoreCase("1") || valor.equalsIgnoreCase("Fh"))
+                return "1";
+            if (valor.equalsIgnoreCase("false") || valor.equalsIgnoreCase("0") || valor.equalsIgnoreCase("0h"))
+                return "0";
+        }
+        // Hexadecimal: 0hXX vira 0xXX.
+        if (valor.toLowerCase().startsWith("0h")) {
+            return "0x" + valor.substring(2);
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,221 @@
+package com.editor_texto.nyx.compiler.geracao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redução de força para multiplicação e divisão por constantes.
+ * As sequências operam sobre eax (entrada e resultado) e usam ebx e edx como
+ * auxiliares.
+ * - Multiplicação: shl, lea e add/sub no lugar de imul quando a constante se
+ * decompõe em poucas instruções simples.
+ * - Divisão com sinal: deslocamento com correção de arredondamento para
+ * potências de 2 e multiplicação pelo "número mágico" (Hacker's Delight, cap.
+ * 10) para os demais divisores, no lugar de idiv.
+ */
+public class ReducaoForca {
+
+    // Acima disso uma única 'imul eax, eax, c' é preferível.
+    private static final int MAXIMO_INSTRUCOES_MULTIPLICACAO = 3;
+
+    private ReducaoForca() {
+    }
+
+    /**
+     * Instruções que calculam eax = eax * constante. Sempre retorna uma
+     * sequência (no pior caso, 'imul' com imediato).
+     */
+    public static List<String> multiplicar(int constante) {
+        List<String> instrucoes = new ArrayList<>();
+        if (constante == 0) {
+            instrucoes.add("xor eax, eax");
+            return instrucoes;
+        }
+        if (constante == Integer.MIN_VALUE) {
+            instrucoes.add("shl eax, 31");
+            return instrucoes;
+        }
+
+        List<String> positivo = decomporMultiplicacao(Math.abs(constante));
+        if (positivo != null && positivo.size() + (constante < 0 ? 1 : 0) <= MAXIMO_INSTRUCOES_MULTIPLICACAO) {
+            instrucoes.addAll(positivo);
+            if (constante < 0) {
+                instrucoes.add("neg eax");
+            }
+            return instrucoes;
+        }
+        instrucoes.add("imul eax, eax, " + constante);
+        return instrucoes;
+    }
+
+    // Decomposição de eax * c (c > 0) em shl/lea/add/sub, ou null.
+    private static List<String> decomporMultiplicacao(int c) {
+        List<String> instrucoes = new ArrayList<>();
+        if (c == 1) {
+            return instrucoes;
+        }
+
+        // Fator de potência de 2 aplicado ao final com shl.
+        int deslocamento = Integer.numberOfTrailingZeros(c);
+        int impar = c >>> deslocamento;
+
+        if (impar != 1 && !decomporImpar(impar, instrucoes)) {
+            return null;
+        }
+        if (deslocamento > 0) {
+            instrucoes.add("shl eax, " + deslocamento);
+        }
+        return instrucoes;
+    }
+
+    // Fatores ímpares: 3, 5, 9 (lea), seus produtos, e 2^k + 1 / 2^k - 1.
+    private static boolean decomporImpar(int c, List<String> instrucoes) {
+        if (adicionarLea(c, instrucoes)) {
+            return true;
+        }
+        for (int fator : new int[] { 3, 5, 9 }) {
+            if (c % fator == 0 && isFatorLea(c / fator)) {
+                adicionarLea(fator, instrucoes);
+                adicionarLea(c / fator, instrucoes);
+                return true;
+            }
+        }
+        if (Integer.bitCount(c - 1) == 1) {
+            instrucoes.add("mov ebx, eax");
+            instrucoes.add("shl eax, " + Integer.numberOfTrailingZeros(c - 1));
+            instrucoes.add("add eax, ebx");
+            return true;
+        }
+        if (c < Integer.MAX_VALUE && Integer.bitCount(c + 1) == 1) {
+            instrucoes.add("mov ebx, eax");
+            instrucoes.add("shl eax, " + Integer.numberOfTrailingZeros(c + 1));
+            instrucoes.add("sub eax, ebx");
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isFatorLea(int c) {
+        return c == 3 || c == 5 || c == 9;
+    }
+
+    private static boolean adicionarLea(int c, List<String> instrucoes) {
+        if (!isFatorLea(c)) {
+            return false;
+        }
+        instrucoes.add("lea eax, [eax+eax*" + (c - 1) + "]");
+        return true;
+    }
+
+    /**
+     * Instruções que calculam eax = eax / divisor com truncamento em direção a
+     * zero, como idiv. Retorna null para divisor 0 e -1, em que o idiv deve
+     * falhar em tempo de execução (por zero, e no estouro de
+     * Integer.MIN_VALUE / -1), e para Integer.MIN_VALUE.
+     */
+    public static List<String> dividir(int divisor) {
+        return dividir(divisor, true);
+    }
+
+    /**
+     * Como dividir(divisor); com 'divisaoMagica' false, retorna null também
+     * para os divisores que não são potência de 2, cuja sequência é maior que
+     * idiv (usado em -Os).
+     */
+    public static List<String> dividir(int divisor, boolean divisaoMagica) {
+        if (divisor == 0 || divisor == -1 || divisor == Integer.MIN_VALUE) {
+            return null;
+        }
+        List<String> instrucoes = new ArrayList<>();
+        int absoluto = Math.abs(divisor);
+
+        if (absoluto == 1) {
+            // Nada a fazer para 1.
+        } else if (Integer.bitCount(absoluto) == 1) {
+            // Potência de 2: soma (2^k - 1) aos negativos antes do sar, para
+            // arredondar em direção a zero.
+            int k = Integer.numberOfTrailingZeros(absoluto);
+            instrucoes.add("cdq");
+            if (k == 1) {
+                instrucoes.add("sub eax, edx");
+            } else {
+                instrucoes.add("and edx, " + (absoluto - 1));
+                instrucoes.add("add eax, edx");
+            }
+            instrucoes.add("sar eax, " + k);
+        } else if (!divisaoMagica) {
+            return null;
+        } else {
+            adicionarDivisaoMagica(divisor, instrucoes);
+            return instrucoes;
+        }
+
+        if (divisor < 0) {
+            instrucoes.add("neg eax");
+        }
+        return instrucoes;
+    }
+
+    // Quociente = parte alta de (n * M), ajustada e deslocada, mais 1 se negativo.
+    private static void adicionarDivisaoMagica(int divisor, List<String> instrucoes) {
+        long[] magico = calcularMagico(divisor);
+        int multiplicador = (int) magico[0];
+        int deslocamento = (int) magico[1];
+
+        instrucoes.add("mov ebx, eax");
+        instrucoes.add("mov eax, " + multiplicador);
+        instrucoes.add("imul ebx");
+        if (divisor > 0 && multiplicador < 0) {
+            instrucoes.add("add edx, ebx");
+        } else if (divisor < 0 && multiplicador > 0) {
+            instrucoes.add("sub edx, ebx");
+        }
+        if (deslocamento > 0) {
+            instrucoes.add("sar edx, " + deslocamento);
+        }
+        // Correção de sinal: soma o bit de sinal para truncar em direção a zero.
+        instrucoes.add("mov eax, edx");
+        instrucoes.add("shr eax, 31");
+        instrucoes.add("add eax, edx");
+    }
+
+    /**
+     * Número mágico para divisão com sinal por 'divisor' (|divisor| >= 2).
+     * Retorna {multiplicador, deslocamento}. Aritmética sem sinal de 32 bits
+     * feita em long.
+     */
+    private static long[] calcularMagico(int divisor) {
+        final long dois31 = 0x80000000L;
+        long ad = Math.abs((long) divisor);
+        long t = dois31 + ((divisor >>> 31) & 1);
+        long anc = t - 1 - t % ad;
+        int p = 31;
+        long q1 = dois31 / anc;
+        long r1 = dois31 - q1 * anc;
+        long q2 = dois31 / ad;
+        long r2 = dois31 - q2 * ad;
+        long delta;
+        do {
+            p++;
+            q1 = (2 * q1) & 0xFFFFFFFFL;
+            r1 = (2 * r1) & 0xFFFFFFFFL;
+            if (r1 >= anc) {
+                q1++;
+                r1 -= anc;
+            }
+            q2 = (2 * q2) & 0xFFFFFFFFL;
+            r2 = (2 * r2) & 0xFFFFFFFFL;
+            if (r2 >= ad) {
+                q2++;
+                r2 -= ad;
+            }
+            delta = ad - r2;
+        } while (q1 < delta || (q1 == delta && r1 == 0));
+
+        long multiplicador = (int) ((q2 + 1) & 0xFFFFFFFFL);
+        if (divisor < 0) {
+            multiplicador = -(int) multiplicador;
+        }
+        return new long[] { multiplicador, p - 32 };
+    }
+}
@@ -0,0 +1,139 @@
+package com.editor_texto.nyx.compiler.geracao;
+
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
+import com.editor_texto.nyx.compiler.peephole.LeitorAssembly;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runtime de E/S embutido no programa gerado, no lugar de crt_printf e
+ * crt_scanf: a saída vai para um buffer gravado com WriteFile ao encher, antes
+ * de cada leitura e na saída do programa; inteiros são convertidos para
+ * decimal e lidos diretamente, sem interpretar strings de formato.
+ *
+ * As rotinas ficam em runtime/nyx_runtime.asm e só são anexadas depois das
+ * otimizações (não seguem a convenção de registradores do GeradorAssembly, da
+ * qual as regras peephole dependem). O alvo Linux usa as rotinas equivalentes
+ * de runtime/nyx_runtime_linux.s, com chamadas de sistema e seus próprios
+ * dados; o alvo C, as de runtime/nyx_runtime.c.
+ */
+public final class RuntimeLC {
+
+    public static final String RECURSO = "/runtime/nyx_runtime.asm";
+    public static final String RECURSO_LINUX = "/runtime/nyx_runtime_linux.s";
+    public static final String RECURSO_C = "/runtime/nyx_runtime.c";
+
+    public static final String ESCREVER_STR = "_nyx_escrever_str";
+    public static final String ESCREVER_INT = "_nyx_escrever_int";
+    public static final String LER_INT = "_nyx_ler_int";
+    public static final String LER_LINHA = "_nyx_ler_linha";
+    public static final String DESCARREGAR = "_nyx_descarregar";
+    public static final String QUEBRA_LINHA = "_nyx_quebra";
+    // Só no alvo Linux, que não tem crt_strcpy.
+    public static final String COPIAR_STR = "_nyx_copiar_str";
+
+    private static final int TAMANHO_BUFFER = 4096;
+    private static final String PREFIXO = "_nyx_";
+
+    private static List<String> rotinas;
+    private static List<String> rotinasLinux;
+    private static List<String> rotinasC;
+
+    private RuntimeLC() {
+    }
+
+    // Declarações da seção .data usadas pelas rotinas.
+    static void gerarDados(StringBuilder dados) {
+        dados.append(String.format("    %-15s equ %d\n", "NYX_TAMANHO_BUFFER", TAMANHO_BUFFER));
+        dados.append(String.format("    %-15s dd    0\n", "_nyx_usados"));
+        dados.append(String.format("    %-15s dd    0\n", "_nyx_posicao"));
+        dados.append(String.format("    %-15s dd    0\n", "_nyx_lidos"));
+        dados.append(String.format("    %-15s dd    0\n", "_nyx_transferidos"));
+        dados.append(String.format("    %-15s db 12 dup(0)\n", "_nyx_digitos"));
+        dados.append(String.format("    %-15s db 13, 10, 0\n", QUEBRA_LINHA));
+        dados.append(String.format("    %-15s db NYX_TAMANHO_BUFFER dup(0)\n", "_nyx_saida"));
+        dados.append(String.format("    %-15s db NYX_TAMANHO_BUFFER dup(0)\n", "_nyx_entrada"));
+    }
+
+    // O código chama alguma rotina do runtime.
+    public static boolean isUsado(List<Instrucao> codigo) {
+        for (Instrucao instrucao : codigo) {
+            if (instrucao.is("call") && instrucao.getOperando(0).getTexto().startsWith(PREFIXO)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Anexa as rotinas antes de 'end start', se o código as usa. O código é
+     * relido por inteiro para que os operandos das rotinas sejam classificados
+     * com as declarações da seção .data.
+     */
+    public static void anexar(List<Instrucao> codigo) {
+        if (!isUsado(codigo)) {
+            return;
+        }
+        List<String> linhas = new ArrayList<>(codigo.size());
+        for (Instrucao instrucao : codigo) {
+            linhas.add(instrucao.toString());
+        }
+        int fim = linhas.size();
+        for (int i = linhas.size() - 1; i >= 0; i--) {
+            if (linhas.get(i).trim().toLowerCase().startsWith("end ")) {
+                fim = i;
+                break;
+            }
+        }
+        linhas.addAll(fim, getRotinas());
+        List<Instrucao> resultado = new LeitorAssembly().ler(linhas);
+        codigo.clear();
+        codigo.addAll(resultado);
+    }
+
+    private static synchronized List<String> getRotinas() {
+        if (rotinas == null) {
+            rotinas = lerRecurso(RECURSO, ";");
+        }
+        return rotinas;
+    }
+
+    // Rotinas e dados do runtime Linux, em sintaxe GAS.
+    static synchronized List<String> getRotinasLinux() {
+        if (rotinasLinux == null) {
+            rotinasLinux = lerRecurso(RECURSO_LINUX, "#");
+        }
+        return rotinasLinux;
+    }
+
+    // Funções do runtime em C, incluídas antes do main do GeradorC.
+    static synchronized List<String> getRotinasC() {
+        if (rotinasC == null) {
+            rotinasC = lerRecurso(RECURSO_C, "//");
+        }
+        return rotinasC;
+    }
+
+    private static List<String> lerRecurso(String recurso, String comentario) {
+        try (InputStream entrada = RuntimeLC.class.getResourceAsStream(recurso)) {
+            if (entrada == null) {
+                throw new IllegalStateException("Runtime não encontrado: " + recurso);
+            }
+            List<String> linhas = new ArrayList<>();
+            linhas.add("");
+            for (String linha : new String(entrada.readAllBytes(), StandardCharsets.UTF_8).lines().toList()) {
+                // Os comentários documentam o recurso, não o programa gerado.
+                if (!linha.trim().startsWith(comentario)) {
+                    linhas.add(linha);
+                }
+            }
+            return linhas;
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao ler o runtime: " + e.getMessage(), e);
+        }
+    }
+}
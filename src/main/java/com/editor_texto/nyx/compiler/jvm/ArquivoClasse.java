@@ -0,0 +1,164 @@
+package com.editor_texto.nyx.compiler.jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritor mínimo de arquivos .class: pool de constantes, métodos com o
+ * atributo Code (e LineNumberTable) e o atributo SourceFile. Só o que o
+ * GeradorBytecode precisa; não há campos, interfaces nem exceções.
+ *
+ * A versão é a 49 (Java 5), verificada por inferência de tipos, então o
+ * código não precisa de StackMapTable.
+ */
+final class ArquivoClasse {
+
+    private static final int VERSAO = 49;
+
+    private final ByteArrayOutputStream bytesPool = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(bytesPool);
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final List<byte[]> metodos = new ArrayList<>();
+    private int proximoIndice = 1;
+
+    int utf8(String texto) {
+        return constante("U" + texto, saida -> {
+            saida.writeByte(1);
+            saida.writeUTF(texto);
+        });
+    }
+
+    int classe(String nomeInterno) {
+        int nome = utf8(nomeInterno);
+        return constante("C" + nomeInterno, saida -> {
+            saida.writeByte(7);
+            saida.writeShort(nome);
+        });
+    }
+
+    int texto(String valor) {
+        int conteudo = utf8(valor);
+        return constante("S" + valor, saida -> {
+            saida.writeByte(8);
+            saida.writeShort(conteudo);
+        });
+    }
+
+    int inteiro(int valor) {
+        return constante("I" + valor, saida -> {
+            saida.writeByte(3);
+            saida.writeInt(valor);
+        });
+    }
+
+    int metodo(String classe, String nome, String descritor) {
+        int indiceClasse = classe(classe);
+        int nomeUtf = utf8(nome);
+        int descritorUtf = utf8(descritor);
+        int nomeTipo = constante("N" + nome + ":" + descritor, saida -> {
+            saida.writeByte(12);
+            saida.writeShort(nomeUtf);
+            saida.writeShort(descritorUtf);
+        });
+        return constante("M" + classe + "." + nome + descritor, saida -> {
+            saida.writeByte(10);
+            saida.writeShort(indiceClasse);
+            saida.writeShort(nomeTipo);
+        });
+    }
+
+    private interface Escrita {
+        void escrever(DataOutputStream saida) throws IOException;
+    }
+
+    private int constante(String chave, Escrita escrita) {
+        Integer existente = indices.get(chave);
+        if (existente != null) {
+            return existente;
+        }
+        try {
+            escrita.escrever(pool);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (proximoIndice > 0xFFFF) {
+            throw new IllegalStateException("Pool de constantes cheio");
+        }
+        indices.put(chave, proximoIndice);
+        return proximoIndice++;
+    }
+
+    void adicionarMetodo(int acesso, String nome, String descritor, Codigo codigo) {
+        byte[] bytecode = codigo.concluir();
+        List<int[]> linhas = codigo.getLinhas();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        try {
+            saida.writeShort(acesso);
+            saida.writeShort(utf8(nome));
+            saida.writeShort(utf8(descritor));
+            saida.writeShort(1);
+            saida.writeShort(utf8("Code"));
+            int tamanhoLinhas = linhas.isEmpty() ? 0 : 8 + 4 * linhas.size();
+            saida.writeInt(12 + bytecode.length + tamanhoLinhas);
+            saida.writeShort(codigo.getMaximoPilha());
+            saida.writeShort(codigo.getMaximoLocais());
+            saida.writeInt(bytecode.length);
+            saida.write(bytecode);
+            saida.writeShort(0); // Tabela de exceções.
+            if (linhas.isEmpty()) {
+                saida.writeShort(0);
+            } else {
+                saida.writeShort(1);
+                saida.writeShort(utf8("LineNumberTable"));
+                saida.writeInt(2 + 4 * linhas.size());
+                saida.writeShort(linhas.size());
+                for (int[] linha : linhas) {
+                    saida.writeShort(linha[0]);
+                    saida.writeShort(linha[1]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        metodos.add(bytes.toByteArray());
+    }
+
+    byte[] gerar(String nomeInterno, String arquivoFonte) {
+        int esta = classe(nomeInterno);
+        int superclasse = classe("java/lang/Object");
+        int atributoFonte = utf8("SourceFile");
+        int fonte = utf8(arquivoFonte);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        try {
+            saida.writeInt(0xCAFEBABE);
+            saida.writeShort(0);
+            saida.writeShort(VERSAO);
+            saida.writeShort(proximoIndice);
+            saida.write(bytesPool.toByteArray());
+            saida.writeShort(0x0031); // ACC_PUBLIC | ACC_FINAL | ACC_SUPER
+            saida.writeShort(esta);
+            saida.writeShort(superclasse);
+            saida.writeShort(0); // Interfaces.
+            saida.writeShort(0); // Campos.
+            saida.writeShort(metodos.size());
+            for (byte[] metodo : metodos) {
+                saida.write(metodo);
+            }
+            saida.writeShort(1);
+            saida.writeShort(atributoFonte);
+            saida.writeInt(2);
+            saida.writeShort(fonte);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
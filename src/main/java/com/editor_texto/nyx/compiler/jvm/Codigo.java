@@ -0,0 +1,188 @@
+package com.editor_texto.nyx.compiler.jvm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Corpo de um método em montagem: bytes do bytecode, rótulos com saltos
+ * ainda por completar, altura máxima da pilha de operandos e a tabela de
+ * linhas do fonte.
+ *
+ * A altura da pilha é acompanhada a cada instrução emitida; depois de um
+ * 'goto' quem emite é que ajusta a altura no rótulo seguinte.
+ */
+final class Codigo {
+
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC = 0x12;
+    static final int LDC_W = 0x13;
+    static final int ILOAD = 0x15;
+    static final int ALOAD = 0x19;
+    static final int ISTORE = 0x36;
+    static final int ASTORE = 0x3A;
+    static final int IADD = 0x60;
+    static final int ISUB = 0x64;
+    static final int IMUL = 0x68;
+    static final int IAND = 0x7E;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9A;
+    static final int IF_ICMPEQ = 0x9F;
+    static final int IF_ICMPNE = 0xA0;
+    static final int IF_ICMPLT = 0xA1;
+    static final int IF_ICMPGE = 0xA2;
+    static final int IF_ICMPGT = 0xA3;
+    static final int IF_ICMPLE = 0xA4;
+    static final int GOTO = 0xA7;
+    static final int RETURN = 0xB1;
+    static final int INVOKEVIRTUAL = 0xB6;
+    static final int WIDE = 0xC4;
+
+    static final class Rotulo {
+        private int posicao = -1;
+        private final List<Integer> saltos = new ArrayList<>();
+    }
+
+    private byte[] bytes = new byte[256];
+    private int tamanho;
+    private int pilha;
+    private int maximoPilha;
+    private int maximoLocais;
+    private final List<int[]> linhas = new ArrayList<>();
+    private final List<Rotulo> rotulos = new ArrayList<>();
+
+    Rotulo novoRotulo() {
+        Rotulo rotulo = new Rotulo();
+        rotulos.add(rotulo);
+        return rotulo;
+    }
+
+    void instrucao(int opcode, int variacaoPilha) {
+        u1(opcode);
+        ajustarPilha(variacaoPilha);
+    }
+
+    void constante(ArquivoClasse classe, int valor) {
+        if (valor >= -1 && valor <= 5) {
+            instrucao(ICONST_0 + valor, 1);
+        } else if (valor >= Byte.MIN_VALUE && valor <= Byte.MAX_VALUE) {
+            instrucao(BIPUSH, 1);
+            u1(valor);
+        } else if (valor >= Short.MIN_VALUE && valor <= Short.MAX_VALUE) {
+            instrucao(SIPUSH, 1);
+            u2(valor);
+        } else {
+            constantePool(classe.inteiro(valor));
+        }
+    }
+
+    void constantePool(int indice) {
+        if (indice <= 0xFF) {
+            instrucao(LDC, 1);
+            u1(indice);
+        } else {
+            instrucao(LDC_W, 1);
+            u2(indice);
+        }
+    }
+
+    // Carga ou gravação de variável local (iload, istore, aload, astore).
+    void local(int opcode, int indice) {
+        boolean carga = opcode == ILOAD || opcode == ALOAD;
+        if (indice > 0xFF) {
+            u1(WIDE);
+            instrucao(opcode, carga ? 1 : -1);
+            u2(indice);
+        } else {
+            instrucao(opcode, carga ? 1 : -1);
+            u1(indice);
+        }
+        maximoLocais = Math.max(maximoLocais, indice + 1);
+    }
+
+    void chamar(int metodo, int variacaoPilha) {
+        instrucao(INVOKEVIRTUAL, variacaoPilha);
+        u2(metodo);
+    }
+
+    void saltar(int opcode, Rotulo rotulo) {
+        int variacao = opcode == GOTO ? 0 : opcode >= IF_ICMPEQ ? -2 : -1;
+        rotulo.saltos.add(tamanho);
+        instrucao(opcode, variacao);
+        u2(0);
+    }
+
+    void marcar(Rotulo rotulo) {
+        rotulo.posicao = tamanho;
+    }
+
+    void ajustarPilha(int variacao) {
+        pilha += variacao;
+        maximoPilha = Math.max(maximoPilha, pilha);
+    }
+
+    void linha(int linha) {
+        if (linha <= 0 || linha > 0xFFFF) {
+            return;
+        }
+        if (!linhas.isEmpty() && linhas.get(linhas.size() - 1)[1] == linha) {
+            return;
+        }
+        if (!linhas.isEmpty() && linhas.get(linhas.size() - 1)[0] == tamanho) {
+            linhas.get(linhas.size() - 1)[1] = linha;
+            return;
+        }
+        linhas.add(new int[] { tamanho, linha });
+    }
+
+    void reservarLocais(int quantidade) {
+        maximoLocais = Math.max(maximoLocais, quantidade);
+    }
+
+    byte[] concluir() {
+        if (tamanho > 0xFFFF) {
+            throw new IllegalArgumentException("Programa grande demais para um método da JVM");
+        }
+        // Completa os deslocamentos dos saltos (16 bits com sinal).
+        for (Rotulo rotulo : rotulos) {
+            if (rotulo.posicao < 0 && !rotulo.saltos.isEmpty()) {
+                throw new IllegalStateException("Rótulo não marcado");
+            }
+            for (int origem : rotulo.saltos) {
+                int deslocamento = rotulo.posicao - origem;
+                if (deslocamento < Short.MIN_VALUE || deslocamento > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Salto longo demais para o bytecode");
+                }
+                bytes[origem + 1] = (byte) (deslocamento >> 8);
+                bytes[origem + 2] = (byte) deslocamento;
+            }
+        }
+        return Arrays.copyOf(bytes, tamanho);
+    }
+
+    int getMaximoPilha() {
+        return maximoPilha;
+    }
+
+    int getMaximoLocais() {
+        return maximoLocais;
+    }
+
+    List<int[]> getLinhas() {
+        return linhas;
+    }
+
+    private void u1(int valor) {
+        if (tamanho == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        bytes[tamanho++] = (byte) valor;
+    }
+
+    private void u2(int valor) {
+        u1(valor >> 8);
+        u1(valor);
+    }
+}
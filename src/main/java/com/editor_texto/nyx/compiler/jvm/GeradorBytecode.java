@@ -0,0 +1,338 @@
+package com.editor_texto.nyx.compiler.jvm;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.editor_texto.nyx.compiler.arvore.NoAtribuicao;
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoDeclaracao;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoEscrita;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLeitura;
+import com.editor_texto.nyx.compiler.arvore.NoLiteral;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.arvore.NoSelecao;
+import com.editor_texto.nyx.compiler.arvore.NoUnario;
+import com.editor_texto.nyx.compiler.arvore.NoVariavel;
+import com.editor_texto.nyx.compiler.jvm.Codigo.Rotulo;
+import com.editor_texto.nyx.compiler.otimizacao.AvaliadorConstante;
+
+/**
+ * Gera uma classe da JVM a partir da árvore do programa, com um único método
+ * estático 'executar(RuntimeJvm)'. Cada variável do LC vira uma variável
+ * local do método (int, ou String para as do tipo string), o que deixa o
+ * JIT manter tudo em registradores.
+ *
+ * A semântica é a do executável nativo: byte e boolean guardam só o byte
+ * baixo, strings começam vazias, 'and'/'or' das condições usam curto
+ * circuito e os laços ficam com o teste no fim (como na RotacaoLaco).
+ */
+public class GeradorBytecode {
+
+    static final String NOME_CLASSE = "com/editor_texto/nyx/compiler/jvm/ProgramaLC";
+    static final String NOME_METODO = "executar";
+    private static final String RUNTIME = "com/editor_texto/nyx/compiler/jvm/RuntimeJvm";
+    private static final String DESCRITOR = "(L" + RUNTIME + ";)V";
+    private static final int PUBLICO_ESTATICO = 0x0009;
+
+    private final NoPrograma programa;
+    private final ArquivoClasse classe = new ArquivoClasse();
+    private final Codigo codigo = new Codigo();
+    // Índice da variável local de cada variável do programa (0 é o runtime).
+    private final Map<String, Integer> locais = new HashMap<>();
+    private final Map<String, NoDeclaracao> declaracoes = new HashMap<>();
+    private int linhaAtual;
+
+    public GeradorBytecode(NoPrograma programa) {
+        this.programa = programa;
+    }
+
+    /**
+     * Retorna os bytes do arquivo .class. Lança IllegalArgumentException se o
+     * programa não couber nos limites de um método da JVM.
+     */
+    public byte[] gerar(String arquivoFonte) {
+        codigo.reservarLocais(1);
+        for (NoDeclaracao declaracao : programa.getDeclaracoes()) {
+            declaracoes.put(declaracao.getNome(), declaracao);
+            if (!declaracao.isConstante()) {
+                int indice = locais.size() + 1;
+                locais.put(declaracao.getNome(), indice);
+                inicializar(declaracao, indice);
+            }
+        }
+        gerarComandos(programa.getComandos());
+        codigo.local(Codigo.ALOAD, 0);
+        codigo.chamar(classe.metodo(RUNTIME, "descarregar", "()V"), -1);
+        codigo.instrucao(Codigo.RETURN, 0);
+        classe.adicionarMetodo(PUBLICO_ESTATICO, NOME_METODO, DESCRITOR, codigo);
+        return classe.gerar(NOME_CLASSE, arquivoFonte);
+    }
+
+    // O gerador nativo ignora o valor inicial das strings: começam vazias.
+    private void inicializar(NoDeclaracao declaracao, int indice) {
+        if (isString(declaracao.getTipo())) {
+            codigo.constantePool(classe.texto(""));
+            codigo.local(Codigo.ASTORE, indice);
+            return;
+        }
+        Integer valor = declaracao.getValorInicial() != null
+                ? AvaliadorConstante.valorLiteral(declaracao.getValorInicial())
+                : null;
+        codigo.constante(classe, ajustar(declaracao.getTipo(), valor != null ? valor : 0));
+        codigo.local(Codigo.ISTORE, indice);
+    }
+
+    private void gerarComandos(List<NoComando> comandos) {
+        for (NoComando comando : comandos) {
+            linhaAtual = comando.getLinha();
+            codigo.linha(linhaAtual);
+            if (comando instanceof NoEscrita escrita) {
+                gerarEscrita(escrita);
+            } else if (comando instanceof NoLeitura leitura) {
+                gerarLeitura(leitura);
+            } else if (comando instanceof NoEnquanto enquanto) {
+                gerarEnquanto(enquanto);
+            } else if (comando instanceof NoSe se) {
+                gerarSe(se);
+            } else if (comando instanceof NoAtribuicao atribuicao) {
+                gerarAtribuicao(atribuicao);
+            }
+        }
+    }
+
+    private void gerarEscrita(NoEscrita escrita) {
+        StringBuilder texto = new StringBuilder();
+        for (NoExpressao item : escrita.getItens()) {
+            if (item instanceof NoLiteral literal) {
+                texto.append(literal.getValor().replace("'", ""));
+                continue;
+            }
+            escreverTexto(texto);
+            NoVariavel variavel = (NoVariavel) item;
+            codigo.local(Codigo.ALOAD, 0);
+            if (isString(variavel.getTipo())) {
+                codigo.local(Codigo.ALOAD, local(variavel.getNome()));
+                codigo.chamar(classe.metodo(RUNTIME, "escreverStr", "(Ljava/lang/String;)V"), -2);
+            } else {
+                gerarValor(variavel);
+                codigo.chamar(classe.metodo(RUNTIME, "escreverInt", "(I)V"), -2);
+            }
+        }
+        if (escrita.isQuebraLinha()) {
+            texto.append('\n');
+        }
+        escreverTexto(texto);
+    }
+
+    private void escreverTexto(StringBuilder texto) {
+        if (texto.length() > 0) {
+            codigo.local(Codigo.ALOAD, 0);
+            codigo.constantePool(classe.texto(texto.toString()));
+            codigo.chamar(classe.metodo(RUNTIME, "escreverStr", "(Ljava/lang/String;)V"), -2);
+            texto.setLength(0);
+        }
+    }
+
+    private void gerarLeitura(NoLeitura leitura) {
+        codigo.local(Codigo.ALOAD, 0);
+        if (isString(leitura.getTipo())) {
+            codigo.chamar(classe.metodo(RUNTIME, "lerLinha", "()Ljava/lang/String;"), 0);
+            codigo.local(Codigo.ASTORE, local(leitura.getVariavel()));
+            return;
+        }
+        codigo.chamar(classe.metodo(RUNTIME, "lerInt", "()I"), 0);
+        mascarar(leitura.getTipo());
+        codigo.local(Codigo.ISTORE, local(leitura.getVariavel()));
+    }
+
+    // Teste no fim do laço: um salto por volta em vez de dois.
+    private void gerarEnquanto(NoEnquanto enquanto) {
+        Rotulo corpo = codigo.novoRotulo();
+        Rotulo teste = codigo.novoRotulo();
+        if (!enquanto.isPosTestado()) {
+            codigo.saltar(Codigo.GOTO, teste);
+        }
+        codigo.marcar(corpo);
+        gerarComandos(enquanto.getCorpo());
+        codigo.marcar(teste);
+        linhaAtual = enquanto.getLinha();
+        codigo.linha(linhaAtual);
+        gerarCondicao(enquanto.getCondicao(), corpo, true);
+    }
+
+    private void gerarSe(NoSe se) {
+        Rotulo senao = codigo.novoRotulo();
+        gerarCondicao(se.getCondicao(), senao, false);
+        gerarComandos(se.getEntao());
+        if (se.getSenao().isEmpty()) {
+            codigo.marcar(senao);
+            return;
+        }
+        Rotulo fim = codigo.novoRotulo();
+        codigo.saltar(Codigo.GOTO, fim);
+        codigo.marcar(senao);
+        gerarComandos(se.getSenao());
+        codigo.marcar(fim);
+    }
+
+    private void gerarAtribuicao(NoAtribuicao atribuicao) {
+        int indice = local(atribuicao.getVariavel());
+        if (isString(atribuicao.getTipo())) {
+            if (atribuicao.getValor() instanceof NoVariavel variavel && locais.containsKey(variavel.getNome())) {
+                codigo.local(Codigo.ALOAD, local(variavel.getNome()));
+            } else {
+                String texto = atribuicao.getValor() instanceof NoLiteral literal ? literal.getValor() : "";
+                codigo.constantePool(classe.texto(texto));
+            }
+            codigo.local(Codigo.ASTORE, indice);
+            return;
+        }
+        gerarValor(atribuicao.getValor());
+        mascarar(atribuicao.getTipo());
+        codigo.local(Codigo.ISTORE, indice);
+    }
+
+    /**
+     * Empilha o valor (int) da expressão. Relacionais e lógicas resultam em
+     * 0 ou 1.
+     */
+    private void gerarValor(NoExpressao expressao) {
+        Integer constante = AvaliadorConstante.avaliar(expressao);
+        if (constante != null) {
+            codigo.constante(classe, constante);
+        } else if (expressao instanceof NoVariavel variavel) {
+            NoDeclaracao declaracao = declaracoes.get(variavel.getNome());
+            if (declaracao != null && declaracao.isConstante()) {
+                Integer valor = AvaliadorConstante.valorLiteral(declaracao.getValorInicial());
+                codigo.constante(classe, valor != null ? valor : 0);
+            } else {
+                codigo.local(Codigo.ILOAD, local(variavel.getNome()));
+            }
+        } else if (expressao instanceof NoBinario binario && binario.getOperador().equals("/")) {
+            // A divisão passa pelo runtime para o erro de divisão por zero
+            // trazer a linha do fonte; o JIT embute a chamada.
+            codigo.local(Codigo.ALOAD, 0);
+            gerarValor(binario.getEsquerda());
+            gerarValor(binario.getDireita());
+            codigo.constante(classe, linhaAtual);
+            codigo.chamar(classe.metodo(RUNTIME, "dividir", "(III)I"), -3);
+        } else if (expressao instanceof NoBinario binario && binario.isAritmetico()) {
+            gerarValor(binario.getEsquerda());
+            gerarValor(binario.getDireita());
+            codigo.instrucao(switch (binario.getOperador()) {
+                case "+" -> Codigo.IADD;
+                case "-" -> Codigo.ISUB;
+                default -> Codigo.IMUL;
+            }, -1);
+        } else if (expressao instanceof NoSelecao selecao) {
+            escolher(selecao.getCondicao(), () -> gerarValor(selecao.getVerdadeiro()),
+                    () -> gerarValor(selecao.getFalso()));
+        } else if (expressao instanceof NoBinario || expressao instanceof NoUnario) {
+            escolher(expressao, () -> codigo.constante(classe, 1), () -> codigo.constante(classe, 0));
+        } else {
+            throw new IllegalStateException("Expressão não suportada: " + expressao);
+        }
+    }
+
+    // Empilha o valor de um dos ramos conforme a condição.
+    private void escolher(NoExpressao condicao, Runnable verdadeiro, Runnable falso) {
+        Rotulo ramoFalso = codigo.novoRotulo();
+        Rotulo fim = codigo.novoRotulo();
+        gerarCondicao(condicao, ramoFalso, false);
+        verdadeiro.run();
+        codigo.saltar(Codigo.GOTO, fim);
+        codigo.ajustarPilha(-1); // O ramo falso começa sem o valor do verdadeiro.
+        codigo.marcar(ramoFalso);
+        falso.run();
+        codigo.marcar(fim);
+    }
+
+    // Salta para o rótulo quando a condição for igual a 'saltarSe'.
+    private void gerarCondicao(NoExpressao condicao, Rotulo alvo, boolean saltarSe) {
+        Boolean constante = AvaliadorConstante.avaliarCondicao(condicao);
+        if (constante != null) {
+            if (constante == saltarSe) {
+                codigo.saltar(Codigo.GOTO, alvo);
+            }
+        } else if (condicao instanceof NoUnario unario) {
+            gerarCondicao(unario.getOperando(), alvo, !saltarSe);
+        } else if (condicao instanceof NoBinario binario && binario.isLogico()) {
+            boolean isE = binario.getOperador().equalsIgnoreCase("and");
+            if (isE != saltarSe) {
+                gerarCondicao(binario.getEsquerda(), alvo, saltarSe);
+                gerarCondicao(binario.getDireita(), alvo, saltarSe);
+            } else {
+                Rotulo curto = codigo.novoRotulo();
+                gerarCondicao(binario.getEsquerda(), curto, !saltarSe);
+                gerarCondicao(binario.getDireita(), alvo, saltarSe);
+                codigo.marcar(curto);
+            }
+        } else if (condicao instanceof NoBinario binario && binario.isRelacional()) {
+            String operador = saltarSe ? binario.getOperador() : negar(binario.getOperador());
+            NoExpressao direita = binario.getDireita();
+            gerarValor(binario.getEsquerda());
+            Integer valorDireita = AvaliadorConstante.avaliar(direita);
+            if (valorDireita != null && valorDireita == 0 && (operador.equals("==") || operador.equals("<>"))) {
+                codigo.saltar(operador.equals("==") ? Codigo.IFEQ : Codigo.IFNE, alvo);
+                return;
+            }
+            gerarValor(direita);
+            codigo.saltar(switch (operador) {
+                case "==" -> Codigo.IF_ICMPEQ;
+                case "<>" -> Codigo.IF_ICMPNE;
+                case "<" -> Codigo.IF_ICMPLT;
+                case ">=" -> Codigo.IF_ICMPGE;
+                case ">" -> Codigo.IF_ICMPGT;
+                default -> Codigo.IF_ICMPLE;
+            }, alvo);
+        } else {
+            gerarValor(condicao);
+            codigo.saltar(saltarSe ? Codigo.IFNE : Codigo.IFEQ, alvo);
+        }
+    }
+
+    private static String negar(String operador) {
+        return switch (operador) {
+            case "==" -> "<>";
+            case "<>" -> "==";
+            case "<" -> ">=";
+            case ">=" -> "<";
+            case ">" -> "<=";
+            case "<=" -> ">";
+            default -> throw new IllegalStateException("Operador relacional inválido: " + operador);
+        };
+    }
+
+    // byte e boolean ocupam um byte no executável nativo.
+    private void mascarar(String tipo) {
+        if (isByte(tipo)) {
+            codigo.constante(classe, 0xFF);
+            codigo.instrucao(Codigo.IAND, -1);
+        }
+    }
+
+    private static int ajustar(String tipo, int valor) {
+        return isByte(tipo) ? valor & 0xFF : valor;
+    }
+
+    private int local(String nome) {
+        Integer indice = locais.get(nome);
+        if (indice == null) {
+            throw new IllegalStateException("Variável não declarada: " + nome);
+        }
+        return indice;
+    }
+
+    private static boolean isString(String tipo) {
+        return tipo != null && tipo.equalsIgnoreCase("string");
+    }
+
+    private static boolean isByte(String tipo) {
+        return tipo != null && (tipo.equalsIgnoreCase("byte") || tipo.equalsIgnoreCase("boolean"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.editor_texto.nyx.compiler.jvm;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+
+/**
+ * Programa LC compilado para bytecode e carregado como classe oculta
+ * (hidden class) no próprio processo do editor. Rodar não precisa de
+ * montador, ligador nem processo novo, e os laços quentes são compilados
+ * pelo JIT da JVM.
+ *
+ * A classe não é forte: quando o ProgramaJvm deixa de ser usado, ela pode
+ * ser descarregada junto com ele.
+ */
+public class ProgramaJvm {
+
+    private final MethodHandle metodo;
+    private final int tamanho;
+
+    private ProgramaJvm(MethodHandle metodo, int tamanho) {
+        this.metodo = metodo;
+        this.tamanho = tamanho;
+    }
+
+    /**
+     * Gera e carrega a classe do programa. Lança IllegalArgumentException se
+     * o programa não couber em um método da JVM.
+     */
+    public static ProgramaJvm compilar(NoPrograma programa, String arquivoFonte) {
+        byte[] bytes = new GeradorBytecode(programa).gerar(arquivoFonte);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            MethodHandle metodo = lookup.findStatic(lookup.lookupClass(), GeradorBytecode.NOME_METODO,
+                    MethodType.methodType(void.class, RuntimeJvm.class));
+            return new ProgramaJvm(metodo, bytes.length);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Classe gerada inválida: " + e, e);
+        }
+    }
+
+    /**
+     * Roda o programa até o fim. A saída pendente é sempre descarregada,
+     * inclusive quando o programa para com erro. Divisão por zero e o
+     * estouro de Integer.MIN_VALUE / -1 viram ArithmeticException com a
+     * linha do fonte na mensagem (RuntimeJvm).
+     */
+    public void executar(InputStream entrada, OutputStream saida) {
+        RuntimeJvm runtime = new RuntimeJvm(entrada, saida);
+        try {
+            metodo.invokeExact(runtime);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        } finally {
+            runtime.descarregar();
+        }
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+}
@@ -0,0 +1,145 @@
+package com.editor_texto.nyx.compiler.jvm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * E/S do programa LC rodando na JVM, com o mesmo comportamento das rotinas
+ * de nyx_runtime_linux.s: saída em buffer de 4096 bytes, descarregado antes
+ * de cada leitura e no fim; 'readln' de número pula espaços e devolve o
+ * caractere que encerra o número; 'readln' de string lê até 255 bytes da
+ * linha e ignora '\r'.
+ *
+ * A classe gerada chama estes métodos diretamente (invokevirtual), então a
+ * escrita de números não cria objetos.
+ */
+public final class RuntimeJvm {
+
+    private static final int TAMANHO_BUFFER = 4096;
+    private static final int TAMANHO_LINHA = 255;
+
+    private final InputStream entrada;
+    private final OutputStream saida;
+    private final byte[] bufferSaida = new byte[TAMANHO_BUFFER];
+    private final byte[] bufferEntrada = new byte[TAMANHO_BUFFER];
+    private final byte[] digitos = new byte[11];
+    private final byte[] linha = new byte[TAMANHO_LINHA];
+    private int usados;
+    private int posicao;
+    private int lidos;
+
+    public RuntimeJvm(InputStream entrada, OutputStream saida) {
+        this.entrada = entrada;
+        this.saida = saida;
+    }
+
+    public void escreverStr(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escrever(bytes, 0, bytes.length);
+    }
+
+    public void escreverInt(int valor) {
+        int inicio = digitos.length;
+        long resto = Math.abs((long) valor);
+        do {
+            digitos[--inicio] = (byte) ('0' + resto % 10);
+            resto /= 10;
+        } while (resto != 0);
+        if (valor < 0) {
+            digitos[--inicio] = '-';
+        }
+        escrever(digitos, inicio, digitos.length - inicio);
+    }
+
+    // Falha onde o idiv falha: divisor zero e Integer.MIN_VALUE / -1.
+    public int dividir(int dividendo, int divisor, int linha) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Divisão por zero na linha " + linha);
+        }
+        if (divisor == -1 && dividendo == Integer.MIN_VALUE) {
+            throw new ArithmeticException("Estouro na divisão na linha " + linha);
+        }
+        return dividendo / divisor;
+    }
+
+    public int lerInt() {
+        descarregar();
+        int c = lerByte();
+        while (c != -1 && c <= ' ') {
+            c = lerByte();
+        }
+        if (c == -1) {
+            return 0;
+        }
+        boolean negativo = c == '-';
+        if (negativo) {
+            c = lerByte();
+        }
+        int valor = 0;
+        while (c >= '0' && c <= '9') {
+            valor = valor * 10 + (c - '0');
+            c = lerByte();
+        }
+        if (c != -1) {
+            posicao--;
+        }
+        return negativo ? -valor : valor;
+    }
+
+    public String lerLinha() {
+        descarregar();
+        int tamanho = 0;
+        int c;
+        while ((c = lerByte()) != -1 && c != '\n') {
+            if (c != '\r' && tamanho < TAMANHO_LINHA) {
+                linha[tamanho++] = (byte) c;
+            }
+        }
+        return new String(linha, 0, tamanho, StandardCharsets.UTF_8);
+    }
+
+    public void descarregar() {
+        if (usados == 0) {
+            return;
+        }
+        try {
+            saida.write(bufferSaida, 0, usados);
+            saida.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        usados = 0;
+    }
+
+    private int lerByte() {
+        if (posicao >= lidos) {
+            try {
+                lidos = entrada.read(bufferEntrada);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            posicao = 0;
+            if (lidos <= 0) {
+                lidos = 0;
+                return -1;
+            }
+        }
+        return bufferEntrada[posicao++] & 0xFF;
+    }
+
+    private void escrever(byte[] bytes, int inicio, int tamanho) {
+        while (tamanho > 0) {
+            if (usados == TAMANHO_BUFFER) {
+                descarregar();
+            }
+            int parte = Math.min(tamanho, TAMANHO_BUFFER - usados);
+            System.arraycopy(bytes, inicio, bufferSaida, usados, parte);
+            usados += parte;
+            inicio += parte;
+            tamanho -= parte;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import com.editor_texto.nyx.compiler.arvore.NoAtribuicao;
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoDeclaracao;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoEscrita;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLeitura;
+import com.editor_texto.nyx.compiler.arvore.NoLiteral;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.arvore.NoSelecao;
+import com.editor_texto.nyx.compiler.arvore.NoUnario;
+import com.editor_texto.nyx.compiler.arvore.NoVariavel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Avaliação parcial do programa inteiro: interpreta a árvore em tempo de
+ * compilação, com um limite de passos. Se o programa termina sem executar
+ * nenhum 'readln', toda a sua saída já é conhecida e ele é trocado por um único
+ * write com o texto calculado. Caso contrário (leitura, limite de passos ou de
+ * saída, divisão que falharia) o programa fica como está.
+ *
+ * Os valores seguem o código gerado: int tem 32 bits com estouro, byte e
+ * boolean são guardados em 8 bits e lidos sem sinal, e a divisão trunca em
+ * direção a zero como idiv.
+ */
+public class AvaliacaoParcial implements OtimizacaoArvore {
+
+    public static final int PASSOS_PADRAO = 1_000_000;
+    // Saídas maiores não compensam como dados no executável.
+    private static final int LIMITE_SAIDA = 64 * 1024;
+
+    private final int limitePassos;
+    private Map<String, Object> valores;
+    private StringBuilder saida;
+    private int passos;
+
+    public AvaliacaoParcial() {
+        this(PASSOS_PADRAO);
+    }
+
+    public AvaliacaoParcial(int limitePassos) {
+        this.limitePassos = limitePassos;
+    }
+
+    @Override
+    public boolean aplicar(NoPrograma programa) {
+        this.valores = new HashMap<>();
+        this.saida = new StringBuilder();
+        this.passos = 0;
+        try {
+            for (NoDeclaracao declaracao : programa.getDeclaracoes()) {
+                valores.put(declaracao.getNome(), valorInicial(declaracao));
+            }
+            executar(programa.getComandos());
+        } catch (Interrupcao e) {
+            return false;
+        }
+        // O gerador remove os apóstrofos dos literais do write.
+        if (saida.indexOf("'") >= 0) {
+            return false;
+        }
+
+        programa.getComandos().clear();
+        if (saida.length() > 0) {
+            NoLiteral texto = new NoLiteral(saida.toString(), "string", programa.getLinha());
+            programa.getComandos().add(new NoEscrita(false, List.of(texto), programa.getLinha()));
+        }
+        // Sem comandos que as usem, só as constantes string ainda têm dados.
+        programa.getDeclaracoes().clear();
+        return true;
+    }
+
+    @Override
+    public String getNome() {
+        return "Avaliação Parcial";
+    }
+
+    // Passos executados na última aplicação.
+    public int getPassos() {
+        return passos;
+    }
+
+    private Object valorInicial(NoDeclaracao declaracao) {
+        NoLiteral literal = declaracao.getValorInicial();
+        if (isString(declaracao.getTipo())) {
+            return literal != null ? literal.getValor() : "";
+        }
+        if (literal == null) {
+            return 0;
+        }
+        Integer valor = AvaliadorConstante.valorLiteral(literal);
+        if (valor == null) {
+            throw new Interrupcao();
+        }
+        return ajustar(valor, declaracao.getTipo());
+    }
+
+    private void executar(List<NoComando> comandos) {
+        for (NoComando comando : comandos) {
+            contarPasso();
+            if (comando instanceof NoLeitura) {
+                throw new Interrupcao();
+            } else if (comando instanceof NoAtribuicao atribuicao) {
+                Object valor = isString(atribuicao.getTipo()) ? avaliarTexto(atribuicao.getValor())
+                        : ajustar(avaliar(atribuicao.getValor()), atribuicao.getTipo());
+                valores.put(atribuicao.getVariavel(), valor);
+            } else if (comando instanceof NoEscrita escrita) {
+                escrever(escrita);
+            } else if (comando instanceof NoSe se) {
+                executar(avaliar(se.getCondicao()) != 0 ? se.getEntao() : se.getSenao());
+            } else if (comando instanceof NoEnquanto enquanto) {
+                if (enquanto.isPosTestado()) {
+                    do {
+                        executar(enquanto.getCorpo());
+                        contarPasso();
+                    } while (avaliar(enquanto.getCondicao()) != 0);
+                } else {
+                    while (avaliar(enquanto.getCondicao()) != 0) {
+                        executar(enquanto.getCorpo());
+                        contarPasso();
+                    }
+                }
+            } else {
+                throw new Interrupcao();
+            }
+        }
+    }
+
+    // Cada comando e cada volta de laço contam um passo.
+    private void contarPasso() {
+        if (++passos > limitePassos) {
+            throw new Interrupcao();
+        }
+    }
+
+    // Mesma formatação do runtime: inteiros em decimal, byte e boolean sem sinal.
+    private void escrever(NoEscrita escrita) {
+        for (NoExpressao item : escrita.getItens()) {
+            if (item instanceof NoLiteral literal) {
+                saida.append(literal.getValor().replace("'", ""));
+            } else if (isString(item.getTipo())) {
+                saida.append(avaliarTexto(item));
+            } else {
+                saida.append(avaliar(item));
+            }
+        }
+        if (escrita.isQuebraLinha()) {
+            saida.append('\n');
+        }
+        if (saida.length() > LIMITE_SAIDA) {
+            throw new Interrupcao();
+        }
+    }
+
+    private String avaliarTexto(NoExpressao expressao) {
+        if (expressao instanceof NoLiteral literal) {
+            return literal.getValor();
+        }
+        if (expressao instanceof NoVariavel variavel && valores.get(variavel.getNome()) instanceof String texto) {
+            return texto;
+        }
+        throw new Interrupcao();
+    }
+
+    private int avaliar(NoExpressao expressao) {
+        if (expressao instanceof NoLiteral literal) {
+            Integer valor = AvaliadorConstante.valorLiteral(literal);
+            if (valor == null) {
+                throw new Interrupcao();
+            }
+            return valor;
+        }
+        if (expressao instanceof NoVariavel variavel) {
+            if (valores.get(variavel.getNome()) instanceof Integer valor) {
+                return valor;
+            }
+            throw new Interrupcao();
+        }
+        if (expressao instanceof NoUnario unario) {
+            return avaliar(unario.getOperando()) != 0 ? 0 : 1;
+        }
+        if (expressao instanceof NoSelecao selecao) {
+            return avaliar(selecao.getCondicao()) != 0 ? avaliar(selecao.getVerdadeiro())
+                    : avaliar(selecao.getFalso());
+        }
+        if (expressao instanceof NoBinario binario) {
+            if (isString(binario.getEsquerda().getTipo()) || isString(binario.getDireita().getTipo())) {
+                throw new Interrupcao();
+            }
+            int esquerda = avaliar(binario.getEsquerda());
+            int direita = avaliar(binario.getDireita());
+            // idiv falha com divisor zero e com o único quociente que não cabe.
+            if (binario.getOperador().equals("/") && esquerda == Integer.MIN_VALUE && direita == -1) {
+                throw new Interrupcao();
+            }
+            Integer resultado = AvaliadorConstante.aplicarOperador(binario.getOperador(), esquerda, direita);
+            if (resultado == null) {
+                throw new Interrupcao();
+            }
+            return resultado;
+        }
+        throw new Interrupcao();
+    }
+
+    // Valor como fica na variável: byte e boolean guardam só os 8 bits baixos.
+    private int ajustar(int valor, String tipo) {
+        if (tipo != null && (tipo.equalsIgnoreCase("byte") || tipo.equalsIgnoreCase("boolean"))) {
+            return valor & 0xFF;
+        }
+        return valor;
+    }
+
+    private boolean isString(String tipo) {
+        return tipo != null && tipo.equalsIgnoreCase("string");
+    }
+
+    // O programa não pode ser avaliado em tempo de compilação.
+    private static final class Interrupcao extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Interrupcao() {
+            super(null, null, false, false);
+        }
+    }
+}
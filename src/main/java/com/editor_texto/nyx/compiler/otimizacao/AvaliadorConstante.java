@@ -0,0 +1,88 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLiteral;
+import com.editor_texto.nyx.compiler.arvore.NoSelecao;
+import com.editor_texto.nyx.compiler.arvore.NoUnario;
+
+/**
+ * Avalia em tempo de compilação expressões formadas apenas por literais.
+ * Valores booleanos são representados como 1 (true) e 0 (false).
+ * Retorna null sempre que a expressão depende de variáveis ou não pode ser
+ * avaliada com segurança (ex: divisão por zero).
+ */
+public class AvaliadorConstante {
+
+    public static Integer avaliar(NoExpressao expressao) {
+        if (expressao instanceof NoLiteral literal) {
+            return valorLiteral(literal);
+        }
+        if (expressao instanceof NoUnario unario) {
+            Integer operando = avaliar(unario.getOperando());
+            return operando == null ? null : (operando != 0 ? 0 : 1);
+        }
+        if (expressao instanceof NoBinario binario) {
+            Integer esquerda = avaliar(binario.getEsquerda());
+            Integer direita = avaliar(binario.getDireita());
+            if (esquerda == null || direita == null) {
+                return null;
+            }
+            return aplicarOperador(binario.getOperador(), esquerda, direita);
+        }
+        if (expressao instanceof NoSelecao selecao) {
+            Boolean condicao = avaliarCondicao(selecao.getCondicao());
+            if (condicao == null) {
+                return null;
+            }
+            return avaliar(condicao ? selecao.getVerdadeiro() : selecao.getFalso());
+        }
+        return null;
+    }
+
+    // Avalia a expressão como condição; null se não for constante.
+    public static Boolean avaliarCondicao(NoExpressao expressao) {
+        Integer valor = avaliar(expressao);
+        return valor == null ? null : valor != 0;
+    }
+
+    public static Integer aplicarOperador(String operador, int esquerda, int direita) {
+        return switch (operador.toLowerCase()) {
+            case "+" -> esquerda + direita;
+            case "-" -> esquerda - direita;
+            case "*" -> esquerda * direita;
+            case "/" -> direita == 0 ? null : esquerda / direita;
+            case "==" -> esquerda == direita ? 1 : 0;
+            case "<>" -> esquerda != direita ? 1 : 0;
+            case "<" -> esquerda < direita ? 1 : 0;
+            case ">" -> esquerda > direita ? 1 : 0;
+            case "<=" -> esquerda <= direita ? 1 : 0;
+            case ">=" -> esquerda >= direita ? 1 : 0;
+            case "and" -> (esquerda != 0 && direita != 0) ? 1 : 0;
+            case "or" -> (esquerda != 0 || direita != 0) ? 1 : 0;
+            default -> null;
+        };
+    }
+
+    // Converte o texto de um literal numérico, hexadecimal (0hXX) ou booleano.
+    public static Integer valorLiteral(NoLiteral literal) {
+        String valor = literal.getValor();
+        if (literal.getTipo() != null && literal.getTipo().equalsIgnoreCase("string")) {
+            return null;
+        }
+        if (valor.equalsIgnoreCase("true")) {
+            return 1;
+        }
+        if (valor.equalsIgnoreCase("false")) {
+            return 0;
+        }
+        try {
+            if (valor.toLowerCase().startsWith("0h")) {
+                return valor.length() > 2 ? Integer.parseInt(valor.substring(2), 16) : 0;
+            }
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import com.editor_texto.nyx.compiler.arvore.NoAtribuicao;
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.arvore.NoSelecao;
+import com.editor_texto.nyx.compiler.arvore.NoUnario;
+import com.editor_texto.nyx.compiler.arvore.NoVariavel;
+
+import java.util.List;
+
+/**
+ * Conversão de 'if' em seleção sem saltos (if-conversion).
+ * Um 'if' cujos ramos apenas atribuem à mesma variável é trocado por uma
+ * única atribuição com NoSelecao, gerada com cmovcc:
+ *
+ * <pre>
+ * if c begin x = a; end else begin x = b; end   =>   x = c ? a : b
+ * if c begin x = a; end                          =>   x = c ? a : x
+ * </pre>
+ *
+ * Quando os valores são 'true' e 'false' a atribuição recebe a própria
+ * condição, gerada com setcc.
+ * Como os dois valores passam a ser sempre calculados, só são convertidos
+ * ramos pequenos (limite de nós) e sem divisões que possam falhar.
+ */
+public class ConversaoSe implements OtimizacaoArvore {
+
+    public static final int LIMITE_PADRAO = 6;
+
+    // Número máximo de nós somando os dois valores calculados.
+    private final int limite;
+    private boolean modificado;
+
+    public ConversaoSe() {
+        this(LIMITE_PADRAO);
+    }
+
+    public ConversaoSe(int limite) {
+        this.limite = limite;
+    }
+
+    @Override
+    public boolean aplicar(NoPrograma programa) {
+        this.modificado = false;
+        processarLista(programa.getComandos());
+        return this.modificado;
+    }
+
+    @Override
+    public String getNome() {
+        return "Conversão de If em Seleção";
+    }
+
+    private void processarLista(List<NoComando> comandos) {
+        for (int i = 0; i < comandos.size(); i++) {
+            NoComando comando = comandos.get(i);
+            if (comando instanceof NoSe se) {
+                processarLista(se.getEntao());
+                processarLista(se.getSenao());
+                NoAtribuicao convertido = converter(se);
+                if (convertido != null) {
+                    comandos.set(i, convertido);
+                    this.modificado = true;
+                }
+            } else if (comando instanceof NoEnquanto enquanto) {
+                processarLista(enquanto.getCorpo());
+            }
+        }
+    }
+
+    // Retorna a atribuição equivalente ao 'if', ou null se não for convertível.
+    private NoAtribuicao converter(NoSe se) {
+        NoAtribuicao entao = atribuicaoUnica(se.getEntao());
+        NoAtribuicao senao = atribuicaoUnica(se.getSenao());
+        if ((entao == null && !se.getEntao().isEmpty()) || (senao == null && !se.getSenao().isEmpty())
+                || (entao == null && senao == null)) {
+            return null;
+        }
+        NoAtribuicao modelo = entao != null ? entao : senao;
+        if (modelo.getTipo().equalsIgnoreCase("string")
+                || (entao != null && senao != null && !entao.getVariavel().equals(senao.getVariavel()))) {
+            return null;
+        }
+
+        // O ramo ausente mantém o valor atual da variável.
+        NoVariavel atual = new NoVariavel(modelo.getVariavel(), modelo.getTipo(), se.getLinha());
+        NoExpressao verdadeiro = entao != null ? entao.getValor() : atual;
+        NoExpressao falso = senao != null ? senao.getValor() : atual;
+
+        NoExpressao condicao = se.getCondicao();
+        if (modelo.getTipo().equalsIgnoreCase("boolean")) {
+            Integer valorVerdadeiro = AvaliadorConstante.avaliar(verdadeiro);
+            Integer valorFalso = AvaliadorConstante.avaliar(falso);
+            if (valorVerdadeiro != null && valorFalso != null && !valorVerdadeiro.equals(valorFalso)) {
+                NoExpressao valor = valorVerdadeiro != 0 ? condicao : new NoUnario("not", condicao, se.getLinha());
+                return new NoAtribuicao(modelo.getVariavel(), modelo.getTipo(), valor, se.getLinha());
+            }
+        }
+
+        if (contarNos(verdadeiro) + contarNos(falso) > this.limite || !isSemFalhas(verdadeiro)
+                || !isSemFalhas(falso)) {
+            return null;
+        }
+        return new NoAtribuicao(modelo.getVariavel(), modelo.getTipo(),
+                new NoSelecao(condicao, verdadeiro, falso, se.getLinha()), se.getLinha());
+    }
+
+    private NoAtribuicao atribuicaoUnica(List<NoComando> comandos) {
+        if (comandos.size() == 1 && comandos.get(0) instanceof NoAtribuicao atribuicao) {
+            return atribuicao;
+        }
+        return null;
+    }
+
+    private int contarNos(NoExpressao expressao) {
+        if (expressao instanceof NoBinario binario) {
+            return 1 + contarNos(binario.getEsquerda()) + contarNos(binario.getDireita());
+        }
+        if (expressao instanceof NoUnario unario) {
+            return 1 + contarNos(unario.getOperando());
+        }
+        if (expressao instanceof NoSelecao selecao) {
+            return 1 + contarNos(selecao.getCondicao()) + contarNos(selecao.getVerdadeiro())
+                    + contarNos(selecao.getFalso());
+        }
+        return 1;
+    }
+
+    // Uma divisão por variável pode ser justamente o que o 'if' protegia.
+    private boolean isSemFalhas(NoExpressao expressao) {
+        if (expressao instanceof NoBinario binario) {
+            if (binario.getOperador().equals("/")) {
+                Integer divisor = AvaliadorConstante.avaliar(binario.getDireita());
+                if (divisor == null || divisor == 0) {
+                    return false;
+                }
+            }
+            return isSemFalhas(binario.getEsquerda()) && isSemFalhas(binario.getDireita());
+        }
+        if (expressao instanceof NoUnario unario) {
+            return isSemFalhas(unario.getOperando());
+        }
+        if (expressao instanceof NoSelecao selecao) {
+            return isSemFalhas(selecao.getVerdadeiro()) && isSemFalhas(selecao.getFalso());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,283 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import com.editor_texto.nyx.compiler.arvore.NoAtribuicao;
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoDeclaracao;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLiteral;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.arvore.NoVariavel;
+import com.editor_texto.nyx.compiler.perfil.PerfilExecucao;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Desenrolamento de laços com número de iterações conhecido em tempo de
+ * compilação.
+ * Aplica-se a laços da forma:
+ *
+ * <pre>
+ * i = 0;
+ * while i &lt; 10 begin
+ *     ...
+ *     i = i + 1;
+ * end
+ * </pre>
+ *
+ * onde 'i' é uma variável int com valor inicial conhecido, comparada com um
+ * literal, e alterada no corpo apenas por um único incremento constante.
+ * Laços curtos são desenrolados por completo; os demais são desenrolados por
+ * um fator fixo, com as iterações restantes copiadas após o laço.
+ *
+ * Com perfil, o desenrolamento parcial fica só para os laços que rodaram: os
+ * frios ficam como estão (o código cresceria sem ganho) e os quentes aceitam
+ * um corpo maior. O completo não depende do perfil, porque é limitado e
+ * costuma deixar o corpo inteiro para a avaliação de constantes.
+ */
+public class DesenrolamentoLaco implements OtimizacaoArvore, GuiadaPorPerfil {
+
+    // Limites para evitar crescimento excessivo do código.
+    private static final int MAXIMO_ITERACOES_COMPLETO = 16;
+    private static final int MAXIMO_COMANDOS_COMPLETO = 64;
+    private static final int FATOR_DESENROLAMENTO = 4;
+    private static final int MAXIMO_COMANDOS_CORPO = 16;
+    private static final int MAXIMO_SIMULACAO = 1_000_000;
+
+    private NoPrograma programa;
+    private boolean modificado;
+    private PerfilExecucao perfil;
+
+    @Override
+    public void setPerfil(PerfilExecucao perfil) {
+        this.perfil = perfil;
+    }
+
+    @Override
+    public boolean aplicar(NoPrograma programa) {
+        this.programa = programa;
+        this.modificado = false;
+        processarLista(programa.getComandos(), true);
+        return this.modificado;
+    }
+
+    @Override
+    public String getNome() {
+        return "Desenrolamento de Laços";
+    }
+
+    private void processarLista(List<NoComando> comandos, boolean nivelPrincipal) {
+        for (int i = 0; i < comandos.size(); i++) {
+            NoComando comando = comandos.get(i);
+            if (comando instanceof NoSe se) {
+                processarLista(se.getEntao(), false);
+                processarLista(se.getSenao(), false);
+            } else if (comando instanceof NoEnquanto enquanto) {
+                // Laços internos primeiro.
+                processarLista(enquanto.getCorpo(), false);
+                if (enquanto.isPosTestado()) {
+                    continue;
+                }
+                List<NoComando> substituto = desenrolar(enquanto, comandos, i, nivelPrincipal);
+                if (substituto != null) {
+                    comandos.remove(i);
+                    comandos.addAll(i, substituto);
+                    i += substituto.size() - 1;
+                    this.modificado = true;
+                }
+            }
+        }
+    }
+
+    // Retorna os comandos que substituem o laço, ou null se não for possível.
+    private List<NoComando> desenrolar(NoEnquanto enquanto, List<NoComando> comandos, int indice,
+            boolean nivelPrincipal) {
+        if (!(enquanto.getCondicao() instanceof NoBinario condicao) || !condicao.isRelacional()) {
+            return null;
+        }
+
+        // Normaliza para 'variavel op literal'.
+        String operador = condicao.getOperador();
+        NoExpressao esquerda = condicao.getEsquerda();
+        NoExpressao direita = condicao.getDireita();
+        if (esquerda instanceof NoLiteral && direita instanceof NoVariavel) {
+            NoExpressao troca = esquerda;
+            esquerda = direita;
+            direita = troca;
+            operador = inverterOperador(operador);
+        }
+        if (!(esquerda instanceof NoVariavel variavel) || !variavel.getTipo().equalsIgnoreCase("int")) {
+            return null;
+        }
+        Integer limite = AvaliadorConstante.avaliar(direita);
+        if (limite == null) {
+            return null;
+        }
+
+        Integer passo = obterPasso(enquanto.getCorpo(), variavel.getNome());
+        if (passo == null || passo == 0) {
+            return null;
+        }
+        Integer inicial = obterValorInicial(comandos, indice, variavel.getNome(), nivelPrincipal);
+        if (inicial == null) {
+            return null;
+        }
+        Integer iteracoes = contarIteracoes(inicial, passo, operador, limite);
+        if (iteracoes == null) {
+            return null;
+        }
+
+        int tamanhoCorpo = contarComandos(enquanto.getCorpo());
+        List<NoComando> resultado = new ArrayList<>();
+
+        // Desenrolamento completo.
+        if (iteracoes <= MAXIMO_ITERACOES_COMPLETO && iteracoes * tamanhoCorpo <= MAXIMO_COMANDOS_COMPLETO) {
+            for (int k = 0; k < iteracoes; k++) {
+                resultado.addAll(NoComando.copiarComandos(enquanto.getCorpo()));
+            }
+            return resultado;
+        }
+
+        // Desenrolamento parcial: o laço executa FATOR cópias por iteração e o
+        // restante é executado em sequência após o laço.
+        if (perfil != null && GuiadaPorPerfil.isFrio(perfil, enquanto)) {
+            return null;
+        }
+        int maximoCorpo = perfil != null && GuiadaPorPerfil.isQuente(perfil, enquanto)
+                ? 2 * MAXIMO_COMANDOS_CORPO
+                : MAXIMO_COMANDOS_CORPO;
+        if (tamanhoCorpo > maximoCorpo || iteracoes < 2 * FATOR_DESENROLAMENTO) {
+            return null;
+        }
+        int voltas = iteracoes / FATOR_DESENROLAMENTO;
+        int restantes = iteracoes % FATOR_DESENROLAMENTO;
+        long valorFinal = (long) inicial + (long) voltas * FATOR_DESENROLAMENTO * passo;
+        if (valorFinal != (int) valorFinal) {
+            return null;
+        }
+
+        List<NoComando> corpo = new ArrayList<>();
+        for (int k = 0; k < FATOR_DESENROLAMENTO; k++) {
+            corpo.addAll(NoComando.copiarComandos(enquanto.getCorpo()));
+        }
+        // A variável avança de forma monotônica até exatamente valorFinal.
+        NoBinario novaCondicao = new NoBinario(passo > 0 ? "<" : ">",
+                new NoVariavel(variavel.getNome(), "int", condicao.getLinha()),
+                new NoLiteral(String.valueOf(valorFinal), "int", condicao.getLinha()), condicao.getLinha());
+        resultado.add(new NoEnquanto(novaCondicao, corpo, enquanto.getLinha()));
+        for (int k = 0; k < restantes; k++) {
+            resultado.addAll(NoComando.copiarComandos(enquanto.getCorpo()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Procura o incremento 'i = i + c' (ou 'i = c + i', 'i = i - c') no nível
+     * superior do corpo. Retorna null se a variável for alterada de qualquer
+     * outra forma.
+     */
+    private Integer obterPasso(List<NoComando> corpo, String variavel) {
+        Integer passo = null;
+        for (NoComando comando : corpo) {
+            Set<String> escritas = new HashSet<>();
+            comando.coletarVariaveisEscritas(escritas);
+            if (!escritas.contains(variavel)) {
+                continue;
+            }
+            if (passo != null || !(comando instanceof NoAtribuicao atribuicao)
+                    || !(atribuicao.getValor() instanceof NoBinario valor)) {
+                return null;
+            }
+            boolean esquerdaVariavel = isVariavel(valor.getEsquerda(), variavel);
+            boolean direitaVariavel = isVariavel(valor.getDireita(), variavel);
+            if (valor.getOperador().equals("+") && esquerdaVariavel) {
+                passo = AvaliadorConstante.avaliar(valor.getDireita());
+            } else if (valor.getOperador().equals("+") && direitaVariavel) {
+                passo = AvaliadorConstante.avaliar(valor.getEsquerda());
+            } else if (valor.getOperador().equals("-") && esquerdaVariavel) {
+                Integer decremento = AvaliadorConstante.avaliar(valor.getDireita());
+                passo = decremento == null ? null : -decremento;
+            }
+            if (passo == null) {
+                return null;
+            }
+        }
+        return passo;
+    }
+
+    // Valor da variável imediatamente antes do laço, se conhecido.
+    private Integer obterValorInicial(List<NoComando> comandos, int indice, String variavel,
+            boolean nivelPrincipal) {
+        for (int j = indice - 1; j >= 0; j--) {
+            NoComando comando = comandos.get(j);
+            Set<String> escritas = new HashSet<>();
+            comando.coletarVariaveisEscritas(escritas);
+            if (!escritas.contains(variavel)) {
+                continue;
+            }
+            if (comando instanceof NoAtribuicao atribuicao) {
+                return AvaliadorConstante.avaliar(atribuicao.getValor());
+            }
+            return null;
+        }
+        if (!nivelPrincipal) {
+            return null;
+        }
+        // Nenhuma escrita antes do laço: vale o valor da declaração.
+        NoDeclaracao declaracao = this.programa.buscarDeclaracao(variavel);
+        if (declaracao == null || declaracao.getValorInicial() == null) {
+            return 0;
+        }
+        return AvaliadorConstante.valorLiteral(declaracao.getValorInicial());
+    }
+
+    // Simula a variável de indução para contar as iterações.
+    private Integer contarIteracoes(int inicial, int passo, String operador, int limite) {
+        long valor = inicial;
+        int iteracoes = 0;
+        while (true) {
+            Integer condicao = AvaliadorConstante.aplicarOperador(operador, (int) valor, limite);
+            if (condicao == null || condicao == 0) {
+                return iteracoes;
+            }
+            iteracoes++;
+            valor += passo;
+            if (iteracoes > MAXIMO_SIMULACAO || valor != (int) valor) {
+                return null;
+            }
+        }
+    }
+
+    private int contarComandos(List<NoComando> comandos) {
+        int total = 0;
+        for (NoComando comando : comandos) {
+            total++;
+            if (comando instanceof NoSe se) {
+                total += contarComandos(se.getEntao()) + contarComandos(se.getSenao());
+            } else if (comando instanceof NoEnquanto enquanto) {
+                total += contarComandos(enquanto.getCorpo());
+            }
+        }
+        return total;
+    }
+
+    private boolean isVariavel(NoExpressao expressao, String nome) {
+        return expressao instanceof NoVariavel variavel && variavel.getNome().equals(nome);
+    }
+
+    // Operador equivalente com os operandos trocados (ex: 10 > i  =>  i < 10).
+    private String inverterOperador(String operador) {
+        return switch (operador) {
+            case "<" -> ">";
+            case ">" -> "<";
+            case "<=" -> ">=";
+            case ">=" -> "<=";
+            default -> operador;
+        };
+    }
+}
@@ -0,0 +1,212 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import com.editor_texto.nyx.compiler.arvore.NoAtribuicao;
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoEscrita;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLeitura;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.arvore.NoSelecao;
+import com.editor_texto.nyx.compiler.arvore.NoUnario;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Elimina código e variáveis mortas do programa:
+ * - blocos inalcançáveis de 'if'/'while' com condição constante;
+ * - atribuições cujo valor nunca é lido (análise de vivacidade para trás);
+ * - declarações de variáveis e constantes que não são mais referenciadas,
+ * evitando a reserva de espaço no .data.
+ * O único efeito de uma expressão é parar o programa numa divisão por zero:
+ * uma atribuição morta só é removida se todas as suas divisões têm divisor
+ * constante não nulo. Leituras (readln) são sempre mantidas, pois consomem a
+ * entrada.
+ */
+public class EliminacaoCodigoMorto implements OtimizacaoArvore {
+
+    // Indica se a iteração atual alterou o programa.
+    private boolean modificado;
+
+    @Override
+    public boolean aplicar(NoPrograma programa) {
+        boolean alterou = false;
+        // Remover uma atribuição pode tornar outras mortas; repete até estabilizar.
+        do {
+            this.modificado = false;
+            removerBlocosInalcancaveis(programa.getComandos());
+            // Ao final do programa nenhuma variável está viva.
+            analisarVivacidade(programa.getComandos(), new HashSet<>(), true);
+            alterou |= this.modificado;
+        } while (this.modificado);
+
+        return removerDeclaracoesNaoUsadas(programa) || alterou;
+    }
+
+    @Override
+    public String getNome() {
+        return "Eliminação de Código Morto";
+    }
+
+    // Substitui 'if' com condição constante pelo ramo que sempre executa e remove
+    // 'while' cuja condição é constantemente falsa (um laço testado no final é
+    // trocado pelo seu corpo). Um 'if' com os dois ramos vazios só sai se a
+    // condição não puder falhar; senão fica, para que ela ainda seja avaliada.
+    private void removerBlocosInalcancaveis(List<NoComando> comandos) {
+        int i = 0;
+        while (i < comandos.size()) {
+            NoComando comando = comandos.get(i);
+            if (comando instanceof NoSe se) {
+                removerBlocosInalcancaveis(se.getEntao());
+                removerBlocosInalcancaveis(se.getSenao());
+                Boolean condicao = AvaliadorConstante.avaliarCondicao(se.getCondicao());
+                boolean vazio = se.getEntao().isEmpty() && se.getSenao().isEmpty();
+                if (condicao != null || (vazio && isSemFalhas(se.getCondicao()))) {
+                    List<NoComando> ramo = (condicao == null || condicao) ? se.getEntao() : se.getSenao();
+                    comandos.remove(i);
+                    comandos.addAll(i, ramo);
+                    i += ramo.size();
+                    this.modificado = true;
+                    continue;
+                }
+            } else if (comando instanceof NoEnquanto enquanto) {
+                removerBlocosInalcancaveis(enquanto.getCorpo());
+                if (Boolean.FALSE.equals(AvaliadorConstante.avaliarCondicao(enquanto.getCondicao()))) {
+                    comandos.remove(i);
+                    // Um laço testado no final ainda executa o corpo uma vez.
+                    if (enquanto.isPosTestado()) {
+                        comandos.addAll(i, enquanto.getCorpo());
+                        i += enquanto.getCorpo().size();
+                    }
+                    this.modificado = true;
+                    continue;
+                }
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Percorre a lista de trás para frente calculando as variáveis vivas.
+     *
+     * @param comandos   Lista de comandos (alterada no lugar se remover=true).
+     * @param vivasSaida Variáveis vivas logo após o último comando.
+     * @param remover    Se false, apenas calcula (usado no ponto fixo dos laços).
+     * @return Variáveis vivas antes do primeiro comando.
+     */
+    private Set<String> analisarVivacidade(List<NoComando> comandos, Set<String> vivasSaida, boolean remover) {
+        Set<String> vivas = new HashSet<>(vivasSaida);
+
+        for (int i = comandos.size() - 1; i >= 0; i--) {
+            NoComando comando = comandos.get(i);
+
+            if (comando instanceof NoAtribuicao atribuicao) {
+                if (!vivas.contains(atribuicao.getVariavel())) {
+                    // Armazenamento morto: o valor é sobrescrito ou nunca lido.
+                    if (isSemFalhas(atribuicao.getValor())) {
+                        if (remover) {
+                            comandos.remove(i);
+                            this.modificado = true;
+                        }
+                    } else {
+                        // A divisão ainda precisa ser feita (e falhar) como em -O0.
+                        atribuicao.getValor().coletarVariaveis(vivas);
+                    }
+                    continue;
+                }
+                vivas.remove(atribuicao.getVariavel());
+                atribuicao.getValor().coletarVariaveis(vivas);
+            } else if (comando instanceof NoLeitura leitura) {
+                vivas.remove(leitura.getVariavel());
+            } else if (comando instanceof NoEscrita escrita) {
+                for (NoExpressao item : escrita.getItens()) {
+                    item.coletarVariaveis(vivas);
+                }
+            } else if (comando instanceof NoSe se) {
+                Set<String> entrada = analisarVivacidade(se.getEntao(), vivas, remover);
+                entrada.addAll(analisarVivacidade(se.getSenao(), vivas, remover));
+                se.getCondicao().coletarVariaveis(entrada);
+                vivas = entrada;
+            } else if (comando instanceof NoEnquanto enquanto) {
+                vivas = analisarVivacidadeLaco(enquanto, vivas, remover);
+            }
+        }
+        return vivas;
+    }
+
+    // Ponto fixo: as variáveis vivas no cabeçalho do laço incluem as lidas pelo
+    // corpo em qualquer iteração futura.
+    private Set<String> analisarVivacidadeLaco(NoEnquanto enquanto, Set<String> vivasSaida, boolean remover) {
+        Set<String> cabecalho = new HashSet<>(vivasSaida);
+        enquanto.getCondicao().coletarVariaveis(cabecalho);
+
+        while (true) {
+            Set<String> novo = analisarVivacidade(enquanto.getCorpo(), cabecalho, false);
+            novo.addAll(vivasSaida);
+            enquanto.getCondicao().coletarVariaveis(novo);
+            if (novo.equals(cabecalho)) {
+                break;
+            }
+            cabecalho = novo;
+        }
+
+        if (remover) {
+            analisarVivacidade(enquanto.getCorpo(), cabecalho, true);
+        }
+        return cabecalho;
+    }
+
+    // Verdadeiro se todas as divisões da expressão têm divisor constante não nulo.
+    private static boolean isSemFalhas(NoExpressao expressao) {
+        if (expressao instanceof NoBinario binario) {
+            if (binario.getOperador().equals("/")) {
+                Integer divisor = AvaliadorConstante.avaliar(binario.getDireita());
+                if (divisor == null || divisor == 0) {
+                    return false;
+                }
+            }
+            return isSemFalhas(binario.getEsquerda()) && isSemFalhas(binario.getDireita());
+        }
+        if (expressao instanceof NoUnario unario) {
+            return isSemFalhas(unario.getOperando());
+        }
+        if (expressao instanceof NoSelecao selecao) {
+            return isSemFalhas(selecao.getCondicao()) && isSemFalhas(selecao.getVerdadeiro())
+                    && isSemFalhas(selecao.getFalso());
+        }
+        return true;
+    }
+
+    // Remove declarações que não são lidas nem escritas por nenhum comando.
+    private boolean removerDeclaracoesNaoUsadas(NoPrograma programa) {
+        Set<String> usadas = new HashSet<>();
+        coletarReferencias(programa.getComandos(), usadas);
+        return programa.getDeclaracoes().removeIf(declaracao -> !usadas.contains(declaracao.getNome()));
+    }
+
+    private void coletarReferencias(List<NoComando> comandos, Set<String> usadas) {
+        for (NoComando comando : comandos) {
+            if (comando instanceof NoAtribuicao atribuicao) {
+                usadas.add(atribuicao.getVariavel());
+                atribuicao.getValor().coletarVariaveis(usadas);
+            } else if (comando instanceof NoLeitura leitura) {
+                usadas.add(leitura.getVariavel());
+            } else if (comando instanceof NoEscrita escrita) {
+                for (NoExpressao item : escrita.getItens()) {
+                    item.coletarVariaveis(usadas);
+                }
+            } else if (comando instanceof NoSe se) {
+                se.getCondicao().coletarVariaveis(usadas);
+                coletarReferencias(se.getEntao(), usadas);
+                coletarReferencias(se.getSenao(), usadas);
+            } else if (comando instanceof NoEnquanto enquanto) {
+                enquanto.getCondicao().coletarVariaveis(usadas);
+                coletarReferencias(enquanto.getCorpo(), usadas);
+            }
+        }
+    }
+}
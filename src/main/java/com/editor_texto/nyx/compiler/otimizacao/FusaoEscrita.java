@@ -0,0 +1,95 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoEscrita;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLiteral;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fusão de comandos write/writeln consecutivos em um só, com os literais
+ * vizinhos concatenados:
+ *
+ * <pre>
+ * writeln, "x = ", x; writeln, "fim";   =>   writeln, "x = ", x, "\nfim"
+ * </pre>
+ *
+ * A quebra de linha de um writeln do meio vira o caractere '\n' no literal
+ * seguinte, que o GeradorAssembly emite como 13, 10. Assim o gerador escreve
+ * cada trecho de texto com uma única chamada e uma única string.
+ */
+public class FusaoEscrita implements OtimizacaoArvore {
+
+    private boolean modificado;
+
+    @Override
+    public boolean aplicar(NoPrograma programa) {
+        this.modificado = false;
+        processarLista(programa.getComandos());
+        return this.modificado;
+    }
+
+    @Override
+    public String getNome() {
+        return "Fusão de Escritas";
+    }
+
+    private void processarLista(List<NoComando> comandos) {
+        for (int i = 0; i < comandos.size(); i++) {
+            NoComando comando = comandos.get(i);
+            if (comando instanceof NoSe se) {
+                processarLista(se.getEntao());
+                processarLista(se.getSenao());
+            } else if (comando instanceof NoEnquanto enquanto) {
+                processarLista(enquanto.getCorpo());
+            } else if (comando instanceof NoEscrita escrita) {
+                int fim = i + 1;
+                while (fim < comandos.size() && comandos.get(fim) instanceof NoEscrita) {
+                    fim++;
+                }
+                List<NoComando> sequencia = comandos.subList(i, fim);
+                NoEscrita fundida = fundir(sequencia);
+                if (sequencia.size() > 1 || fundida.getItens().size() < escrita.getItens().size()) {
+                    sequencia.clear();
+                    sequencia.add(fundida);
+                    this.modificado = true;
+                }
+            }
+        }
+    }
+
+    private NoEscrita fundir(List<NoComando> escritas) {
+        List<NoExpressao> itens = new ArrayList<>();
+        NoEscrita ultima = null;
+        for (NoComando comando : escritas) {
+            if (ultima != null && ultima.isQuebraLinha()) {
+                adicionar(itens, new NoLiteral("\n", "string", ultima.getLinha()));
+            }
+            ultima = (NoEscrita) comando;
+            for (NoExpressao item : ultima.getItens()) {
+                adicionar(itens, item);
+            }
+        }
+        return new NoEscrita(ultima.isQuebraLinha(), itens, escritas.get(0).getLinha());
+    }
+
+    // Junta literais string vizinhos em um só.
+    private void adicionar(List<NoExpressao> itens, NoExpressao item) {
+        if (!itens.isEmpty() && isTexto(item) && isTexto(itens.get(itens.size() - 1))) {
+            NoLiteral anterior = (NoLiteral) itens.remove(itens.size() - 1);
+            itens.add(new NoLiteral(anterior.getValor() + ((NoLiteral) item).getValor(), "string",
+                    anterior.getLinha()));
+            return;
+        }
+        itens.add(item);
+    }
+
+    private boolean isTexto(NoExpressao item) {
+        return item instanceof NoLiteral literal && "string".equalsIgnoreCase(literal.getTipo());
+    }
+}
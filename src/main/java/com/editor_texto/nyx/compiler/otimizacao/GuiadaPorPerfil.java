@@ -0,0 +1,73 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.perfil.PerfilExecucao;
+
+import java.util.List;
+
+/**
+ * Otimização da árvore que decide pelo perfil de uma execução anterior do
+ * mesmo fonte, quando há um (compilação guiada por perfil). Sem perfil, o
+ * passo segue as próprias heurísticas.
+ */
+public interface GuiadaPorPerfil {
+
+    void setPerfil(PerfilExecucao perfil);
+
+    /**
+     * Vezes que o bloco rodou, pelo primeiro comando dele: um laço conta as
+     * entradas (a linha dele conta também as voltas); -1 se o bloco é vazio.
+     * As cópias de um comando (ex: no desenrolamento) somam.
+     */
+    static long execucoes(PerfilExecucao perfil, List<NoComando> bloco) {
+        if (bloco.isEmpty()) {
+            return -1;
+        }
+        NoComando primeiro = bloco.get(0);
+        if (primeiro instanceof NoEnquanto && !perfil.getLacos(primeiro.getLinha()).isEmpty()) {
+            return perfil.getEntradas(primeiro.getLinha());
+        }
+        return perfil.getExecucoes(primeiro.getLinha());
+    }
+
+    /**
+     * Nenhum comando do laço, inclusive dos laços internos, rodou muito. Um
+     * laço sem nenhuma linha medida (ex: eliminado na compilação medida) não
+     * é frio: o perfil não diz nada sobre ele.
+     */
+    static boolean isFrio(PerfilExecucao perfil, NoEnquanto laco) {
+        long maximo = maximoExecucoes(perfil, laco.getCorpo());
+        return maximo >= 0 && perfil.isFrio(maximo);
+    }
+
+    // Algum comando do laço tem boa parte das execuções medidas.
+    static boolean isQuente(PerfilExecucao perfil, NoEnquanto laco) {
+        return perfil.isQuente(maximoExecucoes(perfil, laco.getCorpo()));
+    }
+
+    // Maior número de execuções de uma linha do bloco, descendo nos aninhados; -1 sem linhas medidas.
+    private static long maximoExecucoes(PerfilExecucao perfil, List<NoComando> bloco) {
+        long maximo = -1;
+        for (NoComando comando : bloco) {
+            if (perfil.getLinha(comando.getLinha()) != null) {
+                maximo = Math.max(maximo, perfil.getExecucoes(comando.getLinha()));
+            }
+            if (comando instanceof NoSe se) {
+                maximo = Math.max(maximo, maximoExecucoes(perfil, se.getEntao()));
+                maximo = Math.max(maximo, maximoExecucoes(perfil, se.getSenao()));
+            } else if (comando instanceof NoEnquanto enquanto) {
+                maximo = Math.max(maximo, maximoExecucoes(perfil, enquanto.getCorpo()));
+            }
+        }
+        return maximo;
+    }
+
+    // Iterações por entrada no laço; -1 se o perfil não mediu as entradas.
+    static double mediaIteracoes(PerfilExecucao perfil, NoEnquanto laco) {
+        long entradas = perfil.getEntradas(laco.getLinha());
+        long iteracoes = execucoes(perfil, laco.getCorpo());
+        return entradas > 0 && iteracoes >= 0 ? (double) iteracoes / entradas : -1;
+    }
+}
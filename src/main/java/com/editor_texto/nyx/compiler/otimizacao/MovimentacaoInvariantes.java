@@ -0,0 +1,183 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import com.editor_texto.nyx.compiler.arvore.NoAtribuicao;
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLiteral;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.arvore.NoUnario;
+import com.editor_texto.nyx.compiler.arvore.NoVariavel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Movimentação de código invariante de laço (LICM).
+ * Subexpressões aritméticas dentro de um 'while' que não dependem de nenhuma
+ * variável alterada no corpo são calculadas uma única vez antes do laço, em
+ * uma variável temporária (tmp_invN). Subexpressões formadas só por literais
+ * são dobradas para um literal.
+ * Divisões só são antecipadas quando o divisor é uma constante diferente de
+ * zero, para não introduzir uma divisão por zero que o laço nunca executaria.
+ */
+public class MovimentacaoInvariantes implements OtimizacaoArvore {
+
+    private NoPrograma programa;
+    private boolean modificado;
+
+    @Override
+    public boolean aplicar(NoPrograma programa) {
+        this.programa = programa;
+        this.modificado = false;
+        processarLista(programa.getComandos());
+        return this.modificado;
+    }
+
+    @Override
+    public String getNome() {
+        return "Movimentação de Invariantes de Laço";
+    }
+
+    // Laços externos são tratados primeiro, para que uma expressão invariante em
+    // vários níveis saia de todos eles de uma vez.
+    private void processarLista(List<NoComando> comandos) {
+        for (int i = 0; i < comandos.size(); i++) {
+            NoComando comando = comandos.get(i);
+            if (comando instanceof NoEnquanto enquanto) {
+                List<NoComando> antecipados = antecipar(enquanto);
+                comandos.addAll(i, antecipados);
+                i += antecipados.size();
+                processarLista(enquanto.getCorpo());
+            } else if (comando instanceof NoSe se) {
+                processarLista(se.getEntao());
+                processarLista(se.getSenao());
+            }
+        }
+    }
+
+    // Extrai as invariantes do laço, retornando as atribuições a inserir antes dele.
+    private List<NoComando> antecipar(NoEnquanto enquanto) {
+        Set<String> modificadas = new HashSet<>();
+        for (NoComando comando : enquanto.getCorpo()) {
+            comando.coletarVariaveisEscritas(modificadas);
+        }
+
+        Extracao extracao = new Extracao(modificadas, enquanto.getLinha());
+        enquanto.setCondicao(extracao.extrair(enquanto.getCondicao()));
+        extrairDeComandos(enquanto.getCorpo(), extracao);
+        return extracao.antecipados;
+    }
+
+    private void extrairDeComandos(List<NoComando> comandos, Extracao extracao) {
+        for (NoComando comando : comandos) {
+            if (comando instanceof NoAtribuicao atribuicao) {
+                if (!atribuicao.getTipo().equalsIgnoreCase("string")) {
+                    atribuicao.setValor(extracao.extrair(atribuicao.getValor()));
+                }
+            } else if (comando instanceof NoSe se) {
+                se.setCondicao(extracao.extrair(se.getCondicao()));
+                extrairDeComandos(se.getEntao(), extracao);
+                extrairDeComandos(se.getSenao(), extracao);
+            } else if (comando instanceof NoEnquanto enquanto) {
+                enquanto.setCondicao(extracao.extrair(enquanto.getCondicao()));
+                extrairDeComandos(enquanto.getCorpo(), extracao);
+            }
+        }
+    }
+
+    // Estado da extração para um laço: variáveis alteradas no corpo e
+    // temporárias já criadas (expressões iguais reaproveitam a mesma).
+    private class Extracao {
+        private final Set<String> modificadas;
+        private final int linha;
+        private final Map<String, String> temporarias = new HashMap<>();
+        private final List<NoComando> antecipados = new ArrayList<>();
+
+        Extracao(Set<String> modificadas, int linha) {
+            this.modificadas = modificadas;
+            this.linha = linha;
+        }
+
+        NoExpressao extrair(NoExpressao expressao) {
+            if (expressao instanceof NoBinario binario) {
+                if (binario.isAritmetico() && isInvariante(binario)) {
+                    return antecipar(binario);
+                }
+                NoExpressao esquerda = extrair(binario.getEsquerda());
+                NoExpressao direita = extrair(binario.getDireita());
+                if (esquerda == binario.getEsquerda() && direita == binario.getDireita()) {
+                    return binario;
+                }
+                return new NoBinario(binario.getOperador(), esquerda, direita, binario.getLinha());
+            }
+            if (expressao instanceof NoUnario unario) {
+                NoExpressao operando = extrair(unario.getOperando());
+                return operando == unario.getOperando() ? unario
+                        : new NoUnario(unario.getOperador(), operando, unario.getLinha());
+            }
+            return expressao;
+        }
+
+        private NoExpressao antecipar(NoBinario binario) {
+            Integer constante = AvaliadorConstante.avaliar(binario);
+            if (constante != null) {
+                modificado = true;
+                return new NoLiteral(String.valueOf(constante), "int", binario.getLinha());
+            }
+            if (!isDivisaoSegura(binario)) {
+                // Ainda pode haver partes seguras dentro da expressão.
+                NoExpressao esquerda = extrair(binario.getEsquerda());
+                NoExpressao direita = extrair(binario.getDireita());
+                if (esquerda == binario.getEsquerda() && direita == binario.getDireita()) {
+                    return binario;
+                }
+                return new NoBinario(binario.getOperador(), esquerda, direita, binario.getLinha());
+            }
+
+            String chave = binario.toString();
+            String temporaria = this.temporarias.get(chave);
+            if (temporaria == null) {
+                temporaria = programa.criarTemporaria("tmp_inv", "int");
+                this.temporarias.put(chave, temporaria);
+                this.antecipados.add(new NoAtribuicao(temporaria, "int", binario, this.linha));
+            }
+            modificado = true;
+            return new NoVariavel(temporaria, "int", binario.getLinha());
+        }
+
+        private boolean isInvariante(NoExpressao expressao) {
+            Set<String> lidas = new HashSet<>();
+            expressao.coletarVariaveis(lidas);
+            for (String variavel : lidas) {
+                if (this.modificadas.contains(variavel)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Verdadeiro se todas as divisões da expressão têm divisor constante não nulo.
+    private static boolean isDivisaoSegura(NoExpressao expressao) {
+        if (expressao instanceof NoBinario binario) {
+            if (binario.getOperador().equals("/")) {
+                Integer divisor = AvaliadorConstante.avaliar(binario.getDireita());
+                if (divisor == null || divisor == 0) {
+                    return false;
+                }
+            }
+            return isDivisaoSegura(binario.getEsquerda()) && isDivisaoSegura(binario.getDireita());
+        }
+        if (expressao instanceof NoUnario unario) {
+            return isDivisaoSegura(unario.getOperando());
+        }
+        return true;
+    }
+}
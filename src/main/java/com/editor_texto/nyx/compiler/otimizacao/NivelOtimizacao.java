@@ -0,0 +1,108 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.editor_texto.nyx.compiler.otimizacao.Otimizacao.*;
+
+/**
+ * Níveis de otimização, no estilo -O0/-O1/-O2/-Os. Cada nível é uma lista
+ * ordenada de passos; a ordem segue a do -O2, que é a sequência completa.
+ */
+public enum NivelOtimizacao {
+
+    O0("-O0", "sem otimizações", List.of()),
+    O1("-O1", "otimizações rápidas",
+            List.of(ELIMINACAO_CODIGO_MORTO, CONVERSAO_SE, FUSAO_ESCRITA, REDUCAO_FORCA, SALTOS, PEEPHOLE,
+                    LAYOUT_DADOS)),
+    // O desenrolamento depende do código morto já removido, e a rotação vem
+    // por último, pois os demais passos só tratam laços testados no topo.
+    O2("-O2", "velocidade",
+            List.of(ELIMINACAO_CODIGO_MORTO, MOVIMENTACAO_INVARIANTES, DESENROLAMENTO_LACO, CONVERSAO_SE,
+                    ELIMINACAO_CODIGO_MORTO, ROTACAO_LACO, FUSAO_ESCRITA, REDUCAO_FORCA, SALTOS, PEEPHOLE,
+                    ESCALONAMENTO, LAYOUT_DADOS, ALINHAMENTO_LACOS)),
+    // Sem desenrolamento nem rotação (duplicam código) e sem o preenchimento
+    // do alinhamento de laços. A redução de força fica, mas sem a divisão por
+    // número mágico, que é maior que idiv (isTamanho).
+    OS("-Os", "tamanho",
+            List.of(ELIMINACAO_CODIGO_MORTO, MOVIMENTACAO_INVARIANTES, CONVERSAO_SE, ELIMINACAO_CODIGO_MORTO,
+                    FUSAO_ESCRITA, REDUCAO_FORCA, SALTOS, PEEPHOLE, LAYOUT_DADOS));
+
+    public static final NivelOtimizacao PADRAO = O2;
+
+    private final String rotulo;
+    private final String descricao;
+    private final List<Otimizacao> passos;
+
+    NivelOtimizacao(String rotulo, String descricao, List<Otimizacao> passos) {
+        this.rotulo = rotulo;
+        this.descricao = descricao;
+        this.passos = passos;
+    }
+
+    public String getRotulo() {
+        return rotulo;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public List<Otimizacao> getPassos() {
+        return passos;
+    }
+
+    // Prioriza o tamanho do código sobre a velocidade.
+    public boolean isTamanho() {
+        return this == OS;
+    }
+
+    /**
+     * Passos do nível depois dos ajustes individuais: um passo desligado sai da
+     * lista (todas as ocorrências) e um passo ligado que o nível não tem entra
+     * na posição que ocupa no -O2.
+     */
+    public List<Otimizacao> getPassos(Map<Otimizacao, Boolean> ajustes) {
+        List<Otimizacao> resultado = new ArrayList<>();
+        for (Otimizacao passo : this.passos) {
+            if (!Boolean.FALSE.equals(ajustes.get(passo))) {
+                resultado.add(passo);
+            }
+        }
+        List<Otimizacao> ordem = O2.passos;
+        for (Map.Entry<Otimizacao, Boolean> ajuste : ajustes.entrySet()) {
+            Otimizacao passo = ajuste.getKey();
+            if (!ajuste.getValue() || resultado.contains(passo)) {
+                continue;
+            }
+            int posicao = 0;
+            while (posicao < resultado.size() && ordem.indexOf(resultado.get(posicao)) < ordem.indexOf(passo)) {
+                posicao++;
+            }
+            resultado.add(posicao, passo);
+        }
+        return resultado;
+    }
+
+    // Aceita "-O2", "O2", "2", "-Os", "s" (sem diferenciar maiúsculas).
+    public static NivelOtimizacao converter(String texto) {
+        String nome = texto.trim().toUpperCase();
+        if (nome.startsWith("-")) {
+            nome = nome.substring(1);
+        }
+        if (!nome.startsWith("O")) {
+            nome = "O" + nome;
+        }
+        try {
+            return valueOf(nome);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Nível de otimização desconhecido: " + texto);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return rotulo + " (" + descricao + ")";
+    }
+}
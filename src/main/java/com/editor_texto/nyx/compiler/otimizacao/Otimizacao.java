@@ -0,0 +1,72 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import java.util.function.Supplier;
+
+/**
+ * Passos de otimização que podem ser ligados ou desligados individualmente.
+ * Os passos da árvore criam uma OtimizacaoArvore nova a cada compilação; a
+ * redução de força é feita pelo GeradorAssembly e os saltos, o peephole, o
+ * escalonamento de instruções e o layout pelo Otimizador.
+ */
+public enum Otimizacao {
+
+    // Opcional: não faz parte de nenhum nível e, quando ligada, roda primeiro.
+    AVALIACAO_PARCIAL("partial-eval", AvaliacaoParcial::new),
+    ELIMINACAO_CODIGO_MORTO("dce", EliminacaoCodigoMorto::new),
+    MOVIMENTACAO_INVARIANTES("licm", MovimentacaoInvariantes::new),
+    DESENROLAMENTO_LACO("unroll", DesenrolamentoLaco::new),
+    CONVERSAO_SE("if-conversion", ConversaoSe::new),
+    ROTACAO_LACO("rotate", RotacaoLaco::new),
+    FUSAO_ESCRITA("write-fusion", FusaoEscrita::new),
+    REDUCAO_FORCA("strength-reduction", null),
+    SALTOS("jump-threading", null),
+    PEEPHOLE("peephole", null),
+    ESCALONAMENTO("schedule", null),
+    LAYOUT_DADOS("data-layout", null),
+    ALINHAMENTO_LACOS("align-loops", null);
+
+    private final String id;
+    private final Supplier<OtimizacaoArvore> fabrica;
+
+    Otimizacao(String id, Supplier<OtimizacaoArvore> fabrica) {
+        this.id = id;
+        this.fabrica = fabrica;
+    }
+
+    // Identificador curto, usado na linha de comando e nas preferências.
+    public String getId() {
+        return id;
+    }
+
+    public boolean isArvore() {
+        return fabrica != null;
+    }
+
+    public OtimizacaoArvore criar() {
+        if (fabrica == null) {
+            throw new IllegalStateException(id + " não é uma otimização da árvore");
+        }
+        return fabrica.get();
+    }
+
+    public String getNome() {
+        return switch (this) {
+            case REDUCAO_FORCA -> "Redução de Força";
+            case SALTOS -> "Otimização de Saltos";
+            case PEEPHOLE -> "Peephole";
+            case ESCALONAMENTO -> "Escalonamento de Instruções";
+            case LAYOUT_DADOS -> "Organização dos Dados";
+            case ALINHAMENTO_LACOS -> "Alinhamento de Laços";
+            default -> criar().getNome();
+        };
+    }
+
+    public static Otimizacao converter(String id) {
+        for (Otimizacao otimizacao : values()) {
+            if (otimizacao.id.equalsIgnoreCase(id) || otimizacao.name().equalsIgnoreCase(id)) {
+                return otimizacao;
+            }
+        }
+        throw new IllegalArgumentException("Otimização desconhecida: " + id);
+    }
+}
@@ -0,0 +1,23 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+
+/**
+ * Passo de otimização que reescreve a árvore do programa antes da geração de
+ * código.
+ */
+public interface OtimizacaoArvore {
+
+    /**
+     * Aplica a otimização sobre o programa, alterando-o no lugar.
+     *
+     * @param programa Árvore do programa já validado.
+     * @return true se o programa foi modificado.
+     */
+    boolean aplicar(NoPrograma programa);
+
+    /**
+     * @return O nome legível do passo (ex: "Eliminação de Código Morto").
+     */
+    String getNome();
+}
@@ -0,0 +1,74 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import java.util.List;
+
+/**
+ * Resultado de uma compilação em um nível de otimização: tamanho do código
+ * sem otimizações (-O0) e do código final, em instruções e bytes estimados,
+ * e o tempo gasto nas otimizações. Permite comparar o custo de compilação de
+ * cada nível com o ganho no programa gerado.
+ */
+public class RelatorioOtimizacao {
+
+    private final NivelOtimizacao nivel;
+    private final List<Otimizacao> passos;
+    private final int instrucoesAntes;
+    private final int bytesAntes;
+    private final int instrucoesDepois;
+    private final int bytesDepois;
+    private final long nanos;
+
+    public RelatorioOtimizacao(NivelOtimizacao nivel, List<Otimizacao> passos, int instrucoesAntes,
+            int bytesAntes, int instrucoesDepois, int bytesDepois, long nanos) {
+        this.nivel = nivel;
+        this.passos = List.copyOf(passos);
+        this.instrucoesAntes = instrucoesAntes;
+        this.bytesAntes = bytesAntes;
+        this.instrucoesDepois = instrucoesDepois;
+        this.bytesDepois = bytesDepois;
+        this.nanos = nanos;
+    }
+
+    public NivelOtimizacao getNivel() {
+        return nivel;
+    }
+
+    public List<Otimizacao> getPassos() {
+        return passos;
+    }
+
+    public int getInstrucoesAntes() {
+        return instrucoesAntes;
+    }
+
+    public int getInstrucoesDepois() {
+        return instrucoesDepois;
+    }
+
+    public int getInstrucoesRemovidas() {
+        return instrucoesAntes - instrucoesDepois;
+    }
+
+    public int getBytesAntes() {
+        return bytesAntes;
+    }
+
+    public int getBytesDepois() {
+        return bytesDepois;
+    }
+
+    public int getBytesRemovidos() {
+        return bytesAntes - bytesDepois;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d -> %d instruções (%d removidas), %d -> %d bytes (%d removidos), %.2f ms",
+                nivel.getRotulo(), instrucoesAntes, instrucoesDepois, getInstrucoesRemovidas(), bytesAntes,
+                bytesDepois, getBytesRemovidos(), nanos / 1e6);
+    }
+}
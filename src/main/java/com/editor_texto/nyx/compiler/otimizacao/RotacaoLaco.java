@@ -0,0 +1,82 @@
+package com.editor_texto.nyx.compiler.otimizacao;
+
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.perfil.PerfilExecucao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rotação de laços: transforma o 'while' testado no topo em um laço testado
+ * no final, protegido por um 'if' com a mesma condição.
+ *
+ * <pre>
+ * while c begin corpo end   =>   if c begin do corpo while c end
+ * </pre>
+ *
+ * Assim cada iteração executa um único salto condicional (de volta ao início)
+ * em vez de um salto condicional na entrada mais um incondicional no final.
+ *
+ * Com perfil, só rodam os laços que de fato repetem: um laço frio ou que em
+ * média nem chega a uma iteração por entrada ganharia só a guarda a mais.
+ */
+public class RotacaoLaco implements OtimizacaoArvore, GuiadaPorPerfil {
+
+    private boolean modificado;
+    private PerfilExecucao perfil;
+
+    @Override
+    public void setPerfil(PerfilExecucao perfil) {
+        this.perfil = perfil;
+    }
+
+    @Override
+    public boolean aplicar(NoPrograma programa) {
+        this.modificado = false;
+        processarLista(programa.getComandos());
+        return this.modificado;
+    }
+
+    @Override
+    public String getNome() {
+        return "Rotação de Laços";
+    }
+
+    private void processarLista(List<NoComando> comandos) {
+        for (int i = 0; i < comandos.size(); i++) {
+            NoComando comando = comandos.get(i);
+            if (comando instanceof NoSe se) {
+                processarLista(se.getEntao());
+                processarLista(se.getSenao());
+            } else if (comando instanceof NoEnquanto enquanto) {
+                processarLista(enquanto.getCorpo());
+                if (enquanto.isPosTestado() || !vale(enquanto)) {
+                    continue;
+                }
+                NoEnquanto rotacionado = new NoEnquanto(enquanto.getCondicao(), enquanto.getCorpo(), true,
+                        enquanto.getLinha());
+                // Com condição sempre verdadeira a guarda é desnecessária.
+                if (Boolean.TRUE.equals(AvaliadorConstante.avaliarCondicao(enquanto.getCondicao()))) {
+                    comandos.set(i, rotacionado);
+                } else {
+                    List<NoComando> entao = new ArrayList<>();
+                    entao.add(rotacionado);
+                    comandos.set(i, new NoSe(enquanto.getCondicao(), entao, new ArrayList<>(),
+                            enquanto.getLinha()));
+                }
+                this.modificado = true;
+            }
+        }
+    }
+
+    private boolean vale(NoEnquanto enquanto) {
+        if (perfil == null) {
+            return true;
+        }
+        double media = GuiadaPorPerfil.mediaIteracoes(perfil, enquanto);
+        return !GuiadaPorPerfil.isFrio(perfil, enquanto) && (media < 0 || media >= 1);
+    }
+}
@@ -0,0 +1,76 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bloco básico do código Assembly: rótulos de entrada, instruções sem desvio
+ * (linhas vazias incluídas, para preservar o layout) e, opcionalmente, o
+ * desvio que o encerra (jmp, jcc ou ret).
+ */
+public class BlocoBasico {
+
+    private final List<String> rotulos = new ArrayList<>();
+    private final List<Instrucao> corpo = new ArrayList<>();
+    private Instrucao salto;
+
+    public List<String> getRotulos() {
+        return rotulos;
+    }
+
+    public List<Instrucao> getCorpo() {
+        return corpo;
+    }
+
+    public Instrucao getSalto() {
+        return salto;
+    }
+
+    public void setSalto(Instrucao salto) {
+        this.salto = salto;
+    }
+
+    // Sem instruções no corpo (só rótulos e linhas vazias).
+    public boolean isVazio() {
+        for (Instrucao instrucao : corpo) {
+            if (instrucao.isInstrucao()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // O fluxo nunca continua no bloco seguinte.
+    public boolean isIncondicional() {
+        return salto != null && (salto.is("jmp") || salto.is("ret"));
+    }
+
+    // Rótulo de destino do desvio, ou null (sem desvio ou ret).
+    public String getDestino() {
+        return salto != null && salto.isSalto() ? salto.getOperando(0).getTexto() : null;
+    }
+
+    public void setDestino(String rotulo) {
+        salto = Instrucao.instrucao(salto.getMnemonico(), new Operando(TipoOperando.ROTULO, rotulo));
+    }
+
+    public int contarInstrucoes() {
+        int total = salto != null ? 1 : 0;
+        for (Instrucao instrucao : corpo) {
+            if (instrucao.isInstrucao()) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    void adicionarLinhas(List<Instrucao> saida) {
+        for (String rotulo : rotulos) {
+            saida.add(Instrucao.rotulo(rotulo));
+        }
+        saida.addAll(corpo);
+        if (salto != null) {
+            saida.add(salto);
+        }
+    }
+}
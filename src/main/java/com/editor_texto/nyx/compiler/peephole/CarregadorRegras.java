@@ -0,0 +1,191 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lê regras peephole escritas em texto, uma por linha:
+ *
+ * <pre>
+ * # comentário
+ * nome: padrão => substituição
+ * soma-zero: add $r, 0 =>
+ * salto-proxima-linha: jmp $l ; $l: => $l:
+ * </pre>
+ *
+ * Instruções são separadas por ';'. '$x' casa qualquer operando e '$x:reg',
+ * '$x:imm', '$x:mem' e '$x:rot' restringem o tipo; '$x:var' casa só uma
+ * variável escrita pelo nome. Um rótulo é escrito como '$l:'. Substituição
+ * vazia remove as linhas casadas. Uma condição no fim exige registradores ou
+ * flags sem uso depois das linhas casadas:
+ *
+ * <pre>
+ * incremento: mov eax, $a:var ; add eax, 1 ; mov $a, eax => inc $a | morto eax, flags
+ * </pre>
+ */
+public class CarregadorRegras {
+
+    // Regras padrão distribuídas junto com o compilador.
+    public static final String RECURSO_PADRAO = "/peephole/regras.txt";
+    // Regras geradas pelo Superotimizador, carregadas depois das padrão.
+    public static final String RECURSO_SUPEROTIMIZADOR = "/peephole/regras_superotimizador.txt";
+
+    private static final String CONDICAO_MORTO = "morto";
+
+    private CarregadorRegras() {
+    }
+
+    public static List<RegraPeephole> carregarPadrao() {
+        List<RegraPeephole> regras = carregarRecurso(RECURSO_PADRAO);
+        regras.addAll(carregarRecurso(RECURSO_SUPEROTIMIZADOR));
+        return regras;
+    }
+
+    private static List<RegraPeephole> carregarRecurso(String recurso) {
+        try (InputStream entrada = CarregadorRegras.class.getResourceAsStream(recurso)) {
+            if (entrada == null) {
+                return new ArrayList<>();
+            }
+            return carregar(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao ler as regras peephole: " + e.getMessage(), e);
+        }
+    }
+
+    public static List<RegraPeephole> carregar(String texto) {
+        try {
+            return carregar(new StringReader(texto));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static List<RegraPeephole> carregar(Reader leitor) throws IOException {
+        List<RegraPeephole> regras = new ArrayList<>();
+        BufferedReader entrada = new BufferedReader(leitor);
+        String linha;
+        int numero = 0;
+        while ((linha = entrada.readLine()) != null) {
+            numero++;
+            String texto = linha.trim();
+            if (texto.isEmpty() || texto.startsWith("#")) {
+                continue;
+            }
+            regras.add(lerRegra(texto, numero));
+        }
+        return regras;
+    }
+
+    private static RegraPadrao lerRegra(String texto, int numero) {
+        int doisPontos = texto.indexOf(':');
+        int seta = texto.indexOf("=>");
+        if (doisPontos < 0 || seta < doisPontos) {
+            throw erro(numero, "esperado 'nome: padrão => substituição'");
+        }
+        String nome = texto.substring(0, doisPontos).trim();
+        int barra = texto.indexOf('|', seta);
+        String textoSubstituicao = barra < 0 ? texto.substring(seta + 2) : texto.substring(seta + 2, barra);
+        List<RegraPadrao.Modelo> padrao = lerModelos(texto.substring(doisPontos + 1, seta), numero);
+        List<RegraPadrao.Modelo> substituicao = lerModelos(textoSubstituicao, numero);
+        if (padrao.isEmpty()) {
+            throw erro(numero, "padrão vazio");
+        }
+        List<String> mortos = barra < 0 ? List.of() : lerMortos(texto.substring(barra + 1), numero);
+
+        Set<String> variaveisPadrao = new HashSet<>();
+        coletarVariaveis(texto.substring(doisPontos + 1, seta), variaveisPadrao);
+        Set<String> variaveisSubstituicao = new HashSet<>();
+        coletarVariaveis(textoSubstituicao, variaveisSubstituicao);
+        variaveisSubstituicao.removeAll(variaveisPadrao);
+        if (!variaveisSubstituicao.isEmpty()) {
+            throw erro(numero, "variáveis sem valor na substituição: " + variaveisSubstituicao);
+        }
+        return new RegraPadrao(nome, padrao, substituicao, mortos);
+    }
+
+    // 'morto eax, ecx, flags': registradores de 32 bits ou as flags.
+    private static List<String> lerMortos(String texto, int numero) {
+        String condicao = texto.trim();
+        if (!condicao.startsWith(CONDICAO_MORTO + " ")) {
+            throw erro(numero, "condição desconhecida '" + condicao + "'");
+        }
+        List<String> mortos = new ArrayList<>();
+        for (String parte : condicao.substring(CONDICAO_MORTO.length()).split(",")) {
+            String morto = parte.trim().toLowerCase();
+            if (!morto.equals(RegraPadrao.FLAGS) && !Operando.isRegistrador32(morto)) {
+                throw erro(numero, "'" + morto + "' não é registrador de 32 bits nem flags");
+            }
+            mortos.add(morto);
+        }
+        return mortos;
+    }
+
+    private static List<RegraPadrao.Modelo> lerModelos(String texto, int numero) {
+        List<RegraPadrao.Modelo> modelos = new ArrayList<>();
+        for (String parte : texto.split(";")) {
+            String linha = parte.trim();
+            if (linha.isEmpty()) {
+                continue;
+            }
+            if (linha.endsWith(":")) {
+                String rotulo = linha.substring(0, linha.length() - 1).trim();
+                modelos.add(new RegraPadrao.Modelo(true, null, List.of(lerOperando(rotulo, numero))));
+                continue;
+            }
+            int espaco = linha.indexOf(' ');
+            String mnemonico = (espaco < 0 ? linha : linha.substring(0, espaco)).toLowerCase();
+            List<RegraPadrao.ModeloOperando> operandos = new ArrayList<>();
+            if (espaco >= 0) {
+                for (String operando : linha.substring(espaco + 1).split(",")) {
+                    operandos.add(lerOperando(operando.trim(), numero));
+                }
+            }
+            modelos.add(new RegraPadrao.Modelo(false, mnemonico, operandos));
+        }
+        return modelos;
+    }
+
+    private static RegraPadrao.ModeloOperando lerOperando(String texto, int numero) {
+        if (!texto.startsWith("$")) {
+            return RegraPadrao.ModeloOperando.fixo(texto);
+        }
+        int separador = texto.indexOf(':');
+        if (separador < 0) {
+            return RegraPadrao.ModeloOperando.variavel(texto, null);
+        }
+        String nome = texto.substring(0, separador);
+        if (texto.substring(separador + 1).equals("var")) {
+            return RegraPadrao.ModeloOperando.variavelSimples(nome);
+        }
+        TipoOperando tipo = switch (texto.substring(separador + 1)) {
+            case "reg" -> TipoOperando.REGISTRADOR;
+            case "imm" -> TipoOperando.IMEDIATO;
+            case "mem" -> TipoOperando.MEMORIA;
+            case "rot" -> TipoOperando.ROTULO;
+            default -> throw erro(numero, "tipo de operando desconhecido em '" + texto + "'");
+        };
+        return RegraPadrao.ModeloOperando.variavel(nome, tipo);
+    }
+
+    private static void coletarVariaveis(String texto, Set<String> variaveis) {
+        for (String parte : texto.split("[;,\\s]+")) {
+            if (parte.startsWith("$")) {
+                int separador = parte.indexOf(':');
+                variaveis.add(separador < 0 ? parte : parte.substring(0, separador));
+            }
+        }
+    }
+
+    private static IllegalArgumentException erro(int numero, String mensagem) {
+        return new IllegalArgumentException("Regra peephole inválida na linha " + numero + ": " + mensagem);
+    }
+}
@@ -0,0 +1,126 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.List;
+
+/**
+ * Custo estático de uma instrução em ciclos, com valores da ordem dos
+ * medidos em núcleos x86 recentes (tabelas de Agner Fog): latência, até o
+ * resultado estar disponível para a instrução seguinte que depende dele, e
+ * vazão recíproca, o custo quando há instruções independentes em paralelo.
+ * Ler um operando de memória soma uma carga; escrever, um store. Chamadas
+ * contam só o call e os push dos argumentos, não a rotina chamada.
+ *
+ * É mais detalhada que a tabela de EscalonadorInstrucoes.latencia(), que é o
+ * modelo em ordem usado só para decidir a reordenação.
+ */
+public final class CustoInstrucao {
+
+    // Carga do cache L1.
+    private static final double LATENCIA_CARGA = 4;
+    private static final double VAZAO_CARGA = 0.5;
+    private static final double VAZAO_STORE = 1;
+    // 'pop' logo depois do 'push' que gravou o valor: a carga vem do
+    // encaminhamento do store, mais lento que um mov entre registradores.
+    private static final double LATENCIA_POP = 5;
+
+    public static final CustoInstrucao ZERO = new CustoInstrucao(0, 0);
+
+    private final double latencia;
+    private final double vazao;
+
+    private CustoInstrucao(double latencia, double vazao) {
+        this.latencia = latencia;
+        this.vazao = vazao;
+    }
+
+    public double getLatencia() {
+        return latencia;
+    }
+
+    public double getVazao() {
+        return vazao;
+    }
+
+    public static CustoInstrucao de(Instrucao instrucao) {
+        if (!instrucao.isInstrucao() || instrucao.is("align")) {
+            return ZERO;
+        }
+        String mnemonico = instrucao.getMnemonico();
+        List<Operando> operandos = instrucao.getOperandos();
+        Operando destino = instrucao.getOperando(0);
+        Operando origem = instrucao.getOperando(1);
+
+        if (mnemonico.equals("invoke")) {
+            // Um push por argumento e o call.
+            double latencia = 3;
+            double vazao = 2;
+            for (int i = 1; i < operandos.size(); i++) {
+                boolean carga = operandos.get(i).isMemoria();
+                latencia += carga ? 1 + LATENCIA_CARGA : 1;
+                vazao += VAZAO_STORE;
+            }
+            return new CustoInstrucao(latencia, vazao);
+        }
+        if (mnemonico.equals("push")) {
+            return new CustoInstrucao(destino.isMemoria() ? 1 + LATENCIA_CARGA : 1, VAZAO_STORE);
+        }
+        if (mnemonico.equals("pop")) {
+            return new CustoInstrucao(LATENCIA_POP, destino.isMemoria() ? VAZAO_STORE : VAZAO_CARGA);
+        }
+
+        double[] base = base(mnemonico, operandos);
+        // O destino de mov, movzx, movsx, lea e setcc só é escrito; o de cmp e
+        // test só é lido; nos demais é lido e escrito.
+        boolean soEscrita = mnemonico.equals("mov") || mnemonico.equals("movzx") || mnemonico.equals("movsx")
+                || mnemonico.equals("lea") || mnemonico.startsWith("set");
+        boolean soLeitura = mnemonico.equals("cmp") || mnemonico.equals("test") || instrucao.isSalto()
+                || mnemonico.equals("call");
+        boolean carga = (origem != null && origem.isMemoria() && !mnemonico.equals("lea"))
+                || (destino != null && destino.isMemoria() && !soEscrita);
+        boolean store = destino != null && destino.isMemoria() && !soLeitura;
+
+        double latencia = base[0] + (carga ? LATENCIA_CARGA : 0) + (carga && store ? 1 : 0);
+        double vazao = Math.max(base[1], Math.max(carga ? VAZAO_CARGA : 0, store ? VAZAO_STORE : 0));
+        return new CustoInstrucao(latencia, vazao);
+    }
+
+    // Latência e vazão recíproca com operandos em registradores.
+    private static double[] base(String mnemonico, List<Operando> operandos) {
+        switch (mnemonico) {
+            case "mov", "movzx", "movsx", "add", "sub", "and", "or", "xor", "cmp", "test", "inc", "dec", "neg",
+                    "not":
+                return new double[] { 1, 0.25 };
+            case "adc", "sbb", "lea", "cdq":
+                return new double[] { 1, 0.5 };
+            case "xchg":
+                return new double[] { 2, 1 };
+            case "imul":
+                return operandos.size() == 1 ? new double[] { 4, 1 } : new double[] { 3, 1 };
+            case "mul":
+                return new double[] { 4, 1 };
+            case "idiv", "div":
+                return new double[] { 26, 6 };
+            case "shl", "sal", "shr", "sar", "rol", "ror": {
+                Operando contagem = operandos.size() > 1 ? operandos.get(1) : null;
+                return contagem != null && contagem.isRegistrador() ? new double[] { 2, 1 }
+                        : new double[] { 1, 0.5 };
+            }
+            case "jmp":
+                return new double[] { 1, 1 };
+            case "call":
+                return new double[] { 3, 2 };
+            case "ret":
+                return new double[] { 2, 1 };
+            case "nop":
+                return new double[] { 0, 0.25 };
+            case "rdtsc":
+                return new double[] { 25, 25 };
+            default:
+                break;
+        }
+        if (mnemonico.startsWith("j") || mnemonico.startsWith("set") || mnemonico.startsWith("cmov")) {
+            return new double[] { 1, 0.5 };
+        }
+        return new double[] { 1, 1 };
+    }
+}
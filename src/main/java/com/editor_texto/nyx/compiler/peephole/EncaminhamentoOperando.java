@@ -0,0 +1,92 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Leva o valor de um 'mov R, X' direto para a instrução que consome R, quando
+ * R não é usado no meio nem lido depois:
+ *
+ * <pre>
+ * mov ebx, 1                                mov eax, 0
+ * mov eax, k        =>  mov eax, k          mov s, eax    =>  mov s, 0
+ * add eax, ebx          add eax, 1          (eax morto)
+ * </pre>
+ *
+ * X pode ser imediato, variável ou registrador. Cobre o imediato empilhado
+ * por gerarOp e a cauda 'pop eax; mov var, eax' das atribuições.
+ */
+public class EncaminhamentoOperando implements RegraPeephole {
+
+    // Instruções de dois operandos que aceitam imediato ou memória no segundo.
+    private static final Set<String> CONSUMIDORAS = Set.of("mov", "add", "sub", "and", "or", "xor", "adc", "sbb",
+            "cmp", "test", "imul");
+
+    private final int tamanho;
+
+    // 'tamanho' inclui o mov e a instrução consumidora; precisa ser pelo menos 2.
+    public EncaminhamentoOperando(int tamanho) {
+        if (tamanho < 2) {
+            throw new IllegalArgumentException("Tamanho mínimo da regra é 2: " + tamanho);
+        }
+        this.tamanho = tamanho;
+    }
+
+    @Override
+    public String getNome() {
+        return "operando-encaminhado";
+    }
+
+    @Override
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    @Override
+    public List<Instrucao> reescrever(List<Instrucao> janela, List<Instrucao> seguintes) {
+        Instrucao carga = janela.get(0);
+        Instrucao consumidora = janela.get(tamanho - 1);
+        if (!carga.is("mov") || carga.getOperandos().size() != 2 || !consumidora.isInstrucao()
+                || !CONSUMIDORAS.contains(consumidora.getMnemonico()) || consumidora.getOperandos().size() != 2) {
+            return null;
+        }
+        Operando registrador = carga.getOperando(0);
+        Operando valor = carga.getOperando(1);
+        String nome = registrador.getTexto();
+        if (!Operando.isRegistrador32(nome) || nome.equals("esp") || !EncaminhamentoPilha.isOrigemSimples(valor)
+                || valor.equals(registrador)) {
+            return null;
+        }
+
+        Operando destino = consumidora.getOperando(0);
+        if (!consumidora.getOperando(1).equals(registrador) || UsoRegistradores.menciona(destino, nome)) {
+            return null;
+        }
+        // x86 não tem instrução com dois operandos de memória.
+        if (valor.isMemoria() && destino.isMemoria()) {
+            return null;
+        }
+
+        List<Instrucao> meio = janela.subList(1, tamanho - 1);
+        for (Instrucao instrucao : meio) {
+            if (!UsoRegistradores.isSimples(instrucao) || UsoRegistradores.le(instrucao, nome)
+                    || UsoRegistradores.escreve(instrucao, nome)) {
+                return null;
+            }
+            if (valor.isRegistrador() && UsoRegistradores.escreve(instrucao, valor.getTexto())) {
+                return null;
+            }
+            if (valor.isMemoria() && UsoRegistradores.escreveMemoria(instrucao)) {
+                return null;
+            }
+        }
+        if (!UsoRegistradores.isMorto(nome, seguintes)) {
+            return null;
+        }
+
+        List<Instrucao> resultado = new ArrayList<>(meio);
+        resultado.add(Instrucao.instrucao(consumidora.getMnemonico(), destino, valor));
+        return resultado;
+    }
+}
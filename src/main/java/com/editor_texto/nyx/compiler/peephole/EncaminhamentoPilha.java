@@ -0,0 +1,85 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Elimina um 'push X' e o 'pop R' correspondente quando entre eles só há
+ * instruções simples que não usam a pilha nem alteram X:
+ *
+ * <pre>
+ * push s              mov ebx, 1
+ * mov ebx, 1    =>    mov eax, s
+ * pop eax
+ * </pre>
+ *
+ * É o padrão deixado por gerarOp depois que o par interno já virou 'mov'. O
+ * par sem nada no meio é tratado pelas regras de texto (push-pop).
+ */
+public class EncaminhamentoPilha implements RegraPeephole {
+
+    private final int tamanho;
+
+    // 'tamanho' inclui o push e o pop; precisa ser pelo menos 3.
+    public EncaminhamentoPilha(int tamanho) {
+        if (tamanho < 3) {
+            throw new IllegalArgumentException("Tamanho mínimo da regra é 3: " + tamanho);
+        }
+        this.tamanho = tamanho;
+    }
+
+    @Override
+    public String getNome() {
+        return "push-pop-distante";
+    }
+
+    @Override
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    @Override
+    public List<Instrucao> reescrever(List<Instrucao> janela, List<Instrucao> seguintes) {
+        Instrucao push = janela.get(0);
+        Instrucao pop = janela.get(tamanho - 1);
+        if (!push.is("push") || !pop.is("pop") || push.getOperandos().size() != 1
+                || pop.getOperandos().size() != 1) {
+            return null;
+        }
+        Operando valor = push.getOperando(0);
+        Operando destino = pop.getOperando(0);
+        if (!Operando.isRegistrador32(destino.getTexto()) || destino.getTexto().equals("esp")
+                || !isOrigemSimples(valor)) {
+            return null;
+        }
+
+        List<Instrucao> meio = janela.subList(1, tamanho - 1);
+        for (Instrucao instrucao : meio) {
+            if (!UsoRegistradores.isSimples(instrucao)) {
+                return null;
+            }
+            if (valor.isRegistrador() && UsoRegistradores.escreve(instrucao, valor.getTexto())) {
+                return null;
+            }
+            if (valor.isMemoria() && UsoRegistradores.escreveMemoria(instrucao)) {
+                return null;
+            }
+        }
+
+        List<Instrucao> resultado = new ArrayList<>(meio);
+        if (!valor.equals(destino)) {
+            resultado.add(Instrucao.instrucao("mov", destino, valor));
+        }
+        return resultado;
+    }
+
+    // Registrador de 32 bits, imediato ou variável sem endereçamento indireto.
+    static boolean isOrigemSimples(Operando operando) {
+        return switch (operando.getTipo()) {
+            case REGISTRADOR -> Operando.isRegistrador32(operando.getTexto()) && !operando.getTexto().equals("esp");
+            case IMEDIATO -> true;
+            case MEMORIA -> !operando.getTexto().contains("[");
+            case ROTULO -> false;
+        };
+    }
+}
@@ -0,0 +1,342 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Escalonamento de instruções por lista dentro de cada bloco básico. Monta o
+ * grafo de dependências (registradores, flags, variáveis em memória e a
+ * pilha) e reordena instruções independentes para que cargas de memória,
+ * imul e idiv tenham tempo de terminar antes de seu resultado ser usado.
+ *
+ * O modelo é de um processador em ordem que emite uma instrução por ciclo,
+ * com as latências de latencia(). Chamadas (invoke), linhas vazias e
+ * instruções desconhecidas são barreiras: nada atravessa. Um bloco só é
+ * reordenado se o custo estimado diminuir.
+ */
+public class EscalonadorInstrucoes {
+
+    private static final String[] REGISTRADORES = { "eax", "ebx", "ecx", "edx", "esi", "edi", "ebp", "esp" };
+    private static final String FLAGS = "flags";
+    private static final String MEMORIA = "m:";
+    private static final String PILHA = "m:pilha";
+    // Memória acessada por endereço calculado: pode ser qualquer variável.
+    private static final String MEMORIA_QUALQUER = "m:*";
+
+    private static final Set<String> ESCREVEM_FLAGS = Set.of("add", "sub", "and", "or", "xor", "adc", "sbb",
+            "cmp", "test", "imul", "idiv", "div", "mul", "shl", "shr", "sar", "sal", "rol", "ror", "neg", "inc",
+            "dec");
+
+    /**
+     * Reordena o código no lugar e registra em 'estatisticas' cada bloco
+     * alterado. Retorna false se nada mudou.
+     */
+    public boolean otimizar(List<Instrucao> codigo, EstatisticasPeephole estatisticas) {
+        long inicio = System.nanoTime();
+        GrafoFluxo grafo = GrafoFluxo.construir(codigo);
+        if (grafo == null) {
+            return false;
+        }
+        estatisticas.registrarIteracao();
+        boolean alterou = false;
+        for (BlocoBasico bloco : grafo.getBlocos()) {
+            List<Instrucao> corpo = bloco.getCorpo();
+            List<Instrucao> resultado = new ArrayList<>(corpo.size());
+            List<Instrucao> trecho = new ArrayList<>();
+            for (Instrucao instrucao : corpo) {
+                if (isEscalonavel(instrucao)) {
+                    trecho.add(instrucao);
+                    continue;
+                }
+                alterou |= escalonarTrecho(trecho, resultado, estatisticas);
+                resultado.add(instrucao);
+            }
+            alterou |= escalonarTrecho(trecho, resultado, estatisticas);
+            corpo.clear();
+            corpo.addAll(resultado);
+        }
+        if (alterou) {
+            List<Instrucao> linearizado = grafo.linearizar();
+            codigo.clear();
+            codigo.addAll(linearizado);
+        }
+        int total = 0;
+        for (Instrucao instrucao : codigo) {
+            total += instrucao.isInstrucao() ? 1 : 0;
+        }
+        estatisticas.registrarTamanhos(total, total);
+        estatisticas.registrarTempo(System.nanoTime() - inicio);
+        return alterou;
+    }
+
+    // Escalona 'trecho' (que é esvaziado) e adiciona o resultado em 'saida'.
+    private boolean escalonarTrecho(List<Instrucao> trecho, List<Instrucao> saida,
+            EstatisticasPeephole estatisticas) {
+        List<Instrucao> ordem = escalonar(trecho);
+        boolean mudou = !ordem.equals(trecho);
+        if (mudou) {
+            estatisticas.registrarAplicacao("bloco-escalonado");
+        }
+        saida.addAll(ordem);
+        trecho.clear();
+        return mudou;
+    }
+
+    /**
+     * Retorna as instruções do trecho na nova ordem (ou na original, se o
+     * escalonamento não reduzir o custo estimado).
+     */
+    public List<Instrucao> escalonar(List<Instrucao> trecho) {
+        int n = trecho.size();
+        if (n < 3) {
+            return new ArrayList<>(trecho);
+        }
+        Recursos[] recursos = new Recursos[n];
+        int[] latencias = new int[n];
+        for (int i = 0; i < n; i++) {
+            recursos[i] = new Recursos(trecho.get(i));
+            latencias[i] = latencia(trecho.get(i));
+        }
+
+        // atraso[i][j] > 0: j depende de i e só pode começar 'atraso' ciclos
+        // depois dele (latência para dados, 1 só para manter a ordem).
+        int[][] atraso = new int[n][n];
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < j; i++) {
+                if (recursos[i].produzPara(recursos[j])) {
+                    atraso[i][j] = latencias[i];
+                } else if (recursos[i].conflita(recursos[j])) {
+                    atraso[i][j] = 1;
+                }
+            }
+        }
+
+        // Prioridade: caminho mais longo até o fim do trecho.
+        int[] prioridade = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            prioridade[i] = latencias[i];
+            for (int j = i + 1; j < n; j++) {
+                if (atraso[i][j] > 0) {
+                    prioridade[i] = Math.max(prioridade[i], atraso[i][j] + prioridade[j]);
+                }
+            }
+        }
+
+        int[] inicio = new int[n];
+        boolean[] escalonada = new boolean[n];
+        List<Integer> ordem = new ArrayList<>(n);
+        int ciclo = 0;
+        for (int passo = 0; passo < n; passo++) {
+            int escolhida = -1;
+            int melhorInicio = 0;
+            for (int j = 0; j < n; j++) {
+                if (escalonada[j] || !isPronta(j, atraso, escalonada)) {
+                    continue;
+                }
+                int cedo = ciclo;
+                for (int i = 0; i < j; i++) {
+                    if (atraso[i][j] > 0) {
+                        cedo = Math.max(cedo, inicio[i] + atraso[i][j]);
+                    }
+                }
+                if (escolhida < 0 || cedo < melhorInicio
+                        || (cedo == melhorInicio && prioridade[j] > prioridade[escolhida])) {
+                    escolhida = j;
+                    melhorInicio = cedo;
+                }
+            }
+            escalonada[escolhida] = true;
+            inicio[escolhida] = melhorInicio;
+            ciclo = melhorInicio + 1;
+            ordem.add(escolhida);
+        }
+
+        List<Integer> original = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            original.add(i);
+        }
+        if (custo(ordem, atraso, latencias) >= custo(original, atraso, latencias)) {
+            return new ArrayList<>(trecho);
+        }
+        List<Instrucao> resultado = new ArrayList<>(n);
+        for (int indice : ordem) {
+            resultado.add(trecho.get(indice));
+        }
+        return resultado;
+    }
+
+    private boolean isPronta(int j, int[][] atraso, boolean[] escalonada) {
+        for (int i = 0; i < j; i++) {
+            if (atraso[i][j] > 0 && !escalonada[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Ciclos até a última instrução terminar, emitindo na ordem dada.
+    private int custo(List<Integer> ordem, int[][] atraso, int[] latencias) {
+        int[] inicio = new int[latencias.length];
+        int ciclo = 0;
+        int fim = 0;
+        for (int j : ordem) {
+            int cedo = ciclo;
+            for (int i = 0; i < j; i++) {
+                if (atraso[i][j] > 0) {
+                    cedo = Math.max(cedo, inicio[i] + atraso[i][j]);
+                }
+            }
+            inicio[j] = cedo;
+            ciclo = cedo + 1;
+            fim = Math.max(fim, cedo + latencias[j]);
+        }
+        return fim;
+    }
+
+    /**
+     * Tabela de latências (ciclos até o resultado estar disponível) do
+     * subconjunto emitido pelo GeradorAssembly. Ler um operando de memória
+     * soma o custo de uma carga.
+     */
+    public static int latencia(Instrucao instrucao) {
+        String mnemonico = instrucao.getMnemonico();
+        int base = switch (mnemonico) {
+            case "idiv", "div" -> 20;
+            case "imul", "mul" -> 3;
+            case "pop" -> 3;
+            default -> mnemonico.startsWith("cmov") ? 2 : 1;
+        };
+        return new Recursos(instrucao).leMemoria ? base + 2 : base;
+    }
+
+    private boolean isEscalonavel(Instrucao instrucao) {
+        return UsoRegistradores.isSimples(instrucao) || instrucao.is("push") || instrucao.is("pop");
+    }
+
+    /**
+     * Recursos lidos e escritos por uma instrução: registradores de 32 bits,
+     * flags, variáveis ("m:nome") e a pilha.
+     */
+    private static final class Recursos {
+        private final Set<String> leituras = new HashSet<>();
+        private final Set<String> escritas = new HashSet<>();
+        private boolean leMemoria;
+
+        Recursos(Instrucao instrucao) {
+            String mnemonico = instrucao.getMnemonico();
+            List<Operando> operandos = instrucao.getOperandos();
+            if (mnemonico.equals("push") || mnemonico.equals("pop")) {
+                leituras.add("esp");
+                escritas.add("esp");
+                // A pilha é memória: [esp+4] e endereços calculados também a alcançam.
+                Operando operando = instrucao.getOperando(0);
+                if (mnemonico.equals("push")) {
+                    escritas.add(PILHA);
+                    registrarLeitura(operando);
+                } else {
+                    leituras.add(PILHA);
+                    leMemoria = true;
+                    if (operando.isRegistrador()) {
+                        escritas.add(UsoRegistradores.base(operando.getTexto()));
+                    } else {
+                        registrarEnderecos(operando);
+                        escritas.add(nomeMemoria(operando));
+                    }
+                }
+                return;
+            }
+
+            for (String registrador : REGISTRADORES) {
+                if (UsoRegistradores.le(instrucao, registrador)) {
+                    leituras.add(registrador);
+                }
+                if (UsoRegistradores.escreve(instrucao, registrador)) {
+                    escritas.add(registrador);
+                }
+            }
+            if (ESCREVEM_FLAGS.contains(mnemonico)) {
+                escritas.add(FLAGS);
+            }
+            if (mnemonico.equals("adc") || mnemonico.equals("sbb") || mnemonico.startsWith("set")
+                    || mnemonico.startsWith("cmov")) {
+                leituras.add(FLAGS);
+            }
+            if (mnemonico.equals("lea")) {
+                return; // Só calcula o endereço, sem acessar a memória.
+            }
+            for (int i = 0; i < operandos.size(); i++) {
+                Operando operando = operandos.get(i);
+                if (!operando.isMemoria()) {
+                    continue;
+                }
+                boolean somenteEscrita = i == 0
+                        && (mnemonico.equals("mov") || mnemonico.startsWith("set"));
+                if (i == 0 && UsoRegistradores.escreveMemoria(instrucao)) {
+                    escritas.add(nomeMemoria(operando));
+                }
+                if (!somenteEscrita) {
+                    leituras.add(nomeMemoria(operando));
+                    leMemoria = true;
+                }
+            }
+        }
+
+        private void registrarLeitura(Operando operando) {
+            if (operando.isRegistrador()) {
+                leituras.add(UsoRegistradores.base(operando.getTexto()));
+            } else if (operando.isMemoria()) {
+                registrarEnderecos(operando);
+                leituras.add(nomeMemoria(operando));
+                leMemoria = true;
+            }
+        }
+
+        private void registrarEnderecos(Operando operando) {
+            for (String registrador : REGISTRADORES) {
+                if (UsoRegistradores.menciona(operando, registrador)) {
+                    leituras.add(registrador);
+                }
+            }
+        }
+
+        private static String nomeMemoria(Operando operando) {
+            String texto = operando.getTexto();
+            return texto.contains("[") || texto.contains(" ") ? MEMORIA_QUALQUER : MEMORIA + texto;
+        }
+
+        // Dependência de dados: 'posterior' lê algo que esta instrução escreve.
+        boolean produzPara(Recursos posterior) {
+            return intersecta(escritas, posterior.leituras);
+        }
+
+        // Qualquer dependência (dados, antidependência ou saída).
+        boolean conflita(Recursos posterior) {
+            return intersecta(escritas, posterior.leituras) || intersecta(escritas, posterior.escritas)
+                    || intersecta(leituras, posterior.escritas);
+        }
+
+        private static boolean intersecta(Set<String> a, Set<String> b) {
+            for (String recurso : a) {
+                if (b.contains(recurso)) {
+                    return true;
+                }
+                if (recurso.startsWith(MEMORIA) && (recurso.equals(MEMORIA_QUALQUER) ? contemMemoria(b)
+                        : b.contains(MEMORIA_QUALQUER))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean contemMemoria(Set<String> recursos) {
+            for (String recurso : recursos) {
+                if (recurso.startsWith(MEMORIA)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contadores de uma execução do MotorPeephole: quantas vezes cada regra foi
+ * aplicada e o desempenho do próprio motor.
+ */
+public class EstatisticasPeephole {
+
+    private final Map<String, Integer> aplicacoes = new LinkedHashMap<>();
+    private int instrucoesAntes;
+    private int instrucoesDepois;
+    private int iteracoes;
+    private long janelasExaminadas;
+    private long nanos;
+
+    void registrarAplicacao(String regra) {
+        aplicacoes.merge(regra, 1, Integer::sum);
+    }
+
+    void registrarJanela() {
+        janelasExaminadas++;
+    }
+
+    void registrarIteracao() {
+        iteracoes++;
+    }
+
+    void registrarTamanhos(int antes, int depois) {
+        this.instrucoesAntes = antes;
+        this.instrucoesDepois = depois;
+    }
+
+    void registrarTempo(long nanos) {
+        this.nanos = nanos;
+    }
+
+    public Map<String, Integer> getAplicacoes() {
+        return aplicacoes;
+    }
+
+    public int getTotalAplicacoes() {
+        int total = 0;
+        for (int quantidade : aplicacoes.values()) {
+            total += quantidade;
+        }
+        return total;
+    }
+
+    public int getInstrucoesAntes() {
+        return instrucoesAntes;
+    }
+
+    public int getInstrucoesDepois() {
+        return instrucoesDepois;
+    }
+
+    public int getInstrucoesRemovidas() {
+        return instrucoesAntes - instrucoesDepois;
+    }
+
+    public int getIteracoes() {
+        return iteracoes;
+    }
+
+    public long getJanelasExaminadas() {
+        return janelasExaminadas;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    // Vazão do motor: instruções de entrada processadas por segundo.
+    public double getInstrucoesPorSegundo() {
+        return nanos == 0 ? 0 : instrucoesAntes * 1e9 / nanos;
+    }
+
+    public double getJanelasPorSegundo() {
+        return nanos == 0 ? 0 : janelasExaminadas * 1e9 / nanos;
+    }
+
+    public String gerarRelatorio() {
+        StringBuilder relatorio = new StringBuilder();
+        relatorio.append(String.format("Peephole: %d -> %d instruções (%d iterações, %.2f ms, %.0f instr/s, %.0f janelas/s)%n",
+                instrucoesAntes, instrucoesDepois, iteracoes, nanos / 1e6, getInstrucoesPorSegundo(),
+                getJanelasPorSegundo()));
+        for (Map.Entry<String, Integer> entrada : aplicacoes.entrySet()) {
+            relatorio.append(String.format("  %-30s %d%n", entrada.getKey(), entrada.getValue()));
+        }
+        return relatorio.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d regras aplicadas, %d instruções removidas", getTotalAplicacoes(),
+                getInstrucoesRemovidas());
+    }
+}
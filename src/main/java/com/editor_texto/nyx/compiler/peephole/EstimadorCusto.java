@@ -0,0 +1,84 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Estimativa estática de onde o programa gasta ciclos, sem executá-lo. Cada
+ * instrução custa o de CustoInstrucao multiplicado pelo peso do laço em que
+ * está (PESO_LACO por nível de aninhamento) e o custo é somado na linha LC
+ * que a originou, segundo o MapaFonte.
+ *
+ * Os laços são os trechos entre um rótulo e um salto de volta para ele, que
+ * é como o GeradorAssembly e as otimizações os emitem; o número de
+ * iterações não é conhecido, então o peso é só uma ordem de grandeza.
+ */
+public final class EstimadorCusto {
+
+    public static final int PESO_LACO = 10;
+    // Limita o peso de laços muito aninhados.
+    private static final int PROFUNDIDADE_MAXIMA = 6;
+
+    private EstimadorCusto() {
+    }
+
+    public static RelatorioCusto estimar(List<Instrucao> codigo, MapaFonte mapaFonte) {
+        return estimar(codigo, mapaFonte.resolver(codigo));
+    }
+
+    // 'linhas' dá a linha LC de cada posição de 'codigo'.
+    public static RelatorioCusto estimar(List<Instrucao> codigo, int[] linhas) {
+        int[] profundidade = profundidadeLacos(codigo);
+        Map<Integer, RelatorioCusto.Linha> porLinha = new TreeMap<>();
+        for (int i = 0; i < codigo.size(); i++) {
+            Instrucao instrucao = codigo.get(i);
+            if (!instrucao.isInstrucao() || instrucao.is("align")) {
+                continue;
+            }
+            int nivel = Math.min(profundidade[i], PROFUNDIDADE_MAXIMA);
+            double peso = Math.pow(PESO_LACO, nivel);
+            porLinha.computeIfAbsent(linhas[i], RelatorioCusto.Linha::new)
+                    .somar(instrucao, CustoInstrucao.de(instrucao), profundidade[i], peso);
+        }
+        return new RelatorioCusto(List.copyOf(porLinha.values()));
+    }
+
+    /**
+     * Quantos laços contêm cada posição do código: um salto para um rótulo
+     * que está antes dele (ou nele mesmo) fecha um laço que começa no rótulo.
+     */
+    static int[] profundidadeLacos(List<Instrucao> codigo) {
+        Map<String, Integer> rotulos = new HashMap<>();
+        for (int i = 0; i < codigo.size(); i++) {
+            if (codigo.get(i).isRotulo()) {
+                rotulos.put(codigo.get(i).getMnemonico(), i);
+            }
+        }
+        // Vários saltos de volta para o mesmo rótulo são um laço só, até o último.
+        Map<Integer, Integer> fimLaco = new HashMap<>();
+        for (int i = 0; i < codigo.size(); i++) {
+            Instrucao instrucao = codigo.get(i);
+            if (!instrucao.isSalto() || instrucao.getOperando(0) == null) {
+                continue;
+            }
+            Integer inicio = rotulos.get(instrucao.getOperando(0).getTexto());
+            if (inicio != null && inicio <= i) {
+                fimLaco.put(inicio, i);
+            }
+        }
+        int[] delta = new int[codigo.size() + 1];
+        fimLaco.forEach((inicio, fim) -> {
+            delta[inicio]++;
+            delta[fim + 1]--;
+        });
+        int[] profundidade = new int[codigo.size()];
+        int atual = 0;
+        for (int i = 0; i < codigo.size(); i++) {
+            atual += delta[i];
+            profundidade[i] = atual;
+        }
+        return profundidade;
+    }
+}
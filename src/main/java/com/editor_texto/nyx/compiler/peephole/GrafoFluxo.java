@@ -0,0 +1,169 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grafo de fluxo de controle da seção de código: a sequência de blocos
+ * básicos na ordem do arquivo. Um bloco começa em um rótulo (rótulos
+ * consecutivos ficam no mesmo bloco) ou logo após um desvio. As diretivas
+ * antes e depois do código (cabeçalho, .data, 'end start') são guardadas à
+ * parte e devolvidas intactas por linearizar().
+ */
+public class GrafoFluxo {
+
+    private final List<Instrucao> prefixo = new ArrayList<>();
+    private final List<BlocoBasico> blocos = new ArrayList<>();
+    private final List<Instrucao> sufixo = new ArrayList<>();
+    private final Map<String, Integer> indices = new HashMap<>();
+    // Rótulos citados fora do código (ex: o ponto de entrada em 'end start').
+    private final Set<String> rotulosExternos = new HashSet<>();
+
+    private GrafoFluxo() {
+    }
+
+    /**
+     * Constrói o grafo, ou retorna null se o código tiver algo que o grafo não
+     * representa com segurança: diretivas no meio do código ou saltos
+     * indiretos (jmp eax).
+     */
+    public static GrafoFluxo construir(List<Instrucao> codigo) {
+        GrafoFluxo grafo = new GrafoFluxo();
+        // O código começa após a última diretiva que antecede o primeiro
+        // rótulo ou instrução.
+        int inicio = 0;
+        for (int i = 0; i < codigo.size() && !isCodigo(codigo.get(i)); i++) {
+            if (codigo.get(i).getTipo() == Instrucao.Tipo.DIRETIVA) {
+                inicio = i + 1;
+            }
+        }
+        grafo.prefixo.addAll(codigo.subList(0, inicio));
+        int fim = codigo.size();
+        while (fim > inicio && !isCodigo(codigo.get(fim - 1))) {
+            fim--;
+        }
+        // Linhas vazias logo antes de 'end start' ficam no último bloco.
+        while (fim < codigo.size() && codigo.get(fim).getTipo() == Instrucao.Tipo.VAZIA) {
+            fim++;
+        }
+        grafo.sufixo.addAll(codigo.subList(fim, codigo.size()));
+
+        BlocoBasico atual = new BlocoBasico();
+        grafo.blocos.add(atual);
+        for (Instrucao instrucao : codigo.subList(inicio, fim)) {
+            switch (instrucao.getTipo()) {
+                case DIRETIVA:
+                    return null;
+                case ROTULO:
+                    if (!atual.getCorpo().isEmpty() || atual.getSalto() != null) {
+                        atual = new BlocoBasico();
+                        grafo.blocos.add(atual);
+                    }
+                    atual.getRotulos().add(instrucao.getMnemonico());
+                    break;
+                case VAZIA:
+                    if (atual.getSalto() != null) {
+                        atual = new BlocoBasico();
+                        grafo.blocos.add(atual);
+                    }
+                    atual.getCorpo().add(instrucao);
+                    break;
+                default:
+                    if (atual.getSalto() != null) {
+                        atual = new BlocoBasico();
+                        grafo.blocos.add(atual);
+                    }
+                    if (instrucao.isSalto() || instrucao.is("ret")) {
+                        if (instrucao.isSalto() && (instrucao.getOperandos().size() != 1
+                                || instrucao.getOperando(0).getTipo() != TipoOperando.ROTULO)) {
+                            return null;
+                        }
+                        atual.setSalto(instrucao);
+                    } else {
+                        atual.getCorpo().add(instrucao);
+                    }
+            }
+        }
+
+        for (Instrucao instrucao : grafo.prefixo) {
+            grafo.registrarExternos(instrucao);
+        }
+        for (Instrucao instrucao : grafo.sufixo) {
+            grafo.registrarExternos(instrucao);
+        }
+        grafo.reindexar();
+        return grafo;
+    }
+
+    private static boolean isCodigo(Instrucao instrucao) {
+        return instrucao.isInstrucao() || instrucao.isRotulo();
+    }
+
+    private void registrarExternos(Instrucao diretiva) {
+        for (String parte : diretiva.toString().split("[\\s,]+")) {
+            rotulosExternos.add(parte);
+        }
+    }
+
+    public List<BlocoBasico> getBlocos() {
+        return blocos;
+    }
+
+    public boolean isExterno(String rotulo) {
+        return rotulosExternos.contains(rotulo);
+    }
+
+    // Atualiza o índice rótulo -> bloco; chamar após mover ou remover blocos.
+    public void reindexar() {
+        indices.clear();
+        for (int i = 0; i < blocos.size(); i++) {
+            for (String rotulo : blocos.get(i).getRotulos()) {
+                indices.put(rotulo, i);
+            }
+        }
+    }
+
+    // Índice do bloco que começa no rótulo, ou -1.
+    public int indiceDe(String rotulo) {
+        Integer indice = indices.get(rotulo);
+        return indice == null ? -1 : indice;
+    }
+
+    // Blocos que podem executar logo após o bloco 'i'.
+    public List<Integer> sucessores(int i) {
+        List<Integer> resultado = new ArrayList<>(2);
+        BlocoBasico bloco = blocos.get(i);
+        String destino = bloco.getDestino();
+        if (destino != null && indiceDe(destino) >= 0) {
+            resultado.add(indiceDe(destino));
+        }
+        if (!bloco.isIncondicional() && i + 1 < blocos.size()) {
+            resultado.add(i + 1);
+        }
+        return resultado;
+    }
+
+    // Rótulos usados por algum desvio ou por uma diretiva.
+    public Set<String> rotulosReferenciados() {
+        Set<String> referenciados = new HashSet<>(rotulosExternos);
+        for (BlocoBasico bloco : blocos) {
+            if (bloco.getDestino() != null) {
+                referenciados.add(bloco.getDestino());
+            }
+        }
+        return referenciados;
+    }
+
+    public List<Instrucao> linearizar() {
+        List<Instrucao> saida = new ArrayList<>(prefixo);
+        for (BlocoBasico bloco : blocos) {
+            bloco.adicionarLinhas(saida);
+        }
+        saida.addAll(sufixo);
+        return saida;
+    }
+}
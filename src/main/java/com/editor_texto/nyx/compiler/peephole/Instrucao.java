@@ -0,0 +1,103 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Uma linha do código Assembly já decomposta: instrução (mnemônico e
+ * operandos), rótulo ('nome:'), diretiva ou linha vazia. Diretivas e tudo o
+ * que não é código executável são guardados com o texto original, e nunca são
+ * alterados pelas regras.
+ */
+public final class Instrucao {
+
+    public enum Tipo {
+        INSTRUCAO,
+        ROTULO,
+        DIRETIVA,
+        VAZIA
+    }
+
+    private final Tipo tipo;
+    private final String mnemonico; // Em minúsculas; nome do rótulo para ROTULO.
+    private final List<Operando> operandos;
+    private final String texto; // Texto original de DIRETIVA.
+
+    private Instrucao(Tipo tipo, String mnemonico, List<Operando> operandos, String texto) {
+        this.tipo = tipo;
+        this.mnemonico = mnemonico;
+        this.operandos = operandos;
+        this.texto = texto;
+    }
+
+    public static Instrucao instrucao(String mnemonico, List<Operando> operandos) {
+        return new Instrucao(Tipo.INSTRUCAO, mnemonico, Collections.unmodifiableList(new ArrayList<>(operandos)),
+                null);
+    }
+
+    public static Instrucao instrucao(String mnemonico, Operando... operandos) {
+        return instrucao(mnemonico, List.of(operandos));
+    }
+
+    public static Instrucao rotulo(String nome) {
+        return new Instrucao(Tipo.ROTULO, nome, List.of(), null);
+    }
+
+    public static Instrucao diretiva(String texto) {
+        return new Instrucao(Tipo.DIRETIVA, null, List.of(), texto);
+    }
+
+    public static Instrucao vazia() {
+        return new Instrucao(Tipo.VAZIA, null, List.of(), "");
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public boolean isInstrucao() {
+        return tipo == Tipo.INSTRUCAO;
+    }
+
+    public boolean isRotulo() {
+        return tipo == Tipo.ROTULO;
+    }
+
+    public String getMnemonico() {
+        return mnemonico;
+    }
+
+    public List<Operando> getOperandos() {
+        return operandos;
+    }
+
+    public Operando getOperando(int indice) {
+        return indice < operandos.size() ? operandos.get(indice) : null;
+    }
+
+    public boolean is(String mnemonico) {
+        return tipo == Tipo.INSTRUCAO && this.mnemonico.equals(mnemonico);
+    }
+
+    // Saltos condicionais e incondicionais.
+    public boolean isSalto() {
+        return tipo == Tipo.INSTRUCAO && mnemonico.startsWith("j");
+    }
+
+    // Texto no formato emitido pelo GeradorAssembly.
+    @Override
+    public String toString() {
+        return switch (tipo) {
+            case ROTULO -> mnemonico + ":";
+            case DIRETIVA, VAZIA -> texto;
+            case INSTRUCAO -> {
+                StringBuilder linha = new StringBuilder("    ").append(mnemonico);
+                for (int i = 0; i < operandos.size(); i++) {
+                    linha.append(i == 0 ? " " : ", ").append(operandos.get(i).getTexto());
+                }
+                yield linha.toString();
+            }
+        };
+    }
+}
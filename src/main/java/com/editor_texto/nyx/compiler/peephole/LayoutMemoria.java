@@ -0,0 +1,304 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Organização do código final na memória, feita depois de todas as outras
+ * otimizações (as diretivas inseridas aqui impedem a construção do
+ * GrafoFluxo):
+ *
+ * <ul>
+ * <li>dados: as variáveis escalares são agrupadas por tamanho (dd, dw, db),
+ * de modo que nenhum dword atravesse uma linha de cache, e as mais usadas
+ * ficam juntas no início da seção, alinhadas; buffers e strings vêm
+ * depois;</li>
+ * <li>código: o cabeçalho de cada laço mais interno recebe 'align 16'.</li>
+ * </ul>
+ *
+ * O uso de cada variável é contado no próprio código, com peso maior dentro
+ * de laços (o trecho entre um rótulo e um salto de volta para ele).
+ */
+public class LayoutMemoria {
+
+    private static final int ALINHAMENTO_LACO = 16;
+    // As variáveis mais usadas que cabem em uma linha de cache.
+    private static final int LINHA_CACHE = 64;
+    private static final int PESO_LACO = 8;
+    private static final int PROFUNDIDADE_MAXIMA = 4;
+
+    private final boolean organizarDados;
+    private final boolean alinharLacos;
+
+    public LayoutMemoria(boolean organizarDados, boolean alinharLacos) {
+        this.organizarDados = organizarDados;
+        this.alinharLacos = alinharLacos;
+    }
+
+    /**
+     * Reorganiza o código no lugar, registrando as mudanças em 'estatisticas'.
+     * Retorna false se nada mudou.
+     */
+    public boolean otimizar(List<Instrucao> codigo, EstatisticasPeephole estatisticas) {
+        long inicio = System.nanoTime();
+        int inicioDados = indiceDiretiva(codigo, ".data");
+        int inicioCodigo = indiceDiretiva(codigo, ".code");
+        if (inicioDados < 0 || inicioCodigo < inicioDados) {
+            return false;
+        }
+        estatisticas.registrarIteracao();
+
+        boolean alterou = false;
+        if (organizarDados) {
+            alterou |= organizarSecaoDados(codigo, inicioDados, inicioCodigo,
+                    encontrarLacos(codigo, inicioCodigo), estatisticas);
+        }
+        if (alinharLacos) {
+            // A seção de dados pode ter mudado de tamanho.
+            inicioCodigo = indiceDiretiva(codigo, ".code");
+            alterou |= alinharLacosInternos(codigo, encontrarLacos(codigo, inicioCodigo), estatisticas);
+        }
+        int total = 0;
+        for (Instrucao instrucao : codigo) {
+            total += instrucao.isInstrucao() ? 1 : 0;
+        }
+        estatisticas.registrarTamanhos(total, total);
+        estatisticas.registrarTempo(System.nanoTime() - inicio);
+        return alterou;
+    }
+
+    private int indiceDiretiva(List<Instrucao> codigo, String diretiva) {
+        for (int i = 0; i < codigo.size(); i++) {
+            Instrucao instrucao = codigo.get(i);
+            if (instrucao.getTipo() == Instrucao.Tipo.DIRETIVA
+                    && instrucao.toString().trim().equalsIgnoreCase(diretiva)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Laços como pares {índice do rótulo, índice do salto de volta}.
+    private List<int[]> encontrarLacos(List<Instrucao> codigo, int inicioCodigo) {
+        Map<String, Integer> rotulos = new HashMap<>();
+        List<int[]> lacos = new ArrayList<>();
+        for (int i = inicioCodigo; i < codigo.size(); i++) {
+            Instrucao instrucao = codigo.get(i);
+            if (instrucao.isRotulo()) {
+                rotulos.put(instrucao.getMnemonico(), i);
+            } else if (instrucao.isSalto() && instrucao.getOperando(0) != null) {
+                Integer cabecalho = rotulos.get(instrucao.getOperando(0).getTexto());
+                if (cabecalho != null) {
+                    lacos.add(new int[] { cabecalho, i });
+                }
+            }
+        }
+        return lacos;
+    }
+
+    private boolean alinharLacosInternos(List<Instrucao> codigo, List<int[]> lacos,
+            EstatisticasPeephole estatisticas) {
+        List<Integer> cabecalhos = new ArrayList<>();
+        for (int[] laco : lacos) {
+            if (!contemOutroLaco(laco, lacos)) {
+                // Antes do primeiro de uma sequência de rótulos, para que todos
+                // fiquem no endereço alinhado.
+                int indice = laco[0];
+                while (indice > 0 && codigo.get(indice - 1).isRotulo()) {
+                    indice--;
+                }
+                if (!cabecalhos.contains(indice) && !isAlinhamento(codigo.get(indice - 1))) {
+                    cabecalhos.add(indice);
+                }
+            }
+        }
+        cabecalhos.sort(Comparator.reverseOrder());
+        for (int indice : cabecalhos) {
+            codigo.add(indice, Instrucao.diretiva("    align " + ALINHAMENTO_LACO));
+            estatisticas.registrarAplicacao("laco-alinhado");
+        }
+        return !cabecalhos.isEmpty();
+    }
+
+    private boolean contemOutroLaco(int[] laco, List<int[]> lacos) {
+        for (int[] outro : lacos) {
+            if (outro != laco && outro[0] >= laco[0] && outro[1] <= laco[1]
+                    && (outro[0] != laco[0] || outro[1] != laco[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAlinhamento(Instrucao instrucao) {
+        return instrucao.getTipo() == Instrucao.Tipo.DIRETIVA
+                && instrucao.toString().trim().toLowerCase().startsWith("align");
+    }
+
+    private boolean organizarSecaoDados(List<Instrucao> codigo, int inicioDados, int inicioCodigo,
+            List<int[]> lacos, EstatisticasPeephole estatisticas) {
+        List<Declaracao> escalares = new ArrayList<>();
+        List<Instrucao> buffers = new ArrayList<>();
+        List<Instrucao> outras = new ArrayList<>();
+        Map<String, Declaracao> porNome = new HashMap<>();
+        for (int i = inicioDados + 1; i < inicioCodigo; i++) {
+            Instrucao linha = codigo.get(i);
+            if (linha.getTipo() == Instrucao.Tipo.VAZIA || isAlinhamento(linha)) {
+                continue;
+            }
+            Declaracao declaracao = Declaracao.ler(linha, escalares.size());
+            if (isContinuacao(linha) && !buffers.isEmpty()
+                    && buffers.get(buffers.size() - 1) == codigo.get(i - 1)) {
+                buffers.add(linha); // Continuação de uma string longa.
+            } else if (declaracao == null) {
+                outras.add(linha);
+            } else if (declaracao.tamanho == 0) {
+                buffers.add(linha);
+            } else {
+                escalares.add(declaracao);
+                porNome.put(declaracao.nome, declaracao);
+            }
+        }
+        if (escalares.isEmpty()) {
+            return false;
+        }
+        contarUsos(codigo, inicioCodigo, lacos, porNome);
+
+        // As mais usadas, até uma linha de cache, formam o grupo quente.
+        List<Declaracao> porUso = new ArrayList<>(escalares);
+        porUso.sort(Comparator.comparingLong((Declaracao d) -> -d.usos).thenComparingInt(d -> d.ordem));
+        List<Declaracao> quentes = new ArrayList<>();
+        List<Declaracao> frias = new ArrayList<>();
+        int bytesQuentes = 0;
+        for (Declaracao declaracao : porUso) {
+            if (declaracao.usos > 0 && bytesQuentes + declaracao.tamanho <= LINHA_CACHE) {
+                quentes.add(declaracao);
+                bytesQuentes += declaracao.tamanho;
+            } else {
+                frias.add(declaracao);
+            }
+        }
+        // Dentro de cada grupo, do maior para o menor: sem preenchimento.
+        Comparator<Declaracao> porTamanho = Comparator.comparingInt((Declaracao d) -> -d.tamanho);
+        quentes.sort(porTamanho.thenComparingLong(d -> -d.usos).thenComparingInt(d -> d.ordem));
+        frias.sort(porTamanho.thenComparingInt(d -> d.ordem));
+
+        // Constantes (equ) primeiro: um 'dup' não pode usar uma declarada depois.
+        List<Instrucao> secao = new ArrayList<>(outras);
+        secao.add(Instrucao.diretiva("    align " + ALINHAMENTO_LACO));
+        for (Declaracao declaracao : quentes) {
+            secao.add(declaracao.linha);
+        }
+        if (!frias.isEmpty()) {
+            secao.add(Instrucao.diretiva("    align 4"));
+            for (Declaracao declaracao : frias) {
+                secao.add(declaracao.linha);
+            }
+        }
+        if (!buffers.isEmpty()) {
+            secao.add(Instrucao.diretiva("    align 4"));
+            secao.addAll(buffers);
+        }
+
+        List<Instrucao> anterior = codigo.subList(inicioDados + 1, inicioCodigo);
+        if (mesmoTexto(anterior, secao)) {
+            return false;
+        }
+        anterior.clear();
+        anterior.addAll(secao);
+        estatisticas.registrarAplicacao("dados-agrupados");
+        return true;
+    }
+
+    // Linha 'db ...' sem nome, que continua a declaração anterior.
+    private boolean isContinuacao(Instrucao linha) {
+        String texto = linha.toString().trim().toLowerCase();
+        return linha.getTipo() == Instrucao.Tipo.DIRETIVA
+                && (texto.startsWith("db ") || texto.startsWith("dw ") || texto.startsWith("dd "));
+    }
+
+    private void contarUsos(List<Instrucao> codigo, int inicioCodigo, List<int[]> lacos,
+            Map<String, Declaracao> porNome) {
+        for (int i = inicioCodigo; i < codigo.size(); i++) {
+            Instrucao instrucao = codigo.get(i);
+            if (!instrucao.isInstrucao()) {
+                continue;
+            }
+            int profundidade = 0;
+            for (int[] laco : lacos) {
+                if (laco[0] <= i && i <= laco[1]) {
+                    profundidade++;
+                }
+            }
+            long peso = 1;
+            for (int p = 0; p < Math.min(profundidade, PROFUNDIDADE_MAXIMA); p++) {
+                peso *= PESO_LACO;
+            }
+            for (Operando operando : instrucao.getOperandos()) {
+                // Também 'addr x' e 'byte ptr [x]'.
+                for (String parte : operando.getTexto().split("[^A-Za-z0-9_]+")) {
+                    Declaracao declaracao = porNome.get(parte);
+                    if (declaracao != null) {
+                        declaracao.usos += peso;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean mesmoTexto(List<Instrucao> a, List<Instrucao> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).toString().equals(b.get(i).toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Uma linha 'nome dd valor' da seção .data.
+    private static final class Declaracao {
+        private final Instrucao linha;
+        private final String nome;
+        private final int tamanho; // 0 para buffers e strings.
+        private final int ordem;
+        private long usos;
+
+        private Declaracao(Instrucao linha, String nome, int tamanho, int ordem) {
+            this.linha = linha;
+            this.nome = nome;
+            this.tamanho = tamanho;
+            this.ordem = ordem;
+        }
+
+        // Retorna null para o que não é uma variável (equ, comentários...).
+        static Declaracao ler(Instrucao linha, int ordem) {
+            if (linha.getTipo() != Instrucao.Tipo.DIRETIVA) {
+                return null;
+            }
+            String[] partes = linha.toString().trim().split("\\s+", 3);
+            if (partes.length < 3) {
+                return null;
+            }
+            int tamanho = switch (partes[1].toLowerCase()) {
+                case "dd" -> 4;
+                case "dw" -> 2;
+                case "db" -> 1;
+                default -> -1;
+            };
+            if (tamanho < 0) {
+                return null;
+            }
+            String valor = partes[2].toLowerCase();
+            if (valor.contains("\"") || valor.contains("'") || valor.contains("dup") || valor.contains(",")) {
+                tamanho = 0;
+            }
+            return new Declaracao(linha, partes[0], tamanho, ordem);
+        }
+    }
+}
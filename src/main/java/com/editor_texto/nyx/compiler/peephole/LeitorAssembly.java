@@ -0,0 +1,123 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Converte as linhas de um arquivo .asm (formato MASM do GeradorAssembly) em
+ * objetos Instrucao, uma única vez antes da otimização.
+ * As declarações da seção .data são usadas para classificar os operandos:
+ * nomes definidos com 'equ' são imediatos e os definidos com db/dd/dw são
+ * posições de memória.
+ */
+public class LeitorAssembly {
+
+    private static final Pattern NUMERO = Pattern.compile("-?\\d+|-?\\d[0-9a-fA-F]*[hH]");
+
+    private final Set<String> constantes = new HashSet<>();
+    private final Set<String> variaveis = new HashSet<>();
+
+    // Código completo em um único texto, como retornado pelo GeradorAssembly.
+    public List<Instrucao> ler(String codigo) {
+        return ler(codigo.lines().toList());
+    }
+
+    public List<Instrucao> ler(List<String> linhas) {
+        List<Instrucao> instrucoes = new ArrayList<>(linhas.size());
+        boolean emCodigo = false;
+        for (String linha : linhas) {
+            String texto = linha.trim();
+            if (!emCodigo) {
+                registrarDeclaracao(texto);
+                instrucoes.add(texto.isEmpty() ? Instrucao.vazia() : Instrucao.diretiva(linha));
+                emCodigo = texto.equalsIgnoreCase(".code");
+                continue;
+            }
+            instrucoes.add(lerLinhaCodigo(linha));
+        }
+        return instrucoes;
+    }
+
+    private Instrucao lerLinhaCodigo(String linha) {
+        String texto = linha.trim();
+        int comentario = texto.indexOf(';');
+        if (comentario >= 0) {
+            texto = texto.substring(0, comentario).trim();
+        }
+        if (texto.isEmpty()) {
+            return Instrucao.vazia();
+        }
+        if (texto.endsWith(":") && texto.indexOf(' ') < 0) {
+            return Instrucao.rotulo(texto.substring(0, texto.length() - 1));
+        }
+        if (texto.startsWith(".") || texto.toLowerCase().startsWith("end ")) {
+            return Instrucao.diretiva(linha);
+        }
+
+        int espaco = texto.indexOf(' ');
+        String mnemonico = (espaco < 0 ? texto : texto.substring(0, espaco)).toLowerCase();
+        List<Operando> operandos = new ArrayList<>();
+        if (espaco >= 0) {
+            for (String operando : separarOperandos(texto.substring(espaco + 1))) {
+                operandos.add(classificar(operando));
+            }
+        }
+        return Instrucao.instrucao(mnemonico, operandos);
+    }
+
+    // Separa por vírgulas, exceto as que estão entre colchetes.
+    private List<String> separarOperandos(String texto) {
+        List<String> partes = new ArrayList<>();
+        int profundidade = 0;
+        int inicio = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '[') {
+                profundidade++;
+            } else if (c == ']') {
+                profundidade--;
+            } else if (c == ',' && profundidade == 0) {
+                partes.add(texto.substring(inicio, i).trim());
+                inicio = i + 1;
+            }
+        }
+        partes.add(texto.substring(inicio).trim());
+        return partes;
+    }
+
+    public Operando classificar(String texto) {
+        String minusculo = texto.toLowerCase();
+        if (Operando.isNomeRegistrador(minusculo)) {
+            return new Operando(TipoOperando.REGISTRADOR, minusculo);
+        }
+        if (NUMERO.matcher(texto).matches() || minusculo.startsWith("addr ") || minusculo.startsWith("offset ")
+                || this.constantes.contains(texto)) {
+            return new Operando(TipoOperando.IMEDIATO, texto);
+        }
+        if (texto.contains("[") || minusculo.contains(" ptr ") || this.variaveis.contains(texto)) {
+            return new Operando(TipoOperando.MEMORIA, texto);
+        }
+        return new Operando(TipoOperando.ROTULO, texto);
+    }
+
+    // Classificação sem conhecer a seção .data (usada pelos modelos das regras).
+    public static Operando classificarSemContexto(String texto) {
+        return new LeitorAssembly().classificar(texto);
+    }
+
+    private void registrarDeclaracao(String texto) {
+        String[] partes = texto.split("\\s+", 3);
+        if (partes.length < 2) {
+            return;
+        }
+        String diretiva = partes[1].toLowerCase();
+        if (diretiva.equals("equ")) {
+            this.constantes.add(partes[0]);
+        } else if (diretiva.equals("db") || diretiva.equals("dw") || diretiva.equals("dd")) {
+            this.variaveis.add(partes[0]);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Linha do programa LC de cada instrução do código em memória. Começa com as
+ * linhas registradas pelo GeradorAssembly e acompanha as otimizações: as
+ * instruções que um passo mantém continuam com sua linha, as que o
+ * MotorPeephole cria herdam a das instruções que substituíram e as demais
+ * (ex: saltos refeitos pelo OtimizadorSaltos) ficam com a da instrução
+ * anterior.
+ */
+public final class MapaFonte {
+
+    private final Map<Instrucao, Integer> linhas = new IdentityHashMap<>();
+
+    /**
+     * Associa codigo.get(i) a linhasFonte[i], como retornado por
+     * GeradorAssembly.getLinhasFonte() para o texto lido.
+     */
+    public MapaFonte(List<Instrucao> codigo, int[] linhasFonte) {
+        for (int i = 0; i < codigo.size() && i < linhasFonte.length; i++) {
+            linhas.put(codigo.get(i), linhasFonte[i]);
+        }
+    }
+
+    // Instruções novas de uma reescrita ficam com a linha da primeira substituída.
+    public void herdar(List<Instrucao> substituidas, List<Instrucao> novas) {
+        Integer linha = null;
+        for (Instrucao instrucao : substituidas) {
+            linha = linhas.get(instrucao);
+            if (linha != null && linha != 0) {
+                break;
+            }
+        }
+        if (linha == null) {
+            return;
+        }
+        for (Instrucao instrucao : novas) {
+            linhas.putIfAbsent(instrucao, linha);
+        }
+    }
+
+    /**
+     * Linha LC de cada posição de 'codigo' (0 quando não há uma); instruções
+     * sem registro ficam com a linha da anterior.
+     */
+    public int[] resolver(List<Instrucao> codigo) {
+        int[] resultado = new int[codigo.size()];
+        int anterior = 0;
+        for (int i = 0; i < codigo.size(); i++) {
+            Integer linha = linhas.get(codigo.get(i));
+            if (linha != null) {
+                anterior = linha;
+            }
+            resultado[i] = anterior;
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,174 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Motor do otimizador peephole. Percorre o código com uma janela de até
+ * 'tamanhoJanela' linhas (linhas vazias são ignoradas e diretivas encerram a
+ * janela), testando as regras em ordem. Após cada reescrita o motor recua o
+ * suficiente para que a regra seguinte veja o resultado, e repete passadas
+ * completas até que nenhuma regra se aplique (ponto fixo).
+ */
+public class MotorPeephole {
+
+    public static final int JANELA_PADRAO = 4;
+    // Proteção contra regras que se desfazem mutuamente.
+    private static final int MAXIMO_ITERACOES = 50;
+
+    private final List<RegraPeephole> regras;
+    private final int tamanhoJanela;
+    // Opcional: recebe a linha LC das instruções criadas pelas reescritas.
+    private MapaFonte mapaFonte;
+
+    public MotorPeephole(List<RegraPeephole> regras) {
+        this(regras, JANELA_PADRAO);
+    }
+
+    public MotorPeephole(List<RegraPeephole> regras, int tamanhoJanela) {
+        this.tamanhoJanela = tamanhoJanela;
+        // Regras maiores que a janela configurada ficam de fora.
+        this.regras = new ArrayList<>();
+        for (RegraPeephole regra : regras) {
+            if (regra.getTamanho() <= tamanhoJanela) {
+                this.regras.add(regra);
+            }
+        }
+    }
+
+    public List<RegraPeephole> getRegras() {
+        return Collections.unmodifiableList(regras);
+    }
+
+    public int getTamanhoJanela() {
+        return tamanhoJanela;
+    }
+
+    public void setMapaFonte(MapaFonte mapaFonte) {
+        this.mapaFonte = mapaFonte;
+    }
+
+    // Otimiza a lista no lugar e retorna as estatísticas da execução.
+    public EstatisticasPeephole otimizar(List<Instrucao> codigo) {
+        EstatisticasPeephole estatisticas = new EstatisticasPeephole();
+        long inicio = System.nanoTime();
+        int antes = contarInstrucoes(codigo);
+
+        boolean alterou = true;
+        while (alterou && estatisticas.getIteracoes() < MAXIMO_ITERACOES) {
+            estatisticas.registrarIteracao();
+            alterou = executarPassada(codigo, estatisticas);
+        }
+
+        estatisticas.registrarTamanhos(antes, contarInstrucoes(codigo));
+        estatisticas.registrarTempo(System.nanoTime() - inicio);
+        return estatisticas;
+    }
+
+    private boolean executarPassada(List<Instrucao> codigo, EstatisticasPeephole estatisticas) {
+        boolean alterou = false;
+        List<Integer> indices = new ArrayList<>(this.tamanhoJanela);
+        List<Instrucao> janela = new ArrayList<>(this.tamanhoJanela);
+        int i = 0;
+        while (i < codigo.size()) {
+            if (!montarJanela(codigo, i, indices, janela)) {
+                i++;
+                continue;
+            }
+            estatisticas.registrarJanela();
+
+            boolean aplicou = false;
+            for (RegraPeephole regra : this.regras) {
+                int tamanho = regra.getTamanho();
+                if (tamanho > janela.size()) {
+                    continue;
+                }
+                int ultimo = indices.get(tamanho - 1);
+                List<Instrucao> casadas = janela.subList(0, tamanho);
+                List<Instrucao> substituicao = regra.reescrever(casadas,
+                        Collections.unmodifiableList(codigo.subList(ultimo + 1, codigo.size())));
+                if (substituicao == null || mesmoTexto(casadas, substituicao)) {
+                    continue;
+                }
+
+                if (this.mapaFonte != null) {
+                    this.mapaFonte.herdar(casadas, substituicao);
+                }
+                for (int k = tamanho - 1; k >= 0; k--) {
+                    codigo.remove((int) indices.get(k));
+                }
+                codigo.addAll(i, substituicao);
+                estatisticas.registrarAplicacao(regra.getNome());
+                aplicou = true;
+                alterou = true;
+                break;
+            }
+
+            i = aplicou ? recuar(codigo, i) : i + 1;
+        }
+        return alterou;
+    }
+
+    // Junta até tamanhoJanela linhas a partir de 'inicio', pulando as vazias.
+    private boolean montarJanela(List<Instrucao> codigo, int inicio, List<Integer> indices,
+            List<Instrucao> janela) {
+        indices.clear();
+        janela.clear();
+        for (int j = inicio; j < codigo.size() && janela.size() < this.tamanhoJanela; j++) {
+            Instrucao instrucao = codigo.get(j);
+            if (instrucao.getTipo() == Instrucao.Tipo.VAZIA) {
+                if (j == inicio) {
+                    return false;
+                }
+                continue;
+            }
+            if (instrucao.getTipo() == Instrucao.Tipo.DIRETIVA) {
+                break;
+            }
+            indices.add(j);
+            janela.add(instrucao);
+        }
+        return !janela.isEmpty();
+    }
+
+    // Volta até tamanhoJanela - 1 linhas úteis, para reavaliar as janelas que
+    // passaram a conter a substituição.
+    private int recuar(List<Instrucao> codigo, int posicao) {
+        int recuo = this.tamanhoJanela - 1;
+        int i = Math.min(posicao, codigo.size());
+        while (i > 0 && recuo > 0) {
+            i--;
+            Instrucao.Tipo tipo = codigo.get(i).getTipo();
+            if (tipo == Instrucao.Tipo.DIRETIVA) {
+                return i + 1;
+            }
+            if (tipo != Instrucao.Tipo.VAZIA) {
+                recuo--;
+            }
+        }
+        return i;
+    }
+
+    private boolean mesmoTexto(List<Instrucao> a, List<Instrucao> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).toString().equals(b.get(i).toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int contarInstrucoes(List<Instrucao> codigo) {
+        int total = 0;
+        for (Instrucao instrucao : codigo) {
+            if (instrucao.isInstrucao()) {
+                total++;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,81 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.Set;
+
+/**
+ * Operando já classificado de uma instrução. Dois operandos são iguais quando
+ * têm o mesmo texto.
+ */
+public final class Operando {
+
+    private static final Set<String> REGISTRADORES_32 = Set.of("eax", "ebx", "ecx", "edx", "esi", "edi", "esp",
+            "ebp");
+    private static final Set<String> REGISTRADORES = Set.of("eax", "ebx", "ecx", "edx", "esi", "edi", "esp", "ebp",
+            "ax", "bx", "cx", "dx", "si", "di", "sp", "bp", "al", "bl", "cl", "dl", "ah", "bh", "ch", "dh");
+
+    private final TipoOperando tipo;
+    private final String texto;
+
+    public Operando(TipoOperando tipo, String texto) {
+        this.tipo = tipo;
+        this.texto = texto;
+    }
+
+    public TipoOperando getTipo() {
+        return tipo;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    public boolean isRegistrador() {
+        return tipo == TipoOperando.REGISTRADOR;
+    }
+
+    public boolean isImediato() {
+        return tipo == TipoOperando.IMEDIATO;
+    }
+
+    public boolean isMemoria() {
+        return tipo == TipoOperando.MEMORIA;
+    }
+
+    // Valor numérico de um imediato literal (decimal ou 0XXh), ou null.
+    public Integer getValor() {
+        if (tipo != TipoOperando.IMEDIATO || texto.isEmpty()) {
+            return null;
+        }
+        try {
+            if (texto.endsWith("h") || texto.endsWith("H")) {
+                return (int) Long.parseLong(texto.substring(0, texto.length() - 1), 16);
+            }
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static boolean isNomeRegistrador(String texto) {
+        return REGISTRADORES.contains(texto);
+    }
+
+    public static boolean isRegistrador32(String texto) {
+        return REGISTRADORES_32.contains(texto);
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof Operando operando && operando.texto.equals(this.texto);
+    }
+
+    @Override
+    public int hashCode() {
+        return texto.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return texto;
+    }
+}
@@ -0,0 +1,227 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Otimizações de desvio sobre o GrafoFluxo, que enxergam além da janela do
+ * MotorPeephole:
+ *
+ * <ul>
+ * <li>encadeamento: um salto para um bloco vazio que só salta (ou só cai no
+ * seguinte) vai direto ao destino final;</li>
+ * <li>salto redundante: desvio para o bloco que já viria em seguida;</li>
+ * <li>inversão: 'jcc L1 / jmp L2 / L1:' vira 'jncc L2 / L1:';</li>
+ * <li>blocos inalcançáveis e rótulos sem referência são removidos, o que
+ * junta blocos vazios ao seguinte.</li>
+ * </ul>
+ */
+public class OtimizadorSaltos {
+
+    private static final Map<String, String> INVERSOS = Map.ofEntries(
+            Map.entry("je", "jne"), Map.entry("jne", "je"), Map.entry("jz", "jnz"), Map.entry("jnz", "jz"),
+            Map.entry("jl", "jge"), Map.entry("jge", "jl"), Map.entry("jle", "jg"), Map.entry("jg", "jle"),
+            Map.entry("jb", "jae"), Map.entry("jae", "jb"), Map.entry("jbe", "ja"), Map.entry("ja", "jbe"),
+            Map.entry("js", "jns"), Map.entry("jns", "js"), Map.entry("jo", "jno"), Map.entry("jno", "jo"));
+
+    private static final int MAXIMO_ITERACOES = 20;
+
+    /**
+     * Otimiza o código no lugar, registrando cada transformação em
+     * 'estatisticas'. Retorna false se nada mudou (ou se o código não pôde ser
+     * representado como grafo).
+     */
+    public boolean otimizar(List<Instrucao> codigo, EstatisticasPeephole estatisticas) {
+        long inicio = System.nanoTime();
+        int antes = contarInstrucoes(codigo);
+        GrafoFluxo grafo = GrafoFluxo.construir(codigo);
+        if (grafo == null) {
+            return false;
+        }
+        boolean alterou = false;
+        boolean mudou = true;
+        while (mudou && estatisticas.getIteracoes() < MAXIMO_ITERACOES) {
+            estatisticas.registrarIteracao();
+            mudou = encadearSaltos(grafo, estatisticas);
+            mudou |= removerSaltosRedundantes(grafo, estatisticas);
+            mudou |= inverterDesvios(grafo, estatisticas);
+            mudou |= removerInalcancaveis(grafo, estatisticas);
+            mudou |= removerRotulosSemUso(grafo, estatisticas);
+            alterou |= mudou;
+        }
+        if (alterou) {
+            List<Instrucao> resultado = grafo.linearizar();
+            codigo.clear();
+            codigo.addAll(resultado);
+        }
+        estatisticas.registrarTamanhos(antes, contarInstrucoes(codigo));
+        estatisticas.registrarTempo(System.nanoTime() - inicio);
+        return alterou;
+    }
+
+    private int contarInstrucoes(List<Instrucao> codigo) {
+        int total = 0;
+        for (Instrucao instrucao : codigo) {
+            if (instrucao.isInstrucao()) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private boolean encadearSaltos(GrafoFluxo grafo, EstatisticasPeephole estatisticas) {
+        boolean mudou = false;
+        for (BlocoBasico bloco : grafo.getBlocos()) {
+            String destino = bloco.getDestino();
+            if (destino == null) {
+                continue;
+            }
+            String finalDestino = destinoFinal(grafo, destino);
+            if (!finalDestino.equals(destino)) {
+                bloco.setDestino(finalDestino);
+                estatisticas.registrarAplicacao("salto-encadeado");
+                mudou = true;
+            }
+        }
+        return mudou;
+    }
+
+    /**
+     * Segue blocos vazios a partir do rótulo: se o bloco só salta, continua no
+     * destino do salto; se só cai no seguinte, continua no seguinte. Retorna o
+     * primeiro rótulo do bloco onde há trabalho de fato.
+     */
+    private String destinoFinal(GrafoFluxo grafo, String rotulo) {
+        List<BlocoBasico> blocos = grafo.getBlocos();
+        Set<Integer> visitados = new HashSet<>();
+        String atual = rotulo;
+        int indice = grafo.indiceDe(atual);
+        while (indice >= 0 && visitados.add(indice)) {
+            BlocoBasico bloco = blocos.get(indice);
+            if (!bloco.isVazio()) {
+                break;
+            }
+            if (bloco.getSalto() != null && bloco.getSalto().is("jmp")) {
+                atual = bloco.getDestino();
+                indice = grafo.indiceDe(atual);
+            } else if (bloco.getSalto() == null && indice + 1 < blocos.size()
+                    && !blocos.get(indice + 1).getRotulos().isEmpty()) {
+                indice++;
+                atual = blocos.get(indice).getRotulos().get(0);
+            } else {
+                break;
+            }
+        }
+        // Qualquer rótulo do bloco serve; o primeiro concentra as referências.
+        indice = grafo.indiceDe(atual);
+        return indice >= 0 ? blocos.get(indice).getRotulos().get(0) : atual;
+    }
+
+    private boolean removerSaltosRedundantes(GrafoFluxo grafo, EstatisticasPeephole estatisticas) {
+        boolean mudou = false;
+        List<BlocoBasico> blocos = grafo.getBlocos();
+        for (int i = 0; i < blocos.size(); i++) {
+            BlocoBasico bloco = blocos.get(i);
+            if (bloco.getDestino() != null && caiEm(grafo, i, grafo.indiceDe(bloco.getDestino()))) {
+                bloco.setSalto(null);
+                estatisticas.registrarAplicacao("salto-redundante");
+                mudou = true;
+            }
+        }
+        return mudou;
+    }
+
+    private boolean inverterDesvios(GrafoFluxo grafo, EstatisticasPeephole estatisticas) {
+        boolean mudou = false;
+        List<BlocoBasico> blocos = grafo.getBlocos();
+        for (int i = 0; i + 1 < blocos.size(); i++) {
+            BlocoBasico condicional = blocos.get(i);
+            BlocoBasico seguinte = blocos.get(i + 1);
+            String inverso = condicional.getSalto() == null ? null
+                    : INVERSOS.get(condicional.getSalto().getMnemonico());
+            if (inverso == null || !seguinte.getRotulos().isEmpty() || !seguinte.isVazio()
+                    || seguinte.getSalto() == null || !seguinte.getSalto().is("jmp")) {
+                continue;
+            }
+            if (!caiEm(grafo, i + 1, grafo.indiceDe(condicional.getDestino()))) {
+                continue;
+            }
+            condicional.setSalto(Instrucao.instrucao(inverso, seguinte.getSalto().getOperando(0)));
+            seguinte.setSalto(null);
+            estatisticas.registrarAplicacao("desvio-invertido");
+            mudou = true;
+        }
+        return mudou;
+    }
+
+    // O bloco 'destino' é alcançado a partir do fim de 'origem' só caindo por
+    // blocos vazios, sem desviar.
+    private boolean caiEm(GrafoFluxo grafo, int origem, int destino) {
+        List<BlocoBasico> blocos = grafo.getBlocos();
+        if (destino <= origem) {
+            return false;
+        }
+        for (int i = origem + 1; i < destino; i++) {
+            if (!blocos.get(i).isVazio() || blocos.get(i).getSalto() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean removerInalcancaveis(GrafoFluxo grafo, EstatisticasPeephole estatisticas) {
+        List<BlocoBasico> blocos = grafo.getBlocos();
+        boolean[] alcancado = new boolean[blocos.size()];
+        Deque<Integer> pendentes = new ArrayDeque<>();
+        pendentes.push(0);
+        for (int i = 0; i < blocos.size(); i++) {
+            for (String rotulo : blocos.get(i).getRotulos()) {
+                if (grafo.isExterno(rotulo)) {
+                    pendentes.push(i);
+                }
+            }
+        }
+        while (!pendentes.isEmpty()) {
+            int indice = pendentes.pop();
+            if (alcancado[indice]) {
+                continue;
+            }
+            alcancado[indice] = true;
+            for (int sucessor : grafo.sucessores(indice)) {
+                pendentes.push(sucessor);
+            }
+        }
+
+        boolean mudou = false;
+        for (int i = blocos.size() - 1; i >= 0; i--) {
+            if (!alcancado[i]) {
+                if (blocos.get(i).contarInstrucoes() > 0) {
+                    estatisticas.registrarAplicacao("bloco-inalcancavel");
+                    mudou = true;
+                }
+                blocos.remove(i);
+            }
+        }
+        grafo.reindexar();
+        return mudou;
+    }
+
+    private boolean removerRotulosSemUso(GrafoFluxo grafo, EstatisticasPeephole estatisticas) {
+        Set<String> referenciados = grafo.rotulosReferenciados();
+        boolean mudou = false;
+        for (BlocoBasico bloco : grafo.getBlocos()) {
+            int antes = bloco.getRotulos().size();
+            bloco.getRotulos().removeIf(rotulo -> !referenciados.contains(rotulo));
+            for (int i = bloco.getRotulos().size(); i < antes; i++) {
+                estatisticas.registrarAplicacao("rotulo-sem-uso");
+                mudou = true;
+            }
+        }
+        grafo.reindexar();
+        return mudou;
+    }
+}
@@ -0,0 +1,164 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Promoção de variáveis para registradores, guiada pelo perfil de uma
+ * execução anterior: as variáveis int mais acessadas passam a viver em esi e
+ * edi, que o GeradorAssembly não usa e as rotinas do RuntimeLC preservam. O
+ * valor inicial é carregado da seção .data logo no início do programa.
+ *
+ * A frequência de cada variável é a soma, sobre as instruções que a usam,
+ * das execuções medidas da linha LC de cada uma. Só são promovidas variáveis
+ * 'dd' que aparecem apenas como operando direto (sem offset, addr ou ptr) e
+ * que não são do runtime (_nyx_*). Deve rodar antes dos outros passos sobre
+ * o código e antes de o runtime ser anexado.
+ */
+public class PromocaoRegistradores {
+
+    private static final String[] REGISTRADORES = { "esi", "edi" };
+    private static final String PREFIXO_RUNTIME = "_nyx";
+
+    // Execuções medidas de cada linha LC.
+    private final IntToLongFunction execucoes;
+
+    public PromocaoRegistradores(IntToLongFunction execucoes) {
+        this.execucoes = execucoes;
+    }
+
+    /**
+     * Promove no lugar, registrando cada variável promovida em 'estatisticas'
+     * e mantendo 'mapaFonte' em dia. Retorna as variáveis promovidas, pelo
+     * registrador.
+     */
+    public Map<String, String> otimizar(List<Instrucao> codigo, MapaFonte mapaFonte,
+            EstatisticasPeephole estatisticas) {
+        long inicio = System.nanoTime();
+        estatisticas.registrarIteracao();
+        Map<String, String> promovidas = new HashMap<>();
+        int inicioDados = indiceDiretiva(codigo, ".data");
+        int inicioCodigo = indiceDiretiva(codigo, ".code");
+        if (inicioDados < 0 || inicioCodigo < inicioDados) {
+            return promovidas;
+        }
+
+        Set<String> candidatas = new HashSet<>();
+        for (int i = inicioDados + 1; i < inicioCodigo; i++) {
+            String nome = nomeInteiro(codigo.get(i));
+            if (nome != null) {
+                candidatas.add(nome);
+            }
+        }
+        int[] linhas = mapaFonte.resolver(codigo);
+        Map<String, Long> frequencias = new HashMap<>();
+        Set<String> excluidas = new HashSet<>();
+        for (int i = inicioCodigo + 1; i < codigo.size(); i++) {
+            Instrucao instrucao = codigo.get(i);
+            if (!instrucao.isInstrucao()) {
+                continue;
+            }
+            for (Operando operando : instrucao.getOperandos()) {
+                if (candidatas.contains(operando.getTexto())) {
+                    frequencias.merge(operando.getTexto(), execucoes.applyAsLong(linhas[i]), Long::sum);
+                    continue;
+                }
+                for (String parte : operando.getTexto().split("[^A-Za-z0-9_]+")) {
+                    if (candidatas.contains(parte)) {
+                        excluidas.add(parte);
+                    }
+                }
+            }
+        }
+        frequencias.keySet().removeAll(excluidas);
+
+        List<String> escolhidas = new ArrayList<>();
+        frequencias.entrySet().stream()
+                .filter(entrada -> entrada.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(REGISTRADORES.length)
+                .forEach(entrada -> escolhidas.add(entrada.getKey()));
+        for (int k = 0; k < escolhidas.size(); k++) {
+            promovidas.put(escolhidas.get(k), REGISTRADORES[k]);
+        }
+        if (promovidas.isEmpty()) {
+            return promovidas;
+        }
+
+        int antes = 0;
+        for (int i = inicioCodigo + 1; i < codigo.size(); i++) {
+            Instrucao instrucao = codigo.get(i);
+            if (!instrucao.isInstrucao()) {
+                continue;
+            }
+            antes++;
+            Instrucao nova = substituir(instrucao, promovidas);
+            if (nova != instrucao) {
+                codigo.set(i, nova);
+                mapaFonte.herdar(List.of(instrucao), List.of(nova));
+            }
+        }
+        // As cargas iniciais vão logo depois do rótulo de entrada.
+        int entrada = inicioCodigo + 1;
+        while (entrada < codigo.size() && !codigo.get(entrada).isRotulo()) {
+            entrada++;
+        }
+        for (String nome : escolhidas) {
+            codigo.add(++entrada, Instrucao.instrucao("mov",
+                    new Operando(TipoOperando.REGISTRADOR, promovidas.get(nome)),
+                    new Operando(TipoOperando.MEMORIA, nome)));
+            estatisticas.registrarAplicacao("variavel-promovida");
+        }
+        estatisticas.registrarTamanhos(antes, antes + escolhidas.size());
+        estatisticas.registrarTempo(System.nanoTime() - inicio);
+        return promovidas;
+    }
+
+    private Instrucao substituir(Instrucao instrucao, Map<String, String> promovidas) {
+        List<Operando> operandos = new ArrayList<>();
+        boolean mudou = false;
+        for (Operando operando : instrucao.getOperandos()) {
+            String registrador = promovidas.get(operando.getTexto());
+            if (registrador != null) {
+                operandos.add(new Operando(TipoOperando.REGISTRADOR, registrador));
+                mudou = true;
+            } else {
+                operandos.add(operando);
+            }
+        }
+        return mudou ? Instrucao.instrucao(instrucao.getMnemonico(), operandos) : instrucao;
+    }
+
+    // Nome de uma declaração 'nome dd valor' escalar, ou null.
+    private String nomeInteiro(Instrucao linha) {
+        if (linha.getTipo() != Instrucao.Tipo.DIRETIVA) {
+            return null;
+        }
+        String[] partes = linha.toString().trim().split("\\s+", 3);
+        if (partes.length < 3 || !partes[1].equalsIgnoreCase("dd") || partes[0].startsWith(PREFIXO_RUNTIME)) {
+            return null;
+        }
+        String valor = partes[2].toLowerCase();
+        if (valor.contains("\"") || valor.contains("'") || valor.contains("dup") || valor.contains(",")) {
+            return null;
+        }
+        return partes[0];
+    }
+
+    private int indiceDiretiva(List<Instrucao> codigo, String diretiva) {
+        for (int i = 0; i < codigo.size(); i++) {
+            Instrucao instrucao = codigo.get(i);
+            if (instrucao.getTipo() == Instrucao.Tipo.DIRETIVA
+                    && instrucao.toString().trim().equalsIgnoreCase(diretiva)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
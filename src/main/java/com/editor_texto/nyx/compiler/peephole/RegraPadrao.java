@@ -0,0 +1,172 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Regra escrita na linguagem de padrões do peephole (ver CarregadorRegras).
+ * O padrão e a substituição são listas de modelos de instrução cujos
+ * operandos podem ser fixos ("0", "eax") ou variáveis ("$r", "$x:imm"). Uma
+ * variável que aparece mais de uma vez precisa casar sempre o mesmo operando.
+ * A regra pode exigir que registradores (ou as flags) estejam mortos depois
+ * das linhas casadas.
+ */
+public class RegraPadrao implements RegraPeephole {
+
+    // Nome usado na lista de mortos para as flags.
+    public static final String FLAGS = "flags";
+
+    private final String nome;
+    private final List<Modelo> padrao;
+    private final List<Modelo> substituicao;
+    private final List<String> mortos;
+
+    public RegraPadrao(String nome, List<Modelo> padrao, List<Modelo> substituicao) {
+        this(nome, padrao, substituicao, List.of());
+    }
+
+    public RegraPadrao(String nome, List<Modelo> padrao, List<Modelo> substituicao, List<String> mortos) {
+        this.nome = nome;
+        this.padrao = padrao;
+        this.substituicao = substituicao;
+        this.mortos = mortos;
+    }
+
+    @Override
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public int getTamanho() {
+        return padrao.size();
+    }
+
+    @Override
+    public List<Instrucao> reescrever(List<Instrucao> janela, List<Instrucao> seguintes) {
+        Map<String, Operando> variaveis = new HashMap<>();
+        for (int i = 0; i < padrao.size(); i++) {
+            if (!padrao.get(i).casar(janela.get(i), variaveis)) {
+                return null;
+            }
+        }
+        for (String morto : mortos) {
+            boolean vivo = morto.equals(FLAGS) ? !UsoRegistradores.isFlagsMortas(seguintes)
+                    : !UsoRegistradores.isMorto(morto, seguintes);
+            if (vivo) {
+                return null;
+            }
+        }
+        List<Instrucao> resultado = new ArrayList<>(substituicao.size());
+        for (Modelo modelo : substituicao) {
+            resultado.add(modelo.instanciar(variaveis));
+        }
+        return resultado;
+    }
+
+    /**
+     * Modelo de uma linha: instrução com operandos, ou rótulo ('$l:'), cujo
+     * nome é o único operando.
+     */
+    public static final class Modelo {
+        private final boolean rotulo;
+        private final String mnemonico;
+        private final List<ModeloOperando> operandos;
+
+        public Modelo(boolean rotulo, String mnemonico, List<ModeloOperando> operandos) {
+            this.rotulo = rotulo;
+            this.mnemonico = mnemonico;
+            this.operandos = operandos;
+        }
+
+        boolean casar(Instrucao instrucao, Map<String, Operando> variaveis) {
+            if (rotulo) {
+                return instrucao.isRotulo()
+                        && operandos.get(0).casar(new Operando(TipoOperando.ROTULO, instrucao.getMnemonico()), variaveis);
+            }
+            if (!instrucao.is(mnemonico) || instrucao.getOperandos().size() != operandos.size()) {
+                return false;
+            }
+            for (int i = 0; i < operandos.size(); i++) {
+                if (!operandos.get(i).casar(instrucao.getOperando(i), variaveis)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Instrucao instanciar(Map<String, Operando> variaveis) {
+            if (rotulo) {
+                return Instrucao.rotulo(operandos.get(0).instanciar(variaveis).getTexto());
+            }
+            List<Operando> resultado = new ArrayList<>(operandos.size());
+            for (ModeloOperando operando : operandos) {
+                resultado.add(operando.instanciar(variaveis));
+            }
+            return Instrucao.instrucao(mnemonico, resultado);
+        }
+    }
+
+    /**
+     * Operando de um modelo: texto fixo ou variável ($nome), opcionalmente
+     * restrita a um tipo. Uma variável 'simples' casa só variáveis da seção
+     * .data escritas pelo nome (sem colchetes, ptr nem registradores), que
+     * não podem se sobrepor a um endereço calculado.
+     */
+    public static final class ModeloOperando {
+        private static final Pattern NOME = Pattern.compile("[A-Za-z_]\\w*");
+
+        private final String variavel;
+        private final TipoOperando tipo;
+        private final boolean simples;
+        private final Operando fixo;
+
+        private ModeloOperando(String variavel, TipoOperando tipo, boolean simples, Operando fixo) {
+            this.variavel = variavel;
+            this.tipo = tipo;
+            this.simples = simples;
+            this.fixo = fixo;
+        }
+
+        public static ModeloOperando variavel(String nome, TipoOperando tipo) {
+            return new ModeloOperando(nome, tipo, false, null);
+        }
+
+        // Variável que casa só uma variável da memória escrita pelo nome.
+        public static ModeloOperando variavelSimples(String nome) {
+            return new ModeloOperando(nome, TipoOperando.MEMORIA, true, null);
+        }
+
+        public static ModeloOperando fixo(String texto) {
+            return new ModeloOperando(null, null, false, LeitorAssembly.classificarSemContexto(texto));
+        }
+
+        boolean casar(Operando operando, Map<String, Operando> variaveis) {
+            if (fixo != null) {
+                return fixo.equals(operando);
+            }
+            if (tipo != null && operando.getTipo() != tipo) {
+                return false;
+            }
+            if (simples && !NOME.matcher(operando.getTexto()).matches()) {
+                return false;
+            }
+            Operando anterior = variaveis.putIfAbsent(variavel, operando);
+            return anterior == null || anterior.equals(operando);
+        }
+
+        Operando instanciar(Map<String, Operando> variaveis) {
+            if (fixo != null) {
+                return fixo;
+            }
+            Operando valor = variaveis.get(variavel);
+            if (valor == null) {
+                throw new IllegalStateException("Variável '" + variavel + "' não aparece no padrão");
+            }
+            return valor;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.List;
+
+/**
+ * Regra do otimizador peephole: reconhece uma sequência de instruções
+ * consecutivas (a janela) e devolve a sequência equivalente.
+ */
+public interface RegraPeephole {
+
+    // Nome usado nas estatísticas.
+    String getNome();
+
+    // Quantidade de linhas (instruções e rótulos) examinadas pela regra.
+    int getTamanho();
+
+    /**
+     * Recebe exatamente getTamanho() linhas e retorna a substituição (que pode
+     * ser vazia), ou null se a regra não se aplica. 'seguintes' dá acesso, só
+     * para leitura, ao código após a janela (ex: para saber se um registrador
+     * ainda será lido).
+     */
+    List<Instrucao> reescrever(List<Instrucao> janela, List<Instrucao> seguintes);
+}
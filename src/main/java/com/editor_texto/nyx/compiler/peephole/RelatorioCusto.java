@@ -0,0 +1,184 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Custo estático estimado pelo EstimadorCusto, por linha do programa LC. A
+ * linha 0 junta o código fora dos comandos (ex: o ExitProcess final).
+ */
+public class RelatorioCusto {
+
+    // Linhas com pelo menos esta fração do total são destacadas.
+    public static final double FRACAO_CARA = 0.10;
+
+    /**
+     * Soma das instruções geradas para uma linha LC, já com o peso dos
+     * laços.
+     */
+    public static final class Linha {
+        private final int linha;
+        private int instrucoes;
+        private int profundidade;
+        private double latencia;
+        private double vazao;
+        private int divisoes;
+        private int pilha;
+        private int chamadas;
+
+        Linha(int linha) {
+            this.linha = linha;
+        }
+
+        void somar(Instrucao instrucao, CustoInstrucao custo, int profundidade, double peso) {
+            this.instrucoes++;
+            this.profundidade = Math.max(this.profundidade, profundidade);
+            this.latencia += custo.getLatencia() * peso;
+            this.vazao += custo.getVazao() * peso;
+            if (instrucao.is("idiv") || instrucao.is("div")) {
+                this.divisoes++;
+            } else if (instrucao.is("push") || instrucao.is("pop")) {
+                this.pilha++;
+            } else if (instrucao.is("call") || instrucao.is("invoke")) {
+                this.chamadas++;
+            }
+        }
+
+        public int getLinha() {
+            return linha;
+        }
+
+        public int getInstrucoes() {
+            return instrucoes;
+        }
+
+        // Maior número de laços em volta de uma instrução da linha.
+        public int getProfundidade() {
+            return profundidade;
+        }
+
+        // Ciclos se cada instrução esperar a anterior (o caso do código em pilha).
+        public double getLatencia() {
+            return latencia;
+        }
+
+        // Ciclos se as instruções independentes rodarem em paralelo.
+        public double getVazao() {
+            return vazao;
+        }
+
+        public int getDivisoes() {
+            return divisoes;
+        }
+
+        // Instruções push e pop.
+        public int getPilha() {
+            return pilha;
+        }
+
+        public int getChamadas() {
+            return chamadas;
+        }
+    }
+
+    private final List<Linha> linhas;
+    private final double totalLatencia;
+    private final double totalVazao;
+
+    RelatorioCusto(List<Linha> linhas) {
+        this.linhas = linhas;
+        double latencia = 0;
+        double vazao = 0;
+        for (Linha linha : linhas) {
+            latencia += linha.latencia;
+            vazao += linha.vazao;
+        }
+        this.totalLatencia = latencia;
+        this.totalVazao = vazao;
+    }
+
+    // Em ordem de linha.
+    public List<Linha> getLinhas() {
+        return linhas;
+    }
+
+    public Linha getLinha(int linha) {
+        for (Linha custo : linhas) {
+            if (custo.linha == linha) {
+                return custo;
+            }
+        }
+        return null;
+    }
+
+    public double getTotalLatencia() {
+        return totalLatencia;
+    }
+
+    public double getTotalVazao() {
+        return totalVazao;
+    }
+
+    public boolean isCara(Linha linha) {
+        return linha.linha > 0 && totalLatencia > 0 && linha.latencia >= FRACAO_CARA * totalLatencia;
+    }
+
+    // As 'quantidade' linhas LC de maior latência, da mais cara para a mais barata.
+    public List<Linha> getMaisCaras(int quantidade) {
+        List<Linha> ordenadas = new ArrayList<>();
+        for (Linha linha : linhas) {
+            if (linha.linha > 0) {
+                ordenadas.add(linha);
+            }
+        }
+        ordenadas.sort(Comparator.comparingDouble(Linha::getLatencia).reversed());
+        return ordenadas.subList(0, Math.min(quantidade, ordenadas.size()));
+    }
+
+    // Valor curto para a margem do editor (ex: 12, 3.4k, 1.2M).
+    public static String abreviar(double ciclos) {
+        if (ciclos < 1000) {
+            return String.format(Locale.ROOT, "%.0f", ciclos);
+        }
+        if (ciclos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fk", ciclos / 1e3);
+        }
+        return String.format(Locale.ROOT, "%.1fM", ciclos / 1e6);
+    }
+
+    /**
+     * Texto do arquivo de relatório: uma linha por linha LC com código, com o
+     * trecho do fonte, e as linhas mais caras marcadas com '<<'.
+     */
+    public String formatar(String codigoFonte) {
+        String[] fonte = codigoFonte != null ? codigoFonte.split("\r?\n", -1) : new String[0];
+        StringBuilder texto = new StringBuilder();
+        texto.append("Custo estático estimado por linha, em ciclos. Laços pesam ").append(EstimadorCusto.PESO_LACO)
+                .append("x por nível de aninhamento.\n");
+        texto.append("latência: instruções em sequência; vazão: instruções independentes em paralelo.\n\n");
+        texto.append(String.format("%5s %4s %6s %10s %10s %6s %5s %9s %5s  %s\n", "linha", "laço", "instr",
+                "latência", "vazão", "%", "idiv", "push/pop", "call", "código"));
+        for (Linha linha : linhas) {
+            String codigo = linha.linha == 0 ? "(fora dos comandos)"
+                    : linha.linha <= fonte.length ? fonte[linha.linha - 1].trim() : "";
+            double fracao = totalLatencia > 0 ? 100 * linha.latencia / totalLatencia : 0;
+            texto.append(String.format(Locale.ROOT, "%5s %4d %6d %10.1f %10.1f %5.1f%% %5d %9d %5d  %s%s\n",
+                    linha.linha == 0 ? "-" : Integer.toString(linha.linha), linha.profundidade, linha.instrucoes,
+                    linha.latencia, linha.vazao, fracao, linha.divisoes, linha.pilha, linha.chamadas, codigo,
+                    isCara(linha) ? "  <<" : ""));
+        }
+        texto.append(String.format(Locale.ROOT, "\nTotal: %.1f ciclos (latência), %.1f ciclos (vazão)\n",
+                totalLatencia, totalVazao));
+        return texto.toString();
+    }
+
+    @Override
+    public String toString() {
+        List<Linha> caras = getMaisCaras(1);
+        return String.format(Locale.ROOT, "custo estimado %s ciclos (latência), %s (vazão)%s",
+                abreviar(totalLatencia), abreviar(totalVazao),
+                caras.isEmpty() ? "" : "; linha mais cara: " + caras.get(0).getLinha());
+    }
+}
@@ -0,0 +1,161 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.List;
+
+/**
+ * Estimativa do tamanho em bytes da codificação x86 de 32 bits de cada
+ * instrução. Não substitui o montador: saltos são contados como curtos,
+ * variáveis como endereço absoluto (disp32) e o tamanho das variáveis em
+ * memória é suposto dword. Serve para comparar versões do mesmo programa.
+ */
+public final class TamanhoInstrucao {
+
+    // Tamanho de um call indireto para a tabela de importação (call [__imp_x]).
+    private static final int CHAMADA = 6;
+
+    private TamanhoInstrucao() {
+    }
+
+    public static int estimar(List<Instrucao> codigo) {
+        int total = 0;
+        for (Instrucao instrucao : codigo) {
+            total += estimar(instrucao);
+        }
+        return total;
+    }
+
+    public static int estimar(Instrucao instrucao) {
+        if (!instrucao.isInstrucao()) {
+            return 0;
+        }
+        String mnemonico = instrucao.getMnemonico();
+        List<Operando> operandos = instrucao.getOperandos();
+        Operando destino = instrucao.getOperando(0);
+        Operando origem = instrucao.getOperando(1);
+
+        if (mnemonico.equals("invoke")) {
+            int total = CHAMADA;
+            for (int i = 1; i < operandos.size(); i++) {
+                total += tamanhoPush(operandos.get(i));
+            }
+            return total;
+        }
+        if (instrucao.isSalto()) {
+            return 2;
+        }
+        switch (mnemonico) {
+            case "cdq", "ret", "nop":
+                return 1;
+            case "push":
+                return tamanhoPush(destino);
+            case "pop":
+                return destino.isRegistrador() ? 1 : 2 + tamanhoEndereco(destino);
+            case "call":
+                return 5;
+            case "rdtsc":
+                return 2;
+            case "inc", "dec":
+                return destino.isRegistrador() ? 1 : 2 + tamanhoEndereco(destino);
+            case "neg", "not", "idiv", "div", "mul":
+                return 2 + tamanhoEndereco(destino);
+            default:
+                break;
+        }
+        if (mnemonico.startsWith("set")) {
+            return 3 + tamanhoEndereco(destino);
+        }
+        if (mnemonico.startsWith("cmov") || mnemonico.equals("movzx") || mnemonico.equals("movsx")) {
+            return 3 + tamanhoEndereco(origem);
+        }
+        if (mnemonico.equals("imul")) {
+            if (operandos.size() == 1) {
+                return 2 + tamanhoEndereco(destino);
+            }
+            if (operandos.size() == 3) {
+                return 2 + tamanhoEndereco(origem) + tamanhoImediato(operandos.get(2));
+            }
+            // 'imul r, imm' é a forma de três operandos 'imul r, r, imm'.
+            return origem.isImediato() ? 2 + tamanhoImediato(origem) : 3 + tamanhoEndereco(origem);
+        }
+        if (mnemonico.equals("lea")) {
+            return 2 + tamanhoEndereco(origem);
+        }
+        if (mnemonico.equals("shl") || mnemonico.equals("shr") || mnemonico.equals("sar")
+                || mnemonico.equals("sal") || mnemonico.equals("rol") || mnemonico.equals("ror")) {
+            boolean umOuCl = origem.isRegistrador() || "1".equals(origem.getTexto());
+            return (umOuCl ? 2 : 3) + tamanhoEndereco(destino);
+        }
+        if (mnemonico.equals("mov")) {
+            if (destino.isRegistrador() && origem.isImediato()) {
+                return 5;
+            }
+            if (destino.isRegistrador() && origem.isRegistrador()) {
+                return 2;
+            }
+            if (origem.isImediato()) {
+                return 2 + tamanhoEndereco(destino) + 4;
+            }
+            // mov eax, [var] e mov [var], eax têm forma curta (moffs32).
+            Operando memoria = destino.isMemoria() ? destino : origem;
+            Operando registrador = destino.isMemoria() ? origem : destino;
+            if (registrador.getTexto().equals("eax") && !memoria.getTexto().contains("[")) {
+                return 5;
+            }
+            return 2 + tamanhoEndereco(memoria);
+        }
+        if (operandos.size() == 2) {
+            // add, sub, and, or, xor, cmp, test e afins.
+            if (origem.isImediato()) {
+                Integer valor = origem.getValor();
+                boolean curto = valor != null && valor >= -128 && valor <= 127 && !mnemonico.equals("test");
+                if (curto) {
+                    return 3 + tamanhoEndereco(destino);
+                }
+                if (destino.getTexto().equals("eax")) {
+                    return 5;
+                }
+                return 2 + tamanhoEndereco(destino) + 4;
+            }
+            return 2 + tamanhoEndereco(destino.isMemoria() ? destino : origem);
+        }
+        return 3;
+    }
+
+    private static int tamanhoPush(Operando operando) {
+        if (operando.isRegistrador()) {
+            return 1;
+        }
+        if (operando.isImediato()) {
+            return tamanhoImediato(operando) == 1 ? 2 : 5;
+        }
+        return 2 + tamanhoEndereco(operando);
+    }
+
+    private static int tamanhoImediato(Operando operando) {
+        Integer valor = operando.getValor();
+        return valor != null && valor >= -128 && valor <= 127 ? 1 : 4;
+    }
+
+    // Bytes de SIB e deslocamento de um operando de memória (0 para registrador).
+    private static int tamanhoEndereco(Operando operando) {
+        if (operando == null || !operando.isMemoria()) {
+            return 0;
+        }
+        String texto = operando.getTexto();
+        if (!texto.contains("[")) {
+            return 4; // Variável: endereço absoluto.
+        }
+        String interno = texto.substring(texto.indexOf('[') + 1, texto.lastIndexOf(']'));
+        int tamanho = interno.contains("*") ? 1 : 0;
+        String[] partes = interno.split("[+-]");
+        for (String parte : partes) {
+            String termo = parte.trim();
+            if (!termo.isEmpty() && Character.isDigit(termo.charAt(0))) {
+                tamanho += 1;
+            } else if (!termo.isEmpty() && UsoRegistradores.base(termo.split("\\*")[0].trim()) == null) {
+                tamanho += 4;
+            }
+        }
+        return tamanho;
+    }
+}
@@ -0,0 +1,11 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+/**
+ * Classificação dos operandos de uma instrução Assembly.
+ */
+public enum TipoOperando {
+    REGISTRADOR,
+    IMEDIATO, // Números, constantes 'equ' e endereços (addr x).
+    MEMORIA, // Variáveis da seção .data e acessos entre colchetes.
+    ROTULO // Alvos de salto e nomes de funções.
+}
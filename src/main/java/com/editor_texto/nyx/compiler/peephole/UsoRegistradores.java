@@ -0,0 +1,258 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Leitura e escrita de registradores pelas instruções que o GeradorAssembly
+ * emite, usada pelas regras que precisam saber se um registrador ainda será
+ * lido. Registradores parciais (al, ax, ...) são tratados como o registrador
+ * de 32 bits que os contém; só uma escrita no registrador inteiro encerra o
+ * valor anterior.
+ *
+ * Convenção do GeradorAssembly: ebx, ecx e edx são temporários de uma única
+ * expressão e nunca levam valor de um bloco básico para outro; eax pode levar
+ * (ex: 'mov k, eax' seguido do teste do laço), então é considerado vivo em
+ * rótulos e saltos, assim como esi e edi, que guardam as variáveis promovidas
+ * pela PromocaoRegistradores.
+ */
+public final class UsoRegistradores {
+
+    private static final Map<String, String> BASE = Map.ofEntries(
+            Map.entry("eax", "eax"), Map.entry("ax", "eax"), Map.entry("al", "eax"), Map.entry("ah", "eax"),
+            Map.entry("ebx", "ebx"), Map.entry("bx", "ebx"), Map.entry("bl", "ebx"), Map.entry("bh", "ebx"),
+            Map.entry("ecx", "ecx"), Map.entry("cx", "ecx"), Map.entry("cl", "ecx"), Map.entry("ch", "ecx"),
+            Map.entry("edx", "edx"), Map.entry("dx", "edx"), Map.entry("dl", "edx"), Map.entry("dh", "edx"),
+            Map.entry("esi", "esi"), Map.entry("si", "esi"),
+            Map.entry("edi", "edi"), Map.entry("di", "edi"),
+            Map.entry("ebp", "ebp"), Map.entry("bp", "ebp"),
+            Map.entry("esp", "esp"), Map.entry("sp", "esp"));
+
+    private static final Set<String> TEMPORARIOS = Set.of("ebx", "ecx", "edx");
+    // Registradores que uma chamada (invoke) pode destruir.
+    private static final Set<String> VOLATEIS = Set.of("eax", "ecx", "edx");
+
+    // Instruções cujo primeiro operando é só escrito.
+    private static final Set<String> COPIA = Set.of("mov", "movzx", "movsx", "lea");
+    // Instruções de dois operandos que leem e escrevem o primeiro.
+    private static final Set<String> BINARIAS = Set.of("add", "sub", "and", "or", "xor", "adc", "sbb", "shl", "shr",
+            "sar", "sal", "rol", "ror", "imul");
+    private static final Set<String> UNARIAS = Set.of("neg", "not", "inc", "dec");
+    private static final Set<String> COMPARACOES = Set.of("cmp", "test");
+    // Instruções que leem as flags, além dos desvios condicionais, setcc e cmovcc.
+    private static final Set<String> LEEM_FLAGS = Set.of("adc", "sbb", "pushfd", "lahf");
+    // Instruções que redefinem todas as flags testadas pelos desvios.
+    private static final Set<String> DEFINEM_FLAGS = Set.of("add", "sub", "and", "or", "xor", "cmp", "test", "neg");
+
+    private UsoRegistradores() {
+    }
+
+    // Registrador de 32 bits que contém 'nome', ou null se não é registrador.
+    public static String base(String nome) {
+        return BASE.get(nome.toLowerCase());
+    }
+
+    // O operando usa o registrador, diretamente ou no endereço ([eax+4]).
+    public static boolean menciona(Operando operando, String registrador) {
+        if (operando.isRegistrador()) {
+            return registrador.equals(base(operando.getTexto()));
+        }
+        if (!operando.isMemoria()) {
+            return false;
+        }
+        for (String parte : operando.getTexto().split("[^A-Za-z0-9_]+")) {
+            if (registrador.equals(base(parte))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Instruções sem efeito na pilha nem no fluxo de controle, cujo uso de
+     * registradores é conhecido. Só elas podem ficar entre as linhas que uma
+     * regra aproxima.
+     */
+    public static boolean isSimples(Instrucao instrucao) {
+        if (!instrucao.isInstrucao()) {
+            return false;
+        }
+        String mnemonico = instrucao.getMnemonico();
+        int quantidade = instrucao.getOperandos().size();
+        if (mnemonico.equals("cdq")) {
+            return quantidade == 0;
+        }
+        if (UNARIAS.contains(mnemonico) || mnemonico.equals("idiv") || mnemonico.equals("div")
+                || mnemonico.equals("mul") || isSetcc(mnemonico)) {
+            return quantidade == 1 && !menciona(instrucao.getOperando(0), "esp");
+        }
+        if (COPIA.contains(mnemonico) || BINARIAS.contains(mnemonico) || COMPARACOES.contains(mnemonico)
+                || mnemonico.startsWith("cmov")) {
+            return quantidade >= 1 && !menciona(instrucao.getOperando(0), "esp");
+        }
+        return false;
+    }
+
+    // A instrução lê o registrador (inclusive de forma implícita, como idiv).
+    public static boolean le(Instrucao instrucao, String registrador) {
+        String mnemonico = instrucao.getMnemonico();
+        List<Operando> operandos = instrucao.getOperandos();
+        if (isImplicita(instrucao)) {
+            // cdq e imul/mul leem eax; idiv/div leem edx:eax.
+            if (registrador.equals("eax")
+                    || (registrador.equals("edx") && (mnemonico.equals("idiv") || mnemonico.equals("div")))) {
+                return true;
+            }
+        }
+        for (int i = 0; i < operandos.size(); i++) {
+            Operando operando = operandos.get(i);
+            boolean somenteEscrito = i == 0 && operando.isRegistrador() && escreveSemLer(instrucao);
+            if (!somenteEscrito && menciona(operando, registrador)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A instrução escreve em alguma parte do registrador.
+    public static boolean escreve(Instrucao instrucao, String registrador) {
+        if (isImplicita(instrucao)) {
+            if (registrador.equals("edx")) {
+                return true;
+            }
+            if (registrador.equals("eax")) {
+                return !instrucao.is("cdq");
+            }
+        }
+        if (COMPARACOES.contains(instrucao.getMnemonico()) || instrucao.getOperandos().isEmpty()) {
+            return false;
+        }
+        Operando destino = instrucao.getOperando(0);
+        return destino.isRegistrador() && registrador.equals(base(destino.getTexto()));
+    }
+
+    // A instrução substitui o valor inteiro do registrador sem lê-lo.
+    public static boolean define(Instrucao instrucao, String registrador) {
+        if (le(instrucao, registrador)) {
+            return false;
+        }
+        if (isImplicita(instrucao)) {
+            return escreve(instrucao, registrador);
+        }
+        Operando destino = instrucao.getOperando(0);
+        return escreveSemLer(instrucao) && destino != null && destino.getTexto().equals(registrador);
+    }
+
+    // A instrução grava em memória.
+    public static boolean escreveMemoria(Instrucao instrucao) {
+        return !COMPARACOES.contains(instrucao.getMnemonico()) && !instrucao.getOperandos().isEmpty()
+                && instrucao.getOperando(0).isMemoria();
+    }
+
+    /**
+     * Verdadeiro se o valor atual do registrador não é mais lido no código
+     * 'seguintes' (sem seguir saltos; ver a convenção na descrição da classe).
+     */
+    public static boolean isMorto(String registrador, List<Instrucao> seguintes) {
+        for (Instrucao instrucao : seguintes) {
+            switch (instrucao.getTipo()) {
+                case VAZIA:
+                    continue;
+                case DIRETIVA:
+                    return true;
+                case ROTULO:
+                    return TEMPORARIOS.contains(registrador);
+                default:
+                    break;
+            }
+            if (instrucao.isSalto() || instrucao.is("ret")) {
+                return TEMPORARIOS.contains(registrador);
+            }
+            if (instrucao.is("invoke") || instrucao.is("call")) {
+                for (Operando operando : instrucao.getOperandos()) {
+                    if (menciona(operando, registrador)) {
+                        return false;
+                    }
+                }
+                if (VOLATEIS.contains(registrador)) {
+                    return true;
+                }
+                continue;
+            }
+            if (!isSimples(instrucao) && !instrucao.is("push") && !instrucao.is("pop")) {
+                return false;
+            }
+            if (instrucao.is("push")) {
+                if (menciona(instrucao.getOperando(0), registrador)) {
+                    return false;
+                }
+                continue;
+            }
+            if (instrucao.is("pop")) {
+                Operando destino = instrucao.getOperando(0);
+                if (destino.getTexto().equals(registrador)) {
+                    return true;
+                }
+                if (menciona(destino, registrador)) {
+                    return false;
+                }
+                continue;
+            }
+            if (le(instrucao, registrador)) {
+                return false;
+            }
+            if (define(instrucao, registrador)) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Verdadeiro se as flags atuais não são mais lidas no código 'seguintes':
+     * antes de qualquer leitura vem uma instrução que redefine todas elas, ou
+     * uma chamada. Rótulos e saltos contam como leitura (o destino pode testar
+     * as flags); inc, dec, imul e os deslocamentos não redefinem todas.
+     */
+    public static boolean isFlagsMortas(List<Instrucao> seguintes) {
+        for (Instrucao instrucao : seguintes) {
+            switch (instrucao.getTipo()) {
+                case VAZIA:
+                    continue;
+                case DIRETIVA:
+                    return true;
+                case ROTULO:
+                    return false;
+                default:
+                    break;
+            }
+            String mnemonico = instrucao.getMnemonico();
+            if (instrucao.isSalto() || instrucao.is("ret") || isSetcc(mnemonico) || mnemonico.startsWith("cmov")
+                    || LEEM_FLAGS.contains(mnemonico)) {
+                return false;
+            }
+            if (DEFINEM_FLAGS.contains(mnemonico) || instrucao.is("invoke") || instrucao.is("call")) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private static boolean escreveSemLer(Instrucao instrucao) {
+        String mnemonico = instrucao.getMnemonico();
+        return COPIA.contains(mnemonico) || isSetcc(mnemonico)
+                || (mnemonico.equals("imul") && instrucao.getOperandos().size() == 3);
+    }
+
+    // cdq, idiv/div e as formas de um operando de imul/mul usam eax e edx.
+    private static boolean isImplicita(Instrucao instrucao) {
+        String mnemonico = instrucao.getMnemonico();
+        return mnemonico.equals("cdq") || mnemonico.equals("idiv") || mnemonico.equals("div")
+                || ((mnemonico.equals("imul") || mnemonico.equals("mul")) && instrucao.getOperandos().size() == 1);
+    }
+
+    private static boolean isSetcc(String mnemonico) {
+        return mnemonico.startsWith("set");
+    }
+}
@@ -0,0 +1,64 @@
+package com.editor_texto.nyx.compiler.perfil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Perfis de execução guardados pelo hash do fonte, para a compilação guiada
+ * por perfil: um perfil só vale para o fonte exato que foi medido. Cada
+ * perfil é um arquivo <hash>.txt no diretório (out/perfis).
+ */
+public class ArmazemPerfis {
+
+    public static final String DIRETORIO = "perfis";
+    private static final String EXTENSAO = ".txt";
+
+    private final Path diretorio;
+
+    public ArmazemPerfis(Path diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    // SHA-256 do fonte, sem diferenciar as quebras de linha (\r\n e \n).
+    public static String hashFonte(String codigoFonte) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(codigoFonte.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    // Guarda o perfil, substituindo o anterior do mesmo fonte; false se não tem hash.
+    public boolean guardar(PerfilExecucao perfil) throws IOException {
+        if (perfil.getHashFonte().isEmpty()) {
+            return false;
+        }
+        Files.createDirectories(diretorio);
+        perfil.gravar(arquivo(perfil.getHashFonte()));
+        return true;
+    }
+
+    // Perfil guardado para o fonte, ou null se não há (ou se o arquivo é inválido).
+    public PerfilExecucao buscar(String codigoFonte) throws IOException {
+        Path arquivo = arquivo(hashFonte(codigoFonte));
+        if (!Files.exists(arquivo)) {
+            return null;
+        }
+        try {
+            return PerfilExecucao.ler(arquivo);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Path arquivo(String hash) {
+        return diretorio.resolve(hash + EXTENSAO);
+    }
+}
@@ -0,0 +1,218 @@
+package com.editor_texto.nyx.compiler.perfil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Onde está cada contador que o GeradorAssembly inseriu no programa, para
+ * ler o arquivo de perfil gravado por ele no fim da execução. O arquivo tem
+ * os contadores ('dd', na ordem dos índices) e, no modo TEMPO, os ciclos de
+ * cada laço ('dq', na ordem dos laços), em little-endian.
+ *
+ * Cada contador conta as execuções de um trecho sem desvios do programa LC:
+ * uma sequência de comandos simples, a condição de um if ou o início de um
+ * laço. Cada laço tem um contador antes do rótulo (entradas) e outro logo
+ * depois (cabeçalho): no laço testado no topo o cabeçalho passa uma vez a
+ * mais por entrada, no rotacionado uma vez por iteração.
+ */
+public final class MapaPerfil {
+
+    // Rótulos dos dados do perfil no programa gerado.
+    public static final String ROTULO_CONTADORES = "_nyx_perfil";
+    public static final String ROTULO_TEMPO = "_nyx_perfil_tempo";
+
+    // Arquivos ao lado do executável: <nome>.perfil é gravado pelo programa,
+    // os outros pelo compilador e pelo editor.
+    public static final String EXTENSAO_DADOS = ".perfil";
+    public static final String SUFIXO_MAPA = "_perfil_mapa.txt";
+    public static final String SUFIXO_RELATORIO = "_perfil.txt";
+
+    private static final String CABECALHO = "# Mapa de perfil do Nyx";
+
+    public static final class Laco {
+        private final int linha;
+        private final boolean posTestado;
+        private final int entradas;
+        private final int cabecalho;
+        private final int tempo;
+
+        Laco(int linha, boolean posTestado, int entradas, int cabecalho, int tempo) {
+            this.linha = linha;
+            this.posTestado = posTestado;
+            this.entradas = entradas;
+            this.cabecalho = cabecalho;
+            this.tempo = tempo;
+        }
+
+        public int getLinha() {
+            return linha;
+        }
+
+        public boolean isPosTestado() {
+            return posTestado;
+        }
+
+        // Índice do contador antes do rótulo do laço.
+        public int getEntradas() {
+            return entradas;
+        }
+
+        // Índice do contador logo depois do rótulo do laço.
+        public int getCabecalho() {
+            return cabecalho;
+        }
+
+        // Índice dos ciclos do laço, ou -1 sem medição de tempo.
+        public int getTempo() {
+            return tempo;
+        }
+    }
+
+    private final ModoPerfil modo;
+    private final String arquivoDados;
+    // Hash do fonte compilado (ArmazemPerfis.hashFonte), chave do perfil guardado.
+    private String hashFonte = "";
+    // Linhas LC de cada contador.
+    private final List<List<Integer>> contadores = new ArrayList<>();
+    private final List<Laco> lacos = new ArrayList<>();
+
+    // 'arquivoDados' é o nome do arquivo que o programa grava ao terminar.
+    public MapaPerfil(ModoPerfil modo, String arquivoDados) {
+        this.modo = modo;
+        this.arquivoDados = arquivoDados;
+    }
+
+    public ModoPerfil getModo() {
+        return modo;
+    }
+
+    public String getArquivoDados() {
+        return arquivoDados;
+    }
+
+    public String getHashFonte() {
+        return hashFonte;
+    }
+
+    public void setHashFonte(String hashFonte) {
+        this.hashFonte = hashFonte;
+    }
+
+    // Novo contador, do trecho que começa na linha LC 'linha'; retorna o índice.
+    public int novoContador(int linha) {
+        int indice = novoContador();
+        adicionarLinha(indice, linha);
+        return indice;
+    }
+
+    // Contador que não conta nenhuma linha (ex: as entradas de um laço).
+    public int novoContador() {
+        contadores.add(new ArrayList<>());
+        return contadores.size() - 1;
+    }
+
+    /**
+     * A linha LC 'linha' também é contada pelo contador 'indice'. Uma linha
+     * repetida no trecho (ex: no corpo desenrolado) entra uma vez por cópia.
+     */
+    public void adicionarLinha(int indice, int linha) {
+        contadores.get(indice).add(linha);
+    }
+
+    public Laco novoLaco(int linha, boolean posTestado, int entradas, int cabecalho) {
+        int tempo = modo == ModoPerfil.TEMPO ? lacos.size() : -1;
+        Laco laco = new Laco(linha, posTestado, entradas, cabecalho, tempo);
+        lacos.add(laco);
+        return laco;
+    }
+
+    public int getQuantidadeContadores() {
+        return contadores.size();
+    }
+
+    public List<Integer> getLinhas(int indice) {
+        return Collections.unmodifiableList(contadores.get(indice));
+    }
+
+    public List<Laco> getLacos() {
+        return Collections.unmodifiableList(lacos);
+    }
+
+    // Laços com ciclos medidos (todos no modo TEMPO).
+    public int getQuantidadeTempos() {
+        return modo == ModoPerfil.TEMPO ? lacos.size() : 0;
+    }
+
+    // Tamanho esperado do arquivo de perfil.
+    public int getTamanhoDados() {
+        return 4 * contadores.size() + 8 * getQuantidadeTempos();
+    }
+
+    public void gravar(Path arquivo) throws IOException {
+        StringBuilder texto = new StringBuilder();
+        texto.append(CABECALHO).append('\n');
+        texto.append("modo ").append(modo.getRotulo()).append('\n');
+        texto.append("arquivo ").append(arquivoDados).append('\n');
+        texto.append("fonte ").append(hashFonte).append('\n');
+        for (int i = 0; i < contadores.size(); i++) {
+            texto.append("contador ").append(i);
+            for (int linha : contadores.get(i)) {
+                texto.append(' ').append(linha);
+            }
+            texto.append('\n');
+        }
+        // linha, pós-testado, entradas, cabeçalho, tempo
+        for (Laco laco : lacos) {
+            texto.append("laco ").append(laco.linha).append(' ').append(laco.posTestado ? 1 : 0).append(' ')
+                    .append(laco.entradas).append(' ').append(laco.cabecalho).append(' ').append(laco.tempo)
+                    .append('\n');
+        }
+        Files.writeString(arquivo, texto, StandardCharsets.UTF_8);
+    }
+
+    // Lê o que gravar() escreveu; IllegalArgumentException se o texto não é um mapa.
+    public static MapaPerfil ler(Path arquivo) throws IOException {
+        List<String> linhas = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+        if (linhas.isEmpty() || !linhas.get(0).equals(CABECALHO)) {
+            throw new IllegalArgumentException("Mapa de perfil inválido: " + arquivo.getFileName());
+        }
+        ModoPerfil modo = ModoPerfil.DESLIGADO;
+        String arquivoDados = "";
+        String hashFonte = "";
+        MapaPerfil mapa = null;
+        try {
+            for (String linha : linhas.subList(1, linhas.size())) {
+                String[] partes = linha.trim().split("\\s+");
+                switch (partes[0]) {
+                    case "modo" -> modo = ModoPerfil.converter(partes[1]);
+                    case "arquivo" -> arquivoDados = linha.trim().substring("arquivo".length()).trim();
+                    case "fonte" -> hashFonte = partes.length > 1 ? partes[1] : "";
+                    case "contador" -> {
+                        mapa = mapa != null ? mapa : new MapaPerfil(modo, arquivoDados);
+                        int indice = mapa.novoContador();
+                        for (int i = 2; i < partes.length; i++) {
+                            mapa.adicionarLinha(indice, Integer.parseInt(partes[i]));
+                        }
+                    }
+                    case "laco" -> {
+                        mapa = mapa != null ? mapa : new MapaPerfil(modo, arquivoDados);
+                        mapa.novoLaco(Integer.parseInt(partes[1]), partes[2].equals("1"),
+                                Integer.parseInt(partes[3]), Integer.parseInt(partes[4]));
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Mapa de perfil inválido: " + arquivo.getFileName(), e);
+        }
+        mapa = mapa != null ? mapa : new MapaPerfil(modo, arquivoDados);
+        mapa.setHashFonte(hashFonte);
+        return mapa;
+    }
+}
@@ -0,0 +1,46 @@
+package com.editor_texto.nyx.compiler.perfil;
+
+/**
+ * Instrumentação de perfil inserida pelo GeradorAssembly no programa gerado.
+ * Desligada por padrão; a propriedade nyx.perfil (contadores ou tempo) liga.
+ */
+public enum ModoPerfil {
+
+    DESLIGADO("desligado", "sem instrumentação"),
+    // Um contador por bloco de comandos, condição e laço.
+    CONTADORES("contadores", "contadores por bloco"),
+    // Contadores e os ciclos (rdtsc) gastos em cada laço.
+    TEMPO("tempo", "contadores e ciclos por laço");
+
+    private final String rotulo;
+    private final String descricao;
+
+    ModoPerfil(String rotulo, String descricao) {
+        this.rotulo = rotulo;
+        this.descricao = descricao;
+    }
+
+    public String getRotulo() {
+        return rotulo;
+    }
+
+    public boolean isAtivo() {
+        return this != DESLIGADO;
+    }
+
+    // Aceita o rótulo ou o nome, sem diferenciar maiúsculas.
+    public static ModoPerfil converter(String texto) {
+        String nome = texto.trim();
+        for (ModoPerfil modo : values()) {
+            if (modo.rotulo.equalsIgnoreCase(nome) || modo.name().equalsIgnoreCase(nome)) {
+                return modo;
+            }
+        }
+        throw new IllegalArgumentException("Modo de perfil desconhecido: " + texto);
+    }
+
+    @Override
+    public String toString() {
+        return rotulo + " (" + descricao + ")";
+    }
+}
@@ -0,0 +1,311 @@
+package com.editor_texto.nyx.compiler.perfil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Perfil de uma execução do programa instrumentado: quantas vezes cada linha
+ * LC rodou e, para cada laço, entradas, iterações e (no modo TEMPO) ciclos.
+ * Uma linha copiada por uma otimização (ex: o desenrolamento) soma os
+ * contadores de todas as cópias.
+ *
+ * gravar() e ler(Path) guardam o perfil já somado, com o hash do fonte, para
+ * a compilação guiada por perfil (ArmazemPerfis).
+ */
+public class PerfilExecucao {
+
+    // Linhas com pelo menos esta fração das execuções são destacadas.
+    public static final double FRACAO_QUENTE = 0.10;
+    // Linhas com menos que esta fração das execuções são frias.
+    public static final double FRACAO_FRIA = 0.01;
+
+    private static final String CABECALHO = "# Perfil de execução do Nyx";
+
+    public static final class Linha {
+        private final int linha;
+        private long execucoes;
+
+        Linha(int linha) {
+            this.linha = linha;
+        }
+
+        public int getLinha() {
+            return linha;
+        }
+
+        public long getExecucoes() {
+            return execucoes;
+        }
+    }
+
+    public static final class Laco {
+        private final int linha;
+        private final long entradas;
+        private final long iteracoes;
+        private final long ciclos;
+
+        Laco(int linha, long entradas, long iteracoes, long ciclos) {
+            this.linha = linha;
+            this.entradas = entradas;
+            this.iteracoes = iteracoes;
+            this.ciclos = ciclos;
+        }
+
+        public int getLinha() {
+            return linha;
+        }
+
+        public long getEntradas() {
+            return entradas;
+        }
+
+        public long getIteracoes() {
+            return iteracoes;
+        }
+
+        // Iterações por entrada no laço.
+        public double getMediaIteracoes() {
+            return entradas > 0 ? (double) iteracoes / entradas : 0;
+        }
+
+        // Ciclos do rdtsc entre a entrada e a saída, somados; -1 sem medição.
+        public long getCiclos() {
+            return ciclos;
+        }
+    }
+
+    private final String hashFonte;
+    private final List<Linha> linhas;
+    private final List<Laco> lacos;
+    private final long totalExecucoes;
+
+    private PerfilExecucao(String hashFonte, List<Linha> linhas, List<Laco> lacos) {
+        this.hashFonte = hashFonte;
+        this.linhas = linhas;
+        this.lacos = lacos;
+        long total = 0;
+        for (Linha linha : linhas) {
+            total += linha.execucoes;
+        }
+        this.totalExecucoes = total;
+    }
+
+    /**
+     * Combina o mapa com o conteúdo do arquivo gravado pelo programa;
+     * IllegalArgumentException se o tamanho não é o do mapa (arquivo de outra
+     * compilação).
+     */
+    public static PerfilExecucao ler(MapaPerfil mapa, byte[] dados) {
+        if (dados.length != mapa.getTamanhoDados()) {
+            throw new IllegalArgumentException(String.format(
+                    "Perfil com %d bytes, esperados %d: o programa é de outra compilação", dados.length,
+                    mapa.getTamanhoDados()));
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(dados).order(ByteOrder.LITTLE_ENDIAN);
+        long[] contadores = new long[mapa.getQuantidadeContadores()];
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] = buffer.getInt() & 0xFFFFFFFFL;
+        }
+        long[] tempos = new long[mapa.getQuantidadeTempos()];
+        for (int i = 0; i < tempos.length; i++) {
+            tempos[i] = buffer.getLong();
+        }
+
+        Map<Integer, Linha> porLinha = new TreeMap<>();
+        for (int i = 0; i < contadores.length; i++) {
+            for (int linha : mapa.getLinhas(i)) {
+                porLinha.computeIfAbsent(linha, Linha::new).execucoes += contadores[i];
+            }
+        }
+        List<Laco> lacos = new ArrayList<>();
+        for (MapaPerfil.Laco laco : mapa.getLacos()) {
+            long entradas = contadores[laco.getEntradas()];
+            long cabecalho = contadores[laco.getCabecalho()];
+            // No laço testado no topo a última passagem pelo cabeçalho sai dele.
+            long iteracoes = laco.isPosTestado() ? cabecalho : Math.max(0, cabecalho - entradas);
+            long ciclos = laco.getTempo() >= 0 ? tempos[laco.getTempo()] : -1;
+            lacos.add(new Laco(laco.getLinha(), entradas, iteracoes, ciclos));
+        }
+        return new PerfilExecucao(mapa.getHashFonte(), List.copyOf(porLinha.values()), List.copyOf(lacos));
+    }
+
+    public static PerfilExecucao carregar(Path mapa, Path dados) throws IOException {
+        return ler(MapaPerfil.ler(mapa), Files.readAllBytes(dados));
+    }
+
+    public void gravar(Path arquivo) throws IOException {
+        StringBuilder texto = new StringBuilder();
+        texto.append(CABECALHO).append('\n');
+        texto.append("fonte ").append(hashFonte).append('\n');
+        for (Linha linha : linhas) {
+            texto.append("linha ").append(linha.linha).append(' ').append(linha.execucoes).append('\n');
+        }
+        // linha, entradas, iterações, ciclos
+        for (Laco laco : lacos) {
+            texto.append("laco ").append(laco.linha).append(' ').append(laco.entradas).append(' ')
+                    .append(laco.iteracoes).append(' ').append(laco.ciclos).append('\n');
+        }
+        Files.writeString(arquivo, texto, StandardCharsets.UTF_8);
+    }
+
+    // Lê o que gravar() escreveu; IllegalArgumentException se o texto não é um perfil.
+    public static PerfilExecucao ler(Path arquivo) throws IOException {
+        List<String> texto = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+        if (texto.isEmpty() || !texto.get(0).equals(CABECALHO)) {
+            throw new IllegalArgumentException("Perfil inválido: " + arquivo.getFileName());
+        }
+        String hashFonte = "";
+        Map<Integer, Linha> porLinha = new TreeMap<>();
+        List<Laco> lacos = new ArrayList<>();
+        try {
+            for (String linha : texto.subList(1, texto.size())) {
+                String[] partes = linha.trim().split("\\s+");
+                switch (partes[0]) {
+                    case "fonte" -> hashFonte = partes.length > 1 ? partes[1] : "";
+                    case "linha" -> porLinha.computeIfAbsent(Integer.parseInt(partes[1]), Linha::new).execucoes +=
+                            Long.parseLong(partes[2]);
+                    case "laco" -> lacos.add(new Laco(Integer.parseInt(partes[1]), Long.parseLong(partes[2]),
+                            Long.parseLong(partes[3]), Long.parseLong(partes[4])));
+                    default -> {
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Perfil inválido: " + arquivo.getFileName(), e);
+        }
+        return new PerfilExecucao(hashFonte, List.copyOf(porLinha.values()), List.copyOf(lacos));
+    }
+
+    // Hash do fonte que gerou o programa medido; vazio se o mapa não tinha.
+    public String getHashFonte() {
+        return hashFonte;
+    }
+
+    // Em ordem de linha.
+    public List<Linha> getLinhas() {
+        return linhas;
+    }
+
+    public Linha getLinha(int linha) {
+        for (Linha execucao : linhas) {
+            if (execucao.linha == linha) {
+                return execucao;
+            }
+        }
+        return null;
+    }
+
+    // Vezes que a linha rodou; 0 se ela não tem contador.
+    public long getExecucoes(int linha) {
+        Linha execucao = getLinha(linha);
+        return execucao != null ? execucao.execucoes : 0;
+    }
+
+    // Em ordem de geração: um laço desenrolado aparece mais de uma vez.
+    public List<Laco> getLacos() {
+        return lacos;
+    }
+
+    // Laços que começam na linha LC.
+    public List<Laco> getLacos(int linha) {
+        List<Laco> resultado = new ArrayList<>();
+        for (Laco laco : lacos) {
+            if (laco.linha == linha) {
+                resultado.add(laco);
+            }
+        }
+        return resultado;
+    }
+
+    // Entradas somadas dos laços que começam na linha LC.
+    public long getEntradas(int linha) {
+        long total = 0;
+        for (Laco laco : getLacos(linha)) {
+            total += laco.entradas;
+        }
+        return total;
+    }
+
+    public long getTotalExecucoes() {
+        return totalExecucoes;
+    }
+
+    public boolean isQuente(Linha linha) {
+        return isQuente(linha.execucoes);
+    }
+
+    // Um trecho que rodou 'execucoes' vezes é quente neste perfil.
+    public boolean isQuente(long execucoes) {
+        return totalExecucoes > 0 && execucoes >= FRACAO_QUENTE * totalExecucoes;
+    }
+
+    // Um trecho que rodou 'execucoes' vezes (ou nenhuma) é frio neste perfil.
+    public boolean isFrio(long execucoes) {
+        return execucoes == 0 || execucoes < FRACAO_FRIA * totalExecucoes;
+    }
+
+    // As 'quantidade' linhas mais executadas, da mais para a menos executada.
+    public List<Linha> getMaisExecutadas(int quantidade) {
+        List<Linha> ordenadas = new ArrayList<>(linhas);
+        ordenadas.sort(Comparator.comparingLong(Linha::getExecucoes).reversed());
+        return ordenadas.subList(0, Math.min(quantidade, ordenadas.size()));
+    }
+
+    // Valor curto para a margem do editor (ex: 12, 3.4k, 1.2M, 5.0G).
+    public static String abreviar(long valor) {
+        if (valor < 1000) {
+            return Long.toString(valor);
+        }
+        if (valor < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fk", valor / 1e3);
+        }
+        if (valor < 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.1fM", valor / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.1fG", valor / 1e9);
+    }
+
+    /**
+     * Texto do relatório: execuções por linha LC, com o trecho do fonte e as
+     * linhas quentes marcadas com '<<', seguidas dos laços.
+     */
+    public String formatar(String codigoFonte) {
+        String[] fonte = codigoFonte != null ? codigoFonte.split("\r?\n", -1) : new String[0];
+        StringBuilder texto = new StringBuilder();
+        texto.append("Perfil de execução: vezes que cada linha rodou.\n\n");
+        texto.append(String.format("%5s %14s %6s  %s\n", "linha", "execuções", "%", "código"));
+        for (Linha linha : linhas) {
+            String codigo = linha.linha <= fonte.length ? fonte[linha.linha - 1].trim() : "";
+            double fracao = totalExecucoes > 0 ? 100.0 * linha.execucoes / totalExecucoes : 0;
+            texto.append(String.format(Locale.ROOT, "%5d %14d %5.1f%%  %s%s\n", linha.linha, linha.execucoes,
+                    fracao, codigo, isQuente(linha) ? "  <<" : ""));
+        }
+        if (!lacos.isEmpty()) {
+            texto.append(String.format("\n%5s %12s %14s %12s %16s\n", "laço", "entradas", "iterações",
+                    "média", "ciclos"));
+            for (Laco laco : lacos) {
+                texto.append(String.format(Locale.ROOT, "%5d %12d %14d %12.1f %16s\n", laco.linha, laco.entradas,
+                        laco.iteracoes, laco.getMediaIteracoes(), laco.ciclos >= 0 ? Long.toString(laco.ciclos)
+                                : "-"));
+            }
+        }
+        return texto.toString();
+    }
+
+    @Override
+    public String toString() {
+        List<Linha> quentes = getMaisExecutadas(1);
+        return String.format("%s execuções de linhas, %d laços%s", abreviar(totalExecucoes), lacos.size(),
+                quentes.isEmpty() ? "" : "; linha mais executada: " + quentes.get(0).getLinha());
+    }
+}
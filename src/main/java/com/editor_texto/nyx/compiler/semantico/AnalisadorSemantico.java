@@ -262,55 +262,131 @@ public class AnalisadorSemantico {
 
     /**
      * Analisa uma expressão até encontrar um token de parada (como 'begin').
-     * Usado para expressões de if/while.
+     * Usado para expressões de if/while, que podem combinar comparações com
+     * 'and', 'or', 'not' e parênteses. Precedência (da menor para a maior):
+     * or, and, not, relacionais, (+, -), (*, /).
      */
     private String analisarExpressaoAte(String tokenParada) throws ExcecaoCompilador {
-        String tipoExpr = null;
+        if (tokenAtual.getNome().equalsIgnoreCase(tokenParada)) {
+            GerenciadorErros.erroSemanticoExpressaoInvalidaAposControle(tokenAtual);
+        }
+        String tipoExpr = analisarOu();
+        if (!tokenAtual.getNome().equalsIgnoreCase(tokenParada)) {
+            GerenciadorErros.erroSemanticoTokenInvalido(tokenAtual);
+        }
+        return tipoExpr;
+    }
 
-        if (tokenAtual.isConstOuId()) {
-            if (tokenAtual.getClassificacao().equalsIgnoreCase("id") && !isDeclarado()) {
-                GerenciadorErros.erroSemanticoNaoDeclarado(tokenAtual);
-            }
-            tipoExpr = tokenAtual.getTipo();
+    private String analisarOu() throws ExcecaoCompilador {
+        String tipoExpr = analisarE();
+        while (tokenAtual.getNome().equalsIgnoreCase("or")) {
             proximoToken();
-        } else {
-            GerenciadorErros.erroSemanticoExpressaoInvalidaAposControle(tokenAtual);
+            exigirBooleano(tipoExpr, analisarE());
+            tipoExpr = "boolean";
         }
+        return tipoExpr;
+    }
 
-        while (!tokenAtual.getNome().equalsIgnoreCase(tokenParada)) {
-            String op = tokenAtual.getNome();
-            boolean isLogic = tokenAtual.isOperadorLogico();
-            boolean isArith = tokenAtual.isOperadorAritmetico();
+    private String analisarE() throws ExcecaoCompilador {
+        String tipoExpr = analisarNao();
+        while (tokenAtual.getNome().equalsIgnoreCase("and")) {
+            proximoToken();
+            exigirBooleano(tipoExpr, analisarNao());
+            tipoExpr = "boolean";
+        }
+        return tipoExpr;
+    }
 
+    private String analisarNao() throws ExcecaoCompilador {
+        if (tokenAtual.getNome().equalsIgnoreCase("not")) {
             proximoToken();
+            String tipoOperando = analisarNao();
+            exigirBooleano("boolean", tipoOperando);
+            return "boolean";
+        }
+        return analisarRelacional();
+    }
 
-            if (!tokenAtual.isConstOuId()) {
-                GerenciadorErros.erroSemanticoEsperadoOperandoApos(op, tokenAtual);
+    // Operadores relacionais (==, <, >, ...) operam em inteiros ou em booleanos e
+    // resultam em booleano.
+    private String analisarRelacional() throws ExcecaoCompilador {
+        String tipoExpr = analisarAritmeticaCondicao();
+        if (tokenAtual.isOperadorLogico() && !isOperadorBooleano(tokenAtual.getNome())) {
+            proximoToken();
+            String tipoDireita = analisarAritmeticaCondicao();
+            if (!(isNumerico(tipoExpr) && isNumerico(tipoDireita)) &&
+                    !(tipoExpr.equals("boolean") && tipoDireita.equals("boolean"))) {
+                GerenciadorErros.erroSemanticoExpressaoInvalida(tipoExpr, tipoDireita, tokenAtual);
             }
+            tipoExpr = "boolean";
+        }
+        return tipoExpr;
+    }
 
-            String tipoDireita = tokenAtual.getTipo();
-
-            if (isLogic) {
-                // Operadores lógicos (and, or) podem operar em booleanos.
-                // Operadores relacionais (==, <, >) operam em inteiros e resultam em booleano.
-                if (!(tipoExpr.equals("int") && tipoDireita.equals("int")) &&
-                        !(tipoExpr.equals("boolean") && tipoDireita.equals("boolean"))) {
-                    GerenciadorErros.erroSemanticoExpressaoInvalida(tipoExpr, tipoDireita, tokenAtual);
-                }
-                tipoExpr = "boolean"; // O resultado final é sempre booleano.
-            } else if (isArith) {
-                if (!tipoExpr.equals("int") || !tipoDireita.equals("int")) {
-                    GerenciadorErros.erroSemanticoExpressaoInvalida("int", tipoDireita, tokenAtual);
-                }
-                tipoExpr = "int"; // O resultado intermediário é inteiro.
-            }
+    private String analisarAritmeticaCondicao() throws ExcecaoCompilador {
+        String tipoExpr = analisarTermoCondicao();
+        while (tokenAtual.getNome().equals("+") || tokenAtual.getNome().equals("-")) {
+            proximoToken();
+            tipoExpr = exigirNumerico(tipoExpr, analisarTermoCondicao());
+        }
+        return tipoExpr;
+    }
 
+    private String analisarTermoCondicao() throws ExcecaoCompilador {
+        String tipoExpr = analisarFatorCondicao();
+        while (tokenAtual.getNome().equals("*") || tokenAtual.getNome().equals("/")) {
             proximoToken();
+            tipoExpr = exigirNumerico(tipoExpr, analisarFatorCondicao());
         }
+        return tipoExpr;
+    }
 
+    private String analisarFatorCondicao() throws ExcecaoCompilador {
+        if (tokenAtual.getNome().equals("(")) {
+            proximoToken();
+            String tipoExpr = analisarOu();
+            if (!tokenAtual.getNome().equals(")")) {
+                GerenciadorErros.erroSemanticoTokenInvalido(tokenAtual);
+            }
+            proximoToken();
+            return tipoExpr;
+        }
+        if (!tokenAtual.isConstOuId()) {
+            GerenciadorErros.erroSemanticoTokenInvalido(tokenAtual);
+        }
+        if (tokenAtual.getClassificacao().equalsIgnoreCase("id") && !isDeclarado()) {
+            GerenciadorErros.erroSemanticoNaoDeclarado(tokenAtual);
+        }
+        String tipoExpr = tokenAtual.getTipo();
+        proximoToken();
         return tipoExpr;
     }
 
+    private void exigirBooleano(String tipoEsquerda, String tipoDireita) throws ExcecaoCompilador {
+        if (!tipoEsquerda.equals("boolean")) {
+            GerenciadorErros.erroSemanticoExpressaoInvalida("boolean", tipoEsquerda, tokenAtual);
+        }
+        if (!tipoDireita.equals("boolean")) {
+            GerenciadorErros.erroSemanticoExpressaoInvalida("boolean", tipoDireita, tokenAtual);
+        }
+    }
+
+    private String exigirNumerico(String tipoEsquerda, String tipoDireita) throws ExcecaoCompilador {
+        if (!isNumerico(tipoEsquerda) || !isNumerico(tipoDireita)) {
+            GerenciadorErros.erroSemanticoExpressaoInvalida("int", isNumerico(tipoEsquerda) ? tipoDireita : tipoEsquerda,
+                    tokenAtual);
+        }
+        return "int";
+    }
+
+    private boolean isNumerico(String tipo) {
+        return tipo.equals("int") || tipo.equals("byte");
+    }
+
+    private boolean isOperadorBooleano(String operador) {
+        return operador.equalsIgnoreCase("and") || operador.equalsIgnoreCase("or") || operador.equalsIgnoreCase("not");
+    }
+
     /**
      * Após as declarações serem processadas, esta função percorre a tabela de
      * símbolos inteira
@@ -215,26 +215,51 @@ public class AnalisadorSintatico {
 
     /**
      * Analisa expressões lógicas (com 'not', 'and', 'or').
-     * A estrutura segue a ordem de precedência.
+     * A estrutura segue a ordem de precedência: 'or' liga mais fraco que 'and',
+     * que liga mais fraco que 'not', que por sua vez se aplica a uma comparação.
      */
     private void analisarExpressaoLogica(boolean permitirLogica) throws ExcecaoCompilador {
+        analisarTermoLogico(permitirLogica);
+        while (tokenAtual.getNome().equalsIgnoreCase("or")) {
+            exigirLogicaPermitida(permitirLogica);
+            proximoToken();
+            analisarTermoLogico(permitirLogica);
+        }
+    }
+
+    private void analisarTermoLogico(boolean permitirLogica) throws ExcecaoCompilador {
+        analisarFatorLogico(permitirLogica);
+        while (tokenAtual.getNome().equalsIgnoreCase("and")) {
+            exigirLogicaPermitida(permitirLogica);
+            proximoToken();
+            analisarFatorLogico(permitirLogica);
+        }
+    }
+
+    private void analisarFatorLogico(boolean permitirLogica) throws ExcecaoCompilador {
         // 'not' tem alta precedência.
         if (tokenAtual.getNome().equalsIgnoreCase("not")) {
             proximoToken();
-            analisarExpressaoLogica(permitirLogica);
+            analisarFatorLogico(permitirLogica);
             return;
         }
 
         analisarExpressaoAritmetica(permitirLogica);
 
-        if (tokenAtual.isOperadorLogico()) {
-            if (!permitirLogica) {
-                // Não se pode ter 'and' ou 'or' em uma atribuição normal.
-                GerenciadorErros.erroSintaticoAtribuicaoExpressaoLogica(this.tokenAtual);
-            } else {
-                proximoToken();
-                analisarExpressaoAritmetica(permitirLogica);
-            }
+        // Comparação opcional entre duas expressões aritméticas.
+        String operador = tokenAtual.getNome();
+        if (tokenAtual.isOperadorLogico() && !operador.equalsIgnoreCase("and")
+                && !operador.equalsIgnoreCase("or") && !operador.equalsIgnoreCase("not")) {
+            exigirLogicaPermitida(permitirLogica);
+            proximoToken();
+            analisarExpressaoAritmetica(permitirLogica);
+        }
+    }
+
+    private void exigirLogicaPermitida(boolean permitirLogica) throws ExcecaoCompilador {
+        if (!permitirLogica) {
+            // Não se pode ter 'and' ou 'or' em uma atribuição normal.
+            GerenciadorErros.erroSintaticoAtribuicaoExpressaoLogica(this.tokenAtual);
         }
     }
 
@@ -276,7 +301,7 @@ public class AnalisadorSintatico {
     // Analisa o nível mais fundamental de uma expressão: um valor, uma variável ou
     // outra expressão entre parênteses.
     private void analisarFator(boolean permitirLogica) throws ExcecaoCompilador {
-        if (tokenAtual.isConstOuId() || tokenAtual.getTipo().equalsIgnoreCase("boolean")) {
+        if (tokenAtual.isConstOuId() || "boolean".equalsIgnoreCase(tokenAtual.getTipo())) {
             proximoToken();
         } else if (tokenAtual.getNome().equalsIgnoreCase("(")) { // Trata expressões entre parênteses.
             proximoToken();
@@ -0,0 +1,51 @@
+package com.editor_texto.nyx.compiler.superotimizador;
+
+/**
+ * Valores sobre os quais o Estado executa as instruções do subconjunto:
+ * números (DominioConcreto, para os testes) ou expressões (DominioSimbolico,
+ * para a prova de equivalência). As flags também são valores do domínio.
+ * Flags que o manual da Intel deixa indefinidas têm operação própria, para o
+ * domínio simbólico não as considerar iguais a nenhuma outra.
+ */
+interface Dominio<V> {
+
+    V constante(int valor);
+
+    V somar(V a, V b);
+
+    V subtrair(V a, V b);
+
+    V multiplicar(V a, V b);
+
+    // and, or e xor.
+    V logica(String mnemonico, V a, V b);
+
+    // not.
+    V inverter(V a);
+
+    // shl, shr e sar por uma contagem de 1 a 31.
+    V deslocar(String mnemonico, V a, int contagem);
+
+    V zero(V resultado);
+
+    V sinal(V resultado);
+
+    V carrySoma(V a, V b);
+
+    V overflowSoma(V a, V b);
+
+    V carrySubtracao(V a, V b);
+
+    V overflowSubtracao(V a, V b);
+
+    // CF e OF do imul (o produto não cabe em 32 bits).
+    V overflowMultiplicacao(V a, V b);
+
+    // ZF e SF depois do imul, indefinidas.
+    V flagMultiplicacao(int flag, V a, V b, V resultado);
+
+    V carryDeslocamento(String mnemonico, V a, int contagem);
+
+    // OF do deslocamento, indefinida quando a contagem não é 1.
+    V overflowDeslocamento(String mnemonico, V a, int contagem);
+}
@@ -0,0 +1,124 @@
+package com.editor_texto.nyx.compiler.superotimizador;
+
+/**
+ * Valores de 32 bits, com a semântica do x86. As flags valem 0 ou 1; as
+ * indefinidas seguem o que os processadores atuais fazem.
+ */
+final class DominioConcreto implements Dominio<Integer> {
+
+    static final DominioConcreto INSTANCIA = new DominioConcreto();
+
+    private DominioConcreto() {
+    }
+
+    @Override
+    public Integer constante(int valor) {
+        return valor;
+    }
+
+    @Override
+    public Integer somar(Integer a, Integer b) {
+        return a + b;
+    }
+
+    @Override
+    public Integer subtrair(Integer a, Integer b) {
+        return a - b;
+    }
+
+    @Override
+    public Integer multiplicar(Integer a, Integer b) {
+        return a * b;
+    }
+
+    @Override
+    public Integer logica(String mnemonico, Integer a, Integer b) {
+        return switch (mnemonico) {
+            case "and" -> a & b;
+            case "or" -> a | b;
+            default -> a ^ b;
+        };
+    }
+
+    @Override
+    public Integer inverter(Integer a) {
+        return ~a;
+    }
+
+    @Override
+    public Integer deslocar(String mnemonico, Integer a, int contagem) {
+        return switch (mnemonico) {
+            case "shl" -> a << contagem;
+            case "shr" -> a >>> contagem;
+            default -> a >> contagem;
+        };
+    }
+
+    @Override
+    public Integer zero(Integer resultado) {
+        return bit(resultado == 0);
+    }
+
+    @Override
+    public Integer sinal(Integer resultado) {
+        return bit(resultado < 0);
+    }
+
+    @Override
+    public Integer carrySoma(Integer a, Integer b) {
+        return bit(Integer.compareUnsigned(a + b, a) < 0);
+    }
+
+    @Override
+    public Integer overflowSoma(Integer a, Integer b) {
+        int resultado = a + b;
+        return bit(((a ^ resultado) & (b ^ resultado)) < 0);
+    }
+
+    @Override
+    public Integer carrySubtracao(Integer a, Integer b) {
+        return bit(Integer.compareUnsigned(a, b) < 0);
+    }
+
+    @Override
+    public Integer overflowSubtracao(Integer a, Integer b) {
+        int resultado = a - b;
+        return bit(((a ^ b) & (a ^ resultado)) < 0);
+    }
+
+    @Override
+    public Integer overflowMultiplicacao(Integer a, Integer b) {
+        long produto = (long) a * b;
+        return bit(produto != (int) produto);
+    }
+
+    @Override
+    public Integer flagMultiplicacao(int flag, Integer a, Integer b, Integer resultado) {
+        return flag == Estado.ZF ? zero(resultado) : sinal(resultado);
+    }
+
+    @Override
+    public Integer carryDeslocamento(String mnemonico, Integer a, int contagem) {
+        return switch (mnemonico) {
+            case "shl" -> (a >>> (32 - contagem)) & 1;
+            case "shr" -> (a >>> (contagem - 1)) & 1;
+            default -> (a >> (contagem - 1)) & 1;
+        };
+    }
+
+    @Override
+    public Integer overflowDeslocamento(String mnemonico, Integer a, int contagem) {
+        return switch (mnemonico) {
+            case "shl" -> {
+                boolean negativo = deslocar(mnemonico, a, contagem) < 0;
+                yield bit(negativo != (carryDeslocamento(mnemonico, a, contagem) == 1));
+            }
+            case "shr" -> bit(contagem == 1 && a < 0);
+            default -> 0;
+        };
+    }
+
+    private static Integer bit(boolean valor) {
+        return valor ? 1 : 0;
+    }
+}
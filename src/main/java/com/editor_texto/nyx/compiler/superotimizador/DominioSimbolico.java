@@ -0,0 +1,199 @@
+package com.editor_texto.nyx.compiler.superotimizador;
+
+import java.util.function.BiFunction;
+
+/**
+ * Expressões sobre os valores iniciais (ValorSimbolico). Soma, subtração,
+ * multiplicação por constante, not e shl ficam afins; o resto vira átomo,
+ * com os argumentos ordenados nas operações comutativas. Com todos os
+ * argumentos constantes, o resultado é o do DominioConcreto. As
+ * simplificações usadas são só identidades exatas (x and 0, x xor x, CF de
+ * x - 0, ...); as flags indefinidas são átomos que só se igualam à mesma
+ * operação sobre os mesmos argumentos.
+ */
+final class DominioSimbolico implements Dominio<ValorSimbolico> {
+
+    static final DominioSimbolico INSTANCIA = new DominioSimbolico();
+
+    private static final ValorSimbolico ZERO = ValorSimbolico.constante(0);
+    private static final ValorSimbolico UM = ValorSimbolico.constante(1);
+    private static final ValorSimbolico TODOS = ValorSimbolico.constante(-1);
+
+    private DominioSimbolico() {
+    }
+
+    @Override
+    public ValorSimbolico constante(int valor) {
+        return ValorSimbolico.constante(valor);
+    }
+
+    @Override
+    public ValorSimbolico somar(ValorSimbolico a, ValorSimbolico b) {
+        return a.somar(b);
+    }
+
+    @Override
+    public ValorSimbolico subtrair(ValorSimbolico a, ValorSimbolico b) {
+        return a.somar(b.escalar(-1));
+    }
+
+    @Override
+    public ValorSimbolico multiplicar(ValorSimbolico a, ValorSimbolico b) {
+        if (b.isConstante()) {
+            return a.escalar(b.getConstante());
+        }
+        if (a.isConstante()) {
+            return b.escalar(a.getConstante());
+        }
+        return comutativo("mul", a, b);
+    }
+
+    @Override
+    public ValorSimbolico logica(String mnemonico, ValorSimbolico a, ValorSimbolico b) {
+        if (a.isConstante() && b.isConstante()) {
+            return concreto((x, y) -> DominioConcreto.INSTANCIA.logica(mnemonico, x, y), a, b);
+        }
+        if (a.isConstante()) {
+            return logica(mnemonico, b, a);
+        }
+        boolean iguais = a.equals(b);
+        switch (mnemonico) {
+            case "and":
+                if (b.equals(ZERO)) {
+                    return ZERO;
+                }
+                if (b.equals(TODOS) || iguais) {
+                    return a;
+                }
+                break;
+            case "or":
+                if (b.equals(TODOS)) {
+                    return TODOS;
+                }
+                if (b.equals(ZERO) || iguais) {
+                    return a;
+                }
+                break;
+            default:
+                if (iguais) {
+                    return ZERO;
+                }
+                if (b.equals(ZERO)) {
+                    return a;
+                }
+                if (b.equals(TODOS)) {
+                    return inverter(a);
+                }
+                break;
+        }
+        return comutativo(mnemonico, a, b);
+    }
+
+    @Override
+    public ValorSimbolico inverter(ValorSimbolico a) {
+        return TODOS.somar(a.escalar(-1));
+    }
+
+    @Override
+    public ValorSimbolico deslocar(String mnemonico, ValorSimbolico a, int contagem) {
+        if (mnemonico.equals("shl")) {
+            return a.escalar(1 << contagem);
+        }
+        if (a.isConstante()) {
+            return constante(DominioConcreto.INSTANCIA.deslocar(mnemonico, a.getConstante(), contagem));
+        }
+        return atomo(mnemonico, a, contagem);
+    }
+
+    @Override
+    public ValorSimbolico zero(ValorSimbolico resultado) {
+        return resultado.isConstante() ? constante(DominioConcreto.INSTANCIA.zero(resultado.getConstante()))
+                : atomo("zf", resultado);
+    }
+
+    @Override
+    public ValorSimbolico sinal(ValorSimbolico resultado) {
+        return resultado.isConstante() ? constante(DominioConcreto.INSTANCIA.sinal(resultado.getConstante()))
+                : atomo("sf", resultado);
+    }
+
+    @Override
+    public ValorSimbolico carrySoma(ValorSimbolico a, ValorSimbolico b) {
+        if (a.isConstante() && b.isConstante()) {
+            return concreto(DominioConcreto.INSTANCIA::carrySoma, a, b);
+        }
+        return a.equals(ZERO) || b.equals(ZERO) ? ZERO : comutativo("cf+", a, b);
+    }
+
+    @Override
+    public ValorSimbolico overflowSoma(ValorSimbolico a, ValorSimbolico b) {
+        if (a.isConstante() && b.isConstante()) {
+            return concreto(DominioConcreto.INSTANCIA::overflowSoma, a, b);
+        }
+        return a.equals(ZERO) || b.equals(ZERO) ? ZERO : comutativo("of+", a, b);
+    }
+
+    @Override
+    public ValorSimbolico carrySubtracao(ValorSimbolico a, ValorSimbolico b) {
+        if (a.isConstante() && b.isConstante()) {
+            return concreto(DominioConcreto.INSTANCIA::carrySubtracao, a, b);
+        }
+        return b.equals(ZERO) || a.equals(b) ? ZERO : atomo("cf-", a, b);
+    }
+
+    @Override
+    public ValorSimbolico overflowSubtracao(ValorSimbolico a, ValorSimbolico b) {
+        if (a.isConstante() && b.isConstante()) {
+            return concreto(DominioConcreto.INSTANCIA::overflowSubtracao, a, b);
+        }
+        return b.equals(ZERO) || a.equals(b) ? ZERO : atomo("of-", a, b);
+    }
+
+    @Override
+    public ValorSimbolico overflowMultiplicacao(ValorSimbolico a, ValorSimbolico b) {
+        if (a.isConstante() && b.isConstante()) {
+            return concreto(DominioConcreto.INSTANCIA::overflowMultiplicacao, a, b);
+        }
+        boolean trivial = a.equals(ZERO) || b.equals(ZERO) || a.equals(UM) || b.equals(UM);
+        return trivial ? ZERO : comutativo("of*", a, b);
+    }
+
+    @Override
+    public ValorSimbolico flagMultiplicacao(int flag, ValorSimbolico a, ValorSimbolico b,
+            ValorSimbolico resultado) {
+        return comutativo(flag == Estado.ZF ? "zf*" : "sf*", a, b);
+    }
+
+    @Override
+    public ValorSimbolico carryDeslocamento(String mnemonico, ValorSimbolico a, int contagem) {
+        if (a.isConstante()) {
+            return constante(DominioConcreto.INSTANCIA.carryDeslocamento(mnemonico, a.getConstante(), contagem));
+        }
+        return atomo("cf" + mnemonico, a, contagem);
+    }
+
+    @Override
+    public ValorSimbolico overflowDeslocamento(String mnemonico, ValorSimbolico a, int contagem) {
+        if (contagem == 1 && a.isConstante()) {
+            return constante(DominioConcreto.INSTANCIA.overflowDeslocamento(mnemonico, a.getConstante(), 1));
+        }
+        return atomo("of" + mnemonico, a, contagem);
+    }
+
+    private static ValorSimbolico concreto(BiFunction<Integer, Integer, Integer> operacao, ValorSimbolico a,
+            ValorSimbolico b) {
+        return ValorSimbolico.constante(operacao.apply(a.getConstante(), b.getConstante()));
+    }
+
+    private static ValorSimbolico comutativo(String operacao, ValorSimbolico a, ValorSimbolico b) {
+        return a.toString().compareTo(b.toString()) <= 0 ? atomo(operacao, a, b) : atomo(operacao, b, a);
+    }
+
+    private static ValorSimbolico atomo(String operacao, Object... argumentos) {
+        StringBuilder nome = new StringBuilder(operacao).append('(');
+        for (int i = 0; i < argumentos.length; i++) {
+            nome.append(i == 0 ? "" : ",").append(argumentos[i]);
+        }
+        return ValorSimbolico.atomo(nome.append(')').toString());
+    }
+}
@@ -0,0 +1,153 @@
+package com.editor_texto.nyx.compiler.superotimizador;
+
+import com.editor_texto.nyx.compiler.superotimizador.InstrucaoSubconjunto.Argumento;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registradores eax..edi, células de memória e as flags CF, ZF, SF e OF,
+ * com valores de um Dominio. As variáveis da janela são mapeadas para as
+ * células por 'celulas': duas variáveis na mesma célula são nomes da mesma
+ * posição de memória.
+ */
+final class Estado<V> {
+
+    static final int CF = 0;
+    static final int ZF = 1;
+    static final int SF = 2;
+    static final int OF = 3;
+    static final String[] NOMES_FLAGS = { "CF", "ZF", "SF", "OF" };
+
+    private final List<V> registradores;
+    private final List<V> memoria;
+    private final List<V> flags;
+
+    Estado(List<V> registradores, List<V> memoria, List<V> flags) {
+        this.registradores = new ArrayList<>(registradores);
+        this.memoria = new ArrayList<>(memoria);
+        this.flags = new ArrayList<>(flags);
+    }
+
+    Estado<V> copiar() {
+        return new Estado<>(registradores, memoria, flags);
+    }
+
+    V getRegistrador(int indice) {
+        return registradores.get(indice);
+    }
+
+    V getFlag(int flag) {
+        return flags.get(flag);
+    }
+
+    List<V> getMemoria() {
+        return memoria;
+    }
+
+    void executar(List<InstrucaoSubconjunto> codigo, int[] celulas, Dominio<V> dominio) {
+        for (InstrucaoSubconjunto instrucao : codigo) {
+            executar(instrucao, celulas, dominio);
+        }
+    }
+
+    private void executar(InstrucaoSubconjunto instrucao, int[] celulas, Dominio<V> dominio) {
+        String mnemonico = instrucao.getMnemonico();
+        Argumento destino = instrucao.getArgumento(0);
+        V a = mnemonico.equals("lea") || mnemonico.equals("mov") ? null : ler(destino, celulas, dominio);
+        V b = instrucao.getArgumentos().size() > 1 ? ler(instrucao.getArgumento(1), celulas, dominio) : null;
+        switch (mnemonico) {
+            case "mov", "lea" -> escrever(destino, b, celulas);
+            case "add" -> {
+                V resultado = dominio.somar(a, b);
+                aritmetica(dominio, resultado, dominio.carrySoma(a, b), dominio.overflowSoma(a, b));
+                escrever(destino, resultado, celulas);
+            }
+            case "sub", "cmp" -> {
+                V resultado = dominio.subtrair(a, b);
+                aritmetica(dominio, resultado, dominio.carrySubtracao(a, b), dominio.overflowSubtracao(a, b));
+                if (mnemonico.equals("sub")) {
+                    escrever(destino, resultado, celulas);
+                }
+            }
+            case "and", "or", "xor", "test" -> {
+                V resultado = dominio.logica(mnemonico.equals("test") ? "and" : mnemonico, a, b);
+                aritmetica(dominio, resultado, dominio.constante(0), dominio.constante(0));
+                if (!mnemonico.equals("test")) {
+                    escrever(destino, resultado, celulas);
+                }
+            }
+            case "inc", "dec" -> {
+                V um = dominio.constante(1);
+                boolean inc = mnemonico.equals("inc");
+                V resultado = inc ? dominio.somar(a, um) : dominio.subtrair(a, um);
+                V carry = flags.get(CF);
+                aritmetica(dominio, resultado, carry,
+                        inc ? dominio.overflowSoma(a, um) : dominio.overflowSubtracao(a, um));
+                escrever(destino, resultado, celulas);
+            }
+            case "neg" -> {
+                V zero = dominio.constante(0);
+                V resultado = dominio.subtrair(zero, a);
+                aritmetica(dominio, resultado, dominio.carrySubtracao(zero, a), dominio.overflowSubtracao(zero, a));
+                escrever(destino, resultado, celulas);
+            }
+            case "not" -> escrever(destino, dominio.inverter(a), celulas);
+            case "imul" -> {
+                // imul r, x, imm multiplica o segundo pelo terceiro; imul r, x, o destino pelo segundo.
+                V fator1 = instrucao.getArgumentos().size() == 3 ? b : a;
+                V fator2 = instrucao.getArgumentos().size() == 3
+                        ? ler(instrucao.getArgumento(2), celulas, dominio) : b;
+                V resultado = dominio.multiplicar(fator1, fator2);
+                V overflow = dominio.overflowMultiplicacao(fator1, fator2);
+                flags.set(CF, overflow);
+                flags.set(OF, overflow);
+                flags.set(ZF, dominio.flagMultiplicacao(ZF, fator1, fator2, resultado));
+                flags.set(SF, dominio.flagMultiplicacao(SF, fator1, fator2, resultado));
+                escrever(destino, resultado, celulas);
+            }
+            default -> {
+                int contagem = instrucao.getArgumento(1).valor;
+                V resultado = dominio.deslocar(mnemonico, a, contagem);
+                aritmetica(dominio, resultado, dominio.carryDeslocamento(mnemonico, a, contagem),
+                        dominio.overflowDeslocamento(mnemonico, a, contagem));
+                escrever(destino, resultado, celulas);
+            }
+        }
+    }
+
+    private void aritmetica(Dominio<V> dominio, V resultado, V carry, V overflow) {
+        flags.set(CF, carry);
+        flags.set(ZF, dominio.zero(resultado));
+        flags.set(SF, dominio.sinal(resultado));
+        flags.set(OF, overflow);
+    }
+
+    private V ler(Argumento argumento, int[] celulas, Dominio<V> dominio) {
+        return switch (argumento.tipo) {
+            case REGISTRADOR -> registradores.get(argumento.valor);
+            case MEMORIA -> memoria.get(celulas[argumento.valor]);
+            case IMEDIATO -> dominio.constante(argumento.valor);
+            case ENDERECO -> {
+                V endereco = dominio.constante(argumento.valor);
+                if (argumento.base >= 0) {
+                    endereco = dominio.somar(registradores.get(argumento.base), endereco);
+                }
+                if (argumento.indice >= 0) {
+                    V escalado = dominio.multiplicar(registradores.get(argumento.indice),
+                            dominio.constante(argumento.escala));
+                    endereco = dominio.somar(endereco, escalado);
+                }
+                yield endereco;
+            }
+        };
+    }
+
+    private void escrever(Argumento argumento, V valor, int[] celulas) {
+        if (argumento.tipo == InstrucaoSubconjunto.Tipo.REGISTRADOR) {
+            registradores.set(argumento.valor, valor);
+        } else {
+            memoria.set(celulas[argumento.valor], valor);
+        }
+    }
+}
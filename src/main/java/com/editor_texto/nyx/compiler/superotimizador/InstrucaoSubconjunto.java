@@ -0,0 +1,316 @@
+package com.editor_texto.nyx.compiler.superotimizador;
+
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
+import com.editor_texto.nyx.compiler.peephole.LeitorAssembly;
+import com.editor_texto.nyx.compiler.peephole.Operando;
+import com.editor_texto.nyx.compiler.peephole.TipoOperando;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Instrução do subconjunto que o Superotimizador sabe executar: operações
+ * inteiras de 32 bits sobre eax..edi, imediatos literais e variáveis da
+ * memória escritas pelo nome. As variáveis são numeradas pela ordem em que
+ * aparecem na janela e escritas nas regras como $a, $b, ... O lea aceita
+ * endereços [base+indice*escala+deslocamento].
+ */
+final class InstrucaoSubconjunto {
+
+    static final String[] REGISTRADORES = { "eax", "ebx", "ecx", "edx", "esi", "edi" };
+    static final Set<String> BINARIAS = Set.of("add", "sub", "and", "or", "xor");
+    static final Set<String> UNARIAS = Set.of("inc", "dec", "neg", "not");
+    static final Set<String> DESLOCAMENTOS = Set.of("shl", "shr", "sar");
+    static final Set<String> COMPARACOES = Set.of("cmp", "test");
+
+    private static final Pattern NOME = Pattern.compile("[A-Za-z_]\\w*");
+
+    enum Tipo {
+        REGISTRADOR, MEMORIA, IMEDIATO, ENDERECO
+    }
+
+    /**
+     * Operando: registrador ou variável (pelo índice), imediato (pelo valor)
+     * ou endereço do lea (base e índice são registradores, -1 se ausentes).
+     */
+    static final class Argumento {
+        final Tipo tipo;
+        final int valor;
+        final int base;
+        final int indice;
+        final int escala;
+
+        private Argumento(Tipo tipo, int valor, int base, int indice, int escala) {
+            this.tipo = tipo;
+            this.valor = valor;
+            this.base = base;
+            this.indice = indice;
+            this.escala = escala;
+        }
+
+        static Argumento registrador(int registrador) {
+            return new Argumento(Tipo.REGISTRADOR, registrador, -1, -1, 0);
+        }
+
+        static Argumento memoria(int variavel) {
+            return new Argumento(Tipo.MEMORIA, variavel, -1, -1, 0);
+        }
+
+        static Argumento imediato(int valor) {
+            return new Argumento(Tipo.IMEDIATO, valor, -1, -1, 0);
+        }
+
+        // [base+indice*escala+deslocamento]; o deslocamento fica em 'valor'.
+        static Argumento endereco(int base, int indice, int escala, int deslocamento) {
+            return new Argumento(Tipo.ENDERECO, deslocamento, base, indice, escala);
+        }
+
+        String texto() {
+            return switch (tipo) {
+                case REGISTRADOR -> REGISTRADORES[valor];
+                case MEMORIA -> nomeVariavel(valor);
+                case IMEDIATO -> Integer.toString(valor);
+                case ENDERECO -> textoEndereco();
+            };
+        }
+
+        private String textoEndereco() {
+            StringBuilder texto = new StringBuilder("[");
+            if (base >= 0) {
+                texto.append(REGISTRADORES[base]);
+            }
+            if (indice >= 0) {
+                texto.append(texto.length() > 1 ? "+" : "").append(REGISTRADORES[indice]);
+                if (escala != 1) {
+                    texto.append('*').append(escala);
+                }
+            }
+            if (valor != 0 || texto.length() == 1) {
+                texto.append(valor < 0 || texto.length() == 1 ? "" : "+").append(valor);
+            }
+            return texto.append(']').toString();
+        }
+    }
+
+    private final String mnemonico;
+    private final List<Argumento> argumentos;
+
+    InstrucaoSubconjunto(String mnemonico, List<Argumento> argumentos) {
+        this.mnemonico = mnemonico;
+        this.argumentos = argumentos;
+    }
+
+    String getMnemonico() {
+        return mnemonico;
+    }
+
+    List<Argumento> getArgumentos() {
+        return argumentos;
+    }
+
+    Argumento getArgumento(int indice) {
+        return argumentos.get(indice);
+    }
+
+    // $a, $b, ... pelo índice da variável na janela.
+    static String nomeVariavel(int indice) {
+        return "$" + (char) ('a' + indice);
+    }
+
+    static int indiceRegistrador(String nome) {
+        for (int i = 0; i < REGISTRADORES.length; i++) {
+            if (REGISTRADORES[i].equals(nome)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Converte uma instrução lida do .asm, ou null se ela está fora do
+     * subconjunto. 'variaveis' recebe as variáveis novas; o índice de cada uma
+     * é a posição na lista.
+     */
+    static InstrucaoSubconjunto de(Instrucao instrucao, List<String> variaveis) {
+        if (!instrucao.isInstrucao()) {
+            return null;
+        }
+        String mnemonico = instrucao.getMnemonico();
+        if (!mnemonico.equals("mov") && !mnemonico.equals("imul") && !mnemonico.equals("lea")
+                && !BINARIAS.contains(mnemonico) && !UNARIAS.contains(mnemonico)
+                && !DESLOCAMENTOS.contains(mnemonico) && !COMPARACOES.contains(mnemonico)) {
+            return null;
+        }
+        List<Argumento> argumentos = new ArrayList<>();
+        List<String> novas = new ArrayList<>();
+        for (Operando operando : instrucao.getOperandos()) {
+            Argumento argumento = converter(operando, variaveis, novas);
+            if (argumento == null) {
+                return null;
+            }
+            argumentos.add(argumento);
+        }
+        InstrucaoSubconjunto resultado = new InstrucaoSubconjunto(mnemonico, argumentos);
+        if (!resultado.isValida()) {
+            return null;
+        }
+        variaveis.addAll(novas);
+        return resultado;
+    }
+
+    private static Argumento converter(Operando operando, List<String> variaveis, List<String> novas) {
+        String texto = operando.getTexto();
+        switch (operando.getTipo()) {
+            case REGISTRADOR: {
+                int registrador = indiceRegistrador(texto);
+                return registrador < 0 ? null : Argumento.registrador(registrador);
+            }
+            case IMEDIATO: {
+                Integer valor = operando.getValor();
+                return valor == null ? null : Argumento.imediato(valor);
+            }
+            case MEMORIA: {
+                if (texto.startsWith("[")) {
+                    return converterEndereco(texto);
+                }
+                if (!NOME.matcher(texto).matches()) {
+                    return null;
+                }
+                int indice = variaveis.indexOf(texto);
+                if (indice < 0) {
+                    indice = novas.indexOf(texto);
+                    if (indice < 0) {
+                        novas.add(texto);
+                        indice = novas.size() - 1;
+                    }
+                    indice += variaveis.size();
+                }
+                return Argumento.memoria(indice);
+            }
+            default:
+                return null;
+        }
+    }
+
+    // [eax+eax*2], [ebx+4], ...: só registradores do subconjunto e literais.
+    private static Argumento converterEndereco(String texto) {
+        if (!texto.endsWith("]")) {
+            return null;
+        }
+        int base = -1;
+        int indice = -1;
+        int escala = 0;
+        long deslocamento = 0;
+        for (String termo : texto.substring(1, texto.length() - 1).replace("-", "+-").split("\\+")) {
+            String parte = termo.trim();
+            if (parte.isEmpty()) {
+                continue;
+            }
+            Operando simples = LeitorAssembly.classificarSemContexto(parte);
+            if (simples.getTipo() == TipoOperando.IMEDIATO && simples.getValor() != null) {
+                deslocamento += simples.getValor();
+                continue;
+            }
+            int vezes = parte.indexOf('*');
+            int registrador = indiceRegistrador(vezes < 0 ? parte : parte.substring(0, vezes).trim());
+            if (registrador < 0) {
+                return null;
+            }
+            if (vezes < 0 && base < 0) {
+                base = registrador;
+            } else if (indice < 0) {
+                Integer fator = vezes < 0 ? Integer.valueOf(1)
+                        : LeitorAssembly.classificarSemContexto(parte.substring(vezes + 1).trim()).getValor();
+                if (fator == null || (fator != 1 && fator != 2 && fator != 4 && fator != 8)) {
+                    return null;
+                }
+                indice = registrador;
+                escala = fator;
+            } else {
+                return null;
+            }
+        }
+        return Argumento.endereco(base, indice, escala, (int) deslocamento);
+    }
+
+    /**
+     * As combinações de operandos que o montador aceita: no máximo um operando
+     * de memória, destino que pode ser escrito e contagem de deslocamento
+     * entre 1 e 31.
+     */
+    boolean isValida() {
+        int quantidade = argumentos.size();
+        if (mnemonico.equals("lea")) {
+            return quantidade == 2 && tipo(0) == Tipo.REGISTRADOR && tipo(1) == Tipo.ENDERECO;
+        }
+        for (Argumento argumento : argumentos) {
+            if (argumento.tipo == Tipo.ENDERECO) {
+                return false;
+            }
+        }
+        if (UNARIAS.contains(mnemonico)) {
+            return quantidade == 1 && tipo(0) != Tipo.IMEDIATO;
+        }
+        if (DESLOCAMENTOS.contains(mnemonico)) {
+            return quantidade == 2 && tipo(0) != Tipo.IMEDIATO && tipo(1) == Tipo.IMEDIATO
+                    && argumentos.get(1).valor >= 1 && argumentos.get(1).valor <= 31;
+        }
+        if (mnemonico.equals("imul")) {
+            if (quantidade == 3) {
+                return tipo(0) == Tipo.REGISTRADOR && tipo(1) != Tipo.IMEDIATO && tipo(2) == Tipo.IMEDIATO;
+            }
+            return quantidade == 2 && tipo(0) == Tipo.REGISTRADOR;
+        }
+        if (quantidade != 2 || tipo(0) == Tipo.IMEDIATO) {
+            return false;
+        }
+        if (mnemonico.equals("test") && tipo(1) == Tipo.MEMORIA) {
+            return false;
+        }
+        return tipo(0) != Tipo.MEMORIA || tipo(1) != Tipo.MEMORIA;
+    }
+
+    private Tipo tipo(int indice) {
+        return argumentos.get(indice).tipo;
+    }
+
+    // A instrução escreve no registrador (cmp e test não escrevem).
+    boolean escreve(int registrador) {
+        return !COMPARACOES.contains(mnemonico) && tipo(0) == Tipo.REGISTRADOR
+                && argumentos.get(0).valor == registrador;
+    }
+
+    // Instrução do peephole equivalente, com 'nomes' no lugar das variáveis.
+    Instrucao paraInstrucao(List<String> nomes) {
+        List<Operando> operandos = new ArrayList<>();
+        for (Argumento argumento : argumentos) {
+            operandos.add(switch (argumento.tipo) {
+                case REGISTRADOR -> new Operando(TipoOperando.REGISTRADOR, argumento.texto());
+                case IMEDIATO -> new Operando(TipoOperando.IMEDIATO, argumento.texto());
+                case MEMORIA -> new Operando(TipoOperando.MEMORIA, nomes.get(argumento.valor));
+                case ENDERECO -> new Operando(TipoOperando.MEMORIA, argumento.texto());
+            });
+        }
+        return Instrucao.instrucao(mnemonico, operandos);
+    }
+
+    // Texto na linguagem das regras; 'tipada' escreve as variáveis como $a:var.
+    String texto(boolean tipada) {
+        StringBuilder texto = new StringBuilder(mnemonico);
+        for (int i = 0; i < argumentos.size(); i++) {
+            Argumento argumento = argumentos.get(i);
+            texto.append(i == 0 ? " " : ", ").append(argumento.texto());
+            if (tipada && argumento.tipo == Tipo.MEMORIA) {
+                texto.append(":var");
+            }
+        }
+        return texto.toString();
+    }
+
+    @Override
+    public String toString() {
+        return texto(false);
+    }
+}
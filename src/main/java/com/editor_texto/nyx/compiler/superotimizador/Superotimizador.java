@@ -0,0 +1,502 @@
+package com.editor_texto.nyx.compiler.superotimizador;
+
+import com.editor_texto.nyx.compiler.peephole.CarregadorRegras;
+import com.editor_texto.nyx.compiler.peephole.CustoInstrucao;
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
+import com.editor_texto.nyx.compiler.peephole.LeitorAssembly;
+import com.editor_texto.nyx.compiler.peephole.RegraPadrao;
+import com.editor_texto.nyx.compiler.peephole.TamanhoInstrucao;
+import com.editor_texto.nyx.compiler.peephole.UsoRegistradores;
+import com.editor_texto.nyx.compiler.superotimizador.InstrucaoSubconjunto.Argumento;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Ferramenta offline que aprende regras peephole com o código que o
+ * GeradorAssembly realmente emite. Colhe as janelas curtas de instruções
+ * simples mais frequentes de um corpus de .asm gerados, procura por força
+ * bruta a sequência mais barata que faz o mesmo (até MAXIMO_CANDIDATA
+ * instruções do subconjunto, com os registradores, variáveis e imediatos da
+ * janela) e grava cada achado como regra na linguagem do CarregadorRegras,
+ * no recurso que o Otimizador carrega junto com as regras padrão.
+ *
+ * Cada janela é colhida com o contexto em que aparece: os registradores
+ * escritos por ela e as flags que estão mortos depois dela (UsoRegistradores)
+ * podem terminar diferentes, e a regra gerada exige que estejam mortos.
+ * O custo é o do EstimadorCusto (soma das latências de CustoInstrucao) e,
+ * no empate, o tamanho de TamanhoInstrucao. A equivalência é verificada pelo
+ * VerificadorEquivalencia. Como o peephole roda até não haver mais mudança,
+ * o corpus deve ser o .asm final: as janelas que sobram nele são as que as
+ * regras atuais não melhoram. As rotinas do RuntimeLC, anexadas depois do
+ * peephole, ficam de fora.
+ *
+ * <pre>
+ * java ... Superotimizador [-janela 3] [-limite 40] [-saida arquivo] out/ exemplos/*.asm
+ * </pre>
+ */
+public class Superotimizador {
+
+    public static final int JANELA_PADRAO = 3;
+    public static final int LIMITE_PADRAO = 40;
+    public static final Path SAIDA_PADRAO = Path.of("src/main/resources" + CarregadorRegras.RECURSO_SUPEROTIMIZADOR);
+
+    private static final int MAXIMO_CANDIDATA = 2;
+    private static final String PREFIXO_RUNTIME = "_nyx_";
+    private static final String[] OPERACOES = { "mov", "add", "sub", "and", "or", "xor", "cmp", "test" };
+    private static final int[] ESCALAS = { 1, 2, 4, 8 };
+    // Nomes das variáveis da janela na estimativa de custo (só o tipo importa).
+    private static final List<String> NOMES_CUSTO = List.of("va", "vb", "vc", "vd", "ve", "vf");
+
+    /**
+     * Janela do corpus, com as variáveis trocadas por $a, $b, ..., as saídas
+     * mortas depois dela (máscara do VerificadorEquivalencia) e o número de
+     * vezes que apareceu com esse contexto.
+     */
+    private static final class Janela {
+        private final List<InstrucaoSubconjunto> instrucoes;
+        private final int variaveis;
+        private final int mortos;
+        private long ocorrencias;
+
+        Janela(List<InstrucaoSubconjunto> instrucoes, int variaveis, int mortos) {
+            this.instrucoes = instrucoes;
+            this.variaveis = variaveis;
+            this.mortos = mortos;
+        }
+    }
+
+    // Latência somada e, no empate, tamanho em bytes.
+    private static final class Custo implements Comparable<Custo> {
+        private final double latencia;
+        private final int tamanho;
+
+        Custo(double latencia, int tamanho) {
+            this.latencia = latencia;
+            this.tamanho = tamanho;
+        }
+
+        static Custo de(List<InstrucaoSubconjunto> codigo) {
+            double latencia = 0;
+            int tamanho = 0;
+            for (InstrucaoSubconjunto instrucao : codigo) {
+                Instrucao equivalente = instrucao.paraInstrucao(NOMES_CUSTO);
+                latencia += CustoInstrucao.de(equivalente).getLatencia();
+                tamanho += TamanhoInstrucao.estimar(equivalente);
+            }
+            return new Custo(latencia, tamanho);
+        }
+
+        Custo somar(Custo outro) {
+            return new Custo(latencia + outro.latencia, tamanho + outro.tamanho);
+        }
+
+        @Override
+        public int compareTo(Custo outro) {
+            int latencias = Double.compare(latencia, outro.latencia);
+            return latencias != 0 ? latencias : Integer.compare(tamanho, outro.tamanho);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f ciclos, %d bytes", latencia, tamanho);
+        }
+    }
+
+    // Sequência mais barata achada para uma janela.
+    private static final class Achado {
+        private final Janela janela;
+        private final List<InstrucaoSubconjunto> substituicao;
+        // Saídas que a substituição deixa diferentes (ver VerificadorEquivalencia).
+        private final int mortos;
+        private final Custo antes;
+        private final Custo depois;
+        // Ocorrências de todos os contextos que deram a mesma regra.
+        private long ocorrencias;
+
+        Achado(Janela janela, List<InstrucaoSubconjunto> substituicao, int mortos, Custo antes, Custo depois) {
+            this.janela = janela;
+            this.substituicao = substituicao;
+            this.mortos = mortos;
+            this.antes = antes;
+            this.depois = depois;
+            this.ocorrencias = janela.ocorrencias;
+        }
+
+        // A regra sem o nome, que identifica o achado.
+        String regra() {
+            StringBuilder texto = new StringBuilder(juntar(janela.instrucoes, true)).append(" =>");
+            if (!substituicao.isEmpty()) {
+                texto.append(' ').append(juntar(substituicao, false));
+            }
+            List<String> nomes = new ArrayList<>();
+            for (int r = 0; r < InstrucaoSubconjunto.REGISTRADORES.length; r++) {
+                if ((mortos & (1 << r)) != 0) {
+                    nomes.add(InstrucaoSubconjunto.REGISTRADORES[r]);
+                }
+            }
+            if ((mortos & VerificadorEquivalencia.FLAGS) != 0) {
+                nomes.add(RegraPadrao.FLAGS);
+            }
+            if (!nomes.isEmpty()) {
+                texto.append(" | morto ").append(String.join(", ", nomes));
+            }
+            return texto.toString();
+        }
+    }
+
+    private final int tamanhoJanela;
+    private final Map<String, Janela> janelas = new LinkedHashMap<>();
+    private int arquivos;
+
+    public Superotimizador(int tamanhoJanela) {
+        this.tamanhoJanela = tamanhoJanela;
+    }
+
+    public int getJanelasDistintas() {
+        return janelas.size();
+    }
+
+    public int getArquivos() {
+        return arquivos;
+    }
+
+    // Colhe de um .asm, ou de todos os .asm de um diretório.
+    public void coletar(Path caminho) throws IOException {
+        if (!Files.isDirectory(caminho)) {
+            coletar(Files.readAllLines(caminho, StandardCharsets.UTF_8));
+            return;
+        }
+        try (Stream<Path> lista = Files.walk(caminho)) {
+            for (Path arquivo : lista.filter(p -> p.toString().endsWith(".asm")).sorted().toList()) {
+                coletar(Files.readAllLines(arquivo, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Conta as janelas de 1 até tamanhoJanela instruções seguidas do
+     * subconjunto, sem rótulos no meio, de um programa gerado.
+     */
+    public void coletar(List<String> linhas) {
+        arquivos++;
+        List<Instrucao> codigo = new LeitorAssembly().ler(linhas);
+        List<Integer> trecho = new ArrayList<>();
+        for (int i = 0; i < codigo.size(); i++) {
+            Instrucao instrucao = codigo.get(i);
+            if (instrucao.getTipo() == Instrucao.Tipo.VAZIA) {
+                continue;
+            }
+            if (!instrucao.isInstrucao()) {
+                coletarTrecho(codigo, trecho);
+                trecho.clear();
+                if (instrucao.isRotulo() && instrucao.getMnemonico().startsWith(PREFIXO_RUNTIME)) {
+                    return;
+                }
+                continue;
+            }
+            trecho.add(i);
+        }
+        coletarTrecho(codigo, trecho);
+    }
+
+    // 'trecho' tem os índices em 'codigo' de instruções seguidas, sem rótulos.
+    private void coletarTrecho(List<Instrucao> codigo, List<Integer> trecho) {
+        for (int inicio = 0; inicio < trecho.size(); inicio++) {
+            List<String> variaveis = new ArrayList<>();
+            List<InstrucaoSubconjunto> instrucoes = new ArrayList<>();
+            for (int i = inicio; i < trecho.size() && instrucoes.size() < tamanhoJanela; i++) {
+                InstrucaoSubconjunto instrucao = InstrucaoSubconjunto.de(codigo.get(trecho.get(i)), variaveis);
+                if (instrucao == null) {
+                    break;
+                }
+                instrucoes.add(instrucao);
+                if (!isDword(instrucoes, variaveis.size())) {
+                    continue;
+                }
+                int mortos = mortos(instrucoes, codigo.subList(trecho.get(i) + 1, codigo.size()));
+                String chave = instrucoes + " | " + mortos;
+                janelas.computeIfAbsent(chave, c -> new Janela(List.copyOf(instrucoes), variaveis.size(), mortos))
+                        .ocorrencias++;
+            }
+        }
+    }
+
+    // Registradores escritos pela janela e flags que não são lidos em 'seguintes'.
+    private static int mortos(List<InstrucaoSubconjunto> instrucoes, List<Instrucao> seguintes) {
+        int mortos = UsoRegistradores.isFlagsMortas(seguintes) ? VerificadorEquivalencia.FLAGS : 0;
+        for (int r = 0; r < InstrucaoSubconjunto.REGISTRADORES.length; r++) {
+            for (InstrucaoSubconjunto instrucao : instrucoes) {
+                boolean escreve = instrucao.escreve(r);
+                if (escreve && UsoRegistradores.isMorto(InstrucaoSubconjunto.REGISTRADORES[r], seguintes)) {
+                    mortos |= 1 << r;
+                    break;
+                }
+            }
+        }
+        return mortos;
+    }
+
+    /**
+     * Toda variável aparece ao lado de um registrador de 32 bits em alguma
+     * instrução: só assim o tamanho dela é dword também na substituição
+     * (ex: 'mov $a, 0' sozinho pode ser um byte).
+     */
+    private static boolean isDword(List<InstrucaoSubconjunto> instrucoes, int variaveis) {
+        for (int v = 0; v < variaveis; v++) {
+            boolean comRegistrador = false;
+            for (InstrucaoSubconjunto instrucao : instrucoes) {
+                boolean usa = false;
+                boolean registrador = false;
+                for (Argumento argumento : instrucao.getArgumentos()) {
+                    usa |= argumento.tipo == InstrucaoSubconjunto.Tipo.MEMORIA && argumento.valor == v;
+                    registrador |= argumento.tipo == InstrucaoSubconjunto.Tipo.REGISTRADOR;
+                }
+                comRegistrador |= usa && registrador;
+            }
+            if (!comRegistrador) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Busca a sequência mais barata das 'limite' janelas mais frequentes. As
+     * regras com padrões mais longos vêm primeiro, porque o MotorPeephole
+     * aplica a primeira que casa.
+     */
+    private List<Achado> buscar(int limite) {
+        Map<String, Achado> achados = new LinkedHashMap<>();
+        List<Janela> frequentes = janelas.values().stream()
+                .sorted(Comparator.comparingLong((Janela j) -> j.ocorrencias).reversed())
+                .limit(limite)
+                .toList();
+        for (Janela janela : frequentes) {
+            Achado achado = buscar(janela);
+            if (achado == null) {
+                continue;
+            }
+            Achado anterior = achados.putIfAbsent(achado.regra(), achado);
+            if (anterior != null) {
+                anterior.ocorrencias += achado.ocorrencias;
+            }
+        }
+        return achados.values().stream()
+                .sorted(Comparator.comparingInt((Achado a) -> a.janela.instrucoes.size()).reversed()
+                        .thenComparing(Comparator.comparingLong((Achado a) -> a.ocorrencias).reversed()))
+                .toList();
+    }
+
+    private Achado buscar(Janela janela) {
+        Set<Integer> registradores = new LinkedHashSet<>();
+        Set<Integer> imediatos = new LinkedHashSet<>(List.of(0, 1));
+        for (InstrucaoSubconjunto instrucao : janela.instrucoes) {
+            for (Argumento argumento : instrucao.getArgumentos()) {
+                switch (argumento.tipo) {
+                    case REGISTRADOR -> registradores.add(argumento.valor);
+                    case IMEDIATO -> imediatos.add(argumento.valor);
+                    case ENDERECO -> {
+                        if (argumento.base >= 0) {
+                            registradores.add(argumento.base);
+                        }
+                        if (argumento.indice >= 0) {
+                            registradores.add(argumento.indice);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        List<InstrucaoSubconjunto> conjunto = gerarInstrucoes(registradores, janela.variaveis, imediatos);
+        List<Custo> custos = new ArrayList<>();
+        for (InstrucaoSubconjunto instrucao : conjunto) {
+            custos.add(Custo.de(List.of(instrucao)));
+        }
+        VerificadorEquivalencia verificador = new VerificadorEquivalencia(janela.instrucoes, janela.variaveis,
+                janela.mortos);
+        Custo antes = Custo.de(janela.instrucoes);
+
+        // Menor custo e, no empate, menos registradores exigidos mortos.
+        List<InstrucaoSubconjunto> melhor = null;
+        int melhorMortos = 0;
+        Custo melhorCusto = antes;
+        List<List<InstrucaoSubconjunto>> candidatas = new ArrayList<>();
+        List<Custo> custosCandidatas = new ArrayList<>();
+        candidatas.add(List.of());
+        custosCandidatas.add(new Custo(0, 0));
+        for (int i = 0; i < conjunto.size(); i++) {
+            candidatas.add(List.of(conjunto.get(i)));
+            custosCandidatas.add(custos.get(i));
+        }
+        if (MAXIMO_CANDIDATA >= 2 && janela.instrucoes.size() >= 2) {
+            for (int i = 0; i < conjunto.size(); i++) {
+                for (int j = 0; j < conjunto.size(); j++) {
+                    Custo custo = custos.get(i).somar(custos.get(j));
+                    if (custo.compareTo(melhorCusto) <= 0) {
+                        candidatas.add(List.of(conjunto.get(i), conjunto.get(j)));
+                        custosCandidatas.add(custo);
+                    }
+                }
+            }
+        }
+        for (int c = 0; c < candidatas.size(); c++) {
+            Custo custo = custosCandidatas.get(c);
+            int comparacao = custo.compareTo(melhorCusto);
+            if (comparacao > 0 || (comparacao == 0 && melhor == null)) {
+                continue;
+            }
+            int mortos = verificador.verificar(candidatas.get(c));
+            if (mortos < 0 || (comparacao == 0 && Integer.bitCount(mortos) >= Integer.bitCount(melhorMortos))) {
+                continue;
+            }
+            melhor = candidatas.get(c);
+            melhorMortos = mortos;
+            melhorCusto = custo;
+        }
+        return melhor == null ? null : new Achado(janela, melhor, melhorMortos, antes, melhorCusto);
+    }
+
+    /**
+     * Instruções válidas do subconjunto sobre os operandos da janela: as de
+     * dois operandos com todas as combinações, unárias, imul, deslocamentos
+     * pelos imediatos e lea com base, índice escalado ou deslocamento.
+     */
+    private static List<InstrucaoSubconjunto> gerarInstrucoes(Set<Integer> registradores, int variaveis,
+            Set<Integer> imediatos) {
+        List<Argumento> regs = new ArrayList<>();
+        for (int registrador : registradores) {
+            regs.add(Argumento.registrador(registrador));
+        }
+        List<Argumento> destinos = new ArrayList<>(regs);
+        for (int v = 0; v < variaveis; v++) {
+            destinos.add(Argumento.memoria(v));
+        }
+        List<Argumento> constantes = new ArrayList<>();
+        for (int imediato : imediatos) {
+            constantes.add(Argumento.imediato(imediato));
+        }
+        List<Argumento> fontes = new ArrayList<>(destinos);
+        fontes.addAll(constantes);
+
+        List<InstrucaoSubconjunto> conjunto = new ArrayList<>();
+        for (String operacao : OPERACOES) {
+            for (Argumento destino : destinos) {
+                for (Argumento fonte : fontes) {
+                    adicionar(conjunto, operacao, destino, fonte);
+                }
+            }
+        }
+        for (String operacao : InstrucaoSubconjunto.UNARIAS) {
+            for (Argumento destino : destinos) {
+                adicionar(conjunto, operacao, destino);
+            }
+        }
+        for (Argumento destino : regs) {
+            for (Argumento fonte : fontes) {
+                adicionar(conjunto, "imul", destino, fonte);
+            }
+            for (Argumento fonte : destinos) {
+                for (Argumento fator : constantes) {
+                    adicionar(conjunto, "imul", destino, fonte, fator);
+                }
+            }
+        }
+        for (String operacao : InstrucaoSubconjunto.DESLOCAMENTOS) {
+            for (Argumento destino : destinos) {
+                for (Argumento contagem : constantes) {
+                    adicionar(conjunto, operacao, destino, contagem);
+                }
+            }
+        }
+        for (Argumento destino : regs) {
+            for (int base : registradores) {
+                for (int indice : registradores) {
+                    for (int escala : ESCALAS) {
+                        adicionar(conjunto, "lea", destino, Argumento.endereco(base, indice, escala, 0));
+                    }
+                }
+                for (int deslocamento : imediatos) {
+                    if (deslocamento != 0) {
+                        adicionar(conjunto, "lea", destino, Argumento.endereco(base, -1, 0, deslocamento));
+                    }
+                }
+            }
+        }
+        return conjunto;
+    }
+
+    private static void adicionar(List<InstrucaoSubconjunto> conjunto, String mnemonico, Argumento... argumentos) {
+        InstrucaoSubconjunto instrucao = new InstrucaoSubconjunto(mnemonico, List.of(argumentos));
+        if (instrucao.isValida()) {
+            conjunto.add(instrucao);
+        }
+    }
+
+    // Arquivo de regras no formato do CarregadorRegras, com a origem de cada uma.
+    private String escrever(List<Achado> achados) {
+        StringBuilder texto = new StringBuilder();
+        texto.append("# Regras geradas pelo Superotimizador a partir de ").append(arquivos)
+                .append(" programas gerados (").append(janelas.size()).append(" janelas distintas).\n");
+        texto.append("# Não edite à mão: rode a ferramenta de novo sobre o corpus (ver Superotimizador).\n");
+        texto.append("# Cada janela foi trocada pela sequência mais barata com os mesmos registradores,\n");
+        texto.append("# memória e flags no fim, exceto os exigidos mortos.\n");
+        int numero = 0;
+        for (Achado achado : achados) {
+            texto.append('\n');
+            texto.append("# ").append(achado.ocorrencias).append(" ocorrências; ").append(achado.antes)
+                    .append(" -> ").append(achado.depois).append('\n');
+            texto.append("superotimizador-").append(++numero).append(": ").append(achado.regra()).append('\n');
+        }
+        return texto.toString();
+    }
+
+    private static String juntar(List<InstrucaoSubconjunto> instrucoes, boolean tipada) {
+        List<String> textos = new ArrayList<>();
+        for (InstrucaoSubconjunto instrucao : instrucoes) {
+            textos.add(instrucao.texto(tipada));
+        }
+        return String.join(" ; ", textos);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int janela = JANELA_PADRAO;
+        int limite = LIMITE_PADRAO;
+        Path saida = SAIDA_PADRAO;
+        List<Path> entradas = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-janela" -> janela = Integer.parseInt(args[++i]);
+                case "-limite" -> limite = Integer.parseInt(args[++i]);
+                case "-saida" -> saida = Path.of(args[++i]);
+                default -> entradas.add(Path.of(args[i]));
+            }
+        }
+        if (entradas.isEmpty()) {
+            System.err.println("Uso: Superotimizador [-janela N] [-limite N] [-saida arquivo] <.asm ou diretório>...");
+            System.exit(2);
+        }
+
+        Superotimizador superotimizador = new Superotimizador(janela);
+        for (Path entrada : entradas) {
+            superotimizador.coletar(entrada);
+        }
+        System.out.println(superotimizador.getJanelasDistintas() + " janelas distintas em "
+                + superotimizador.getArquivos() + " arquivos");
+        List<Achado> achados = superotimizador.buscar(limite);
+        String texto = superotimizador.escrever(achados);
+        Files.writeString(saida, texto, StandardCharsets.UTF_8);
+        System.out.println(achados.size() + " regras gravadas em " + saida);
+    }
+}
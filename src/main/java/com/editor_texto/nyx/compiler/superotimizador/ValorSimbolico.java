@@ -0,0 +1,95 @@
+package com.editor_texto.nyx.compiler.superotimizador;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Expressão sobre os valores iniciais da janela, na forma constante + soma de
+ * coeficiente * átomo, com aritmética módulo 2^32 (a do int). Os átomos são
+ * os valores iniciais (eax, m0, ...) e as operações que não são afins, escritas
+ * com os argumentos já na forma canônica (ex: and(eax,m0)). Duas expressões
+ * com o mesmo texto valem o mesmo para quaisquer valores iniciais; o inverso
+ * não vale, então a comparação só prova a igualdade, nunca a diferença.
+ */
+final class ValorSimbolico {
+
+    private final int constante;
+    // Átomo -> coeficiente, sem coeficientes nulos e na ordem do texto.
+    private final TreeMap<String, Integer> termos;
+    private final String texto;
+
+    private ValorSimbolico(int constante, TreeMap<String, Integer> termos) {
+        this.constante = constante;
+        this.termos = termos;
+        this.texto = montarTexto();
+    }
+
+    static ValorSimbolico constante(int valor) {
+        return new ValorSimbolico(valor, new TreeMap<>());
+    }
+
+    static ValorSimbolico atomo(String nome) {
+        TreeMap<String, Integer> termos = new TreeMap<>();
+        termos.put(nome, 1);
+        return new ValorSimbolico(0, termos);
+    }
+
+    boolean isConstante() {
+        return termos.isEmpty();
+    }
+
+    int getConstante() {
+        return constante;
+    }
+
+    ValorSimbolico somar(ValorSimbolico outro) {
+        TreeMap<String, Integer> soma = new TreeMap<>(termos);
+        for (Map.Entry<String, Integer> termo : outro.termos.entrySet()) {
+            int coeficiente = soma.getOrDefault(termo.getKey(), 0) + termo.getValue();
+            if (coeficiente == 0) {
+                soma.remove(termo.getKey());
+            } else {
+                soma.put(termo.getKey(), coeficiente);
+            }
+        }
+        return new ValorSimbolico(constante + outro.constante, soma);
+    }
+
+    ValorSimbolico escalar(int fator) {
+        if (fator == 0) {
+            return constante(0);
+        }
+        TreeMap<String, Integer> produto = new TreeMap<>();
+        for (Map.Entry<String, Integer> termo : termos.entrySet()) {
+            int coeficiente = termo.getValue() * fator;
+            if (coeficiente != 0) {
+                produto.put(termo.getKey(), coeficiente);
+            }
+        }
+        return new ValorSimbolico(constante * fator, produto);
+    }
+
+    private String montarTexto() {
+        StringBuilder texto = new StringBuilder(Integer.toString(constante));
+        for (Map.Entry<String, Integer> termo : termos.entrySet()) {
+            texto.append(termo.getValue() < 0 ? "" : "+").append(termo.getValue()).append('*').append(termo.getKey());
+        }
+        return texto.toString();
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof ValorSimbolico valor && valor.texto.equals(texto);
+    }
+
+    @Override
+    public int hashCode() {
+        return texto.hashCode();
+    }
+
+    // Forma canônica, usada também como argumento dos átomos.
+    @Override
+    public String toString() {
+        return texto;
+    }
+}
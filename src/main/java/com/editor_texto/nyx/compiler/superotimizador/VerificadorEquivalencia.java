@@ -0,0 +1,171 @@
+package com.editor_texto.nyx.compiler.superotimizador;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Decide se uma sequência candidata faz o mesmo que a janela original: mesmos
+ * registradores, memória e flags no fim, para quaisquer valores iniciais e
+ * qualquer sobreposição entre as variáveis (duas variáveis da regra podem casar
+ * o mesmo nome). Primeiro roda os testes concretos, que descartam quase todas
+ * as candidatas; as que passam são comparadas no DominioSimbolico, que prova a
+ * igualdade. Registradores e flags em 'dispensaveis' podem terminar diferentes:
+ * a regra gerada exige que estejam mortos.
+ */
+final class VerificadorEquivalencia {
+
+    // Máscara de saídas: bit i para o registrador i, FLAGS para as quatro flags.
+    static final int FLAGS = 1 << InstrucaoSubconjunto.REGISTRADORES.length;
+
+    private static final int TESTES = 24;
+    private static final int[] BORDAS = { 0, 1, -1, 2, 31, 32, Integer.MIN_VALUE, Integer.MAX_VALUE,
+            Integer.MIN_VALUE + 1, 0xFFFF, 0x10000 };
+
+    private final List<InstrucaoSubconjunto> original;
+    private final int dispensaveis;
+    // Cada partição mapeia as variáveis da janela para células de memória.
+    private final List<int[]> particoes = new ArrayList<>();
+    private final List<List<Estado<Integer>>> entradas = new ArrayList<>();
+    private final List<List<Estado<Integer>>> saidas = new ArrayList<>();
+    private final List<Estado<ValorSimbolico>> entradasSimbolicas = new ArrayList<>();
+    private final List<Estado<ValorSimbolico>> saidasSimbolicas = new ArrayList<>();
+
+    VerificadorEquivalencia(List<InstrucaoSubconjunto> original, int variaveis, int dispensaveis) {
+        this.original = original;
+        this.dispensaveis = dispensaveis;
+        gerarParticoes(new int[variaveis], 0, 0);
+        Random aleatorio = new Random(original.toString().hashCode());
+        for (int[] celulas : particoes) {
+            int quantidade = celulas.length == 0 ? 0 : maximo(celulas) + 1;
+            List<Estado<Integer>> testes = new ArrayList<>();
+            List<Estado<Integer>> resultados = new ArrayList<>();
+            for (int t = 0; t < TESTES; t++) {
+                Estado<Integer> entrada = estadoAleatorio(aleatorio, quantidade);
+                Estado<Integer> saida = entrada.copiar();
+                saida.executar(original, celulas, DominioConcreto.INSTANCIA);
+                testes.add(entrada);
+                resultados.add(saida);
+            }
+            entradas.add(testes);
+            saidas.add(resultados);
+
+            Estado<ValorSimbolico> simbolico = estadoSimbolico(quantidade);
+            Estado<ValorSimbolico> saidaSimbolica = simbolico.copiar();
+            saidaSimbolica.executar(original, celulas, DominioSimbolico.INSTANCIA);
+            entradasSimbolicas.add(simbolico);
+            saidasSimbolicas.add(saidaSimbolica);
+        }
+    }
+
+    /**
+     * Saídas que a candidata deixa diferentes (todas em 'dispensaveis'), ou -1
+     * se ela não é equivalente ou se a equivalência não pôde ser provada.
+     */
+    int verificar(List<InstrucaoSubconjunto> candidata) {
+        int diferentes = 0;
+        for (int p = 0; p < particoes.size(); p++) {
+            int[] celulas = particoes.get(p);
+            for (int t = 0; t < TESTES; t++) {
+                Estado<Integer> saida = entradas.get(p).get(t).copiar();
+                saida.executar(candidata, celulas, DominioConcreto.INSTANCIA);
+                int diferenca = comparar(saidas.get(p).get(t), saida, 0);
+                if (diferenca < 0 || (diferenca & ~dispensaveis) != 0) {
+                    return -1;
+                }
+                diferentes |= diferenca;
+            }
+        }
+        for (int p = 0; p < particoes.size(); p++) {
+            Estado<ValorSimbolico> saida = entradasSimbolicas.get(p).copiar();
+            saida.executar(candidata, particoes.get(p), DominioSimbolico.INSTANCIA);
+            // Os testes concretos podem não ter visto uma diferença que a
+            // prova encontra; ela só é aceita em uma saída dispensável.
+            int diferenca = comparar(saidasSimbolicas.get(p), saida, diferentes);
+            if (diferenca < 0 || (diferenca & ~dispensaveis) != 0) {
+                return -1;
+            }
+            diferentes |= diferenca;
+        }
+        return diferentes;
+    }
+
+    // Máscara das saídas diferentes, fora as de 'ignoradas'; -1 se a memória difere.
+    private static <V> int comparar(Estado<V> esperado, Estado<V> obtido, int ignoradas) {
+        if (!esperado.getMemoria().equals(obtido.getMemoria())) {
+            return -1;
+        }
+        int diferentes = 0;
+        for (int r = 0; r < InstrucaoSubconjunto.REGISTRADORES.length; r++) {
+            if ((ignoradas & (1 << r)) == 0 && !esperado.getRegistrador(r).equals(obtido.getRegistrador(r))) {
+                diferentes |= 1 << r;
+            }
+        }
+        if ((ignoradas & FLAGS) == 0) {
+            for (int f = 0; f < Estado.NOMES_FLAGS.length; f++) {
+                if (!esperado.getFlag(f).equals(obtido.getFlag(f))) {
+                    diferentes |= FLAGS;
+                }
+            }
+        }
+        return diferentes;
+    }
+
+    // Todas as formas de agrupar as variáveis em células (números de Bell).
+    private void gerarParticoes(int[] celulas, int variavel, int usadas) {
+        if (variavel == celulas.length) {
+            particoes.add(celulas.clone());
+            return;
+        }
+        for (int celula = 0; celula <= usadas; celula++) {
+            celulas[variavel] = celula;
+            gerarParticoes(celulas, variavel + 1, Math.max(usadas, celula + 1));
+        }
+    }
+
+    private static int maximo(int[] valores) {
+        int maximo = 0;
+        for (int valor : valores) {
+            maximo = Math.max(maximo, valor);
+        }
+        return maximo;
+    }
+
+    // Metade dos valores vem das bordas; alguns repetem um valor anterior.
+    private static Estado<Integer> estadoAleatorio(Random aleatorio, int celulas) {
+        List<Integer> valores = new ArrayList<>();
+        int quantidade = InstrucaoSubconjunto.REGISTRADORES.length + celulas;
+        for (int i = 0; i < quantidade; i++) {
+            int sorteio = aleatorio.nextInt(8);
+            if (sorteio < 4) {
+                valores.add(BORDAS[aleatorio.nextInt(BORDAS.length)]);
+            } else if (sorteio == 4 && i > 0) {
+                valores.add(valores.get(aleatorio.nextInt(i)));
+            } else {
+                valores.add(aleatorio.nextInt());
+            }
+        }
+        List<Integer> flags = new ArrayList<>();
+        for (int f = 0; f < Estado.NOMES_FLAGS.length; f++) {
+            flags.add(aleatorio.nextInt(2));
+        }
+        int registradores = InstrucaoSubconjunto.REGISTRADORES.length;
+        return new Estado<>(valores.subList(0, registradores), valores.subList(registradores, quantidade), flags);
+    }
+
+    private static Estado<ValorSimbolico> estadoSimbolico(int celulas) {
+        List<ValorSimbolico> registradores = new ArrayList<>();
+        for (String registrador : InstrucaoSubconjunto.REGISTRADORES) {
+            registradores.add(ValorSimbolico.atomo(registrador));
+        }
+        List<ValorSimbolico> memoria = new ArrayList<>();
+        for (int c = 0; c < celulas; c++) {
+            memoria.add(ValorSimbolico.atomo("m" + c));
+        }
+        List<ValorSimbolico> flags = new ArrayList<>();
+        for (String flag : Estado.NOMES_FLAGS) {
+            flags.add(ValorSimbolico.atomo(flag));
+        }
+        return new Estado<>(registradores, memoria, flags);
+    }
+}
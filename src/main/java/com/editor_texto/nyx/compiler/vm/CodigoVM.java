@@ -0,0 +1,54 @@
+package com.editor_texto.nyx.compiler.vm;
+
+/**
+ * Programa LC traduzido para a máquina virtual de registradores.
+ *
+ * Toda instrução ocupa quatro posições de 'instrucoes': o código da operação
+ * (constantes de OperacaoVM) e três operandos, que são registradores,
+ * imediatos, índices de 'textos' ou destinos de salto (posição no vetor).
+ * Os registradores inteiros e os de texto são vetores separados, então a
+ * execução não cria objetos para os números.
+ */
+public final class CodigoVM {
+
+    static final int LARGURA = 4;
+
+    private final int[] instrucoes;
+    private final String[] textos;
+    private final int[] linhas;
+    private final int registros;
+    private final int registrosTexto;
+
+    CodigoVM(int[] instrucoes, String[] textos, int[] linhas, int registros, int registrosTexto) {
+        this.instrucoes = instrucoes;
+        this.textos = textos;
+        this.linhas = linhas;
+        this.registros = registros;
+        this.registrosTexto = registrosTexto;
+    }
+
+    int[] getInstrucoes() {
+        return instrucoes;
+    }
+
+    String[] getTextos() {
+        return textos;
+    }
+
+    // Linha do fonte da instrução que começa na posição dada.
+    int linha(int posicao) {
+        return linhas[posicao / LARGURA];
+    }
+
+    int getRegistros() {
+        return registros;
+    }
+
+    int getRegistrosTexto() {
+        return registrosTexto;
+    }
+
+    public int getTamanho() {
+        return instrucoes.length / LARGURA;
+    }
+}
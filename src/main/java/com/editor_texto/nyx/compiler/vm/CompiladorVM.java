@@ -0,0 +1,399 @@
+package com.editor_texto.nyx.compiler.vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.editor_texto.nyx.compiler.arvore.NoAtribuicao;
+import com.editor_texto.nyx.compiler.arvore.NoBinario;
+import com.editor_texto.nyx.compiler.arvore.NoComando;
+import com.editor_texto.nyx.compiler.arvore.NoDeclaracao;
+import com.editor_texto.nyx.compiler.arvore.NoEnquanto;
+import com.editor_texto.nyx.compiler.arvore.NoEscrita;
+import com.editor_texto.nyx.compiler.arvore.NoExpressao;
+import com.editor_texto.nyx.compiler.arvore.NoLeitura;
+import com.editor_texto.nyx.compiler.arvore.NoLiteral;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.arvore.NoSe;
+import com.editor_texto.nyx.compiler.arvore.NoSelecao;
+import com.editor_texto.nyx.compiler.arvore.NoUnario;
+import com.editor_texto.nyx.compiler.arvore.NoVariavel;
+import com.editor_texto.nyx.compiler.otimizacao.AvaliadorConstante;
+
+/**
+ * Traduz a árvore do programa para o código da máquina virtual
+ * (CodigoVM). Cada variável inteira tem um registrador fixo; valores
+ * intermediários usam registradores temporários depois das variáveis,
+ * liberados em pilha ao fim de cada expressão.
+ *
+ * Segue a semântica do gerador nativo, como o GeradorBytecode: byte e
+ * boolean guardam só o byte baixo, strings começam vazias, condições com
+ * 'and'/'or' em curto circuito e laços com o teste no fim.
+ */
+public class CompiladorVM {
+
+    private static final class Rotulo {
+        int posicao = -1;
+        final List<Integer> saltos = new ArrayList<>();
+    }
+
+    private final NoPrograma programa;
+    private int[] instrucoes = new int[256];
+    private int tamanho;
+    private final List<Integer> linhas = new ArrayList<>();
+    private final List<Rotulo> rotulos = new ArrayList<>();
+    private final Map<String, Integer> textos = new LinkedHashMap<>();
+    private final Map<String, Integer> registros = new HashMap<>();
+    private final Map<String, Integer> registrosTexto = new HashMap<>();
+    private final Map<String, NoDeclaracao> declaracoes = new HashMap<>();
+    private int temporario;
+    private int maximoRegistros;
+    private int linhaAtual;
+
+    public CompiladorVM(NoPrograma programa) {
+        this.programa = programa;
+    }
+
+    public static CodigoVM compilar(NoPrograma programa) {
+        return new CompiladorVM(programa).gerar();
+    }
+
+    public CodigoVM gerar() {
+        for (NoDeclaracao declaracao : programa.getDeclaracoes()) {
+            declaracoes.put(declaracao.getNome(), declaracao);
+            if (declaracao.isConstante()) {
+                continue;
+            }
+            if (isString(declaracao.getTipo())) {
+                int registro = registrosTexto.size();
+                registrosTexto.put(declaracao.getNome(), registro);
+                emitir(OperacaoVM.TEXTO, registro, texto(""), 0);
+            } else {
+                int registro = registros.size();
+                registros.put(declaracao.getNome(), registro);
+                Integer valor = declaracao.getValorInicial() != null
+                        ? AvaliadorConstante.valorLiteral(declaracao.getValorInicial())
+                        : null;
+                int inicial = valor != null ? valor : 0;
+                emitir(OperacaoVM.CONSTANTE, registro, isByte(declaracao.getTipo()) ? inicial & 0xFF : inicial, 0);
+            }
+        }
+        temporario = registros.size();
+        maximoRegistros = temporario;
+        gerarComandos(programa.getComandos());
+        emitir(OperacaoVM.FIM, 0, 0, 0);
+
+        for (Rotulo rotulo : rotulos) {
+            for (int salto : rotulo.saltos) {
+                instrucoes[salto] = rotulo.posicao;
+            }
+        }
+        int[] linhasInstrucoes = new int[linhas.size()];
+        for (int i = 0; i < linhasInstrucoes.length; i++) {
+            linhasInstrucoes[i] = linhas.get(i);
+        }
+        return new CodigoVM(Arrays.copyOf(instrucoes, tamanho), textos.keySet().toArray(new String[0]),
+                linhasInstrucoes, maximoRegistros, registrosTexto.size());
+    }
+
+    private void gerarComandos(List<NoComando> comandos) {
+        for (NoComando comando : comandos) {
+            linhaAtual = comando.getLinha();
+            if (comando instanceof NoEscrita escrita) {
+                gerarEscrita(escrita);
+            } else if (comando instanceof NoLeitura leitura) {
+                gerarLeitura(leitura);
+            } else if (comando instanceof NoEnquanto enquanto) {
+                gerarEnquanto(enquanto);
+            } else if (comando instanceof NoSe se) {
+                gerarSe(se);
+            } else if (comando instanceof NoAtribuicao atribuicao) {
+                gerarAtribuicao(atribuicao);
+            }
+        }
+    }
+
+    private void gerarEscrita(NoEscrita escrita) {
+        StringBuilder texto = new StringBuilder();
+        for (NoExpressao item : escrita.getItens()) {
+            if (item instanceof NoLiteral literal) {
+                texto.append(literal.getValor().replace("'", ""));
+                continue;
+            }
+            escreverTexto(texto);
+            NoVariavel variavel = (NoVariavel) item;
+            if (isString(variavel.getTipo())) {
+                emitir(OperacaoVM.ESCREVER_STR, registroTexto(variavel.getNome()), 0, 0);
+            } else {
+                int marca = temporario;
+                emitir(OperacaoVM.ESCREVER_INT, registrador(variavel), 0, 0);
+                temporario = marca;
+            }
+        }
+        if (escrita.isQuebraLinha()) {
+            texto.append('\n');
+        }
+        escreverTexto(texto);
+    }
+
+    private void escreverTexto(StringBuilder texto) {
+        if (texto.length() > 0) {
+            emitir(OperacaoVM.ESCREVER_TEXTO, texto(texto.toString()), 0, 0);
+            texto.setLength(0);
+        }
+    }
+
+    private void gerarLeitura(NoLeitura leitura) {
+        if (isString(leitura.getTipo())) {
+            emitir(OperacaoVM.LER_LINHA, registroTexto(leitura.getVariavel()), 0, 0);
+            return;
+        }
+        int registro = registro(leitura.getVariavel());
+        emitir(OperacaoVM.LER_INT, registro, 0, 0);
+        if (isByte(leitura.getTipo())) {
+            emitir(OperacaoVM.MASCARAR, registro, registro, 0);
+        }
+    }
+
+    private void gerarEnquanto(NoEnquanto enquanto) {
+        Rotulo corpo = novoRotulo();
+        Rotulo teste = novoRotulo();
+        if (!enquanto.isPosTestado()) {
+            saltar(OperacaoVM.SALTAR, 0, 0, teste);
+        }
+        marcar(corpo);
+        gerarComandos(enquanto.getCorpo());
+        marcar(teste);
+        linhaAtual = enquanto.getLinha();
+        gerarCondicao(enquanto.getCondicao(), corpo, true);
+    }
+
+    private void gerarSe(NoSe se) {
+        Rotulo senao = novoRotulo();
+        gerarCondicao(se.getCondicao(), senao, false);
+        gerarComandos(se.getEntao());
+        if (se.getSenao().isEmpty()) {
+            marcar(senao);
+            return;
+        }
+        Rotulo fim = novoRotulo();
+        saltar(OperacaoVM.SALTAR, 0, 0, fim);
+        marcar(senao);
+        gerarComandos(se.getSenao());
+        marcar(fim);
+    }
+
+    private void gerarAtribuicao(NoAtribuicao atribuicao) {
+        if (isString(atribuicao.getTipo())) {
+            int destino = registroTexto(atribuicao.getVariavel());
+            if (atribuicao.getValor() instanceof NoVariavel variavel
+                    && registrosTexto.containsKey(variavel.getNome())) {
+                emitir(OperacaoVM.COPIAR_TEXTO, destino, registroTexto(variavel.getNome()), 0);
+            } else {
+                String valor = atribuicao.getValor() instanceof NoLiteral literal ? literal.getValor() : "";
+                emitir(OperacaoVM.TEXTO, destino, texto(valor), 0);
+            }
+            return;
+        }
+        int destino = registro(atribuicao.getVariavel());
+        calcular(atribuicao.getValor(), destino);
+        if (isByte(atribuicao.getTipo())) {
+            emitir(OperacaoVM.MASCARAR, destino, destino, 0);
+        }
+    }
+
+    /**
+     * Calcula a expressão no registrador de destino. Os operandos vão para
+     * temporários, então o destino só é escrito no fim (x = y - x funciona).
+     */
+    private void calcular(NoExpressao expressao, int destino) {
+        int marca = temporario;
+        Integer constante = AvaliadorConstante.avaliar(expressao);
+        if (constante != null) {
+            emitir(OperacaoVM.CONSTANTE, destino, constante, 0);
+        } else if (expressao instanceof NoVariavel variavel) {
+            NoDeclaracao declaracao = declaracoes.get(variavel.getNome());
+            if (declaracao != null && declaracao.isConstante()) {
+                Integer valor = AvaliadorConstante.valorLiteral(declaracao.getValorInicial());
+                emitir(OperacaoVM.CONSTANTE, destino, valor != null ? valor : 0, 0);
+            } else if (registro(variavel.getNome()) != destino) {
+                emitir(OperacaoVM.MOVER, destino, registro(variavel.getNome()), 0);
+            }
+        } else if (expressao instanceof NoBinario binario && binario.isAritmetico()) {
+            int esquerda = registrador(binario.getEsquerda());
+            Integer direita = AvaliadorConstante.avaliar(binario.getDireita());
+            int operacao = switch (binario.getOperador()) {
+                case "+" -> OperacaoVM.SOMAR;
+                case "-" -> OperacaoVM.SUBTRAIR;
+                case "*" -> OperacaoVM.MULTIPLICAR;
+                default -> OperacaoVM.DIVIDIR;
+            };
+            // Os divisores 0 e -1 ficam no DIVIDIR, que confere a falha.
+            if (direita != null && !(operacao == OperacaoVM.DIVIDIR && (direita == 0 || direita == -1))) {
+                emitir(operacao + (OperacaoVM.SOMAR_I - OperacaoVM.SOMAR), destino, esquerda, direita);
+            } else {
+                emitir(operacao, destino, esquerda, registrador(binario.getDireita()));
+            }
+        } else if (expressao instanceof NoSelecao selecao) {
+            Rotulo falso = novoRotulo();
+            Rotulo fim = novoRotulo();
+            gerarCondicao(selecao.getCondicao(), falso, false);
+            calcular(selecao.getVerdadeiro(), destino);
+            saltar(OperacaoVM.SALTAR, 0, 0, fim);
+            marcar(falso);
+            calcular(selecao.getFalso(), destino);
+            marcar(fim);
+        } else if (expressao instanceof NoBinario || expressao instanceof NoUnario) {
+            Rotulo falso = novoRotulo();
+            Rotulo fim = novoRotulo();
+            gerarCondicao(expressao, falso, false);
+            emitir(OperacaoVM.CONSTANTE, destino, 1, 0);
+            saltar(OperacaoVM.SALTAR, 0, 0, fim);
+            marcar(falso);
+            emitir(OperacaoVM.CONSTANTE, destino, 0, 0);
+            marcar(fim);
+        } else {
+            throw new IllegalStateException("Expressão não suportada: " + expressao);
+        }
+        temporario = marca;
+    }
+
+    // Registrador com o valor da expressão: o da própria variável ou um
+    // temporário novo, liberado por quem chamou.
+    private int registrador(NoExpressao expressao) {
+        if (expressao instanceof NoVariavel variavel && registros.containsKey(variavel.getNome())) {
+            return registros.get(variavel.getNome());
+        }
+        int registro = temporario++;
+        maximoRegistros = Math.max(maximoRegistros, temporario);
+        calcular(expressao, registro);
+        temporario = registro + 1;
+        return registro;
+    }
+
+    // Salta para o rótulo quando a condição for igual a 'saltarSe'.
+    private void gerarCondicao(NoExpressao condicao, Rotulo alvo, boolean saltarSe) {
+        Boolean constante = AvaliadorConstante.avaliarCondicao(condicao);
+        if (constante != null) {
+            if (constante == saltarSe) {
+                saltar(OperacaoVM.SALTAR, 0, 0, alvo);
+            }
+        } else if (condicao instanceof NoUnario unario) {
+            gerarCondicao(unario.getOperando(), alvo, !saltarSe);
+        } else if (condicao instanceof NoBinario binario && binario.isLogico()) {
+            boolean isE = binario.getOperador().equalsIgnoreCase("and");
+            if (isE != saltarSe) {
+                gerarCondicao(binario.getEsquerda(), alvo, saltarSe);
+                gerarCondicao(binario.getDireita(), alvo, saltarSe);
+            } else {
+                Rotulo curto = novoRotulo();
+                gerarCondicao(binario.getEsquerda(), curto, !saltarSe);
+                gerarCondicao(binario.getDireita(), alvo, saltarSe);
+                marcar(curto);
+            }
+        } else if (condicao instanceof NoBinario binario && binario.isRelacional()) {
+            String operador = saltarSe ? binario.getOperador() : negar(binario.getOperador());
+            NoExpressao esquerda = binario.getEsquerda();
+            NoExpressao direita = binario.getDireita();
+            if (AvaliadorConstante.avaliar(esquerda) != null) {
+                // A constante fica à direita, na variante com imediato.
+                esquerda = binario.getDireita();
+                direita = binario.getEsquerda();
+                operador = espelhar(operador);
+            }
+            int marca = temporario;
+            int registroEsquerda = registrador(esquerda);
+            Integer imediato = AvaliadorConstante.avaliar(direita);
+            if (imediato != null) {
+                saltar(OperacaoVM.salto(operador) + OperacaoVM.DESLOCAMENTO_IMEDIATO, registroEsquerda, imediato,
+                        alvo);
+            } else {
+                saltar(OperacaoVM.salto(operador), registroEsquerda, registrador(direita), alvo);
+            }
+            temporario = marca;
+        } else {
+            int marca = temporario;
+            saltar(saltarSe ? OperacaoVM.SE_DIFERENTE_I : OperacaoVM.SE_IGUAL_I, registrador(condicao), 0, alvo);
+            temporario = marca;
+        }
+    }
+
+    private static String negar(String operador) {
+        return switch (operador) {
+            case "==" -> "<>";
+            case "<>" -> "==";
+            case "<" -> ">=";
+            case ">=" -> "<";
+            case ">" -> "<=";
+            case "<=" -> ">";
+            default -> throw new IllegalStateException("Operador relacional inválido: " + operador);
+        };
+    }
+
+    private static String espelhar(String operador) {
+        return switch (operador) {
+            case "<" -> ">";
+            case ">" -> "<";
+            case "<=" -> ">=";
+            case ">=" -> "<=";
+            default -> operador;
+        };
+    }
+
+    private Rotulo novoRotulo() {
+        Rotulo rotulo = new Rotulo();
+        rotulos.add(rotulo);
+        return rotulo;
+    }
+
+    private void marcar(Rotulo rotulo) {
+        rotulo.posicao = tamanho;
+    }
+
+    private void saltar(int operacao, int a, int b, Rotulo alvo) {
+        alvo.saltos.add(tamanho + 3);
+        emitir(operacao, a, b, -1);
+    }
+
+    private void emitir(int operacao, int a, int b, int c) {
+        if (tamanho + CodigoVM.LARGURA > instrucoes.length) {
+            instrucoes = Arrays.copyOf(instrucoes, instrucoes.length * 2);
+        }
+        instrucoes[tamanho++] = operacao;
+        instrucoes[tamanho++] = a;
+        instrucoes[tamanho++] = b;
+        instrucoes[tamanho++] = c;
+        linhas.add(linhaAtual);
+    }
+
+    private int texto(String valor) {
+        return textos.computeIfAbsent(valor, v -> textos.size());
+    }
+
+    private int registro(String nome) {
+        Integer registro = registros.get(nome);
+        if (registro == null) {
+            throw new IllegalStateException("Variável não declarada: " + nome);
+        }
+        return registro;
+    }
+
+    private int registroTexto(String nome) {
+        Integer registro = registrosTexto.get(nome);
+        if (registro == null) {
+            throw new IllegalStateException("Variável não declarada: " + nome);
+        }
+        return registro;
+    }
+
+    private static boolean isString(String tipo) {
+        return tipo != null && tipo.equalsIgnoreCase("string");
+    }
+
+    private static boolean isByte(String tipo) {
+        return tipo != null && (tipo.equalsIgnoreCase("byte") || tipo.equalsIgnoreCase("boolean"));
+    }
+}
@@ -0,0 +1,235 @@
+package com.editor_texto.nyx.compiler.vm;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.editor_texto.nyx.compiler.jvm.RuntimeJvm;
+
+/**
+ * Executa um CodigoVM com despacho por 'switch' sobre um vetor de inteiros.
+ * Os registradores são um int[] e a E/S usa o RuntimeJvm (buffers de 4096
+ * bytes alocados uma vez), então o laço principal não cria objetos.
+ *
+ * A execução tem limite de passos (instruções executadas) e de tempo, e
+ * pode ser cancelada de outra thread. Como só um laço roda para sempre, a
+ * verificação é feita nos saltos para trás, a cada INTERVALO passos ou ao
+ * atingir o limite de passos, o que vier antes.
+ */
+public class InterpretadorVM {
+
+    public enum Termino {
+        CONCLUIDO, CANCELADO, LIMITE_PASSOS, LIMITE_TEMPO
+    }
+
+    private static final long INTERVALO = 1 << 16;
+
+    private final CodigoVM codigo;
+    private final long limitePassos;
+    private final long limiteNanos;
+    private volatile boolean cancelado;
+    private long passos;
+
+    /**
+     * Limites menores ou iguais a zero desligam a verificação
+     * correspondente. A execução para no primeiro salto para trás depois de
+     * 'limitePassos' passos, então ela pode passar do limite em até uma volta
+     * do laço (o trecho sem saltos para trás é limitado pelo tamanho do
+     * código). O tempo e o cancelamento são vistos a cada INTERVALO passos.
+     */
+    public InterpretadorVM(CodigoVM codigo, long limitePassos, long limiteMilissegundos) {
+        this.codigo = codigo;
+        this.limitePassos = limitePassos > 0 ? limitePassos : Long.MAX_VALUE;
+        this.limiteNanos = limiteMilissegundos > 0 ? limiteMilissegundos * 1_000_000L : Long.MAX_VALUE;
+    }
+
+    public void cancelar() {
+        cancelado = true;
+    }
+
+    public long getPassos() {
+        return passos;
+    }
+
+    /**
+     * Roda até o fim, até um limite ou até ser cancelado. Divisão por zero e
+     * o estouro de Integer.MIN_VALUE / -1 lançam ArithmeticException com a
+     * linha do fonte. A saída pendente é
+     * sempre descarregada.
+     */
+    public Termino executar(InputStream entrada, OutputStream saida) {
+        RuntimeJvm runtime = new RuntimeJvm(entrada, saida);
+        try {
+            return executar(runtime);
+        } finally {
+            runtime.descarregar();
+        }
+    }
+
+    private Termino executar(RuntimeJvm runtime) {
+        final int[] c = codigo.getInstrucoes();
+        final String[] textos = codigo.getTextos();
+        final int[] r = new int[codigo.getRegistros()];
+        final String[] t = new String[codigo.getRegistrosTexto()];
+        final long inicio = System.nanoTime();
+        long contador = 0;
+        long proximaVerificacao = Math.min(INTERVALO, limitePassos);
+        int pc = 0;
+        while (true) {
+            contador++;
+            int destino;
+            switch (c[pc]) {
+                case OperacaoVM.FIM:
+                    passos = contador;
+                    return Termino.CONCLUIDO;
+                case OperacaoVM.CONSTANTE:
+                    r[c[pc + 1]] = c[pc + 2];
+                    pc += 4;
+                    continue;
+                case OperacaoVM.MOVER:
+                    r[c[pc + 1]] = r[c[pc + 2]];
+                    pc += 4;
+                    continue;
+                case OperacaoVM.SOMAR:
+                    r[c[pc + 1]] = r[c[pc + 2]] + r[c[pc + 3]];
+                    pc += 4;
+                    continue;
+                case OperacaoVM.SUBTRAIR:
+                    r[c[pc + 1]] = r[c[pc + 2]] - r[c[pc + 3]];
+                    pc += 4;
+                    continue;
+                case OperacaoVM.MULTIPLICAR:
+                    r[c[pc + 1]] = r[c[pc + 2]] * r[c[pc + 3]];
+                    pc += 4;
+                    continue;
+                case OperacaoVM.DIVIDIR: {
+                    int dividendo = r[c[pc + 2]];
+                    int divisor = r[c[pc + 3]];
+                    // Falha onde o idiv falha: divisor zero e Integer.MIN_VALUE / -1.
+                    if (divisor == 0) {
+                        passos = contador;
+                        throw new ArithmeticException("Divisão por zero na linha " + codigo.linha(pc));
+                    }
+                    if (divisor == -1 && dividendo == Integer.MIN_VALUE) {
+                        passos = contador;
+                        throw new ArithmeticException("Estouro na divisão na linha " + codigo.linha(pc));
+                    }
+                    r[c[pc + 1]] = dividendo / divisor;
+                    pc += 4;
+                    continue;
+                }
+                case OperacaoVM.SOMAR_I:
+                    r[c[pc + 1]] = r[c[pc + 2]] + c[pc + 3];
+                    pc += 4;
+                    continue;
+                case OperacaoVM.SUBTRAIR_I:
+                    r[c[pc + 1]] = r[c[pc + 2]] - c[pc + 3];
+                    pc += 4;
+                    continue;
+                case OperacaoVM.MULTIPLICAR_I:
+                    r[c[pc + 1]] = r[c[pc + 2]] * c[pc + 3];
+                    pc += 4;
+                    continue;
+                case OperacaoVM.DIVIDIR_I:
+                    r[c[pc + 1]] = r[c[pc + 2]] / c[pc + 3];
+                    pc += 4;
+                    continue;
+                case OperacaoVM.MASCARAR:
+                    r[c[pc + 1]] = r[c[pc + 2]] & 0xFF;
+                    pc += 4;
+                    continue;
+                case OperacaoVM.SALTAR:
+                    destino = c[pc + 3];
+                    break;
+                case OperacaoVM.SE_IGUAL:
+                    destino = r[c[pc + 1]] == r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_DIFERENTE:
+                    destino = r[c[pc + 1]] != r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_MENOR:
+                    destino = r[c[pc + 1]] < r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_MENOR_IGUAL:
+                    destino = r[c[pc + 1]] <= r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_MAIOR:
+                    destino = r[c[pc + 1]] > r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_MAIOR_IGUAL:
+                    destino = r[c[pc + 1]] >= r[c[pc + 2]] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_IGUAL_I:
+                    destino = r[c[pc + 1]] == c[pc + 2] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_DIFERENTE_I:
+                    destino = r[c[pc + 1]] != c[pc + 2] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_MENOR_I:
+                    destino = r[c[pc + 1]] < c[pc + 2] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_MENOR_IGUAL_I:
+                    destino = r[c[pc + 1]] <= c[pc + 2] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_MAIOR_I:
+                    destino = r[c[pc + 1]] > c[pc + 2] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.SE_MAIOR_IGUAL_I:
+                    destino = r[c[pc + 1]] >= c[pc + 2] ? c[pc + 3] : pc + 4;
+                    break;
+                case OperacaoVM.ESCREVER_INT:
+                    runtime.escreverInt(r[c[pc + 1]]);
+                    pc += 4;
+                    continue;
+                case OperacaoVM.ESCREVER_TEXTO:
+                    runtime.escreverStr(textos[c[pc + 1]]);
+                    pc += 4;
+                    continue;
+                case OperacaoVM.ESCREVER_STR:
+                    runtime.escreverStr(t[c[pc + 1]]);
+                    pc += 4;
+                    continue;
+                case OperacaoVM.LER_INT:
+                    r[c[pc + 1]] = runtime.lerInt();
+                    pc += 4;
+                    continue;
+                case OperacaoVM.LER_LINHA:
+                    t[c[pc + 1]] = runtime.lerLinha();
+                    pc += 4;
+                    continue;
+                case OperacaoVM.TEXTO:
+                    t[c[pc + 1]] = textos[c[pc + 2]];
+                    pc += 4;
+                    continue;
+                case OperacaoVM.COPIAR_TEXTO:
+                    t[c[pc + 1]] = t[c[pc + 2]];
+                    pc += 4;
+                    continue;
+                default:
+                    throw new IllegalStateException("Operação inválida " + c[pc] + " em " + pc);
+            }
+            // Só os saltos chegam aqui.
+            if (destino <= pc && contador >= proximaVerificacao) {
+                proximaVerificacao = Math.min(contador + INTERVALO, limitePassos);
+                Termino termino = verificar(contador, inicio);
+                if (termino != null) {
+                    passos = contador;
+                    return termino;
+                }
+            }
+            pc = destino;
+        }
+    }
+
+    private Termino verificar(long contador, long inicio) {
+        if (cancelado) {
+            return Termino.CANCELADO;
+        }
+        if (contador >= limitePassos) {
+            return Termino.LIMITE_PASSOS;
+        }
+        if (System.nanoTime() - inicio >= limiteNanos) {
+            return Termino.LIMITE_TEMPO;
+        }
+        return null;
+    }
+}
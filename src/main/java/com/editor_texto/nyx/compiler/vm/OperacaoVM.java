@@ -0,0 +1,65 @@
+package com.editor_texto.nyx.compiler.vm;
+
+/**
+ * Códigos das operações da máquina virtual. Na descrição, 'd' é o
+ * registrador de destino, 'a' e 'b' registradores lidos, 'i' um imediato,
+ * 't' e 'u' registradores de texto, 'k' um índice da tabela de textos e
+ * 'alvo' a posição da próxima instrução quando o salto é tomado.
+ *
+ * As variantes '_I' usam o imediato no lugar do segundo registrador, para
+ * que contadores e comparações com constantes gastem uma só instrução.
+ */
+final class OperacaoVM {
+
+    static final int FIM = 0;
+    static final int CONSTANTE = 1; // d, i
+    static final int MOVER = 2; // d, a
+    static final int SOMAR = 3; // d, a, b
+    static final int SUBTRAIR = 4;
+    static final int MULTIPLICAR = 5;
+    static final int DIVIDIR = 6;
+    static final int SOMAR_I = 7; // d, a, i
+    static final int SUBTRAIR_I = 8;
+    static final int MULTIPLICAR_I = 9;
+    static final int DIVIDIR_I = 10; // i != 0 e i != -1
+    static final int MASCARAR = 11; // d, a: só o byte baixo
+    static final int SALTAR = 12; // alvo
+    static final int SE_IGUAL = 13; // a, b, alvo
+    static final int SE_DIFERENTE = 14;
+    static final int SE_MENOR = 15;
+    static final int SE_MENOR_IGUAL = 16;
+    static final int SE_MAIOR = 17;
+    static final int SE_MAIOR_IGUAL = 18;
+    static final int SE_IGUAL_I = 19; // a, i, alvo
+    static final int SE_DIFERENTE_I = 20;
+    static final int SE_MENOR_I = 21;
+    static final int SE_MENOR_IGUAL_I = 22;
+    static final int SE_MAIOR_I = 23;
+    static final int SE_MAIOR_IGUAL_I = 24;
+    static final int ESCREVER_INT = 25; // a
+    static final int ESCREVER_TEXTO = 26; // k
+    static final int ESCREVER_STR = 27; // t
+    static final int LER_INT = 28; // d
+    static final int LER_LINHA = 29; // t
+    static final int TEXTO = 30; // t, k
+    static final int COPIAR_TEXTO = 31; // t, u
+
+    // Distância entre um salto com registradores e a sua variante '_I'.
+    static final int DESLOCAMENTO_IMEDIATO = SE_IGUAL_I - SE_IGUAL;
+
+    private OperacaoVM() {
+    }
+
+    // Salto condicional satisfeito pelo operador relacional.
+    static int salto(String operador) {
+        return switch (operador) {
+            case "==" -> SE_IGUAL;
+            case "<>" -> SE_DIFERENTE;
+            case "<" -> SE_MENOR;
+            case "<=" -> SE_MENOR_IGUAL;
+            case ">" -> SE_MAIOR;
+            case ">=" -> SE_MAIOR_IGUAL;
+            default -> throw new IllegalStateException("Operador relacional inválido: " + operador);
+        };
+    }
+}
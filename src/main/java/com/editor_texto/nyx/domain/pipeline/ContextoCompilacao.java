@@ -2,12 +2,23 @@ package com.editor_texto.nyx.domain.pipeline;
 
 import com.editor_texto.nyx.compiler.ErroCompilacao;
 import com.editor_texto.nyx.compiler.ResultadoCompilacao;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.assembler.Plataforma;
 import com.editor_texto.nyx.compiler.assembler.ResultadoMontador;
+import com.editor_texto.nyx.compiler.otimizacao.NivelOtimizacao;
+import com.editor_texto.nyx.compiler.otimizacao.Otimizacao;
+import com.editor_texto.nyx.compiler.otimizacao.RelatorioOtimizacao;
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
+import com.editor_texto.nyx.compiler.peephole.RelatorioCusto;
+import com.editor_texto.nyx.compiler.perfil.ModoPerfil;
 import com.editor_texto.nyx.compiler.semantico.TabelaSimbolos;
+import com.editor_texto.nyx.compiler.vm.CodigoVM;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Armazena o estado e os dados compartilhados durante a execução do pipeline.
@@ -22,7 +33,30 @@ public class ContextoCompilacao {
     private final TabelaSimbolos tabelaSimbolos;
     private final List<ErroCompilacao> erros;
     private final List<String> avisos;
+    private NoPrograma programa; // Árvore do programa, disponível após a análise semântica.
+    private List<Instrucao> codigoAssembly; // Código em memória, passado entre os passos de geração.
+    private CodigoVM codigoVM; // Código da máquina virtual, para executar sem montar nem ligar.
     private Path arquivoAssemblyGerado;
+    private RelatorioOtimizacao relatorioOtimizacao;
+    private RelatorioCusto relatorioCusto; // Custo estático por linha LC (alvo MASM).
+
+    // Configuração
+    // Nível de otimização; a propriedade nyx.otimizacao (ex: -O1) muda o padrão.
+    private NivelOtimizacao nivelOtimizacao = NivelOtimizacao
+            .converter(System.getProperty("nyx.otimizacao", NivelOtimizacao.PADRAO.getRotulo()));
+    // Passos ligados ou desligados individualmente, sobre os do nível.
+    private final Map<Otimizacao, Boolean> ajustesOtimizacao = new EnumMap<>(Otimizacao.class);
+    // Grava também os artefatos intermediários (ex: o .asm antes do peephole).
+    private boolean depuracao = Boolean.getBoolean("nyx.depuracao");
+    // Instrumentação de perfil no programa gerado (propriedade nyx.perfil).
+    private ModoPerfil modoPerfil = ModoPerfil.converter(System.getProperty("nyx.perfil", "desligado"));
+    // Compilação guiada pelo perfil guardado para este fonte (propriedade nyx.pgo).
+    private boolean guiadoPorPerfil = Boolean.getBoolean("nyx.pgo");
+    // Monta o RelatorioOtimizacao, que compara com o código de -O0 (propriedade
+    // nyx.relatorio). Custa uma geração de código a mais por compilação.
+    private boolean relatorioOtimizacaoAtivo = Boolean.getBoolean("nyx.relatorio");
+    // Plataforma alvo: escolhe gerador, montador e linker.
+    private Plataforma plataforma = Plataforma.atual();
 
     // Resultados Finais (Legacy support / wrappers)
     private ResultadoCompilacao resultadoCompilacao;
@@ -64,6 +98,107 @@ public class ContextoCompilacao {
         return avisos;
     }
 
+    public NoPrograma getPrograma() {
+        return programa;
+    }
+
+    public void setPrograma(NoPrograma programa) {
+        this.programa = programa;
+    }
+
+    public List<Instrucao> getCodigoAssembly() {
+        return codigoAssembly;
+    }
+
+    public void setCodigoAssembly(List<Instrucao> codigoAssembly) {
+        this.codigoAssembly = codigoAssembly;
+    }
+
+    public CodigoVM getCodigoVM() {
+        return codigoVM;
+    }
+
+    public void setCodigoVM(CodigoVM codigoVM) {
+        this.codigoVM = codigoVM;
+    }
+
+    public NivelOtimizacao getNivelOtimizacao() {
+        return nivelOtimizacao;
+    }
+
+    public void setNivelOtimizacao(NivelOtimizacao nivelOtimizacao) {
+        this.nivelOtimizacao = nivelOtimizacao;
+    }
+
+    public void setOtimizacaoAtiva(Otimizacao otimizacao, boolean ativa) {
+        ajustesOtimizacao.put(otimizacao, ativa);
+    }
+
+    public Map<Otimizacao, Boolean> getAjustesOtimizacao() {
+        return ajustesOtimizacao;
+    }
+
+    // Lista ordenada dos passos que vão rodar nesta compilação.
+    public List<Otimizacao> getPassosOtimizacao() {
+        return nivelOtimizacao.getPassos(ajustesOtimizacao);
+    }
+
+    public RelatorioOtimizacao getRelatorioOtimizacao() {
+        return relatorioOtimizacao;
+    }
+
+    public void setRelatorioOtimizacao(RelatorioOtimizacao relatorioOtimizacao) {
+        this.relatorioOtimizacao = relatorioOtimizacao;
+    }
+
+    public RelatorioCusto getRelatorioCusto() {
+        return relatorioCusto;
+    }
+
+    public void setRelatorioCusto(RelatorioCusto relatorioCusto) {
+        this.relatorioCusto = relatorioCusto;
+    }
+
+    public boolean isDepuracao() {
+        return depuracao;
+    }
+
+    public void setDepuracao(boolean depuracao) {
+        this.depuracao = depuracao;
+    }
+
+    public ModoPerfil getModoPerfil() {
+        return modoPerfil;
+    }
+
+    public void setModoPerfil(ModoPerfil modoPerfil) {
+        this.modoPerfil = modoPerfil;
+    }
+
+    public boolean isGuiadoPorPerfil() {
+        return guiadoPorPerfil;
+    }
+
+    public void setGuiadoPorPerfil(boolean guiadoPorPerfil) {
+        this.guiadoPorPerfil = guiadoPorPerfil;
+    }
+
+    public boolean isRelatorioOtimizacaoAtivo() {
+        return relatorioOtimizacaoAtivo;
+    }
+
+    public void setRelatorioOtimizacaoAtivo(boolean relatorioOtimizacaoAtivo) {
+        this.relatorioOtimizacaoAtivo = relatorioOtimizacaoAtivo;
+    }
+
+    public Plataforma getPlataforma() {
+        return plataforma;
+    }
+
+    public void setPlataforma(Plataforma plataforma) {
+        this.plataforma = plataforma;
+    }
+
     public Path getArquivoAssemblyGerado() {
         return arquivoAssemblyGerado;
     }
@@ -77,7 +212,7 @@ public class ContextoCompilacao {
         // Reconstrói resultado on-demand se necessário, ou usa o setado
         if (resultadoCompilacao == null) {
             boolean sucesso = erros.isEmpty();
-            return new ResultadoCompilacao(sucesso, erros, avisos, arquivoAssemblyGerado);
+            return new ResultadoCompilacao(sucesso, erros, avisos, arquivoAssemblyGerado, relatorioCusto);
         }
         return resultadoCompilacao;
     }
@@ -1,23 +1,59 @@
 package com.editor_texto.nyx.domain.pipeline;
 
+import com.editor_texto.nyx.compiler.arvore.ConstrutorArvore;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.assembler.Plataforma;
+import com.editor_texto.nyx.compiler.geracao.EscritorAssembly;
 import com.editor_texto.nyx.compiler.geracao.GeradorAssembly;
+import com.editor_texto.nyx.compiler.geracao.GeradorAssemblyLinux;
+import com.editor_texto.nyx.compiler.geracao.GeradorC;
+import com.editor_texto.nyx.compiler.otimizacao.GuiadaPorPerfil;
+import com.editor_texto.nyx.compiler.otimizacao.Otimizacao;
+import com.editor_texto.nyx.compiler.otimizacao.OtimizacaoArvore;
+import com.editor_texto.nyx.compiler.otimizacao.RelatorioOtimizacao;
 import com.editor_texto.nyx.compiler.geracao.Otimizador;
+import com.editor_texto.nyx.compiler.geracao.RuntimeLC;
+import com.editor_texto.nyx.compiler.peephole.EstatisticasPeephole;
+import com.editor_texto.nyx.compiler.peephole.EstimadorCusto;
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
+import com.editor_texto.nyx.compiler.peephole.LeitorAssembly;
+import com.editor_texto.nyx.compiler.peephole.MapaFonte;
+import com.editor_texto.nyx.compiler.peephole.RelatorioCusto;
+import com.editor_texto.nyx.compiler.peephole.TamanhoInstrucao;
+import com.editor_texto.nyx.compiler.perfil.ArmazemPerfis;
+import com.editor_texto.nyx.compiler.perfil.MapaPerfil;
+import com.editor_texto.nyx.compiler.perfil.PerfilExecucao;
 import com.editor_texto.nyx.compiler.ErroCompilacao;
 import com.editor_texto.nyx.compiler.TipoErro;
 import com.editor_texto.nyx.sistema.ServicoLog;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public class PassoGeracaoCodigo implements PassoPipeline {
 
     private final String nomeArquivoSaida;
+    // Otimizações da árvore fixadas por quem criou o passo; null = usar o
+    // nível configurado no contexto.
+    private final List<OtimizacaoArvore> otimizacoes;
 
     public PassoGeracaoCodigo(String nomeArquivoSaida) {
         this.nomeArquivoSaida = nomeArquivoSaida;
+        this.otimizacoes = null;
     }
 
     public PassoGeracaoCodigo() {
-        this.nomeArquivoSaida = "output";
+        this("output");
+    }
+
+    // Permite escolher quais otimizações da árvore rodam, e em que ordem.
+    public PassoGeracaoCodigo(String nomeArquivoSaida, List<OtimizacaoArvore> otimizacoes) {
+        this.nomeArquivoSaida = nomeArquivoSaida;
+        this.otimizacoes = new ArrayList<>(otimizacoes);
     }
 
     @Override
@@ -32,27 +68,140 @@ public class PassoGeracaoCodigo implements PassoPipeline {
                 dirSaida = new File(dirSaida, "out");
             }
 
-            GeradorAssembly gerador = new GeradorAssembly(contexto.getTabelaSimbolos(), this.nomeArquivoSaida,
-                    dirSaida.getAbsolutePath());
-            gerador.gerar();
+            NoPrograma programa = contexto.getPrograma();
+            if (programa == null) {
+                programa = new ConstrutorArvore(contexto.getTabelaSimbolos()).construir();
+                contexto.setPrograma(programa);
+            }
 
-            File arqGerado = new File(dirSaida, "output.asm");
+            List<Otimizacao> passos = contexto.getPassosOtimizacao();
+            ServicoLog.info("Nível de otimização " + contexto.getNivelOtimizacao() + ": " + passos.size()
+                    + " passos");
+            PerfilExecucao perfilGuia = carregarPerfilGuia(contexto, dirSaida);
+
+            // Referência para o relatório: o mesmo programa gerado sem otimizações.
+            // Só é gerada quando o relatório foi pedido.
+            List<Instrucao> referencia = null;
+            boolean linux = contexto.getPlataforma() != Plataforma.WINDOWS;
+            boolean relatorioAtivo = contexto.isRelatorioOtimizacaoAtivo();
+            String arquivoPerfil = this.nomeArquivoSaida + MapaPerfil.EXTENSAO_DADOS;
+            if (!linux && relatorioAtivo && (!passos.isEmpty() || this.otimizacoes != null)) {
+                GeradorAssembly geradorReferencia = new GeradorAssembly(programa);
+                geradorReferencia.setReducaoForca(false);
+                // Instrumentada também, para comparar com o mesmo custo de contadores.
+                geradorReferencia.setPerfil(contexto.getModoPerfil(), arquivoPerfil);
+                referencia = new LeitorAssembly().ler(geradorReferencia.gerar());
+            }
+            long inicio = System.nanoTime();
+
+            // Otimizações sobre a árvore, antes da geração.
+            for (OtimizacaoArvore otimizacao : otimizacoesArvore(passos)) {
+                if (perfilGuia != null && otimizacao instanceof GuiadaPorPerfil guiada) {
+                    guiada.setPerfil(perfilGuia);
+                }
+                if (otimizacao.aplicar(programa)) {
+                    ServicoLog.info("Otimização aplicada: " + otimizacao.getNome());
+                }
+            }
+
+            if (linux && contexto.getModoPerfil().isAtivo()) {
+                contexto.adicionarAviso("Perfil de execução disponível só no alvo Windows (MASM); ignorado.");
+            }
+            if (contexto.getPlataforma() == Plataforma.LINUX_C) {
+                return gerarC(contexto, programa, dirSaida);
+            }
+            if (linux) {
+                return gerarLinux(contexto, programa, passos, dirSaida);
+            }
+
+            // O código fica em memória entre a geração e o peephole; só o
+            // resultado final é gravado em disco.
+            GeradorAssembly gerador = new GeradorAssembly(programa);
+            gerador.setReducaoForca(passos.contains(Otimizacao.REDUCAO_FORCA));
+            gerador.setDivisaoMagica(!contexto.getNivelOtimizacao().isTamanho());
+            gerador.setPerfil(contexto.getModoPerfil(), arquivoPerfil);
+            if (passos.contains(Otimizacao.SALTOS)) {
+                gerador.setPerfilGuia(perfilGuia);
+            }
+            List<Instrucao> codigo = new LeitorAssembly().ler(gerador.gerar());
+            MapaFonte mapaFonte = new MapaFonte(codigo, gerador.getLinhasFonte());
+            contexto.setCodigoAssembly(codigo);
+            if (contexto.isDepuracao()) {
+                Path intermediario = EscritorAssembly.escrever(codigo,
+                        new File(dirSaida, this.nomeArquivoSaida + "_gerado.asm").toPath());
+                ServicoLog.info("Código antes do peephole gravado em: " + intermediario.getFileName());
+            }
 
             // Otimização
-            try {
-                Otimizador.otimizarArquivo(arqGerado.getAbsolutePath());
-                File arqOtimizado = new File(dirSaida, "output_otimizado.asm");
-                if (arqOtimizado.exists()) {
-                    contexto.setArquivoAssemblyGerado(arqOtimizado.toPath());
-                    ServicoLog.info("Código otimizado gerado em: " + arqOtimizado.getName());
+            if (perfilGuia != null && passos.contains(Otimizacao.PEEPHOLE)) {
+                ServicoLog.info("Registradores: "
+                        + Otimizador.promoverRegistradores(codigo, mapaFonte, perfilGuia::getExecucoes));
+            }
+            if (passos.contains(Otimizacao.SALTOS)) {
+                ServicoLog.info("Saltos: " + Otimizador.otimizarSaltos(codigo));
+            }
+            if (passos.contains(Otimizacao.PEEPHOLE)) {
+                try {
+                    EstatisticasPeephole estatisticas = Otimizador.otimizar(codigo, mapaFonte);
+                    ServicoLog.info("Peephole: " + estatisticas);
+                } catch (RuntimeException e) {
+                    // Cada reescrita é atômica, então o código continua válido.
+                    contexto.adicionarAviso("Falha na otimização: " + e.getMessage());
+                    ServicoLog.aviso("Otimização interrompida, usando o código como está.");
+                }
+            }
+            if (passos.contains(Otimizacao.ESCALONAMENTO)) {
+                ServicoLog.info("Escalonamento: " + Otimizador.escalonar(codigo));
+            }
+            // O custo é estimado antes do runtime, que não é de nenhuma linha LC
+            // e é relido do texto (o mapa de linhas não passa por ele).
+            RelatorioCusto custos = EstimadorCusto.estimar(codigo, mapaFonte);
+            contexto.setRelatorioCusto(custos);
+            // O runtime de E/S entra depois das otimizações sobre o código.
+            RuntimeLC.anexar(codigo);
+            boolean layoutDados = passos.contains(Otimizacao.LAYOUT_DADOS);
+            boolean alinharLacos = passos.contains(Otimizacao.ALINHAMENTO_LACOS);
+            if (layoutDados || alinharLacos) {
+                ServicoLog.info("Layout: " + Otimizador.organizarLayout(codigo, layoutDados, alinharLacos));
+            }
+            long nanos = System.nanoTime() - inicio;
+
+            if (relatorioAtivo) {
+                if (referencia == null) {
+                    referencia = codigo;
                 } else {
-                    contexto.setArquivoAssemblyGerado(arqGerado.toPath());
-                    ServicoLog.info("Código gerado em: " + arqGerado.getName());
+                    RuntimeLC.anexar(referencia);
                 }
-            } catch (IOException e) {
-                contexto.adicionarAviso("Falha na otimização: " + e.getMessage());
-                contexto.setArquivoAssemblyGerado(arqGerado.toPath());
-                ServicoLog.aviso("Otimização falhou, usando arquivo não otimizado.");
+                RelatorioOtimizacao relatorio = new RelatorioOtimizacao(contexto.getNivelOtimizacao(), passos,
+                        contarInstrucoes(referencia), TamanhoInstrucao.estimar(referencia), contarInstrucoes(codigo),
+                        TamanhoInstrucao.estimar(codigo), nanos);
+                contexto.setRelatorioOtimizacao(relatorio);
+                ServicoLog.info(relatorio.toString());
+            } else {
+                ServicoLog.info(String.format("%s: %d instruções, %.2f ms", contexto.getNivelOtimizacao().getRotulo(),
+                        contarInstrucoes(codigo), nanos / 1e6));
+            }
+
+            Path arquivoFinal = EscritorAssembly.escrever(codigo,
+                    new File(dirSaida, this.nomeArquivoSaida + ".asm").toPath());
+            contexto.setArquivoAssemblyGerado(arquivoFinal);
+            ServicoLog.info("Código gerado em: " + arquivoFinal.getFileName());
+
+            Path arquivoCustos = new File(dirSaida, this.nomeArquivoSaida + "_custos.txt").toPath();
+            Files.writeString(arquivoCustos, custos.formatar(contexto.getCodigoFonte()), StandardCharsets.UTF_8);
+            ServicoLog.info("Custo: " + custos + " (por linha em " + arquivoCustos.getFileName() + ")");
+
+            // Um perfil de uma compilação anterior não corresponde mais ao programa.
+            Files.deleteIfExists(new File(dirSaida, arquivoPerfil).toPath());
+            Path arquivoMapa = new File(dirSaida, this.nomeArquivoSaida + MapaPerfil.SUFIXO_MAPA).toPath();
+            MapaPerfil mapaPerfil = gerador.getMapaPerfil();
+            if (mapaPerfil != null) {
+                mapaPerfil.setHashFonte(ArmazemPerfis.hashFonte(contexto.getCodigoFonte()));
+                mapaPerfil.gravar(arquivoMapa);
+                ServicoLog.info("Perfil " + contexto.getModoPerfil() + ": " + mapaPerfil.getQuantidadeContadores()
+                        + " contadores, gravados em " + arquivoPerfil + " ao fim da execução");
+            } else {
+                Files.deleteIfExists(arquivoMapa);
             }
 
             return true;
@@ -64,6 +213,87 @@ public class PassoGeracaoCodigo implements PassoPipeline {
         }
     }
 
+    /**
+     * Guarda o perfil da última execução instrumentada (se houver) e, na
+     * compilação guiada por perfil, busca o guardado para este fonte; null
+     * sem compilação guiada ou sem perfil para o fonte.
+     */
+    private PerfilExecucao carregarPerfilGuia(ContextoCompilacao contexto, File dirSaida) throws IOException {
+        ArmazemPerfis armazem = new ArmazemPerfis(new File(dirSaida, ArmazemPerfis.DIRETORIO).toPath());
+        Path mapa = new File(dirSaida, this.nomeArquivoSaida + MapaPerfil.SUFIXO_MAPA).toPath();
+        Path dados = new File(dirSaida, this.nomeArquivoSaida + MapaPerfil.EXTENSAO_DADOS).toPath();
+        if (Files.exists(mapa) && Files.exists(dados)) {
+            try {
+                armazem.guardar(PerfilExecucao.carregar(mapa, dados));
+            } catch (IllegalArgumentException e) {
+                ServicoLog.aviso("Perfil da última execução ignorado: " + e.getMessage());
+            }
+        }
+        if (!contexto.isGuiadoPorPerfil()) {
+            return null;
+        }
+        PerfilExecucao perfil = armazem.buscar(contexto.getCodigoFonte());
+        if (perfil == null) {
+            contexto.adicionarAviso("Nenhum perfil guardado para este fonte: compile com nyx.perfil, execute "
+                    + "o programa e compile de novo. Compilando sem perfil.");
+        } else {
+            ServicoLog.info("Compilação guiada por perfil: " + perfil);
+        }
+        return perfil;
+    }
+
+    /**
+     * Alvo Linux x86-64: os passos sobre o código (saltos, peephole,
+     * escalonamento, layout) leem MASM e não se aplicam; valem as otimizações
+     * da árvore e a redução de força, feita pelo próprio gerador.
+     */
+    private boolean gerarLinux(ContextoCompilacao contexto, NoPrograma programa, List<Otimizacao> passos,
+            File dirSaida) throws IOException {
+        GeradorAssemblyLinux gerador = new GeradorAssemblyLinux(programa);
+        gerador.setReducaoForca(passos.contains(Otimizacao.REDUCAO_FORCA));
+        gerador.setDivisaoMagica(!contexto.getNivelOtimizacao().isTamanho());
+        Path arquivoFinal = EscritorAssembly.escrever(gerador.gerar(),
+                new File(dirSaida, this.nomeArquivoSaida + Plataforma.LINUX.getExtensaoAssembly()).toPath());
+        contexto.setArquivoAssemblyGerado(arquivoFinal);
+        ServicoLog.info("Código gerado (Linux x86-64) em: " + arquivoFinal.getFileName());
+        return true;
+    }
+
+    /**
+     * Alvo C: valem as otimizações da árvore; o resto (redução de força,
+     * alocação de registradores, escalonamento) fica com o cc -O2.
+     */
+    private boolean gerarC(ContextoCompilacao contexto, NoPrograma programa, File dirSaida) throws IOException {
+        Path arquivoFinal = EscritorAssembly.escrever(new GeradorC(programa).gerar(),
+                new File(dirSaida, this.nomeArquivoSaida + Plataforma.LINUX_C.getExtensaoAssembly()).toPath());
+        contexto.setArquivoAssemblyGerado(arquivoFinal);
+        ServicoLog.info("Código gerado (C) em: " + arquivoFinal.getFileName());
+        return true;
+    }
+
+    private List<OtimizacaoArvore> otimizacoesArvore(List<Otimizacao> passos) {
+        if (this.otimizacoes != null) {
+            return this.otimizacoes;
+        }
+        List<OtimizacaoArvore> resultado = new ArrayList<>();
+        for (Otimizacao passo : passos) {
+            if (passo.isArvore()) {
+                resultado.add(passo.criar());
+            }
+        }
+        return resultado;
+    }
+
+    private int contarInstrucoes(List<Instrucao> codigo) {
+        int total = 0;
+        for (Instrucao instrucao : codigo) {
+            if (instrucao.isInstrucao()) {
+                total++;
+            }
+        }
+        return total;
+    }
+
     @Override
     public String getNome() {
         return "Geração de Código";
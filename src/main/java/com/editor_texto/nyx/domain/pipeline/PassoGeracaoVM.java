@@ -0,0 +1,49 @@
+package com.editor_texto.nyx.domain.pipeline;
+
+import com.editor_texto.nyx.compiler.ErroCompilacao;
+import com.editor_texto.nyx.compiler.TipoErro;
+import com.editor_texto.nyx.compiler.arvore.ConstrutorArvore;
+import com.editor_texto.nyx.compiler.arvore.NoPrograma;
+import com.editor_texto.nyx.compiler.otimizacao.Otimizacao;
+import com.editor_texto.nyx.compiler.otimizacao.OtimizacaoArvore;
+import com.editor_texto.nyx.compiler.vm.CodigoVM;
+import com.editor_texto.nyx.compiler.vm.CompiladorVM;
+import com.editor_texto.nyx.sistema.ServicoLog;
+
+/**
+ * Alternativa aos passos de geração, montagem e ligação para o Executar:
+ * aplica as otimizações da árvore do nível escolhido e traduz o programa
+ * para o código da máquina virtual, sem gravar nada em disco.
+ */
+public class PassoGeracaoVM implements PassoPipeline {
+
+    @Override
+    public boolean executar(ContextoCompilacao contexto) throws Exception {
+        try {
+            NoPrograma programa = contexto.getPrograma();
+            if (programa == null) {
+                programa = new ConstrutorArvore(contexto.getTabelaSimbolos()).construir();
+                contexto.setPrograma(programa);
+            }
+            for (Otimizacao passo : contexto.getPassosOtimizacao()) {
+                if (passo.isArvore()) {
+                    OtimizacaoArvore otimizacao = passo.criar();
+                    otimizacao.aplicar(programa);
+                }
+            }
+            CodigoVM codigo = CompiladorVM.compilar(programa);
+            contexto.setCodigoVM(codigo);
+            ServicoLog.info("Código da VM: " + codigo.getTamanho() + " instruções");
+            return true;
+        } catch (RuntimeException e) {
+            contexto.adicionarErro(
+                    new ErroCompilacao(TipoErro.OUTRO, "Erro na geração do código da VM: " + e.getMessage(), 0, 0));
+            return false;
+        }
+    }
+
+    @Override
+    public String getNome() {
+        return "Geração de Código (VM)";
+    }
+}
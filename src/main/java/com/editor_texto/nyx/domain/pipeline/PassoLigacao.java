@@ -16,18 +16,18 @@ public class PassoLigacao implements PassoPipeline {
         }
 
         // Assume que o objeto foi gerado com o mesmo nome base do arquivo ASM
-        // Ex: output.asm -> output.obj
-        // O MontadorWindowsJWASM coloca o OBJ na pasta de saída.
+        // Ex: output.asm -> output.obj, output.s -> output.o
+        // Os montadores colocam o objeto na pasta de saída.
         Path asmGerado = contexto.getResultadoCompilacao().getArquivoAssemblyGerado();
         String nomeBase = asmGerado.getFileName().toString();
         if (nomeBase.contains(".")) {
             nomeBase = nomeBase.substring(0, nomeBase.lastIndexOf('.'));
         }
-        Path arquivoObj = contexto.getDiretorioSaida().resolve(nomeBase + ".obj");
+        Path arquivoObj = contexto.getDiretorioSaida().resolve(nomeBase + contexto.getPlataforma().getExtensaoObjeto());
 
         ServicoLog.info("Iniciando Ligação (Linking) de: " + arquivoObj.toString());
 
-        ExecutorLinker linker = FabricaMontador.criarLinker();
+        ExecutorLinker linker = FabricaMontador.criarLinker(contexto.getPlataforma());
         ResultadoLinker resultado = linker.ligar(arquivoObj, contexto.getDiretorioSaida());
 
         // Loga saídas
@@ -5,7 +5,7 @@ import com.editor_texto.nyx.compiler.assembler.FabricaMontador;
 import com.editor_texto.nyx.compiler.assembler.ResultadoMontador;
 
 /**
- * Passo 2: Montagem (Assembler) (.asm -> .obj / .exe)
+ * Passo 2: Montagem (Assembler) (.asm -> .obj / .s -> .o)
  */
 public class PassoMontagem implements PassoPipeline {
 
@@ -18,8 +18,8 @@ public class PassoMontagem implements PassoPipeline {
             return false;
         }
 
-        ExecutorMontador montador = FabricaMontador.criarMontador();
-        ResultadoMontador resultado = montador.montar(
+        ExecutorMontador montador = FabricaMontador.criarMontador(contexto.getPlataforma());
+        ResultadoMontador resultado = montador.montar(contexto.getCodigoAssembly(),
                 contexto.getResultadoCompilacao().getArquivoAssemblyGerado(),
                 contexto.getDiretorioSaida());
 
@@ -1,5 +1,6 @@
 package com.editor_texto.nyx.domain.pipeline;
 
+import com.editor_texto.nyx.compiler.arvore.ConstrutorArvore;
 import com.editor_texto.nyx.compiler.semantico.AnalisadorSemantico;
 import com.editor_texto.nyx.compiler.erros.ExcecaoCompilador;
 import com.editor_texto.nyx.compiler.ErroCompilacao;
@@ -13,6 +14,8 @@ public class PassoSemantico implements PassoPipeline {
         try {
             AnalisadorSemantico semantico = new AnalisadorSemantico(contexto.getTabelaSimbolos());
             semantico.analisar();
+            // Com os tipos resolvidos, monta a árvore usada pelas fases seguintes.
+            contexto.setPrograma(new ConstrutorArvore(contexto.getTabelaSimbolos()).construir());
             ServicoLog.info("Análise semântica concluída sem erros.");
             return true;
         } catch (ExcecaoCompilador e) {
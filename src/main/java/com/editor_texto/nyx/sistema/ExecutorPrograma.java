@@ -1,16 +1,40 @@
 package com.editor_texto.nyx.sistema;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import com.editor_texto.nyx.compiler.jvm.ProgramaJvm;
+import com.editor_texto.nyx.compiler.vm.CodigoVM;
+import com.editor_texto.nyx.compiler.vm.InterpretadorVM;
 
 /**
  * Responsável por executar o programa (.exe) gerado.
  * Captura stdout e stderr e envia para o ServicoLog.
+ *
+ * Também roda o programa dentro do próprio editor, sem montar, ligar nem
+ * abrir processo: compilado para a JVM (executarEmProcesso) ou na máquina
+ * virtual (executarNaVM), que tem limite de passos e de tempo e pode ser
+ * cancelada.
  */
 public class ExecutorPrograma {
 
+    // Limites da VM; as propriedades nyx.vm.passos e nyx.vm.tempo (ms) mudam
+    // o padrão, e 0 desliga o limite.
+    private static final long LIMITE_PASSOS = Long.getLong("nyx.vm.passos", 2_000_000_000L);
+    private static final long LIMITE_TEMPO = Long.getLong("nyx.vm.tempo", 10_000L);
+
     public static void executar(String caminhoExecutavel) {
+        executar(caminhoExecutavel, null);
+    }
+
+    // 'aoTerminar' (se não for null) roda na thread da execução, depois que o programa termina.
+    public static void executar(String caminhoExecutavel, Runnable aoTerminar) {
         File arquivoExe = new File(caminhoExecutavel);
         if (!arquivoExe.exists()) {
             ServicoLog.erro("Executável não encontrado: " + caminhoExecutavel);
@@ -47,8 +71,75 @@ public class ExecutorPrograma {
 
                 int exitCode = processo.waitFor();
                 ServicoLog.info("--- Programa finalizado com código: " + exitCode + " ---");
+                if (aoTerminar != null) {
+                    aoTerminar.run();
+                }
+
+            } catch (Exception e) {
+                e.printStackTrace();
+                ServicoLog.erro("Erro na execução do programa: " + e.getMessage());
+            }
+        });
+
+        threadExecucao.setDaemon(true);
+        threadExecucao.start();
+    }
+
+    public static void executarEmProcesso(ProgramaJvm programa) {
+        ServicoLog.info("--- Iniciando Execução do Programa (JVM) ---");
+
+        Thread threadExecucao = new Thread(() -> {
+            SaidaLog saida = new SaidaLog();
+            long inicio = System.nanoTime();
+            try {
+                // Como no processo nativo, o programa não recebe entrada: 'readln' vê o fim.
+                programa.executar(InputStream.nullInputStream(), saida);
+                saida.concluir();
+                ServicoLog.info(String.format(Locale.ROOT, "--- Programa finalizado em %.2f ms ---",
+                        (System.nanoTime() - inicio) / 1_000_000.0));
+            } catch (ArithmeticException e) {
+                saida.concluir();
+                ServicoLog.erro("[PROG] " + e.getMessage());
+            } catch (Exception e) {
+                saida.concluir();
+                e.printStackTrace();
+                ServicoLog.erro("Erro na execução do programa: " + e.getMessage());
+            }
+        });
+
+        threadExecucao.setDaemon(true);
+        threadExecucao.start();
+    }
+
+    /**
+     * Roda o código na máquina virtual em uma thread separada e retorna o
+     * interpretador, para quem chamou poder cancelar a execução.
+     */
+    public static InterpretadorVM executarNaVM(CodigoVM codigo) {
+        InterpretadorVM interpretador = new InterpretadorVM(codigo, LIMITE_PASSOS, LIMITE_TEMPO);
+        ServicoLog.info("--- Iniciando Execução do Programa (VM) ---");
 
+        Thread threadExecucao = new Thread(() -> {
+            SaidaLog saida = new SaidaLog();
+            long inicio = System.nanoTime();
+            try {
+                InterpretadorVM.Termino termino = interpretador.executar(InputStream.nullInputStream(), saida);
+                saida.concluir();
+                String resumo = String.format(Locale.ROOT, "%d passos em %.2f ms", interpretador.getPassos(),
+                        (System.nanoTime() - inicio) / 1_000_000.0);
+                switch (termino) {
+                    case CONCLUIDO -> ServicoLog.info("--- Programa finalizado: " + resumo + " ---");
+                    case CANCELADO -> ServicoLog.aviso("--- Programa interrompido: " + resumo + " ---");
+                    case LIMITE_PASSOS -> ServicoLog.erro("--- Limite de " + LIMITE_PASSOS
+                            + " passos atingido (laço infinito?): " + resumo + " ---");
+                    case LIMITE_TEMPO -> ServicoLog.erro("--- Limite de " + LIMITE_TEMPO
+                            + " ms atingido (laço infinito?): " + resumo + " ---");
+                }
+            } catch (ArithmeticException e) {
+                saida.concluir();
+                ServicoLog.erro("[PROG] " + e.getMessage());
             } catch (Exception e) {
+                saida.concluir();
                 e.printStackTrace();
                 ServicoLog.erro("Erro na execução do programa: " + e.getMessage());
             }
@@ -56,5 +147,40 @@ public class ExecutorPrograma {
 
         threadExecucao.setDaemon(true);
         threadExecucao.start();
+        return interpretador;
+    }
+
+    // Envia a saída do programa para o ServicoLog, uma linha por vez.
+    private static class SaidaLog extends OutputStream {
+
+        private final ByteArrayOutputStream linha = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                emitir();
+            } else if (b != '\r') {
+                linha.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int inicio, int tamanho) {
+            for (int i = inicio; i < inicio + tamanho; i++) {
+                write(bytes[i]);
+            }
+        }
+
+        // Última linha, se o programa não terminou com quebra.
+        void concluir() {
+            if (linha.size() > 0) {
+                emitir();
+            }
+        }
+
+        private void emitir() {
+            ServicoLog.info("[PROG] " + linha.toString(StandardCharsets.UTF_8));
+            linha.reset();
+        }
     }
 }
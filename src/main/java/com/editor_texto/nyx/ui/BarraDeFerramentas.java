@@ -1,9 +1,117 @@
 package com.editor_texto.nyx.ui;
 
+import com.editor_texto.nyx.compiler.otimizacao.NivelOtimizacao;
+import com.editor_texto.nyx.compiler.otimizacao.Otimizacao;
+
+import javafx.scene.control.CheckMenuItem;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.MenuButton;
+import javafx.scene.control.ToolBar;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.prefs.Preferences;
+
 /**
  * Componente para a barra de ferramentas (toolbar) do editor.
- * Atualmente vazia, mas preparada para expansão futura.
+ * Contém a escolha do nível de otimização e dos passos individuais usados na
+ * compilação, salvos nas preferências do usuário.
  */
 public class BarraDeFerramentas {
-    // Implementação futura
+
+    private static final String PREF_NIVEL = "nivelOtimizacao";
+    private static final String PREF_AJUSTES = "ajustesOtimizacao";
+
+    private final ToolBar barraFerramentas;
+    private final ComboBox<NivelOtimizacao> seletorNivel;
+    private final MenuButton menuPassos;
+    private final Map<Otimizacao, CheckMenuItem> itensPassos = new EnumMap<>(Otimizacao.class);
+    // Passos que o usuário ligou ou desligou, sobre os do nível.
+    private final Map<Otimizacao, Boolean> ajustes = new EnumMap<>(Otimizacao.class);
+
+    public BarraDeFerramentas() {
+        seletorNivel = new ComboBox<>();
+        seletorNivel.getItems().addAll(NivelOtimizacao.values());
+
+        menuPassos = new MenuButton("Passos");
+        for (Otimizacao otimizacao : Otimizacao.values()) {
+            CheckMenuItem item = new CheckMenuItem(otimizacao.getNome());
+            item.setOnAction(e -> {
+                ajustes.put(otimizacao, item.isSelected());
+                salvarPreferencias();
+            });
+            itensPassos.put(otimizacao, item);
+            menuPassos.getItems().add(item);
+        }
+
+        carregarPreferencias();
+        seletorNivel.setOnAction(e -> {
+            // Trocar de nível descarta os ajustes feitos sobre o anterior.
+            ajustes.clear();
+            atualizarPassos();
+            salvarPreferencias();
+        });
+
+        barraFerramentas = new ToolBar(new Label("Otimização:"), seletorNivel, menuPassos);
+    }
+
+    public ToolBar obterBarraFerramentas() {
+        return barraFerramentas;
+    }
+
+    public NivelOtimizacao obterNivelOtimizacao() {
+        return seletorNivel.getValue();
+    }
+
+    public Map<Otimizacao, Boolean> obterAjustesOtimizacao() {
+        return new EnumMap<>(ajustes);
+    }
+
+    // Marca os passos que vão rodar com o nível e os ajustes atuais.
+    private void atualizarPassos() {
+        List<Otimizacao> passos = seletorNivel.getValue().getPassos(ajustes);
+        for (Map.Entry<Otimizacao, CheckMenuItem> entrada : itensPassos.entrySet()) {
+            entrada.getValue().setSelected(passos.contains(entrada.getKey()));
+        }
+    }
+
+    private void carregarPreferencias() {
+        Preferences prefs = Preferences.userNodeForPackage(LayoutPrincipal.class);
+        NivelOtimizacao nivel;
+        try {
+            nivel = NivelOtimizacao.converter(prefs.get(PREF_NIVEL, NivelOtimizacao.PADRAO.getRotulo()));
+        } catch (IllegalArgumentException e) {
+            nivel = NivelOtimizacao.PADRAO;
+        }
+        seletorNivel.setValue(nivel);
+
+        // Formato: "unroll=false,peephole=true".
+        for (String par : prefs.get(PREF_AJUSTES, "").split(",")) {
+            String[] partes = par.split("=");
+            if (partes.length != 2) {
+                continue;
+            }
+            try {
+                ajustes.put(Otimizacao.converter(partes[0]), Boolean.parseBoolean(partes[1]));
+            } catch (IllegalArgumentException e) {
+                // Passo que não existe mais: ignora.
+            }
+        }
+        atualizarPassos();
+    }
+
+    private void salvarPreferencias() {
+        Preferences prefs = Preferences.userNodeForPackage(LayoutPrincipal.class);
+        prefs.put(PREF_NIVEL, seletorNivel.getValue().getRotulo());
+        StringBuilder texto = new StringBuilder();
+        for (Map.Entry<Otimizacao, Boolean> ajuste : ajustes.entrySet()) {
+            if (texto.length() > 0) {
+                texto.append(',');
+            }
+            texto.append(ajuste.getKey().getId()).append('=').append(ajuste.getValue());
+        }
+        prefs.put(PREF_AJUSTES, texto.toString());
+    }
 }
@@ -33,6 +33,8 @@ public class BarraDeMenu {
 
     private MenuItem compilar;
     private MenuItem executar;
+    private MenuItem parar;
+    private MenuItem carregarPerfil;
     private MenuItem sobre;
 
     public BarraDeMenu() {
@@ -95,7 +97,9 @@ public class BarraDeMenu {
         Menu menu = new Menu("Executar");
         compilar = new MenuItem("Compilar (F5)");
         executar = new MenuItem("Executar (F6)");
-        menu.getItems().addAll(compilar, executar);
+        parar = new MenuItem("Parar (Shift+F6)");
+        carregarPerfil = new MenuItem("Carregar perfil");
+        menu.getItems().addAll(compilar, executar, parar, carregarPerfil);
         return menu;
     }
 
@@ -163,6 +167,14 @@ public class BarraDeMenu {
         return executar;
     }
 
+    public MenuItem obterItemParar() {
+        return parar;
+    }
+
+    public MenuItem obterItemCarregarPerfil() {
+        return carregarPerfil;
+    }
+
     public MenuItem obterItemSobre() {
         return sobre;
     }
@@ -1,11 +1,20 @@
 package com.editor_texto.nyx.ui;
 
+import com.editor_texto.nyx.compiler.assembler.Plataforma;
 import com.editor_texto.nyx.compiler.assembler.ResultadoMontador;
 import com.editor_texto.nyx.compiler.ResultadoCompilacao;
 import com.editor_texto.nyx.compiler.ErroCompilacao;
+import com.editor_texto.nyx.compiler.jvm.ProgramaJvm;
+import com.editor_texto.nyx.compiler.vm.InterpretadorVM;
+import com.editor_texto.nyx.compiler.otimizacao.NivelOtimizacao;
+import com.editor_texto.nyx.compiler.otimizacao.Otimizacao;
+import com.editor_texto.nyx.compiler.perfil.ArmazemPerfis;
+import com.editor_texto.nyx.compiler.perfil.MapaPerfil;
+import com.editor_texto.nyx.compiler.perfil.PerfilExecucao;
 import com.editor_texto.nyx.domain.pipeline.ContextoCompilacao;
 import com.editor_texto.nyx.domain.pipeline.OuvintePipeline;
 import com.editor_texto.nyx.domain.pipeline.PassoGeracaoCodigo;
+import com.editor_texto.nyx.domain.pipeline.PassoGeracaoVM;
 import com.editor_texto.nyx.domain.pipeline.PassoInicializacao;
 import com.editor_texto.nyx.domain.pipeline.PassoLexico;
 import com.editor_texto.nyx.domain.pipeline.PassoMontagem;
@@ -16,6 +25,7 @@ import com.editor_texto.nyx.domain.pipeline.PassoSintatico;
 import com.editor_texto.nyx.domain.pipeline.Pipeline;
 import com.editor_texto.nyx.pipeline.PipelineCompilacao;
 import com.editor_texto.nyx.pipeline.PipelineCompilacao.Fase;
+import com.editor_texto.nyx.sistema.ExecutorPrograma;
 import com.editor_texto.nyx.sistema.ServicoLog;
 
 import javafx.concurrent.Task;
@@ -23,9 +33,13 @@ import javafx.application.Platform;
 import javafx.scene.control.Alert;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador responsável pela lógica de compilação na interface gráfica.
@@ -36,6 +50,12 @@ public class ControladorCompilacao {
     private final PainelConsole painelConsole;
     private final PainelErros painelErros;
     private final PipelineCompilacao pipelineCompilacao;
+    private BarraDeFerramentas barraDeFerramentas; // Opcional: nível de otimização escolhido.
+    // Última compilação bem-sucedida, carregada na JVM para o Executar.
+    private ProgramaJvm programaJvm;
+    private File arquivoProgramaJvm;
+    // Programa rodando na VM, para o Parar.
+    private InterpretadorVM programaEmExecucao;
 
     public ControladorCompilacao(PainelEditor painelEditor, PainelConsole painelConsole, PainelErros painelErros,
             PipelineCompilacao pipelineCompilacao) {
@@ -48,6 +68,10 @@ public class ControladorCompilacao {
         configurarLogs();
     }
 
+    public void definirBarraDeFerramentas(BarraDeFerramentas barraDeFerramentas) {
+        this.barraDeFerramentas = barraDeFerramentas;
+    }
+
     private void configurarLogs() {
         if (this.painelConsole != null && this.painelConsole.obterConsole() != null) {
             ServicoLog.adicionarOuvinte(log -> {
@@ -79,6 +103,8 @@ public class ControladorCompilacao {
 
         // 1. Limpeza e Reset Visual
         painelEditor.limparErros();
+        painelEditor.limparCustos();
+        painelEditor.limparPerfil();
         painelErros.limpar();
         if (pipelineCompilacao != null) {
             pipelineCompilacao.resetar();
@@ -131,6 +157,14 @@ public class ControladorCompilacao {
 
         final String nomeArquivoFinal = nomeArquivo;
 
+        // Lê a configuração de otimização ainda na thread da interface.
+        final NivelOtimizacao nivelOtimizacao = barraDeFerramentas != null
+                ? barraDeFerramentas.obterNivelOtimizacao()
+                : null;
+        final Map<Otimizacao, Boolean> ajustesOtimizacao = barraDeFerramentas != null
+                ? barraDeFerramentas.obterAjustesOtimizacao()
+                : Map.of();
+
         ServicoLog.info("Diretório de saída: " + diretorioSaidaFinal.toString());
 
         // --- Execução em Background ---
@@ -188,19 +222,37 @@ public class ControladorCompilacao {
                 pipeline.setOuvinte(ouvinteVisual);
 
                 ContextoCompilacao contexto = new ContextoCompilacao(codigoFonte, diretorioSaidaFinal);
+                if (nivelOtimizacao != null) {
+                    contexto.setNivelOtimizacao(nivelOtimizacao);
+                }
+                ajustesOtimizacao.forEach(contexto::setOtimizacaoAtiva);
 
                 // Executa (Sincronamente, já estamos numa thread separada)
                 pipeline.executar(contexto);
 
+                // A árvore já otimizada também vira uma classe da JVM, para o
+                // Executar rodar sem depender do montador e do ligador.
+                ProgramaJvm programa = null;
+                if (contexto.getErros().isEmpty() && contexto.getPrograma() != null) {
+                    try {
+                        programa = ProgramaJvm.compilar(contexto.getPrograma(), nomeArquivoFinal + ".lc");
+                    } catch (RuntimeException e) {
+                        ServicoLog.aviso("Programa não compilado para a JVM: " + e.getMessage());
+                    }
+                }
+
                 // Retorna o resultado acumulado no contexto
                 return new ResultadoProcesso(
                         contexto.getResultadoCompilacao(),
-                        contexto.getResultadoMontador());
+                        contexto.getResultadoMontador(),
+                        programa);
             }
         };
 
         tarefaCompilacao.setOnSucceeded(e -> {
             ResultadoProcesso resultado = tarefaCompilacao.getValue();
+            programaJvm = resultado.programaJvm;
+            arquivoProgramaJvm = arquivoAtual;
             processarResultado(resultado);
         });
 
@@ -249,6 +301,7 @@ public class ControladorCompilacao {
 
             String mensagem = "Compilação concluída! " + resultado.getArquivoAssemblyGerado().toString();
             ServicoLog.sucesso(mensagem);
+            painelEditor.mostrarCustos(resultado.getRelatorioCusto());
 
             for (String aviso : resultado.getAvisos()) {
                 ServicoLog.aviso(aviso);
@@ -322,7 +375,19 @@ public class ControladorCompilacao {
         }
     }
 
+    /**
+     * Executa o programa. Padrão: compila o código do editor até a árvore e
+     * roda na máquina virtual, sem montar nem ligar. Com -Dnyx.execucao=jvm
+     * usa a classe da última compilação; com -Dnyx.execucao=nativo, o
+     * executável.
+     */
     public void aoExecutar() {
+        String modo = System.getProperty("nyx.execucao", "vm");
+        if (modo.equalsIgnoreCase("vm")) {
+            executarNaVM();
+            return;
+        }
+
         // Verifica se existe executável gerado
         File arquivoAtual = painelEditor.obterArquivoAtual();
         if (arquivoAtual == null) {
@@ -330,9 +395,30 @@ public class ControladorCompilacao {
             return;
         }
 
-        // Caminho esperado: out/NomeArquivo.exe
-        // Lógica simplificada: assume padrão de saída 'out' no mesmo diretório ou
-        // projeto
+        if (modo.equalsIgnoreCase("jvm") && programaJvm != null && arquivoAtual.equals(arquivoProgramaJvm)) {
+            ExecutorPrograma.executarEmProcesso(programaJvm);
+            return;
+        }
+
+        Path exe = arquivoSaida(arquivoAtual, Plataforma.atual().getExtensaoExecutavel());
+
+        if (exe.toFile().exists()) {
+            // Um programa compilado com perfil grava os contadores ao terminar.
+            boolean instrumentado = arquivoSaida(arquivoAtual, MapaPerfil.SUFIXO_MAPA).toFile().exists();
+            ExecutorPrograma.executar(exe.toString(),
+                    instrumentado ? () -> Platform.runLater(() -> carregarPerfil(arquivoAtual, false)) : null);
+        } else {
+            ServicoLog.erro("Executável não encontrado. Compile o código primeiro.");
+            ServicoLog.info("Procurado em: " + exe.toString());
+        }
+    }
+
+    /**
+     * Caminho esperado de um arquivo de saída do arquivo atual: out/NomeArquivo
+     * mais o sufixo (ex: ".exe"). Lógica simplificada: assume padrão de saída
+     * 'out' no mesmo diretório ou projeto.
+     */
+    private Path arquivoSaida(File arquivoAtual, String sufixo) {
         String nomeBase = arquivoAtual.getName().replace(".txt", "").replace(".asm", ""); // ajusta extensao se
                                                                                           // necessario
         if (nomeBase.contains("."))
@@ -342,25 +428,136 @@ public class ControladorCompilacao {
         if (arquivoAtual.getParentFile() != null) {
             dirSaida = arquivoAtual.getParentFile().toPath().resolve("out");
         }
+        return dirSaida.resolve(nomeBase + sufixo);
+    }
 
-        Path exe = dirSaida.resolve(nomeBase + ".exe");
+    // Mostra o perfil gravado pela última execução do programa compilado com -Dnyx.perfil.
+    public void aoCarregarPerfil() {
+        File arquivoAtual = painelEditor.obterArquivoAtual();
+        if (arquivoAtual == null) {
+            ServicoLog.erro("Salve o arquivo antes de carregar o perfil.");
+            return;
+        }
+        carregarPerfil(arquivoAtual, true);
+    }
 
-        if (exe.toFile().exists()) {
-            com.editor_texto.nyx.sistema.ExecutorPrograma.executar(exe.toString());
-        } else {
-            ServicoLog.erro("Executável não encontrado. Compile o código primeiro.");
-            ServicoLog.info("Procurado em: " + exe.toString());
+    /**
+     * Lê o perfil ao lado do executável, grava o relatório e marca as linhas
+     * no editor. 'avisarAusente': sem perfil, explica como gerar um.
+     */
+    private void carregarPerfil(File arquivoAtual, boolean avisarAusente) {
+        Path mapa = arquivoSaida(arquivoAtual, MapaPerfil.SUFIXO_MAPA);
+        Path dados = arquivoSaida(arquivoAtual, MapaPerfil.EXTENSAO_DADOS);
+        if (!mapa.toFile().exists() || !dados.toFile().exists()) {
+            if (avisarAusente) {
+                ServicoLog.erro("Nenhum perfil encontrado. Compile com -Dnyx.perfil=contadores (ou tempo) "
+                        + "e execute o programa nativo.");
+            }
+            return;
+        }
+        try {
+            PerfilExecucao perfil = PerfilExecucao.carregar(mapa, dados);
+            Path relatorio = arquivoSaida(arquivoAtual, MapaPerfil.SUFIXO_RELATORIO);
+            Files.writeString(relatorio, perfil.formatar(painelEditor.obterCodigoAtual()), StandardCharsets.UTF_8);
+            ServicoLog.info("Perfil: " + perfil + " (por linha em " + relatorio.getFileName() + ")");
+            for (PerfilExecucao.Linha linha : perfil.getMaisExecutadas(3)) {
+                ServicoLog.info(String.format("  linha %d: %d execuções", linha.getLinha(), linha.getExecucoes()));
+            }
+            for (PerfilExecucao.Laco laco : perfil.getLacos()) {
+                ServicoLog.info(String.format("  laço da linha %d: %d entradas, média de %.1f iterações%s",
+                        laco.getLinha(), laco.getEntradas(), laco.getMediaIteracoes(),
+                        laco.getCiclos() >= 0 ? ", " + PerfilExecucao.abreviar(laco.getCiclos()) + " ciclos" : ""));
+            }
+            if (new ArmazemPerfis(mapa.resolveSibling(ArmazemPerfis.DIRETORIO)).guardar(perfil)) {
+                ServicoLog.info("Perfil guardado para a compilação guiada (-Dnyx.pgo=true).");
+            }
+            painelEditor.mostrarPerfil(perfil);
+        } catch (IOException | IllegalArgumentException e) {
+            ServicoLog.erro("Não foi possível carregar o perfil: " + e.getMessage());
         }
     }
 
+    // Interrompe o programa que está rodando na VM.
+    public void aoParar() {
+        if (programaEmExecucao == null) {
+            ServicoLog.info("Nenhum programa em execução na VM.");
+            return;
+        }
+        programaEmExecucao.cancelar();
+        programaEmExecucao = null;
+    }
+
+    private void executarNaVM() {
+        String codigoFonte = painelEditor.obterCodigoAtual();
+        if (codigoFonte == null || codigoFonte.trim().isEmpty()) {
+            ServicoLog.erro("Nenhum código fonte para executar.");
+            return;
+        }
+        if (programaEmExecucao != null) {
+            programaEmExecucao.cancelar();
+        }
+
+        final NivelOtimizacao nivelOtimizacao = barraDeFerramentas != null
+                ? barraDeFerramentas.obterNivelOtimizacao()
+                : null;
+        final Map<Otimizacao, Boolean> ajustesOtimizacao = barraDeFerramentas != null
+                ? barraDeFerramentas.obterAjustesOtimizacao()
+                : Map.of();
+
+        Task<ContextoCompilacao> tarefa = new Task<>() {
+            @Override
+            protected ContextoCompilacao call() throws Exception {
+                // Nada é gravado em disco: o diretório de saída não é usado.
+                ContextoCompilacao contexto = new ContextoCompilacao(codigoFonte,
+                        Paths.get(System.getProperty("user.dir"), "out"));
+                if (nivelOtimizacao != null) {
+                    contexto.setNivelOtimizacao(nivelOtimizacao);
+                }
+                ajustesOtimizacao.forEach(contexto::setOtimizacaoAtiva);
+
+                Pipeline pipeline = new Pipeline();
+                pipeline.adicionarPasso(new PassoLexico());
+                pipeline.adicionarPasso(new PassoSintatico());
+                pipeline.adicionarPasso(new PassoSemantico());
+                pipeline.adicionarPasso(new PassoGeracaoVM());
+                pipeline.executar(contexto);
+                return contexto;
+            }
+        };
+
+        tarefa.setOnSucceeded(e -> {
+            ContextoCompilacao contexto = tarefa.getValue();
+            if (!contexto.getErros().isEmpty() || contexto.getCodigoVM() == null) {
+                for (ErroCompilacao erro : contexto.getErros()) {
+                    ServicoLog.erro(String.format("Linha %d, Col %d: [%s] %s",
+                            erro.getLinha(), erro.getColuna(), erro.getTipo(), erro.getMensagem()));
+                }
+                ServicoLog.erro("Corrija os erros antes de executar.");
+                return;
+            }
+            programaEmExecucao = ExecutorPrograma.executarNaVM(contexto.getCodigoVM());
+        });
+
+        tarefa.setOnFailed(e -> {
+            Throwable ex = tarefa.getException();
+            ex.printStackTrace();
+            ServicoLog.erro("Exceção ao preparar a execução: " + ex.getMessage());
+        });
+
+        new Thread(tarefa).start();
+    }
+
     // Classe interna para transportar os dois resultados
     private static class ResultadoProcesso {
         public final ResultadoCompilacao compilacao;
         public final ResultadoMontador assembler;
+        public final ProgramaJvm programaJvm;
 
-        public ResultadoProcesso(ResultadoCompilacao compilacao, ResultadoMontador assembler) {
+        public ResultadoProcesso(ResultadoCompilacao compilacao, ResultadoMontador assembler,
+                ProgramaJvm programaJvm) {
             this.compilacao = compilacao;
             this.assembler = assembler;
+            this.programaJvm = programaJvm;
         }
     }
 }
@@ -30,7 +30,9 @@ public class LayoutPrincipal {
 
         // Adiciona a barra de menu
         BarraDeMenu barraDeMenu = new BarraDeMenu();
-        painelPrincipal.setTop(barraDeMenu.obterBarraMenu());
+        BarraDeFerramentas barraDeFerramentas = new BarraDeFerramentas();
+        painelPrincipal.setTop(new javafx.scene.layout.VBox(barraDeMenu.obterBarraMenu(),
+                barraDeFerramentas.obterBarraFerramentas()));
 
         // Adiciona o painel de arquivos
         PainelArvoreArquivos painelArvoreArquivos = new PainelArvoreArquivos();
@@ -177,6 +179,7 @@ public class LayoutPrincipal {
         // Controlador de Compilação
         ControladorCompilacao controladorCompilacao = new ControladorCompilacao(painelEditor, painelConsole,
                 painelErros, pipelineCompilacao);
+        controladorCompilacao.definirBarraDeFerramentas(barraDeFerramentas);
 
         // Menu Executar > Compilar (F5)
         barraDeMenu.obterItemCompilar().setAccelerator(javafx.scene.input.KeyCombination.keyCombination("F5"));
@@ -190,6 +193,17 @@ public class LayoutPrincipal {
             controladorCompilacao.aoExecutar();
         });
 
+        // Menu Executar > Parar (Shift+F6)
+        barraDeMenu.obterItemParar().setAccelerator(javafx.scene.input.KeyCombination.keyCombination("Shift+F6"));
+        barraDeMenu.obterItemParar().setOnAction(e -> {
+            controladorCompilacao.aoParar();
+        });
+
+        // Menu Executar > Carregar perfil
+        barraDeMenu.obterItemCarregarPerfil().setOnAction(e -> {
+            controladorCompilacao.aoCarregarPerfil();
+        });
+
         // Tenta carregar o último arquivo aberto
         carregarArquivoAnterior();
     }
@@ -176,6 +176,33 @@ public class PainelEditor {
         }
     }
 
+    // Mostra na margem o custo estimado de cada linha (nada se for null).
+    public void mostrarCustos(com.editor_texto.nyx.compiler.peephole.RelatorioCusto relatorio) {
+        Tab aba = painelDeAbas.getSelectionModel().getSelectedItem();
+        if (aba instanceof AbaEditor) {
+            ((AbaEditor) aba).mostrarCustos(relatorio);
+        }
+    }
+
+    public void limparCustos() {
+        Tab aba = painelDeAbas.getSelectionModel().getSelectedItem();
+        if (aba instanceof AbaEditor) {
+            ((AbaEditor) aba).mostrarCustos(null);
+        }
+    }
+
+    // Mostra na margem as execuções de cada linha medidas pelo perfil (nada se for null).
+    public void mostrarPerfil(com.editor_texto.nyx.compiler.perfil.PerfilExecucao perfil) {
+        Tab aba = painelDeAbas.getSelectionModel().getSelectedItem();
+        if (aba instanceof AbaEditor) {
+            ((AbaEditor) aba).mostrarPerfil(perfil);
+        }
+    }
+
+    public void limparPerfil() {
+        mostrarPerfil(null);
+    }
+
     public void navegarParaErro(int linha, int coluna) {
         Tab aba = painelDeAbas.getSelectionModel().getSelectedItem();
         if (aba instanceof AbaEditor) {
@@ -214,6 +241,11 @@ public class PainelEditor {
         // Armazena erros atuais para tooltip
         private java.util.List<com.editor_texto.nyx.compiler.ErroCompilacao> errosAtuais = new java.util.ArrayList<>();
         private String conteudoOriginal;
+        // Custo estimado na última compilação, mostrado ao lado do número da linha.
+        private com.editor_texto.nyx.compiler.peephole.RelatorioCusto relatorioCusto;
+        // Perfil da última execução instrumentada, também na margem.
+        private com.editor_texto.nyx.compiler.perfil.PerfilExecucao perfilExecucao;
+        private final java.util.function.IntFunction<javafx.scene.Node> numeroLinha;
 
         private final javafx.stage.Popup popupErro = new javafx.stage.Popup();
 
@@ -223,7 +255,8 @@ public class PainelEditor {
             this.setText(arquivo != null ? arquivo.getName() : "Sem Título");
 
             areaCodigo = new CodeArea();
-            areaCodigo.setParagraphGraphicFactory(LineNumberFactory.get(areaCodigo));
+            numeroLinha = LineNumberFactory.get(areaCodigo);
+            areaCodigo.setParagraphGraphicFactory(this::criarMargem);
 
             // Configura popup
             javafx.scene.control.Label lblErro = new javafx.scene.control.Label();
@@ -241,6 +274,14 @@ public class PainelEditor {
                 if (!modificado && !novo.equals(conteudoOriginal)) {
                     definirModificado(true);
                 }
+                // Com o texto alterado, os custos e o perfil não correspondem
+                // mais às linhas.
+                if (relatorioCusto != null) {
+                    mostrarCustos(null);
+                }
+                if (perfilExecucao != null) {
+                    mostrarPerfil(null);
+                }
             });
 
             this.setContent(new VirtualizedScrollPane<>(areaCodigo));
@@ -274,6 +315,85 @@ public class PainelEditor {
             });
         }
 
+        // Número da linha e, depois de uma compilação, o custo estimado em
+        // ciclos; depois de uma execução instrumentada, as execuções.
+        private javafx.scene.Node criarMargem(int paragrafo) {
+            javafx.scene.Node numero = numeroLinha.apply(paragrafo);
+            if (relatorioCusto == null && perfilExecucao == null) {
+                return numero;
+            }
+            javafx.scene.layout.HBox margem = new javafx.scene.layout.HBox(numero);
+            if (relatorioCusto != null) {
+                margem.getChildren().add(criarCusto(paragrafo));
+            }
+            if (perfilExecucao != null) {
+                margem.getChildren().add(criarExecucoes(paragrafo));
+            }
+            return margem;
+        }
+
+        private javafx.scene.Node criarCusto(int paragrafo) {
+            javafx.scene.control.Label custo = new javafx.scene.control.Label();
+            custo.getStyleClass().add("custo-linha");
+            custo.setMinWidth(48);
+            custo.setAlignment(javafx.geometry.Pos.CENTER_RIGHT);
+            com.editor_texto.nyx.compiler.peephole.RelatorioCusto.Linha linha = relatorioCusto.getLinha(paragrafo + 1);
+            if (linha != null) {
+                custo.setText(com.editor_texto.nyx.compiler.peephole.RelatorioCusto.abreviar(linha.getLatencia()));
+                custo.setTooltip(new javafx.scene.control.Tooltip(String.format(
+                        "%d instruções, %.1f ciclos (latência), %.1f (vazão)\nidiv: %d, push/pop: %d, chamadas: %d",
+                        linha.getInstrucoes(), linha.getLatencia(), linha.getVazao(), linha.getDivisoes(),
+                        linha.getPilha(), linha.getChamadas())));
+                if (relatorioCusto.isCara(linha)) {
+                    custo.getStyleClass().add("custo-alto");
+                }
+            }
+            return custo;
+        }
+
+        private javafx.scene.Node criarExecucoes(int paragrafo) {
+            javafx.scene.control.Label execucoes = new javafx.scene.control.Label();
+            execucoes.getStyleClass().add("perfil-linha");
+            execucoes.setMinWidth(48);
+            execucoes.setAlignment(javafx.geometry.Pos.CENTER_RIGHT);
+            com.editor_texto.nyx.compiler.perfil.PerfilExecucao.Linha linha = perfilExecucao.getLinha(paragrafo + 1);
+            if (linha != null) {
+                execucoes.setText(com.editor_texto.nyx.compiler.perfil.PerfilExecucao.abreviar(linha.getExecucoes()));
+                StringBuilder dica = new StringBuilder(String.format("Executada %d vezes (%.1f%%)",
+                        linha.getExecucoes(),
+                        100.0 * linha.getExecucoes() / Math.max(1, perfilExecucao.getTotalExecucoes())));
+                for (com.editor_texto.nyx.compiler.perfil.PerfilExecucao.Laco laco : perfilExecucao
+                        .getLacos(paragrafo + 1)) {
+                    dica.append(String.format("\nLaço: %d entradas, %d iterações (média %.1f)", laco.getEntradas(),
+                            laco.getIteracoes(), laco.getMediaIteracoes()));
+                    if (laco.getCiclos() >= 0) {
+                        dica.append(String.format(", %d ciclos", laco.getCiclos()));
+                    }
+                }
+                execucoes.setTooltip(new javafx.scene.control.Tooltip(dica.toString()));
+                if (perfilExecucao.isQuente(linha)) {
+                    execucoes.getStyleClass().add("perfil-quente");
+                }
+            }
+            return execucoes;
+        }
+
+        public void mostrarCustos(com.editor_texto.nyx.compiler.peephole.RelatorioCusto relatorio) {
+            this.relatorioCusto = relatorio;
+            recriarMargem();
+        }
+
+        public void mostrarPerfil(com.editor_texto.nyx.compiler.perfil.PerfilExecucao perfil) {
+            this.perfilExecucao = perfil;
+            recriarMargem();
+        }
+
+        // Recria a margem de todas as linhas.
+        private void recriarMargem() {
+            areaCodigo.setParagraphGraphicFactory(null);
+            areaCodigo.setParagraphGraphicFactory(this::criarMargem);
+        }
+
         private void configurarHighlighting(String nomeArquivo) {
             // Aplica highlight inicial
             if (nomeArquivo.toLowerCase().endsWith(".lc") || nomeArquivo.isEmpty()) {
@@ -0,0 +1,172 @@
+; Runtime de E/S dos programas LC, anexado ao fim da seção .code.
+; Convenção: argumentos na pilha, retirados pela rotina (ret n); eax, ecx e
+; edx podem ser destruídos, como em uma chamada da API; o resultado vem em eax.
+; Os dados (_nyx_saida, _nyx_entrada, ...) são declarados pelo GeradorAssembly.
+
+; Grava o buffer de saída no console.
+_nyx_descarregar:
+    mov eax, _nyx_usados
+    test eax, eax
+    jz _nyx_descarregar_fim
+    invoke GetStdHandle, STD_OUTPUT_HANDLE
+    invoke WriteFile, eax, addr _nyx_saida, _nyx_usados, addr _nyx_transferidos, 0
+    mov _nyx_usados, 0
+_nyx_descarregar_fim:
+    ret
+
+; _nyx_escrever_str(endereço): copia a string terminada em 0 para o buffer.
+_nyx_escrever_str:
+    push esi
+    mov esi, [esp+8]
+    mov ecx, _nyx_usados
+_nyx_escrever_str_laco:
+    mov al, [esi]
+    test al, al
+    jz _nyx_escrever_str_fim
+    cmp ecx, NYX_TAMANHO_BUFFER
+    jb _nyx_escrever_str_copia
+    mov _nyx_usados, ecx
+    call _nyx_descarregar
+    xor ecx, ecx
+    mov al, [esi]
+_nyx_escrever_str_copia:
+    mov [_nyx_saida+ecx], al
+    inc ecx
+    inc esi
+    jmp _nyx_escrever_str_laco
+_nyx_escrever_str_fim:
+    mov _nyx_usados, ecx
+    pop esi
+    ret 4
+
+; _nyx_escrever_int(valor): converte para decimal sem divisão (multiplica pelo
+; inverso de 10) e escreve.
+_nyx_escrever_int:
+    push ebx
+    push edi
+    mov eax, [esp+12]
+    mov ebx, eax
+    lea edi, [_nyx_digitos+11]
+    mov byte ptr [edi], 0
+    test eax, eax
+    jns _nyx_escrever_int_laco
+    neg eax
+_nyx_escrever_int_laco:
+    mov ecx, eax
+    mov edx, 0CCCCCCCDh
+    mul edx
+    shr edx, 3
+    mov eax, edx
+    lea edx, [edx+edx*4]
+    add edx, edx
+    sub ecx, edx
+    add cl, '0'
+    dec edi
+    mov [edi], cl
+    test eax, eax
+    jnz _nyx_escrever_int_laco
+    test ebx, ebx
+    jns _nyx_escrever_int_fim
+    dec edi
+    mov byte ptr [edi], '-'
+_nyx_escrever_int_fim:
+    push edi
+    call _nyx_escrever_str
+    pop edi
+    pop ebx
+    ret 4
+
+; Próximo byte da entrada em eax, ou -1 no fim; recarrega o buffer se vazio.
+_nyx_ler_byte:
+    mov eax, _nyx_posicao
+    cmp eax, _nyx_lidos
+    jb _nyx_ler_byte_pronto
+    mov _nyx_transferidos, 0
+    invoke GetStdHandle, STD_INPUT_HANDLE
+    invoke ReadFile, eax, addr _nyx_entrada, NYX_TAMANHO_BUFFER, addr _nyx_transferidos, 0
+    mov eax, _nyx_transferidos
+    mov _nyx_lidos, eax
+    mov _nyx_posicao, 0
+    test eax, eax
+    jnz _nyx_ler_byte_inicio
+    mov eax, -1
+    ret
+_nyx_ler_byte_inicio:
+    xor eax, eax
+_nyx_ler_byte_pronto:
+    movzx ecx, byte ptr [_nyx_entrada+eax]
+    inc eax
+    mov _nyx_posicao, eax
+    mov eax, ecx
+    ret
+
+; _nyx_ler_int(): pula espaços e lê um inteiro com sinal, como scanf("%d").
+; O caractere que encerra o número fica na entrada.
+_nyx_ler_int:
+    push ebx
+    push esi
+    call _nyx_descarregar
+_nyx_ler_int_espaco:
+    call _nyx_ler_byte
+    cmp eax, -1
+    je _nyx_ler_int_vazio
+    cmp eax, ' '
+    jbe _nyx_ler_int_espaco
+    xor esi, esi
+    cmp eax, '-'
+    jne _nyx_ler_int_inicio
+    mov esi, 1
+    call _nyx_ler_byte
+_nyx_ler_int_inicio:
+    xor ebx, ebx
+_nyx_ler_int_digito:
+    cmp eax, -1
+    je _nyx_ler_int_sinal
+    sub eax, '0'
+    cmp eax, 9
+    ja _nyx_ler_int_devolver
+    lea ebx, [ebx+ebx*4]
+    lea ebx, [eax+ebx*2]
+    call _nyx_ler_byte
+    jmp _nyx_ler_int_digito
+_nyx_ler_int_devolver:
+    dec _nyx_posicao
+_nyx_ler_int_sinal:
+    mov eax, ebx
+    test esi, esi
+    jz _nyx_ler_int_fim
+    neg eax
+    jmp _nyx_ler_int_fim
+_nyx_ler_int_vazio:
+    xor eax, eax
+_nyx_ler_int_fim:
+    pop esi
+    pop ebx
+    ret
+
+; _nyx_ler_linha(endereço): lê até o fim da linha (sem a quebra) em um
+; buffer de 256 bytes, descartando o que não couber.
+_nyx_ler_linha:
+    push ebx
+    push edi
+    call _nyx_descarregar
+    mov edi, [esp+12]
+    xor ebx, ebx
+_nyx_ler_linha_laco:
+    call _nyx_ler_byte
+    cmp eax, -1
+    je _nyx_ler_linha_fim
+    cmp eax, 10
+    je _nyx_ler_linha_fim
+    cmp eax, 13
+    je _nyx_ler_linha_laco
+    cmp ebx, 255
+    jae _nyx_ler_linha_laco
+    mov [edi+ebx], al
+    inc ebx
+    jmp _nyx_ler_linha_laco
+_nyx_ler_linha_fim:
+    mov byte ptr [edi+ebx], 0
+    pop edi
+    pop ebx
+    ret 4
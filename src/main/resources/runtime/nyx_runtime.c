@@ -0,0 +1,125 @@
+// Runtime de E/S dos programas LC traduzidos para C, com o mesmo comportamento
+// de runtime/nyx_runtime_linux.s: buffers de 4096 bytes, só read e write (sem
+// stdio) e a saída descarregada antes de cada leitura e no fim do programa.
+// Incluído no início do código gerado pelo GeradorC.
+
+#include <limits.h>
+#include <signal.h>
+#include <unistd.h>
+
+#define NYX_TAMANHO_BUFFER 4096
+
+static char nyx_saida[NYX_TAMANHO_BUFFER];
+static char nyx_entrada[NYX_TAMANHO_BUFFER];
+static unsigned nyx_usados;
+static unsigned nyx_posicao;
+static unsigned nyx_lidos;
+
+// Grava o buffer de saída na saída padrão, repetindo se a escrita for parcial.
+static void nyx_descarregar(void) {
+    const char *p = nyx_saida;
+    unsigned resto = nyx_usados;
+    while (resto > 0) {
+        ssize_t n = write(1, p, resto);
+        if (n <= 0) {
+            break;
+        }
+        p += n;
+        resto -= (unsigned) n;
+    }
+    nyx_usados = 0;
+}
+
+static void nyx_escrever_str(const char *s) {
+    while (*s) {
+        if (nyx_usados == NYX_TAMANHO_BUFFER) {
+            nyx_descarregar();
+        }
+        nyx_saida[nyx_usados++] = *s++;
+    }
+}
+
+static void nyx_escrever_int(int valor) {
+    char digitos[12];
+    char *p = digitos + sizeof digitos - 1;
+    unsigned resto = valor < 0 ? 0u - (unsigned) valor : (unsigned) valor;
+    *p = 0;
+    do {
+        *--p = (char) ('0' + resto % 10);
+        resto /= 10;
+    } while (resto != 0);
+    if (valor < 0) {
+        *--p = '-';
+    }
+    nyx_escrever_str(p);
+}
+
+// Próximo byte da entrada, ou -1 no fim; recarrega o buffer se vazio.
+static int nyx_ler_byte(void) {
+    if (nyx_posicao >= nyx_lidos) {
+        ssize_t n = read(0, nyx_entrada, NYX_TAMANHO_BUFFER);
+        if (n <= 0) {
+            return -1;
+        }
+        nyx_lidos = (unsigned) n;
+        nyx_posicao = 0;
+    }
+    return (unsigned char) nyx_entrada[nyx_posicao++];
+}
+
+// Pula espaços e lê um inteiro com sinal, como scanf("%d"). O caractere que
+// encerra o número fica na entrada; no fim da entrada o valor é 0.
+static int nyx_ler_int(void) {
+    int c;
+    int negativo = 0;
+    unsigned valor = 0;
+    nyx_descarregar();
+    do {
+        c = nyx_ler_byte();
+        if (c == -1) {
+            return 0;
+        }
+    } while (c <= ' ');
+    if (c == '-') {
+        negativo = 1;
+        c = nyx_ler_byte();
+    }
+    while (c != -1) {
+        if ((unsigned) (c - '0') > 9) {
+            nyx_posicao--;
+            break;
+        }
+        valor = valor * 10 + (unsigned) (c - '0');
+        c = nyx_ler_byte();
+    }
+    return (int) (negativo ? 0u - valor : valor);
+}
+
+// Lê até o fim da linha (sem a quebra) em um buffer de 256 bytes, descartando
+// o que não couber.
+static void nyx_ler_linha(char *destino) {
+    int c;
+    unsigned n = 0;
+    nyx_descarregar();
+    while ((c = nyx_ler_byte()) != -1 && c != '\n') {
+        if (c != '\r' && n < 255) {
+            destino[n++] = (char) c;
+        }
+    }
+    destino[n] = 0;
+}
+
+static void nyx_copiar_str(char *destino, const char *origem) {
+    while ((*destino++ = *origem++) != 0) {
+    }
+}
+
+// Divisão com o comportamento do idiv: divisor zero (ou INT_MIN / -1) encerra
+// o programa com SIGFPE, sem descarregar a saída.
+static inline int nyx_dividir(int dividendo, int divisor) {
+    if (divisor == 0 || (divisor == -1 && dividendo == INT_MIN)) {
+        raise(SIGFPE);
+        return 0;
+    }
+    return dividendo / divisor;
+}
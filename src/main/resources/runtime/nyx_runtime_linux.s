@@ -0,0 +1,205 @@
+# Runtime de E/S dos programas LC para Linux x86-64, sem libc: só as chamadas
+# de sistema read e write. Anexado ao fim do código gerado pelo
+# GeradorAssemblyLinux, com os mesmos nomes das rotinas do runtime Windows.
+# Convenção: argumentos em rdi e rsi (System V), resultado em eax; rax, rcx,
+# rdx, rsi, rdi e r8-r11 podem ser destruídos.
+
+    .set NYX_TAMANHO_BUFFER, 4096
+    .set SYS_READ, 0
+    .set SYS_WRITE, 1
+
+    .section .rodata
+_nyx_quebra:
+    .byte 10, 0
+
+    .bss
+    .balign 4
+_nyx_usados:
+    .zero 4
+_nyx_posicao:
+    .zero 4
+_nyx_lidos:
+    .zero 4
+_nyx_digitos:
+    .zero 12
+_nyx_saida:
+    .zero NYX_TAMANHO_BUFFER
+_nyx_entrada:
+    .zero NYX_TAMANHO_BUFFER
+
+    .text
+# Grava o buffer de saída na saída padrão, repetindo se a escrita for parcial.
+_nyx_descarregar:
+    mov edx, DWORD PTR [rip + _nyx_usados]
+    test edx, edx
+    jz _nyx_descarregar_fim
+    lea rsi, [rip + _nyx_saida]
+_nyx_descarregar_laco:
+    mov edi, 1
+    mov eax, SYS_WRITE
+    syscall
+    test rax, rax
+    jle _nyx_descarregar_fim
+    add rsi, rax
+    sub edx, eax
+    jnz _nyx_descarregar_laco
+_nyx_descarregar_fim:
+    mov DWORD PTR [rip + _nyx_usados], 0
+    ret
+
+# _nyx_escrever_str(rdi = endereço): copia a string terminada em 0 para o buffer.
+_nyx_escrever_str:
+    mov ecx, DWORD PTR [rip + _nyx_usados]
+    lea r8, [rip + _nyx_saida]
+_nyx_escrever_str_laco:
+    mov al, BYTE PTR [rdi]
+    test al, al
+    jz _nyx_escrever_str_fim
+    cmp ecx, NYX_TAMANHO_BUFFER
+    jb _nyx_escrever_str_copia
+    mov DWORD PTR [rip + _nyx_usados], ecx
+    push rdi
+    call _nyx_descarregar
+    pop rdi
+    xor ecx, ecx
+    mov al, BYTE PTR [rdi]
+_nyx_escrever_str_copia:
+    mov BYTE PTR [r8 + rcx], al
+    inc ecx
+    inc rdi
+    jmp _nyx_escrever_str_laco
+_nyx_escrever_str_fim:
+    mov DWORD PTR [rip + _nyx_usados], ecx
+    ret
+
+# _nyx_escrever_int(edi = valor): converte para decimal sem divisão
+# (multiplica pelo inverso de 10) e escreve.
+_nyx_escrever_int:
+    mov eax, edi
+    mov r9d, edi
+    lea r8, [rip + _nyx_digitos + 11]
+    mov BYTE PTR [r8], 0
+    test eax, eax
+    jns _nyx_escrever_int_laco
+    neg eax
+_nyx_escrever_int_laco:
+    mov ecx, eax
+    mov edx, 0xCCCCCCCD
+    mul edx
+    shr edx, 3
+    mov eax, edx
+    lea edx, [rdx + rdx*4]
+    add edx, edx
+    sub ecx, edx
+    add cl, '0'
+    dec r8
+    mov BYTE PTR [r8], cl
+    test eax, eax
+    jnz _nyx_escrever_int_laco
+    test r9d, r9d
+    jns _nyx_escrever_int_fim
+    dec r8
+    mov BYTE PTR [r8], '-'
+_nyx_escrever_int_fim:
+    mov rdi, r8
+    jmp _nyx_escrever_str
+
+# Próximo byte da entrada em eax, ou -1 no fim; recarrega o buffer se vazio.
+_nyx_ler_byte:
+    mov eax, DWORD PTR [rip + _nyx_posicao]
+    cmp eax, DWORD PTR [rip + _nyx_lidos]
+    jb _nyx_ler_byte_pronto
+    xor edi, edi
+    lea rsi, [rip + _nyx_entrada]
+    mov edx, NYX_TAMANHO_BUFFER
+    mov eax, SYS_READ
+    syscall
+    test eax, eax
+    jg _nyx_ler_byte_inicio
+    mov eax, -1
+    ret
+_nyx_ler_byte_inicio:
+    mov DWORD PTR [rip + _nyx_lidos], eax
+    xor eax, eax
+_nyx_ler_byte_pronto:
+    lea rcx, [rip + _nyx_entrada]
+    movzx ecx, BYTE PTR [rcx + rax]
+    inc eax
+    mov DWORD PTR [rip + _nyx_posicao], eax
+    mov eax, ecx
+    ret
+
+# _nyx_ler_int(): pula espaços e lê um inteiro com sinal, como scanf("%d").
+# O caractere que encerra o número fica na entrada.
+_nyx_ler_int:
+    call _nyx_descarregar
+_nyx_ler_int_espaco:
+    call _nyx_ler_byte
+    cmp eax, -1
+    je _nyx_ler_int_vazio
+    cmp eax, ' '
+    jbe _nyx_ler_int_espaco
+    xor r8d, r8d
+    cmp eax, '-'
+    jne _nyx_ler_int_inicio
+    mov r8d, 1
+    call _nyx_ler_byte
+_nyx_ler_int_inicio:
+    xor r9d, r9d
+_nyx_ler_int_digito:
+    cmp eax, -1
+    je _nyx_ler_int_sinal
+    sub eax, '0'
+    cmp eax, 9
+    ja _nyx_ler_int_devolver
+    lea r9d, [r9 + r9*4]
+    lea r9d, [rax + r9*2]
+    call _nyx_ler_byte
+    jmp _nyx_ler_int_digito
+_nyx_ler_int_devolver:
+    dec DWORD PTR [rip + _nyx_posicao]
+_nyx_ler_int_sinal:
+    mov eax, r9d
+    test r8d, r8d
+    jz _nyx_ler_int_fim
+    neg eax
+    ret
+_nyx_ler_int_vazio:
+    xor eax, eax
+_nyx_ler_int_fim:
+    ret
+
+# _nyx_ler_linha(rdi = endereço): lê até o fim da linha (sem a quebra) em um
+# buffer de 256 bytes, descartando o que não couber.
+_nyx_ler_linha:
+    push rdi
+    call _nyx_descarregar
+    pop r8
+    xor r9d, r9d
+_nyx_ler_linha_laco:
+    call _nyx_ler_byte
+    cmp eax, -1
+    je _nyx_ler_linha_fim
+    cmp eax, 10
+    je _nyx_ler_linha_fim
+    cmp eax, 13
+    je _nyx_ler_linha_laco
+    cmp r9d, 255
+    jae _nyx_ler_linha_laco
+    mov BYTE PTR [r8 + r9], al
+    inc r9d
+    jmp _nyx_ler_linha_laco
+_nyx_ler_linha_fim:
+    mov BYTE PTR [r8 + r9], 0
+    ret
+
+# _nyx_copiar_str(rdi = destino, rsi = origem): cópia de string, no lugar de
+# crt_strcpy.
+_nyx_copiar_str:
+    mov al, BYTE PTR [rsi]
+    mov BYTE PTR [rdi], al
+    inc rsi
+    inc rdi
+    test al, al
+    jnz _nyx_copiar_str
+    ret
@@ -0,0 +1,146 @@
+package com.editor_texto.nyx.compiler;
+
+import com.editor_texto.nyx.compiler.assembler.Plataforma;
+import com.editor_texto.nyx.compiler.emulador.EmuladorX86;
+import com.editor_texto.nyx.compiler.emulador.ResultadoEmulacao;
+import com.editor_texto.nyx.compiler.jvm.ProgramaJvm;
+import com.editor_texto.nyx.compiler.otimizacao.NivelOtimizacao;
+import com.editor_texto.nyx.compiler.vm.InterpretadorVM;
+import com.editor_texto.nyx.domain.pipeline.ContextoCompilacao;
+import com.editor_texto.nyx.domain.pipeline.PassoGeracaoCodigo;
+import com.editor_texto.nyx.domain.pipeline.PassoGeracaoVM;
+import com.editor_texto.nyx.domain.pipeline.PassoLexico;
+import com.editor_texto.nyx.domain.pipeline.PassoPipeline;
+import com.editor_texto.nyx.domain.pipeline.PassoSemantico;
+import com.editor_texto.nyx.domain.pipeline.PassoSintatico;
+import com.editor_texto.nyx.domain.pipeline.Pipeline;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Roda os programas de src/test/resources/diferencial em cada nível de
+ * otimização pelos três executores (EmuladorX86 sobre o MASM gerado,
+ * InterpretadorVM e ProgramaJvm) e exige a mesma saída em todos. A
+ * referência é o emulador em -O0. Numa divisão por zero só a falha é
+ * comparada: o runtime MASM não descarrega o buffer de escrita quando o
+ * processo para, e a VM e a JVM descarregam.
+ */
+public class DiferencialBackendsTest {
+
+    private static final String[] PROGRAMAS = {
+            "aritmetica", "lacos", "condicoes", "desvios", "expressoes", "aninhados", "escrita",
+            "constantes", "tipos", "divisao", "divisao_negativa", "comparacoes", "divisao_morta",
+            "condicao_morta", "divisao_estouro", "divisao_estouro_constante" };
+    private static final String[] NIVEIS = { "-O0", "-O1", "-O2", "-Os" };
+    private static final String DIVISAO_POR_ZERO = "<divisão por zero>";
+    private static final long LIMITE = 50_000_000L;
+
+    @TempDir
+    Path pasta;
+
+    @TestFactory
+    public List<DynamicTest> testMesmaSaidaEmTodosOsExecutores() {
+        List<DynamicTest> testes = new ArrayList<>();
+        for (String programa : PROGRAMAS) {
+            testes.add(DynamicTest.dynamicTest(programa, () -> verificar(programa)));
+        }
+        return testes;
+    }
+
+    private void verificar(String programa) throws Exception {
+        String fonte = lerRecurso(programa + ".lc");
+        assertTrue(fonte != null, "Programa não encontrado: " + programa);
+        String entrada = lerRecurso(programa + ".in");
+        byte[] bytesEntrada = (entrada == null ? "" : entrada).getBytes(StandardCharsets.UTF_8);
+
+        String referencia = null;
+        for (String nivel : NIVEIS) {
+            ContextoCompilacao nativo = compilar(fonte, nivel, new PassoGeracaoCodigo(programa));
+            String emulador = executarEmulador(nativo, bytesEntrada);
+            String jvm = executarJvm(nativo, bytesEntrada);
+            String vm = executarVM(compilar(fonte, nivel, new PassoGeracaoVM()), bytesEntrada);
+
+            if (referencia == null) {
+                referencia = emulador;
+                assertFalse(referencia.isEmpty(), programa + ": programa sem saída");
+            }
+            assertEquals(referencia, emulador, programa + " " + nivel + ": emulador");
+            assertEquals(referencia, vm, programa + " " + nivel + ": VM");
+            assertEquals(referencia, jvm, programa + " " + nivel + ": JVM");
+        }
+    }
+
+    private ContextoCompilacao compilar(String fonte, String nivel, PassoPipeline geracao) {
+        ContextoCompilacao contexto = new ContextoCompilacao(fonte, pasta);
+        contexto.setPlataforma(Plataforma.WINDOWS);
+        contexto.setNivelOtimizacao(NivelOtimizacao.converter(nivel));
+        Pipeline pipeline = new Pipeline();
+        pipeline.adicionarPasso(new PassoLexico());
+        pipeline.adicionarPasso(new PassoSintatico());
+        pipeline.adicionarPasso(new PassoSemantico());
+        pipeline.adicionarPasso(geracao);
+        pipeline.executar(contexto);
+        assertTrue(contexto.getErros().isEmpty(), () -> nivel + ": " + contexto.getErros());
+        return contexto;
+    }
+
+    private static String executarEmulador(ContextoCompilacao contexto, byte[] entrada) throws IOException {
+        EmuladorX86 emulador = EmuladorX86.ler(contexto.getArquivoAssemblyGerado());
+        emulador.setLimiteInstrucoes(LIMITE);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try {
+            ResultadoEmulacao resultado = emulador.executar(new ByteArrayInputStream(entrada), saida);
+            assertFalse(resultado.isLimiteAtingido(), "Limite de instruções atingido");
+        } catch (ArithmeticException e) {
+            return DIVISAO_POR_ZERO;
+        }
+        return normalizar(saida);
+    }
+
+    private static String executarJvm(ContextoCompilacao contexto, byte[] entrada) {
+        ProgramaJvm programa = ProgramaJvm.compilar(contexto.getPrograma(), "programa.lc");
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try {
+            programa.executar(new ByteArrayInputStream(entrada), saida);
+        } catch (ArithmeticException e) {
+            return DIVISAO_POR_ZERO;
+        }
+        return normalizar(saida);
+    }
+
+    private static String executarVM(ContextoCompilacao contexto, byte[] entrada) {
+        InterpretadorVM interpretador = new InterpretadorVM(contexto.getCodigoVM(), LIMITE, 0);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try {
+            InterpretadorVM.Termino termino = interpretador.executar(new ByteArrayInputStream(entrada), saida);
+            assertEquals(InterpretadorVM.Termino.CONCLUIDO, termino);
+        } catch (ArithmeticException e) {
+            return DIVISAO_POR_ZERO;
+        }
+        return normalizar(saida);
+    }
+
+    private static String normalizar(ByteArrayOutputStream saida) {
+        return saida.toString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+    }
+
+    private static String lerRecurso(String nome) throws IOException {
+        try (InputStream recurso = DiferencialBackendsTest.class.getResourceAsStream("/diferencial/" + nome)) {
+            return recurso == null ? null : new String(recurso.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.editor_texto.nyx.compiler;
+
+import com.editor_texto.nyx.compiler.assembler.Plataforma;
+import com.editor_texto.nyx.compiler.otimizacao.NivelOtimizacao;
+import com.editor_texto.nyx.compiler.otimizacao.RelatorioOtimizacao;
+import com.editor_texto.nyx.domain.pipeline.ContextoCompilacao;
+import com.editor_texto.nyx.domain.pipeline.PassoGeracaoCodigo;
+import com.editor_texto.nyx.domain.pipeline.PassoLexico;
+import com.editor_texto.nyx.domain.pipeline.PassoSemantico;
+import com.editor_texto.nyx.domain.pipeline.PassoSintatico;
+import com.editor_texto.nyx.domain.pipeline.Pipeline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RelatorioOtimizacaoTest {
+
+    private static final String PROGRAMA = """
+            int a;
+            int b;
+            begin
+              readln, a;
+              b = a * 8 + a * 8;
+              b = b / 4;
+              writeln, b;
+            end
+            """;
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    public void testRelatorioSoQuandoPedido() {
+        assertNull(compilar(false).getRelatorioOtimizacao());
+
+        RelatorioOtimizacao relatorio = compilar(true).getRelatorioOtimizacao();
+        assertNotNull(relatorio);
+        assertTrue(relatorio.getInstrucoesRemovidas() > 0, relatorio::toString);
+    }
+
+    @Test
+    public void testCompiladorLCSempreMontaORelatorio() {
+        // O relatório é do alvo MASM.
+        String plataforma = System.setProperty("nyx.plataforma", "windows");
+        try {
+            CompiladorLC compilador = new CompiladorLC();
+            compilador.configurarOtimizacao("-O2");
+            assertTrue(compilador.compilar(PROGRAMA, pasta).isSucesso());
+            assertNotNull(compilador.getUltimoRelatorio());
+        } finally {
+            if (plataforma == null) {
+                System.clearProperty("nyx.plataforma");
+            } else {
+                System.setProperty("nyx.plataforma", plataforma);
+            }
+        }
+    }
+
+    private ContextoCompilacao compilar(boolean relatorio) {
+        ContextoCompilacao contexto = new ContextoCompilacao(PROGRAMA, pasta);
+        contexto.setPlataforma(Plataforma.WINDOWS);
+        contexto.setNivelOtimizacao(NivelOtimizacao.converter("-O2"));
+        contexto.setRelatorioOtimizacaoAtivo(relatorio);
+        Pipeline pipeline = new Pipeline();
+        pipeline.adicionarPasso(new PassoLexico());
+        pipeline.adicionarPasso(new PassoSintatico());
+        pipeline.adicionarPasso(new PassoSemantico());
+        pipeline.adicionarPasso(new PassoGeracaoCodigo("prog"));
+        pipeline.executar(contexto);
+        assertTrue(contexto.getErros().isEmpty(), () -> "Erros: " + contexto.getErros());
+        return contexto;
+    }
+}
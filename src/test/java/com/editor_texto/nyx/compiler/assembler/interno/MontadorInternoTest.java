@@ -0,0 +1,144 @@
+package com.editor_texto.nyx.compiler.assembler.interno;
+
+import com.editor_texto.nyx.compiler.assembler.LinkerLinuxLd;
+import com.editor_texto.nyx.compiler.assembler.Plataforma;
+import com.editor_texto.nyx.compiler.assembler.ResultadoLinker;
+import com.editor_texto.nyx.compiler.assembler.ResultadoMontador;
+import com.editor_texto.nyx.compiler.otimizacao.NivelOtimizacao;
+import com.editor_texto.nyx.domain.pipeline.ContextoCompilacao;
+import com.editor_texto.nyx.domain.pipeline.PassoGeracaoCodigo;
+import com.editor_texto.nyx.domain.pipeline.PassoLexico;
+import com.editor_texto.nyx.domain.pipeline.PassoSemantico;
+import com.editor_texto.nyx.domain.pipeline.PassoSintatico;
+import com.editor_texto.nyx.domain.pipeline.Pipeline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Liga os objetos do MontadorInterno com o 'ld' do sistema. O ELF vira um
+ * executável que roda aqui; o COFF é ligado como PE (ld -m i386pe), com as
+ * funções do kernel32 trocadas por um stub, já que não há como executá-lo.
+ */
+public class MontadorInternoTest {
+
+    private static final String PROGRAMA = """
+            int a;
+            int i;
+            int n;
+            int s;
+            byte b;
+            begin
+              a = 3;
+              n = 4;
+              b = 0h05;
+              i = 0;
+              s = 0;
+              while i < n + 2 begin
+                if i * 2 > a + 1 begin
+                  s = s + 10;
+                end
+                if i >= b begin
+                  s = s + 100;
+                end
+                s = s + a / 2;
+                i = i + 1;
+              end
+              writeln, "s=", s;
+            end
+            """;
+
+    // Importações do runtime MASM, com a decoração stdcall.
+    private static final String STUB_KERNEL32 = """
+            .text
+            .globl "_ExitProcess@4", "_GetStdHandle@4", "_WriteFile@20", "_ReadFile@20"
+            "_ExitProcess@4":
+            "_GetStdHandle@4":
+            "_WriteFile@20":
+            "_ReadFile@20":
+              ret
+            """;
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    public void testObjetoELFLigaEExecuta() throws Exception {
+        assumeTrue(isLinux() && disponivel("ld", "--version"), "ld não encontrado");
+        Path asm = gerar(Plataforma.LINUX);
+
+        ResultadoMontador montagem = new MontadorInterno(Plataforma.LINUX).montar(asm, pasta);
+        assertTrue(montagem.obterSucesso(), () -> "Montagem falhou: " + montagem.obterErro());
+        ResultadoLinker ligacao = new LinkerLinuxLd().ligar(pasta.resolve("prog.o"), pasta);
+        assertTrue(ligacao.isSucesso(), () -> "Ligação falhou: " + ligacao.getErros());
+
+        Process processo = new ProcessBuilder(pasta.resolve("prog").toString()).redirectErrorStream(true).start();
+        processo.getOutputStream().close();
+        String saida = new String(processo.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(processo.waitFor(10, TimeUnit.SECONDS), "Programa não terminou");
+        assertEquals(0, processo.exitValue());
+        assertEquals("s=136", saida.strip());
+    }
+
+    @Test
+    public void testObjetoCOFFLigaComoPE() throws Exception {
+        assumeTrue(isLinux() && disponivel("as", "--version") && disponivel("objcopy", "--version")
+                && disponivel("ld", "-m", "i386pe", "-V"), "as/objcopy/ld com suporte a PE não encontrados");
+        Path asm = gerar(Plataforma.WINDOWS);
+
+        ResultadoMontador montagem = new MontadorInterno(Plataforma.WINDOWS).montar(asm, pasta);
+        assertTrue(montagem.obterSucesso(), () -> "Montagem falhou: " + montagem.obterErro());
+
+        Files.writeString(pasta.resolve("kernel32.s"), STUB_KERNEL32);
+        assertEquals(0, executar("as", "--32", "kernel32.s", "-o", "kernel32.o"));
+        assertEquals(0, executar("objcopy", "-O", "pe-i386", "kernel32.o", "kernel32.obj"));
+        assertEquals(0, executar("ld", "-m", "i386pe", "-e", "_start", "prog.obj", "kernel32.obj", "-o", "prog.exe"));
+        assertTrue(Files.size(pasta.resolve("prog.exe")) > 0);
+    }
+
+    private Path gerar(Plataforma plataforma) {
+        ContextoCompilacao contexto = new ContextoCompilacao(PROGRAMA, pasta);
+        contexto.setPlataforma(plataforma);
+        contexto.setNivelOtimizacao(NivelOtimizacao.converter("-O2"));
+        Pipeline pipeline = new Pipeline();
+        pipeline.adicionarPasso(new PassoLexico());
+        pipeline.adicionarPasso(new PassoSintatico());
+        pipeline.adicionarPasso(new PassoSemantico());
+        pipeline.adicionarPasso(new PassoGeracaoCodigo("prog"));
+        pipeline.executar(contexto);
+        assertTrue(contexto.getErros().isEmpty(), () -> "Erros: " + contexto.getErros());
+        return contexto.getArquivoAssemblyGerado();
+    }
+
+    private int executar(String... comando) throws Exception {
+        Process processo = new ProcessBuilder(comando).directory(pasta.toFile()).redirectErrorStream(true).start();
+        String saida = new String(processo.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(processo.waitFor(30, TimeUnit.SECONDS), "Comando não terminou: " + comando[0]);
+        if (processo.exitValue() != 0) {
+            System.err.println(saida);
+        }
+        return processo.exitValue();
+    }
+
+    private static boolean isLinux() {
+        return System.getProperty("os.name", "").toLowerCase().contains("linux");
+    }
+
+    private static boolean disponivel(String... comando) {
+        try {
+            Process processo = new ProcessBuilder(comando).redirectErrorStream(true).start();
+            processo.getInputStream().readAllBytes();
+            return processo.waitFor(10, TimeUnit.SECONDS) && processo.exitValue() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.editor_texto.nyx.compiler.geracao;
+
+import com.editor_texto.nyx.compiler.assembler.Plataforma;
+import com.editor_texto.nyx.compiler.otimizacao.NivelOtimizacao;
+import com.editor_texto.nyx.domain.pipeline.ContextoCompilacao;
+import com.editor_texto.nyx.domain.pipeline.PassoGeracaoCodigo;
+import com.editor_texto.nyx.domain.pipeline.PassoLexico;
+import com.editor_texto.nyx.domain.pipeline.PassoLigacao;
+import com.editor_texto.nyx.domain.pipeline.PassoMontagem;
+import com.editor_texto.nyx.domain.pipeline.PassoSemantico;
+import com.editor_texto.nyx.domain.pipeline.PassoSintatico;
+import com.editor_texto.nyx.domain.pipeline.Pipeline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class GeradorAssemblyLinuxTest {
+
+    // Comparações com lado direito composto e com variável byte: o operando
+    // emite instruções próprias antes do cmp.
+    private static final String COMPARACOES = """
+            int a;
+            int i;
+            int n;
+            int s;
+            byte b;
+            begin
+              a = 3;
+              n = 4;
+              b = 0h05;
+              i = 0;
+              s = 0;
+              while i < n + 2 begin
+                if i * 2 > a + 1 begin
+                  s = s + 10;
+                end
+                if i >= b begin
+                  s = s + 100;
+                end
+                s = s + 1;
+                i = i + 1;
+              end
+              writeln, "s=", s;
+            end
+            """;
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    public void testComparacaoComLadoDireitoCompostoEByteSemOtimizacao() throws Exception {
+        assertEquals("s=136", compilarEExecutar(COMPARACOES, "-O0"));
+    }
+
+    @Test
+    public void testComparacaoComLadoDireitoCompostoEByteOtimizado() throws Exception {
+        assertEquals("s=136", compilarEExecutar(COMPARACOES, "-O2"));
+    }
+
+    private String compilarEExecutar(String fonte, String nivel) throws Exception {
+        assumeTrue(disponivel("as") && disponivel("ld"), "as/ld não encontrados");
+
+        ContextoCompilacao contexto = new ContextoCompilacao(fonte, pasta);
+        contexto.setPlataforma(Plataforma.LINUX);
+        contexto.setNivelOtimizacao(NivelOtimizacao.converter(nivel));
+        Pipeline pipeline = new Pipeline();
+        pipeline.adicionarPasso(new PassoLexico());
+        pipeline.adicionarPasso(new PassoSintatico());
+        pipeline.adicionarPasso(new PassoSemantico());
+        pipeline.adicionarPasso(new PassoGeracaoCodigo("prog"));
+        pipeline.adicionarPasso(new PassoMontagem());
+        pipeline.adicionarPasso(new PassoLigacao());
+        pipeline.executar(contexto);
+
+        assertTrue(contexto.getErros().isEmpty(), () -> "Erros: " + contexto.getErros());
+        assertTrue(contexto.getResultadoMontador().obterSucesso(),
+                () -> "Montagem falhou: " + contexto.getResultadoMontador().obterErro());
+        Path executavel = pasta.resolve("prog");
+        assertTrue(Files.exists(executavel), "Executável não gerado");
+
+        Process processo = new ProcessBuilder(executavel.toString()).redirectErrorStream(true).start();
+        processo.getOutputStream().close();
+        String saida = new String(processo.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(processo.waitFor(10, TimeUnit.SECONDS), "Programa não terminou");
+        return saida.strip();
+    }
+
+    private static boolean disponivel(String ferramenta) {
+        if (!System.getProperty("os.name", "").toLowerCase().contains("linux")) {
+            return false;
+        }
+        try {
+            Process processo = new ProcessBuilder(ferramenta, "--version").redirectErrorStream(true).start();
+            processo.getInputStream().readAllBytes();
+            return processo.waitFor(10, TimeUnit.SECONDS) && processo.exitValue() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
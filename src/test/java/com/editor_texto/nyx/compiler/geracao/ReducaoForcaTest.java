@@ -0,0 +1,111 @@
+package com.editor_texto.nyx.compiler.geracao;
+
+import com.editor_texto.nyx.compiler.emulador.EmuladorX86;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Roda as sequências de ReducaoForca no EmuladorX86 e compara cada resultado
+ * com o de imul/idiv sobre o mesmo valor.
+ */
+public class ReducaoForcaTest {
+
+    private static final int[] DIVISORES = { 1, 2, -2, 4, -4, 8, 1 << 16, -(1 << 16), 1 << 30, -(1 << 30), 3, -3,
+            5, 6, 7, -7, 10, 25, 100, 125, 641, -641, 1000, Integer.MAX_VALUE, -Integer.MAX_VALUE };
+    private static final int[] FATORES = { 0, 1, -1, 2, -2, 3, 5, 6, 7, 9, 10, 15, 17, 24, 25, 31, 33, 45, 100,
+            641, -641, 1 << 20, Integer.MAX_VALUE, Integer.MIN_VALUE };
+
+    @Test
+    public void testDivisaoIgualAoIdiv() {
+        for (int divisor : DIVISORES) {
+            List<String> sequencia = ReducaoForca.dividir(divisor);
+            List<String> idiv = List.of("mov ecx, " + divisor, "cdq", "idiv ecx");
+            for (int dividendo : valores()) {
+                if (dividendo == Integer.MIN_VALUE && divisor == -1) {
+                    continue;
+                }
+                assertEquals(executar(dividendo, idiv), executar(dividendo, sequencia),
+                        dividendo + " / " + divisor + ": " + sequencia);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiplicacaoIgualAoImul() {
+        for (int fator : FATORES) {
+            List<String> sequencia = ReducaoForca.multiplicar(fator);
+            List<String> imul = List.of("imul eax, eax, " + fator);
+            for (int valor : valores()) {
+                assertEquals(executar(valor, imul), executar(valor, sequencia), valor + " * " + fator + ": " + sequencia);
+            }
+        }
+    }
+
+    @Test
+    public void testDivisoresQueFalhamFicamComIdiv() {
+        assertNull(ReducaoForca.dividir(0));
+        assertNull(ReducaoForca.dividir(Integer.MIN_VALUE));
+        // Integer.MIN_VALUE / -1 estoura no idiv; 'neg' não estouraria.
+        assertNull(ReducaoForca.dividir(-1));
+        assertThrows(ArithmeticException.class,
+                () -> executar(Integer.MIN_VALUE, List.of("mov ecx, -1", "cdq", "idiv ecx")));
+    }
+
+    @Test
+    public void testSemDivisaoMagicaSoPotenciasDe2() {
+        for (int divisor : DIVISORES) {
+            List<String> sequencia = ReducaoForca.dividir(divisor, false);
+            if (Integer.bitCount(Math.abs(divisor)) == 1) {
+                assertEquals(ReducaoForca.dividir(divisor), sequencia);
+            } else {
+                assertNull(sequencia, Integer.toString(divisor));
+            }
+        }
+    }
+
+    @Test
+    public void testSequenciasNaoUsamIdiv() {
+        for (int divisor : DIVISORES) {
+            for (String instrucao : ReducaoForca.dividir(divisor)) {
+                assertFalse(instrucao.startsWith("idiv"), divisor + ": " + instrucao);
+            }
+        }
+    }
+
+    // Bordas, vizinhanças de potências de 2 e alguns valores aleatórios fixos.
+    private static List<Integer> valores() {
+        List<Integer> valores = new ArrayList<>(List.of(0, 1, -1, 2, -2, 3, -3, 6, -6, 7, -7, 100, -100, 641, -641,
+                12345, -12345, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1));
+        for (int k = 4; k < 31; k += 9) {
+            valores.add((1 << k) - 1);
+            valores.add(-(1 << k) + 1);
+        }
+        Random aleatorio = new Random(42);
+        for (int i = 0; i < 8; i++) {
+            valores.add(aleatorio.nextInt());
+        }
+        return valores;
+    }
+
+    // eax recebe 'valor', a sequência roda e o eax final é o resultado.
+    private static int executar(int valor, List<String> sequencia) {
+        StringBuilder codigo = new StringBuilder(".686\n.model flat, stdcall\n.code\nstart:\n");
+        codigo.append("    mov eax, ").append(valor).append('\n');
+        for (String instrucao : sequencia) {
+            codigo.append("    ").append(instrucao).append('\n');
+        }
+        codigo.append("end start\n");
+        return EmuladorX86.ler(codigo.toString())
+                .executar(new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream()).getCodigoSaida();
+    }
+}
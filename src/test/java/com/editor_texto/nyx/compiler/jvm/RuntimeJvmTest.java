@@ -0,0 +1,37 @@
+package com.editor_texto.nyx.compiler.jvm;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RuntimeJvmTest {
+
+    private final RuntimeJvm runtime = new RuntimeJvm(new ByteArrayInputStream(new byte[0]),
+            new ByteArrayOutputStream());
+
+    @Test
+    public void testDividirTruncaComoIdiv() {
+        assertEquals(-2, runtime.dividir(-7, 3, 1));
+        assertEquals(2, runtime.dividir(-7, -3, 1));
+        assertEquals(Integer.MAX_VALUE, runtime.dividir(-Integer.MAX_VALUE, -1, 1));
+        assertEquals(Integer.MIN_VALUE, runtime.dividir(Integer.MIN_VALUE, 1, 1));
+    }
+
+    @Test
+    public void testDividirPorZeroFalhaComALinha() {
+        ArithmeticException erro = assertThrows(ArithmeticException.class, () -> runtime.dividir(5, 0, 7));
+        assertTrue(erro.getMessage().contains("linha 7"));
+    }
+
+    @Test
+    public void testEstouroDaDivisaoFalhaComoIdiv() {
+        ArithmeticException erro = assertThrows(ArithmeticException.class,
+                () -> runtime.dividir(Integer.MIN_VALUE, -1, 3));
+        assertTrue(erro.getMessage().contains("linha 3"));
+    }
+}
@@ -0,0 +1,245 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import com.editor_texto.nyx.compiler.emulador.EmuladorX86;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O EscalonadorInstrucoes adianta cargas independentes, mas nunca move uma
+ * instrução através de uma dependência de flags, memória ou pilha.
+ */
+public class EscalonadorInstrucoesTest {
+
+    private static final String[] REGISTRADORES = { "eax", "ebx", "ecx", "edx" };
+    private static final String[] BYTES = { "al", "bl", "cl", "dl" };
+    private static final String[] VARIAVEIS = { "x", "y", "z" };
+
+    @Test
+    public void testAdiantaCargaIndependente() {
+        assertEquals(List.of("mov eax, x", "mov ebx, y", "add eax, 1", "add ebx, 2"),
+                escalonar("mov eax, x", "add eax, 1", "mov ebx, y", "add ebx, 2"));
+    }
+
+    @Test
+    public void testFlagsSobrescritasMantemAOrdem() {
+        // 'sub edx, 1' não usa eax, mas também escreve as flags.
+        assertEquals(List.of("mov eax, x", "mov ebx, y", "add eax, 1", "sub edx, 1"),
+                escalonar("mov eax, x", "add eax, 1", "sub edx, 1", "mov ebx, y"));
+    }
+
+    @Test
+    public void testLeituraDeFlagsFicaAposOProdutor() {
+        // adc lê o carry de 'add eax, 1'; setl lê as flags de cmp.
+        List<String> resultado = escalonar("mov eax, x", "add eax, 1", "adc edx, 0", "mov ebx, y",
+                "cmp ebx, ecx", "setl cl");
+        assertAntes(resultado, "add eax, 1", "adc edx, 0");
+        assertAntes(resultado, "adc edx, 0", "cmp ebx, ecx");
+        assertAntes(resultado, "cmp ebx, ecx", "setl cl");
+    }
+
+    @Test
+    public void testCargaNaoPassaAntesDaGravacaoNaMesmaVariavel() {
+        List<String> resultado = escalonar("mov eax, y", "add eax, 1", "mov x, eax", "mov ebx, x", "add ebx, 2");
+        assertAntes(resultado, "mov x, eax", "mov ebx, x");
+    }
+
+    @Test
+    public void testGravacaoNaoPassaAntesDaLeituraDaMesmaVariavel() {
+        List<String> resultado = escalonar("mov eax, y", "imul eax, eax", "add ecx, x", "mov x, edx");
+        assertAntes(resultado, "add ecx, x", "mov x, edx");
+    }
+
+    @Test
+    public void testEnderecoCalculadoConflitaComQualquerVariavel() {
+        List<String> resultado = escalonar("mov eax, x", "add eax, 1", "mov [esi], ecx", "mov ebx, y", "add ebx, 2");
+        assertAntes(resultado, "mov eax, x", "mov [esi], ecx");
+        assertAntes(resultado, "mov [esi], ecx", "mov ebx, y");
+    }
+
+    @Test
+    public void testVariaveisDistintasSaoIndependentes() {
+        assertEquals(List.of("mov eax, x", "mov ebx, y", "mov z, ecx", "add eax, 1", "add ebx, 2"),
+                escalonar("mov eax, x", "add eax, 1", "mov z, ecx", "mov ebx, y", "add ebx, 2"));
+    }
+
+    @Test
+    public void testPilhaMantemAOrdem() {
+        // push grava na pilha, que [esp] e [ebp-4] podem alcançar.
+        List<String> resultado = escalonar("mov eax, x", "add eax, 1", "push ecx", "mov ebx, [ebp-4]",
+                "add ebx, 2");
+        assertAntes(resultado, "push ecx", "mov ebx, [ebp-4]");
+
+        resultado = escalonar("mov eax, x", "add eax, 1", "push ecx", "pop edx", "mov ebx, [esp]", "add ebx, 2");
+        assertAntes(resultado, "push ecx", "pop edx");
+        assertAntes(resultado, "pop edx", "mov ebx, [esp]");
+
+        // pop lê a pilha: uma gravação por endereço calculado não passa antes.
+        resultado = escalonar("pop eax", "add eax, 1", "mov [ebx], ecx", "mov edx, 3");
+        assertAntes(resultado, "pop eax", "mov [ebx], ecx");
+    }
+
+    @Test
+    public void testChamadaEBarreira() {
+        List<Instrucao> codigo = ler("mov eax, x", "add eax, 1", "invoke ExitProcess, 0", "mov ebx, y",
+                "add ebx, 2", "mov ecx, z");
+        List<String> antes = textos(codigo);
+        new EscalonadorInstrucoes().otimizar(codigo, new EstatisticasPeephole());
+        List<String> depois = textos(codigo);
+        assertEquals(antes.indexOf("invoke ExitProcess, 0"), depois.indexOf("invoke ExitProcess, 0"));
+        assertEquals(antes.subList(0, 2), depois.subList(0, 2));
+    }
+
+    @Test
+    public void testNaoAtravessaRotulosESaltos() {
+        List<Instrucao> codigo = ler("mov eax, x", "cmp eax, 0", "je L1", "mov ebx, y", "add ebx, 1",
+                "L1:", "mov ecx, z", "add ecx, 1", "ret");
+        List<String> antes = textos(codigo);
+        new EscalonadorInstrucoes().otimizar(codigo, new EstatisticasPeephole());
+        assertEquals(antes, textos(codigo));
+    }
+
+    /**
+     * Blocos aleatórios sobre registradores, variáveis, flags e pilha: a ordem
+     * escalonada precisa deixar registradores, memória, flags e pilha iguais
+     * aos da ordem original.
+     */
+    @Test
+    public void testBlocosAleatoriosPreservamOEstado() {
+        Random aleatorio = new Random(20240611L);
+        EscalonadorInstrucoes escalonador = new EscalonadorInstrucoes();
+        int reordenados = 0;
+        for (int caso = 0; caso < 400; caso++) {
+            int[] profundidade = new int[1];
+            List<String> bloco = new ArrayList<>();
+            int tamanho = 4 + aleatorio.nextInt(9);
+            for (int i = 0; i < tamanho; i++) {
+                bloco.add(sortear(aleatorio, profundidade));
+            }
+            List<Instrucao> trecho = filtrar(ler(bloco.toArray(new String[0])));
+            List<String> escalonado = new ArrayList<>();
+            for (Instrucao instrucao : escalonador.escalonar(trecho)) {
+                escalonado.add(instrucao.toString().trim());
+            }
+            if (!escalonado.equals(bloco)) {
+                reordenados++;
+            }
+            assertEquals(executar(bloco, profundidade[0]), executar(escalonado, profundidade[0]),
+                    bloco + " -> " + escalonado);
+        }
+        assertTrue(reordenados > 50, "poucos blocos reordenados: " + reordenados);
+    }
+
+    private static String sortear(Random aleatorio, int[] profundidade) {
+        String r = REGISTRADORES[aleatorio.nextInt(REGISTRADORES.length)];
+        String s = REGISTRADORES[aleatorio.nextInt(REGISTRADORES.length)];
+        String v = VARIAVEIS[aleatorio.nextInt(VARIAVEIS.length)];
+        int k = aleatorio.nextInt(7) - 3;
+        switch (aleatorio.nextInt(17)) {
+            case 0: return "mov " + r + ", " + k;
+            case 1: return "mov " + r + ", " + s;
+            case 2: case 3: return "mov " + r + ", " + v;
+            case 4: return "mov " + v + ", " + r;
+            case 5: return "add " + r + ", " + s;
+            case 6: return "add " + r + ", " + v;
+            case 7: return "add " + v + ", " + r;
+            case 8: return "imul " + r + ", " + s;
+            case 9: return "cmp " + r + ", " + s;
+            case 10: return "adc " + r + ", " + k;
+            case 11: return "set" + (aleatorio.nextBoolean() ? "l " : "c ") + BYTES[aleatorio.nextInt(BYTES.length)];
+            case 12: return "shl " + r + ", 1";
+            case 13: return "lea " + r + ", [" + s + "+" + r + "*2]";
+            case 14:
+                profundidade[0]++;
+                return "push " + r;
+            default:
+                if (profundidade[0] == 0) {
+                    return "sub " + r + ", " + k;
+                }
+                if (aleatorio.nextBoolean()) {
+                    return "mov " + r + ", [esp]";
+                }
+                profundidade[0]--;
+                return "pop " + r;
+        }
+    }
+
+    // Roda o bloco e resume o estado final (registradores, variáveis, CF, ZF,
+    // SF e o que ficou na pilha) no código de saída.
+    private static int executar(List<String> bloco, int profundidade) {
+        StringBuilder codigo = new StringBuilder(".686\n.model flat, stdcall\n.data\n");
+        codigo.append("x dd 7\ny dd -5\nz dd 11\n.code\nstart:\n");
+        codigo.append("    mov eax, 3\n    mov ebx, -8\n    mov ecx, 1000\n    mov edx, 42\n    cmp eax, ebx\n");
+        for (String linha : bloco) {
+            codigo.append("    ").append(linha).append('\n');
+        }
+        String[] resumo = { "push eax", "mov eax, 0", "setc al", "mov esi, eax", "mov eax, 0", "setz al",
+                "shl eax, 1", "add esi, eax", "mov eax, 0", "sets al", "shl eax, 2", "add esi, eax", "pop eax" };
+        for (String linha : resumo) {
+            codigo.append("    ").append(linha).append('\n');
+        }
+        for (int i = 0; i < profundidade; i++) {
+            codigo.append("    pop edi\n    imul esi, 31\n    add esi, edi\n");
+        }
+        for (String valor : new String[] { "ebx", "ecx", "edx", "x", "y", "z", "esi" }) {
+            codigo.append("    imul eax, 31\n    add eax, ").append(valor).append('\n');
+        }
+        codigo.append("end start\n");
+        return EmuladorX86.ler(codigo.toString())
+                .executar(new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream()).getCodigoSaida();
+    }
+
+    private static void assertAntes(List<String> resultado, String primeira, String segunda) {
+        int i = resultado.indexOf(primeira);
+        int j = resultado.indexOf(segunda);
+        assertTrue(i >= 0 && j >= 0, resultado.toString());
+        assertTrue(i < j, "'" + primeira + "' deveria vir antes de '" + segunda + "': " + resultado);
+    }
+
+    private static List<String> escalonar(String... linhas) {
+        List<String> resultado = new ArrayList<>();
+        for (Instrucao instrucao : new EscalonadorInstrucoes().escalonar(filtrar(ler(linhas)))) {
+            resultado.add(instrucao.toString().trim());
+        }
+        assertEquals(linhas.length, resultado.size());
+        return resultado;
+    }
+
+    private static List<Instrucao> ler(String... linhas) {
+        List<String> texto = new ArrayList<>(List.of(".data", "x dd 0", "y dd 0", "z dd 0", ".code", "start:"));
+        for (String linha : linhas) {
+            texto.add(linha.endsWith(":") ? linha : "    " + linha);
+        }
+        texto.add("end start");
+        return new LeitorAssembly().ler(texto);
+    }
+
+    private static List<Instrucao> filtrar(List<Instrucao> codigo) {
+        List<Instrucao> resultado = new ArrayList<>();
+        for (Instrucao instrucao : codigo) {
+            if (instrucao.isInstrucao()) {
+                resultado.add(instrucao);
+            }
+        }
+        return resultado;
+    }
+
+    private static List<String> textos(List<Instrucao> codigo) {
+        List<String> resultado = new ArrayList<>();
+        for (Instrucao instrucao : codigo) {
+            if (instrucao.isInstrucao() || instrucao.isRotulo()) {
+                resultado.add(instrucao.toString().trim());
+            }
+        }
+        assertFalse(resultado.isEmpty());
+        return resultado;
+    }
+}
@@ -0,0 +1,172 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Casamento das regras do MotorPeephole e as condições '| morto' sobre
+ * registradores e flags.
+ */
+public class MotorPeepholeTest {
+
+    @Test
+    public void testRegraSemSubstituicaoRemoveALinha() {
+        List<String> resultado = otimizar("soma-zero: add $r, 0 =>",
+                "mov eax, 5", "add eax, 0", "add eax, 1");
+        assertEquals(List.of("mov eax, 5", "add eax, 1"), resultado);
+    }
+
+    @Test
+    public void testVariavelRepetidaPrecisaCasarOMesmoOperando() {
+        String regra = "mov-ida-e-volta: mov $a, $b ; mov $b, $a => mov $a, $b";
+        assertEquals(List.of("mov eax, ebx"), otimizar(regra, "mov eax, ebx", "mov ebx, eax"));
+        assertEquals(List.of("mov eax, ebx", "mov ecx, eax"), otimizar(regra, "mov eax, ebx", "mov ecx, eax"));
+    }
+
+    @Test
+    public void testRestricaoDeTipo() {
+        String regra = "push-pop: push $x ; pop $r:reg => mov $r, $x";
+        assertEquals(List.of("mov eax, 7"), otimizar(regra, "push 7", "pop eax"));
+        // O destino é memória: $r:reg não casa.
+        assertEquals(List.of("push 7", "pop [ebp-4]"), otimizar(regra, "push 7", "pop [ebp-4]"));
+
+        String imediato = "mov-zero: mov $r:reg, $x:imm => xor $r, $r";
+        assertEquals(List.of("xor eax, eax"), otimizar(imediato, "mov eax, 0"));
+        assertEquals(List.of("mov eax, ebx"), otimizar(imediato, "mov eax, ebx"));
+    }
+
+    @Test
+    public void testVariavelDeclaradaNaSecaoDeDados() {
+        String regra = "carga-repetida: mov $a:var, eax ; mov eax, $a => mov $a, eax";
+        List<Instrucao> codigo = new LeitorAssembly().ler(List.of(".data", "x dd 0", ".code",
+                "    mov x, eax", "    mov eax, x", "    mov y, eax", "    mov eax, y"));
+        new MotorPeephole(CarregadorRegras.carregar(regra)).otimizar(codigo);
+        // 'y' não foi declarada: é classificada como rótulo e $a:var não casa.
+        assertEquals(List.of("mov x, eax", "mov y, eax", "mov eax, y"), textos(codigo));
+    }
+
+    @Test
+    public void testRotuloDoPadrao() {
+        String regra = "salto-proxima-linha: jmp $l ; $l: => $l:";
+        assertEquals(List.of("L1:", "ret"), otimizar(regra, "jmp L1", "L1:", "ret"));
+        assertEquals(List.of("jmp L2", "L1:", "ret"), otimizar(regra, "jmp L2", "L1:", "ret"));
+    }
+
+    @Test
+    public void testRegistradorMorto() {
+        String regra = "copia: mov eax, $x ; mov ebx, eax => mov ebx, $x | morto eax";
+        // eax é redefinido antes de ser lido.
+        assertEquals(List.of("mov ebx, 3", "mov eax, 1", "add ebx, eax"),
+                otimizar(regra, "mov eax, 3", "mov ebx, eax", "mov eax, 1", "add ebx, eax"));
+        // eax é lido depois das linhas casadas.
+        assertEquals(List.of("mov eax, 3", "mov ebx, eax", "add ebx, eax"),
+                otimizar(regra, "mov eax, 3", "mov ebx, eax", "add ebx, eax"));
+        // Leitura implícita: idiv lê edx:eax.
+        assertEquals(List.of("mov eax, 3", "mov ebx, eax", "cdq", "idiv ebx"),
+                otimizar(regra, "mov eax, 3", "mov ebx, eax", "cdq", "idiv ebx"));
+        // eax pode levar valor para outro bloco: continua vivo em saltos e rótulos.
+        assertEquals(List.of("mov eax, 3", "mov ebx, eax", "jmp L1"),
+                otimizar(regra, "mov eax, 3", "mov ebx, eax", "jmp L1"));
+    }
+
+    @Test
+    public void testTemporarioMortoNoFimDoBloco() {
+        String regra = "copia: mov ecx, $x ; mov eax, ecx => mov eax, $x | morto ecx";
+        // ecx é temporário de uma única expressão: morre no salto.
+        assertEquals(List.of("mov eax, 3", "jmp L1"), otimizar(regra, "mov ecx, 3", "mov eax, ecx", "jmp L1"));
+        // ...mas não se for lido antes dele.
+        assertEquals(List.of("mov ecx, 3", "mov eax, ecx", "push ecx", "jmp L1"),
+                otimizar(regra, "mov ecx, 3", "mov eax, ecx", "push ecx", "jmp L1"));
+    }
+
+    @Test
+    public void testFlagsMortas() {
+        String regra = "incremento: add eax, 1 => inc eax | morto flags";
+        // cmp redefine as flags antes do desvio.
+        assertEquals(List.of("inc eax", "cmp eax, 10", "jl L1"),
+                otimizar(regra, "add eax, 1", "cmp eax, 10", "jl L1"));
+        // O desvio lê o carry produzido por add (inc não o altera).
+        assertEquals(List.of("add eax, 1", "jc L1"), otimizar(regra, "add eax, 1", "jc L1"));
+        // adc lê as flags.
+        assertEquals(List.of("add eax, 1", "adc ebx, 0"), otimizar(regra, "add eax, 1", "adc ebx, 0"));
+        // inc não redefine todas as flags: o desvio depois dele ainda conta.
+        assertEquals(List.of("add eax, 1", "inc ebx", "jc L1"),
+                otimizar(regra, "add eax, 1", "inc ebx", "jc L1"));
+        // Um rótulo pode ser destino de um desvio que testa as flags.
+        assertEquals(List.of("add eax, 1", "L1:", "xor ebx, ebx"),
+                otimizar(regra, "add eax, 1", "L1:", "xor ebx, ebx"));
+    }
+
+    @Test
+    public void testRegraMaiorQueAJanelaFicaDeFora() {
+        List<RegraPeephole> regras = CarregadorRegras.carregar(
+                "tres: mov eax, 1 ; mov eax, 2 ; mov eax, 3 => mov eax, 3");
+        assertEquals(1, new MotorPeephole(regras).getRegras().size());
+        assertEquals(0, new MotorPeephole(regras, 2).getRegras().size());
+    }
+
+    @Test
+    public void testPontoFixo() {
+        // Cada remoção aproxima um novo par push/pop.
+        List<Instrucao> codigo = ler("push eax", "push ebx", "pop ebx", "pop eax", "ret");
+        EstatisticasPeephole estatisticas = new MotorPeephole(
+                CarregadorRegras.carregar("push-pop-mesmo: push $r:reg ; pop $r =>")).otimizar(codigo);
+        assertEquals(List.of("ret"), textos(codigo));
+        assertEquals(2, estatisticas.getTotalAplicacoes());
+        assertEquals(4, estatisticas.getInstrucoesRemovidas());
+    }
+
+    @Test
+    public void testDiretivaEncerraAJanela() {
+        List<Instrucao> codigo = ler("push eax");
+        codigo.add(Instrucao.diretiva("end start"));
+        codigo.add(Instrucao.instrucao("pop", new Operando(TipoOperando.REGISTRADOR, "eax")));
+        new MotorPeephole(CarregadorRegras.carregar("push-pop-mesmo: push $r:reg ; pop $r =>")).otimizar(codigo);
+        assertEquals(List.of("push eax", "pop eax"), textos(codigo));
+    }
+
+    @Test
+    public void testRegraInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> CarregadorRegras.carregar("sem-seta: add eax, 0"));
+        assertThrows(IllegalArgumentException.class, () -> CarregadorRegras.carregar("livre: nop => mov eax, $x"));
+    }
+
+    @Test
+    public void testRegrasPadraoPreservamOCodigoSemPadrao() {
+        List<String> linhas = List.of("mov eax, 5", "cmp eax, ebx", "jl L1", "L1:", "ret");
+        List<Instrucao> codigo = ler(linhas.toArray(new String[0]));
+        new MotorPeephole(CarregadorRegras.carregarPadrao()).otimizar(codigo);
+        assertEquals(linhas, textos(codigo));
+    }
+
+    private static List<String> otimizar(String regras, String... linhas) {
+        List<Instrucao> codigo = ler(linhas);
+        new MotorPeephole(CarregadorRegras.carregar(regras)).otimizar(codigo);
+        return textos(codigo);
+    }
+
+    static List<Instrucao> ler(String... linhas) {
+        List<String> texto = new ArrayList<>();
+        texto.add(".code");
+        for (String linha : linhas) {
+            texto.add(linha.endsWith(":") ? linha : "    " + linha);
+        }
+        return new LeitorAssembly().ler(texto);
+    }
+
+    // Textos das linhas de código, sem a diretiva inicial e as linhas vazias.
+    static List<String> textos(List<Instrucao> codigo) {
+        List<String> resultado = new ArrayList<>();
+        for (Instrucao instrucao : codigo) {
+            if (instrucao.isInstrucao() || instrucao.isRotulo()) {
+                resultado.add(instrucao.toString().trim());
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,168 @@
+package com.editor_texto.nyx.compiler.peephole;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Encadeamento e inversão de desvios e remoção de blocos inalcançáveis e
+ * rótulos sem uso pelo OtimizadorSaltos.
+ */
+public class OtimizadorSaltosTest {
+
+    @Test
+    public void testSaltoParaSaltoVaiDiretoAoDestino() {
+        EstatisticasPeephole estatisticas = new EstatisticasPeephole();
+        List<String> resultado = otimizar(estatisticas,
+                "cmp eax, 0", "je L1", "mov eax, 1", "ret",
+                "L1:", "jmp L2",
+                "L3:", "mov eax, 3", "ret",
+                "L2:", "mov eax, 2", "ret");
+        assertEquals(List.of("start:", "cmp eax, 0", "je L2", "mov eax, 1", "ret",
+                "L2:", "mov eax, 2", "ret"), resultado);
+        assertTrue(estatisticas.getAplicacoes().containsKey("salto-encadeado"));
+    }
+
+    @Test
+    public void testRotulosConsecutivosViramUm() {
+        List<String> resultado = otimizar(new EstatisticasPeephole(),
+                "cmp eax, 0", "jne L2", "ret",
+                "L5:", "mov eax, 5", "jmp L1",
+                "L1:",
+                "L2:", "mov eax, 2", "ret");
+        // L1 e L2 marcam o mesmo bloco: o desvio passa a usar o primeiro e L2
+        // fica sem uso. L5 era inalcançável e leva junto a referência a L1.
+        assertEquals(List.of("start:", "cmp eax, 0", "jne L1", "ret", "L1:", "mov eax, 2", "ret"), resultado);
+    }
+
+    @Test
+    public void testEncadeamentoAtravessaBlocoQueSoCai() {
+        List<String> resultado = otimizar(new EstatisticasPeephole(),
+                "cmp eax, 0", "je L1", "ret",
+                "L1:", "jmp L2",
+                "L2:", "mov eax, 2", "ret");
+        // 'jmp L2' é redundante; L1 fica vazio e cai em L2, então o desvio vai
+        // direto para L2.
+        assertEquals(List.of("start:", "cmp eax, 0", "je L2", "ret", "L2:", "mov eax, 2", "ret"), resultado);
+    }
+
+    @Test
+    public void testCicloDeSaltosVaziosTermina() {
+        List<String> resultado = otimizar(new EstatisticasPeephole(),
+                "cmp eax, 0", "je L1", "ret",
+                "L1:", "jmp L2",
+                "L2:", "jmp L1");
+        assertEquals("start:", resultado.get(0));
+        assertTrue(resultado.contains("je L1") || resultado.contains("je L2"), resultado.toString());
+    }
+
+    @Test
+    public void testInversaoDeDesvioSobreSalto() {
+        EstatisticasPeephole estatisticas = new EstatisticasPeephole();
+        List<String> resultado = otimizar(estatisticas,
+                "cmp eax, 0", "jl L1", "jmp L2",
+                "L1:", "mov eax, 1", "ret",
+                "L2:", "mov eax, 2", "ret");
+        assertEquals(List.of("start:", "cmp eax, 0", "jge L2", "mov eax, 1", "ret",
+                "L2:", "mov eax, 2", "ret"), resultado);
+        assertEquals(1, estatisticas.getAplicacoes().get("desvio-invertido"));
+    }
+
+    @Test
+    public void testSemInversaoQuandoODesvioNaoPulaOSalto() {
+        List<String> linhas = List.of("cmp eax, 0", "jl L2", "jmp L1",
+                "L1:", "mov eax, 1", "ret",
+                "L2:", "mov eax, 2", "ret");
+        List<String> resultado = otimizar(new EstatisticasPeephole(), linhas.toArray(new String[0]));
+        // 'jmp L1' é só redundante; o desvio condicional fica como estava.
+        assertEquals(List.of("start:", "cmp eax, 0", "jl L2", "mov eax, 1", "ret",
+                "L2:", "mov eax, 2", "ret"), resultado);
+    }
+
+    @Test
+    public void testSaltoParaALinhaSeguinte() {
+        EstatisticasPeephole estatisticas = new EstatisticasPeephole();
+        List<String> resultado = otimizar(estatisticas, "mov eax, 1", "jmp L1", "L1:", "ret");
+        assertEquals(List.of("start:", "mov eax, 1", "ret"), resultado);
+        assertEquals(1, estatisticas.getAplicacoes().get("salto-redundante"));
+        assertEquals(1, estatisticas.getAplicacoes().get("rotulo-sem-uso"));
+    }
+
+    @Test
+    public void testRemoveBlocosInalcancaveis() {
+        EstatisticasPeephole estatisticas = new EstatisticasPeephole();
+        List<String> resultado = otimizar(estatisticas,
+                "mov eax, 1", "ret",
+                "mov eax, 2",
+                "L1:", "mov eax, 3", "jmp L2",
+                "L2:", "mov eax, 4", "ret");
+        // L1 só era referenciado a partir de código morto; L2 só pelo salto
+        // de L1, que também é removido.
+        assertEquals(List.of("start:", "mov eax, 1", "ret"), resultado);
+        assertTrue(estatisticas.getAplicacoes().get("bloco-inalcancavel") >= 2);
+    }
+
+    @Test
+    public void testMantemBlocosAlcancaveisERotulosExternos() {
+        List<String> linhas = List.of("cmp eax, 0", "je L1", "mov eax, 1", "ret",
+                "L1:", "mov eax, 2", "ret");
+        List<String> resultado = otimizar(new EstatisticasPeephole(), linhas.toArray(new String[0]));
+        List<String> esperado = new ArrayList<>();
+        esperado.add("start:");
+        esperado.addAll(linhas);
+        assertEquals(esperado, resultado);
+    }
+
+    @Test
+    public void testLacoMantemDesvioParaTras() {
+        List<String> linhas = List.of("mov ecx, 10",
+                "L1:", "dec ecx", "cmp ecx, 0", "jne L1", "ret");
+        List<String> resultado = otimizar(new EstatisticasPeephole(), linhas.toArray(new String[0]));
+        List<String> esperado = new ArrayList<>();
+        esperado.add("start:");
+        esperado.addAll(linhas);
+        assertEquals(esperado, resultado);
+    }
+
+    @Test
+    public void testSaltoIndiretoNaoEAlterado() {
+        List<Instrucao> codigo = ler("jmp eax", "L1:", "ret");
+        List<String> antes = textos(codigo);
+        assertFalse(new OtimizadorSaltos().otimizar(codigo, new EstatisticasPeephole()));
+        assertEquals(antes, textos(codigo));
+    }
+
+    private static List<String> otimizar(EstatisticasPeephole estatisticas, String... linhas) {
+        List<Instrucao> codigo = ler(linhas);
+        new OtimizadorSaltos().otimizar(codigo, estatisticas);
+        assertEquals("end start", codigo.get(codigo.size() - 1).toString().trim());
+        return textos(codigo);
+    }
+
+    // Código entre '.code' e 'end start', com o ponto de entrada 'start'.
+    private static List<Instrucao> ler(String... linhas) {
+        List<String> texto = new ArrayList<>();
+        texto.add(".code");
+        texto.add("start:");
+        for (String linha : linhas) {
+            texto.add(linha.endsWith(":") ? linha : "    " + linha);
+        }
+        texto.add("end start");
+        return new LeitorAssembly().ler(texto);
+    }
+
+    private static List<String> textos(List<Instrucao> codigo) {
+        List<String> resultado = new ArrayList<>();
+        for (Instrucao instrucao : codigo) {
+            if (instrucao.isInstrucao() || instrucao.isRotulo()) {
+                resultado.add(instrucao.toString().trim());
+            }
+        }
+        return resultado;
+    }
+}
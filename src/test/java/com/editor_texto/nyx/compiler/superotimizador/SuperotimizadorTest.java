@@ -0,0 +1,40 @@
+package com.editor_texto.nyx.compiler.superotimizador;
+
+import com.editor_texto.nyx.compiler.peephole.CarregadorRegras;
+import com.editor_texto.nyx.compiler.peephole.RegraPeephole;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Busca do Superotimizador sobre um corpus pequeno: as regras geradas são
+ * lidas pelo CarregadorRegras e exigem mortas as saídas que mudam.
+ */
+public class SuperotimizadorTest {
+
+    @Test
+    public void testGeraRegraComCondicaoDeMortos(@TempDir Path pasta) throws Exception {
+        String programa = String.join("\n", ".686", ".model flat, stdcall", ".data", "x dd 0", "y dd 0", ".code",
+                "start:",
+                "    mov eax, x", "    mov ebx, eax", "    mov eax, 1", "    add ebx, eax", "    mov y, ebx",
+                "    ret", "end start", "");
+        Files.writeString(pasta.resolve("programa.asm"), programa, StandardCharsets.UTF_8);
+        Path saida = pasta.resolve("regras.txt");
+
+        Superotimizador.main(new String[] { "-janela", "2", "-saida", saida.toString(), pasta.toString() });
+
+        String texto = Files.readString(saida, StandardCharsets.UTF_8);
+        List<RegraPeephole> regras = CarregadorRegras.carregar(texto);
+        assertFalse(regras.isEmpty(), texto);
+        // eax é redefinido logo depois: a cópia pode ler x direto, desde que
+        // eax esteja morto.
+        assertTrue(texto.contains("mov eax, $a:var ; mov ebx, eax => mov ebx, $a | morto eax"), texto);
+    }
+}
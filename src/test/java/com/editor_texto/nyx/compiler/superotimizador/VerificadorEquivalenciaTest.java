@@ -0,0 +1,102 @@
+package com.editor_texto.nyx.compiler.superotimizador;
+
+import com.editor_texto.nyx.compiler.peephole.Instrucao;
+import com.editor_texto.nyx.compiler.peephole.LeitorAssembly;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * O VerificadorEquivalencia aceita só candidatas que deixam registradores,
+ * memória e flags iguais aos da janela original, exceto as saídas
+ * dispensáveis.
+ */
+public class VerificadorEquivalenciaTest {
+
+    private static final int EAX = 1;
+    private static final int EBX = 1 << 1;
+    private static final int FLAGS = VerificadorEquivalencia.FLAGS;
+
+    @Test
+    public void testRejeitaResultadoDiferente() {
+        assertEquals(-1, verificar(List.of("add eax, 1"), List.of("add eax, 2"), 0));
+        assertEquals(-1, verificar(List.of("mov eax, ebx"), List.of("mov eax, ecx"), 0));
+        assertEquals(-1, verificar(List.of("shl eax, 1"), List.of("sar eax, 1"), FLAGS));
+    }
+
+    @Test
+    public void testRejeitaDiferencaEmPoucosValores() {
+        // As flags só diferem quando eax vale 74565, 74566 ou MIN + 74565:
+        // os testes concretos não sorteiam esses valores, mas a prova simbólica
+        // não aceita.
+        assertEquals(-1, verificar(List.of("cmp eax, 74565"), List.of("cmp eax, 74566"), 0));
+        assertEquals(FLAGS, verificar(List.of("cmp eax, 74565"), List.of("cmp eax, 74566"), FLAGS));
+    }
+
+    @Test
+    public void testRejeitaRegistradorNaoDispensavel() {
+        List<String> original = List.of("mov eax, x", "mov ebx, eax");
+        List<String> candidata = List.of("mov ebx, x");
+        assertEquals(-1, verificar(original, candidata, 0));
+        assertEquals(-1, verificar(original, candidata, EBX | FLAGS));
+        assertEquals(EAX, verificar(original, candidata, EAX));
+    }
+
+    @Test
+    public void testFlagsDispensaveis() {
+        // inc não altera o carry.
+        assertEquals(-1, verificar(List.of("add eax, 1"), List.of("inc eax"), 0));
+        assertEquals(FLAGS, verificar(List.of("add eax, 1"), List.of("inc eax"), FLAGS));
+        // lea não altera nenhuma flag.
+        assertEquals(-1, verificar(List.of("imul eax, 3"), List.of("lea eax, [eax+eax*2]"), 0));
+        assertEquals(FLAGS, verificar(List.of("imul eax, 3"), List.of("lea eax, [eax+eax*2]"), FLAGS));
+    }
+
+    @Test
+    public void testAceitaEquivalente() {
+        assertEquals(0, verificar(List.of("mov eax, ebx", "mov ebx, eax"), List.of("mov eax, ebx"), 0));
+        assertEquals(0, verificar(List.of("mov x, eax", "mov eax, x"), List.of("mov x, eax"), 0));
+        assertEquals(0, verificar(List.of("add eax, 3", "sub eax, 3", "add eax, ebx"),
+                List.of("add eax, ebx"), 0));
+    }
+
+    @Test
+    public void testVariaveisPodemSerAMesma() {
+        // Se x e y forem a mesma variável, a ordem da gravação e da leitura importa.
+        List<String> original = List.of("mov x, eax", "mov ebx, y");
+        assertEquals(-1, verificar(original, List.of("mov ebx, y", "mov x, eax"), 0));
+        assertEquals(0, verificar(original, List.of("mov x, eax", "mov ebx, y"), 0));
+        // Guardar o valor e relê-lo de outra variável só é igual se forem a mesma.
+        assertEquals(-1, verificar(List.of("mov x, eax", "mov ebx, y"), List.of("mov x, eax", "mov ebx, eax"),
+                0));
+    }
+
+    private static int verificar(List<String> original, List<String> candidata, int dispensaveis) {
+        List<String> variaveis = new ArrayList<>();
+        List<InstrucaoSubconjunto> janela = converter(original, variaveis);
+        int quantidade = variaveis.size();
+        List<InstrucaoSubconjunto> alternativa = converter(candidata, variaveis);
+        assertEquals(quantidade, variaveis.size(), "a candidata usa variáveis fora da janela");
+        return new VerificadorEquivalencia(janela, quantidade, dispensaveis).verificar(alternativa);
+    }
+
+    private static List<InstrucaoSubconjunto> converter(List<String> linhas, List<String> variaveis) {
+        List<String> texto = new ArrayList<>(List.of(".data", "x dd 0", "y dd 0", ".code"));
+        for (String linha : linhas) {
+            texto.add("    " + linha);
+        }
+        List<InstrucaoSubconjunto> resultado = new ArrayList<>();
+        for (Instrucao instrucao : new LeitorAssembly().ler(texto)) {
+            if (instrucao.isInstrucao()) {
+                InstrucaoSubconjunto convertida = InstrucaoSubconjunto.de(instrucao, variaveis);
+                assertNotNull(convertida, instrucao.toString());
+                resultado.add(convertida);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,111 @@
+package com.editor_texto.nyx.compiler.vm;
+
+import com.editor_texto.nyx.compiler.otimizacao.NivelOtimizacao;
+import com.editor_texto.nyx.domain.pipeline.ContextoCompilacao;
+import com.editor_texto.nyx.domain.pipeline.PassoGeracaoVM;
+import com.editor_texto.nyx.domain.pipeline.PassoLexico;
+import com.editor_texto.nyx.domain.pipeline.PassoSemantico;
+import com.editor_texto.nyx.domain.pipeline.PassoSintatico;
+import com.editor_texto.nyx.domain.pipeline.Pipeline;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InterpretadorVMTest {
+
+    // Laço que nunca termina: i cresce e volta a ser negativo no estouro.
+    private static final String INFINITO = """
+            int i;
+            begin
+              i = 0;
+              while i <> 0 - 1 begin
+                i = i + 2;
+              end
+            end
+            """;
+
+    @Test
+    public void testLimiteDePassosPassaNoMaximoUmaVolta() {
+        CodigoVM codigo = compilar(INFINITO);
+        for (long limite : new long[] { 1, 1000, 100_000, 200_003 }) {
+            InterpretadorVM interpretador = new InterpretadorVM(codigo, limite, 0);
+            assertEquals(InterpretadorVM.Termino.LIMITE_PASSOS, executar(interpretador, ""));
+            long passos = interpretador.getPassos();
+            assertTrue(passos >= limite && passos < limite + codigo.getTamanho(), limite + ": " + passos);
+        }
+    }
+
+    @Test
+    public void testLimiteDeTempo() {
+        InterpretadorVM interpretador = new InterpretadorVM(compilar(INFINITO), 0, 50);
+        long inicio = System.nanoTime();
+        assertEquals(InterpretadorVM.Termino.LIMITE_TEMPO, executar(interpretador, ""));
+        assertTrue(System.nanoTime() - inicio >= 50_000_000L);
+    }
+
+    @Test
+    public void testCancelarDeOutraThread() throws Exception {
+        InterpretadorVM interpretador = new InterpretadorVM(compilar(INFINITO), 0, 0);
+        AtomicReference<InterpretadorVM.Termino> termino = new AtomicReference<>();
+        Thread execucao = new Thread(() -> termino.set(executar(interpretador, "")));
+        execucao.start();
+        Thread.sleep(50);
+        interpretador.cancelar();
+        execucao.join(10_000);
+        assertEquals(InterpretadorVM.Termino.CANCELADO, termino.get());
+    }
+
+    @Test
+    public void testProgramaConcluido() {
+        CodigoVM codigo = compilar("""
+                int a;
+                begin
+                  readln, a;
+                  a = a / 2;
+                  writeln, a;
+                end
+                """);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        InterpretadorVM interpretador = new InterpretadorVM(codigo, 0, 0);
+        assertEquals(InterpretadorVM.Termino.CONCLUIDO,
+                interpretador.executar(new ByteArrayInputStream("-7\n".getBytes(StandardCharsets.UTF_8)), saida));
+        assertEquals("-3", saida.toString(StandardCharsets.UTF_8).strip());
+    }
+
+    @Test
+    public void testEstouroDaDivisaoFalhaComoIdiv() {
+        String[] programas = {
+                "int a; int b; begin readln, a; a = a - 1; b = 0 - 1; a = a / b; writeln, a; end",
+                "int a; begin readln, a; a = a - 1; a = a / (0 - 1); writeln, a; end" };
+        for (String programa : programas) {
+            InterpretadorVM interpretador = new InterpretadorVM(compilar(programa), 0, 0);
+            assertThrows(ArithmeticException.class, () -> executar(interpretador, "-2147483647\n"), programa);
+        }
+    }
+
+    private static InterpretadorVM.Termino executar(InterpretadorVM interpretador, String entrada) {
+        return interpretador.executar(new ByteArrayInputStream(entrada.getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayOutputStream());
+    }
+
+    private static CodigoVM compilar(String fonte) {
+        ContextoCompilacao contexto = new ContextoCompilacao(fonte, Path.of("."));
+        contexto.setNivelOtimizacao(NivelOtimizacao.converter("-O0"));
+        Pipeline pipeline = new Pipeline();
+        pipeline.adicionarPasso(new PassoLexico());
+        pipeline.adicionarPasso(new PassoSintatico());
+        pipeline.adicionarPasso(new PassoSemantico());
+        pipeline.adicionarPasso(new PassoGeracaoVM());
+        pipeline.executar(contexto);
+        assertTrue(contexto.getErros().isEmpty(), () -> "Erros: " + contexto.getErros());
+        return contexto.getCodigoVM();
+    }
+}